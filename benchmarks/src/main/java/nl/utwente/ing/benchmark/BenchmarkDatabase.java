@@ -0,0 +1,196 @@
+package nl.utwente.ing.benchmark;
+
+import nl.utwente.ing.dataset.DatasetGenerator;
+import nl.utwente.ing.dataset.DatasetSpec;
+import nl.utwente.ing.exception.InvalidSessionIDException;
+import nl.utwente.ing.exception.ResourceNotFoundException;
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.persistentmodel.CustomORM;
+import nl.utwente.ing.model.persistentmodel.DatabaseConnection;
+import nl.utwente.ing.model.persistentmodel.PersistentModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+/**
+ * The BenchmarkDatabase class.
+ * Creates a SQLite database in a temporary file for a benchmark using the DatasetGenerator, containing a single user
+ * with a configurable number of transactions over the two years before the database is created, and a configurable
+ * number of categories with one CategoryRule each. The history ends at the time of creation, because the balance
+ * history is computed for the intervals before the current time. Apart from the dates, the data is generated from a
+ * fixed seed, so that every benchmark run uses the same database.
+ * Since the database connection of the application is static, only one BenchmarkDatabase can be created per JVM; JMH
+ * runs every benchmark in a separate JVM, so this is not a limitation.
+ *
+ * @author Daan Kooij
+ */
+public class BenchmarkDatabase {
+
+    private static final int HISTORY_DAYS = 730;
+    private static final long HISTORY_MILLIS = HISTORY_DAYS * 24 * 60 * 60 * 1000L;
+
+    private static final long SEED = 42;
+    private static final String[] DESCRIPTIONS = {
+            "Albert Heijn", "Jumbo", "NS Reizigers", "Salary", "Rent", "Spotify", "Bol.com", "Coffee", "Gym", "Insurance"
+    };
+    private static final String[] IBANS = {
+            "NL39RABO0300065264", "NL44RABO0123456789", "NL91ABNA0417164300", "NL02ABNA0123456789",
+            "NL20INGB0001234567", "NL69INGB0123456789"
+    };
+
+    private final File file;
+    private final PersistentModel model;
+    private final CustomORM customORM;
+    private final String sessionID;
+    private final int userID;
+    private final Random random = new Random(SEED);
+    private final int transactions;
+    private final long endMillis;
+    private long nextMillis;
+
+    /**
+     * The constructor of BenchmarkDatabase.
+     * Creates the database and fills it with the transactions, categories and rules of a single user.
+     *
+     * @param transactions  The number of transactions of the user.
+     * @param categoryRules The number of categories of the user, each having one CategoryRule.
+     */
+    public BenchmarkDatabase(int transactions, int categoryRules) throws IOException, SQLException {
+        this.transactions = transactions;
+        this.endMillis = Instant.now().truncatedTo(ChronoUnit.MINUTES).toEpochMilli();
+        this.nextMillis = endMillis;
+        file = File.createTempFile("benchmark", ".db");
+        file.deleteOnExit();
+        DatabaseConnection.setUp(file.getPath());
+
+        DatasetSpec spec = new DatasetSpec();
+        spec.setSeed(SEED);
+        spec.setUsers(1);
+        spec.setTransactions(transactions);
+        spec.setEndMillis(endMillis);
+        spec.setHistoryDays(HISTORY_DAYS);
+        spec.setBackdatedRatio(0);
+        spec.setCategoriesPerUser(categoryRules);
+        spec.setRulesPerUser(categoryRules);
+        spec.setSavingGoalsPerUser(0);
+        spec.setPaymentRequestsPerUser(0);
+        sessionID = new DatasetGenerator(file.getPath(), spec).generate().get(0);
+
+        model = new PersistentModel();
+        customORM = new CustomORM(DatabaseConnection.getDatabaseConnection());
+        userID = customORM.getUserID(sessionID);
+    }
+
+    /**
+     * Method used to add a transaction dated after all existing transactions of the user.
+     */
+    public void postTransaction() throws InvalidSessionIDException, ResourceNotFoundException {
+        nextMillis += 60 * 1000;
+        postTransaction(nextMillis);
+    }
+
+    /**
+     * Method used to add a transaction dated at a random moment in the history of the user, so that the balance
+     * history after it has to be shifted.
+     */
+    public void postBackdatedTransaction() throws InvalidSessionIDException, ResourceNotFoundException {
+        postTransaction(endMillis - HISTORY_MILLIS + (long) (random.nextDouble() * HISTORY_MILLIS));
+    }
+
+    /**
+     * Method used to add a transaction at a certain moment.
+     *
+     * @param dateMillis The date in milliseconds of the transaction.
+     */
+    private void postTransaction(long dateMillis) throws InvalidSessionIDException, ResourceNotFoundException {
+        String type = random.nextInt(10) < 3 ? "deposit" : "withdrawal";
+        long amount = 100 + random.nextInt(50000);
+        model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, amount,
+                DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)], IBANS[random.nextInt(IBANS.length)], type, 0);
+    }
+
+    /**
+     * Method used to retrieve a random ID of one of the transactions the database was created with.
+     *
+     * @return A random transaction ID.
+     */
+    public long getRandomTransactionID() {
+        return 1 + random.nextInt(Math.max(transactions, 1));
+    }
+
+    /**
+     * Method used to retrieve a random moment in the history of the user.
+     *
+     * @return A random time in milliseconds between the first and the last transaction of the user.
+     */
+    public long getRandomMillis() {
+        return endMillis - HISTORY_MILLIS + (long) (random.nextDouble() * HISTORY_MILLIS);
+    }
+
+    /**
+     * Method used to retrieve a description that is used by the transactions of the user.
+     *
+     * @return A random description.
+     */
+    public String getRandomDescription() {
+        return customORM.getTransaction(userID, getRandomTransactionID()).getDescription();
+    }
+
+    /**
+     * Method used to retrieve the model operating on the database.
+     *
+     * @return The PersistentModel operating on the database.
+     */
+    public PersistentModel getModel() {
+        return model;
+    }
+
+    /**
+     * Method used to retrieve the CustomORM operating on the database.
+     *
+     * @return The CustomORM operating on the database.
+     */
+    public CustomORM getCustomORM() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the sessionID of the user.
+     *
+     * @return The sessionID of the user.
+     */
+    public String getSessionID() {
+        return sessionID;
+    }
+
+    /**
+     * Method used to retrieve the ID of the user.
+     *
+     * @return The ID of the user.
+     */
+    public int getUserID() {
+        return userID;
+    }
+
+    /**
+     * Method used to retrieve the number of transactions the database was created with.
+     *
+     * @return The number of transactions the database was created with.
+     */
+    public int getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Method used to close the database connection and remove the database.
+     */
+    public void close() {
+        DatabaseConnection.close();
+        file.delete();
+    }
+
+}
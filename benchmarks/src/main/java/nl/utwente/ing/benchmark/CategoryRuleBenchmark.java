@@ -0,0 +1,46 @@
+package nl.utwente.ing.benchmark;
+
+import nl.utwente.ing.model.bean.CategoryRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CategoryRuleBenchmark class.
+ * Benchmarks creating a CategoryRule that is applied to the existing transactions of the user, which categorizes every
+ * transaction matching the rule.
+ *
+ * @author Daan Kooij
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryRuleBenchmark {
+
+    @Param({"1000", "10000"})
+    private int transactions;
+
+    private BenchmarkDatabase database;
+    private long categoryID;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase(transactions, 0);
+        categoryID = database.getModel().postCategory(database.getSessionID(), "Benchmark").getID();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public CategoryRule postCategoryRuleOnHistory() throws Exception {
+        return database.getModel().postCategoryRule(database.getSessionID(), database.getRandomDescription(), "", "",
+                categoryID, true);
+    }
+
+}
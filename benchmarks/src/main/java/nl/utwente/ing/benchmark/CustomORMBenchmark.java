@@ -0,0 +1,71 @@
+package nl.utwente.ing.benchmark;
+
+import nl.utwente.ing.model.bean.BalanceHistoryPoint;
+import nl.utwente.ing.model.bean.CategoryRule;
+import nl.utwente.ing.model.bean.Transaction;
+import nl.utwente.ing.model.bean.TransactionFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CustomORMBenchmark class.
+ * Benchmarks the reading primitives of CustomORM that are executed by the most frequently used endpoints.
+ *
+ * @author Daan Kooij
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomORMBenchmark {
+
+    private static final long MONTH_MILLIS = 30 * 24 * 60 * 60 * 1000L;
+
+    @Param({"1000", "10000"})
+    private int transactions;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase(transactions, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Transaction getTransaction() {
+        return database.getCustomORM().getTransaction(database.getUserID(), database.getRandomTransactionID());
+    }
+
+    @Benchmark
+    public ArrayList<Transaction> getTransactionsPage() {
+        return database.getCustomORM().getTransactions(database.getUserID(), new TransactionFilter(), 50, 0);
+    }
+
+    @Benchmark
+    public ArrayList<CategoryRule> getCategoryRules() {
+        return database.getCustomORM().getCategoryRules(database.getUserID());
+    }
+
+    @Benchmark
+    public ArrayList<BalanceHistoryPoint> getBalanceHistoryPointsOfMonth() {
+        long startMillis = database.getRandomMillis();
+        return database.getCustomORM().getBalanceHistoryPointsInRange(database.getUserID(), startMillis,
+                startMillis + MONTH_MILLIS);
+    }
+
+    @Benchmark
+    public long getPreviousBalanceHistoryPointClose() {
+        return database.getCustomORM().getPreviousBalanceHistoryPointClose(database.getUserID(),
+                database.getRandomMillis());
+    }
+
+}
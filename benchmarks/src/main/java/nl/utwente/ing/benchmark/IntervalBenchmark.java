@@ -0,0 +1,52 @@
+package nl.utwente.ing.benchmark;
+
+import nl.utwente.ing.model.bean.Interval;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The IntervalBenchmark class.
+ * Benchmarks computing the balance history of a user for every interval granularity.
+ *
+ * @author Daan Kooij
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntervalBenchmark {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Amsterdam");
+
+    @Param({"1000", "10000"})
+    private int transactions;
+
+    @Param({"hour", "day", "week", "month", "year"})
+    private String intervalTime;
+
+    @Param({"24"})
+    private int intervals;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase(transactions, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public ArrayList<Interval> getIntervals() throws Exception {
+        return database.getModel().getIntervals(database.getSessionID(), intervals, intervalTime, ZONE);
+    }
+
+}
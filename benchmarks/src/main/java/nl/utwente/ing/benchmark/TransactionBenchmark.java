@@ -0,0 +1,76 @@
+package nl.utwente.ing.benchmark;
+
+import nl.utwente.ing.model.bean.Transaction;
+import nl.utwente.ing.model.bean.TransactionFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TransactionBenchmark class.
+ * Benchmarks creating transactions through PersistentModel, both after and in the middle of the history of the user,
+ * with and without category rules to match, and retrieving pages of transactions.
+ * The transactions created by the benchmark stay in the database, so the database grows slightly during every trial.
+ *
+ * @author Daan Kooij
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000", "10000"})
+    private int transactions;
+
+    @Param({"0", "25"})
+    private int categoryRules;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = new BenchmarkDatabase(transactions, categoryRules);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void postTransaction() throws Exception {
+        database.postTransaction();
+    }
+
+    @Benchmark
+    public void postBackdatedTransaction() throws Exception {
+        database.postBackdatedTransaction();
+    }
+
+    @Benchmark
+    public ArrayList<Transaction> getFirstTransactionsPage() throws Exception {
+        return getPage(0);
+    }
+
+    @Benchmark
+    public ArrayList<Transaction> getLastTransactionsPage() throws Exception {
+        return getPage(Math.max(transactions - PAGE_SIZE, 0));
+    }
+
+    /**
+     * Method used to retrieve a page of transactions through PersistentModel.
+     *
+     * @param offset The starting index of the page.
+     * @return The transactions of the page.
+     */
+    private ArrayList<Transaction> getPage(int offset) throws Exception {
+        return database.getModel().getTransactions(database.getSessionID(), new TransactionFilter(), PAGE_SIZE, offset);
+    }
+
+}
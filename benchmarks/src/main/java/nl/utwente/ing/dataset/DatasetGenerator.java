@@ -0,0 +1,417 @@
+package nl.utwente.ing.dataset;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.bean.BalanceHistoryPoint;
+import nl.utwente.ing.model.persistentmodel.CustomORM;
+import nl.utwente.ing.model.persistentmodel.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * The DatasetGenerator class.
+ * Fills a database with a synthetic dataset of many users, each with years of transactions, categories, category
+ * rules, saving goals and payment requests, as described by a DatasetSpec. All random choices are made from the seed of
+ * the DatasetSpec, so the same DatasetSpec always produces the same dataset.
+ * The data is written through CustomORM, so that derived data like the full-text index and the category statistics is
+ * kept exactly like the application keeps it. Since a dataset is known in advance, the balance history of a user is
+ * written in a single pass in date order, and transactions are categorized using the category rules of the user like
+ * they would have been when they were created. Every user is written in a single database transaction, on a
+ * connection of its own with synchronous writes turned off, so that the connection shared by the rest of the
+ * application is never left in a different mode.
+ * Every user of a dataset must be new to the database, because the sessionIDs of the users are derived from the seed
+ * of the dataset, so generating the same dataset twice would write its users twice under the same sessionIDs.
+ * The transactions of a single user are generated in memory (about 20 bytes per transaction), so datasets of very many
+ * transactions should be spread over enough users.
+ *
+ * @author Daan Kooij
+ */
+public class DatasetGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final int LOG_INTERVAL = 100000;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static final String[] MERCHANTS = {
+            "Albert Heijn", "Jumbo", "Lidl", "Aldi", "NS Reizigers", "Shell", "Bol.com", "Coolblue", "HEMA", "Kruidvat",
+            "Etos", "Action", "IKEA", "Spotify", "Netflix", "Vodafone", "KPN", "Ziggo", "Eneco", "Vattenfall",
+            "Zilveren Kruis", "Basic-Fit", "Thuisbezorgd", "Starbucks", "Gemeente", "Belastingdienst", "DUO", "Salary",
+            "Rent", "Tikkie"
+    };
+    private static final String[] BANKS = {"INGB", "RABO", "ABNA", "SNSB", "TRIO", "ASNB", "KNAB", "BUNQ"};
+    private static final String[] CATEGORIES = {
+            "Groceries", "Transport", "Shopping", "Subscriptions", "Utilities", "Insurance", "Sports", "Eating out",
+            "Taxes", "Education", "Income", "Housing", "Friends", "Holidays", "Health"
+    };
+
+    private final String databaseName;
+    private final DatasetSpec spec;
+    private Connection connection;
+    private CustomORM customORM;
+    private final String[] ibans;
+    private final String[] descriptions;
+    private final double[] counterpartyWeights;
+    private long generatedTransactions = 0;
+
+    /**
+     * The constructor of DatasetGenerator.
+     * Creates the counterparties shared by all users.
+     *
+     * @param databaseName The filename of the SQLite database to which the dataset is written, which should have been
+     *                     set up by DatabaseConnection.
+     * @param spec         The description of the dataset.
+     */
+    public DatasetGenerator(String databaseName, DatasetSpec spec) {
+        this.databaseName = databaseName;
+        this.spec = spec;
+        Random random = new Random(spec.getSeed());
+        ibans = new String[spec.getCounterparties()];
+        descriptions = new String[spec.getCounterparties()];
+        for (int i = 0; i < spec.getCounterparties(); i++) {
+            ibans[i] = String.format("NL%02d%s%010d", 10 + random.nextInt(90), BANKS[random.nextInt(BANKS.length)],
+                    random.nextInt(Integer.MAX_VALUE));
+            String merchant = MERCHANTS[random.nextInt(MERCHANTS.length)];
+            descriptions[i] = i < MERCHANTS.length ? MERCHANTS[i] : merchant + " " + (1000 + random.nextInt(9000));
+        }
+        counterpartyWeights = getZipfCumulativeWeights(spec.getCounterparties(), spec.getCounterpartySkew());
+    }
+
+    /**
+     * Method used to create the sessionID of a user of a dataset.
+     * The sessionIDs are derived from the seed, so that benchmarks and tests can use the users of a dataset without
+     * reading them from the database.
+     *
+     * @param seed      The seed of the dataset.
+     * @param userIndex The index of the user in the dataset, starting at 0.
+     * @return The sessionID of the user.
+     */
+    public static String getSessionID(long seed, int userIndex) {
+        return UUID.nameUUIDFromBytes(("dataset-" + seed + "-" + userIndex).getBytes(StandardCharsets.UTF_8))
+                .toString();
+    }
+
+    /**
+     * Method used to write the dataset to the database.
+     * If writing fails, the users written so far remain in the database, but the user being written is rolled back.
+     *
+     * @return The sessionIDs of the created users, in the order of their index.
+     * @throws IllegalStateException If the database already contains a user of the dataset.
+     */
+    public List<String> generate() throws SQLException {
+        try (Connection generatorConnection = DriverManager.getConnection("jdbc:sqlite:" + databaseName)) {
+            connection = generatorConnection;
+            customORM = new CustomORM(connection);
+            executePragma("synchronous = OFF");
+            connection.setAutoCommit(false);
+            double[] userWeights = getZipfCumulativeWeights(spec.getUsers(), spec.getUserSkew());
+            List<String> sessionIDs = new ArrayList<>();
+            long assigned = 0;
+            try {
+                for (int i = 0; i < spec.getUsers(); i++) {
+                    // Every user is assigned the transactions up to its cumulative share, so that the shares add up
+                    // to exactly the total number of transactions.
+                    long cumulative = Math.round(spec.getTransactions() * userWeights[i]);
+                    sessionIDs.add(generateUser(i, (int) (cumulative - assigned)));
+                    assigned = cumulative;
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            return sessionIDs;
+        } finally {
+            connection = null;
+            customORM = null;
+        }
+    }
+
+    /**
+     * Method used to write a single user and all its data to the database.
+     *
+     * @param userIndex    The index of the user in the dataset.
+     * @param transactions The number of transactions of the user.
+     * @return The sessionID of the user.
+     * @throws IllegalStateException If the database already contains the user.
+     */
+    private String generateUser(int userIndex, int transactions) throws SQLException {
+        Random random = new Random(spec.getSeed() * 31 + userIndex);
+        String sessionID = getSessionID(spec.getSeed(), userIndex);
+        if (customORM.getUserID(sessionID) != -1) {
+            throw new IllegalStateException("The database already contains user " + userIndex + " of the dataset " +
+                    "with seed " + spec.getSeed() + "; datasets can only be generated into a new database");
+        }
+        customORM.createNewUser(sessionID);
+        int userID = customORM.getUserID(sessionID);
+
+        long[] categoryIDs = new long[spec.getCategoriesPerUser()];
+        for (int i = 0; i < categoryIDs.length; i++) {
+            categoryIDs[i] = customORM.allocateCategoryID(userID);
+            String name = CATEGORIES[i % CATEGORIES.length] + (i < CATEGORIES.length ? "" : " " + i);
+            customORM.createCategory(userID, categoryIDs[i], name);
+        }
+
+        // Category rules match the description of a counterparty, so every counterparty is categorized the same way.
+        // Like PersistentModel does, the rule of the lowest category ID decides when multiple rules match.
+        Map<Long, List<String>> ruleDescriptions = new TreeMap<>();
+        for (int i = 0; i < spec.getRulesPerUser() && categoryIDs.length > 0; i++) {
+            long categoryID = categoryIDs[random.nextInt(categoryIDs.length)];
+            String description = descriptions[pickZipf(random, counterpartyWeights)];
+            customORM.createCategoryRule(userID, customORM.allocateCategoryRuleID(userID), description, "", "",
+                    categoryID, true);
+            ruleDescriptions.computeIfAbsent(categoryID, key -> new ArrayList<>()).add(description);
+        }
+        long[] counterpartyCategories = new long[descriptions.length];
+        for (int i = 0; i < descriptions.length; i++) {
+            for (Map.Entry<Long, List<String>> rules : ruleDescriptions.entrySet()) {
+                if (rules.getValue().stream().anyMatch(descriptions[i]::contains)) {
+                    counterpartyCategories[i] = rules.getKey();
+                    break;
+                }
+            }
+        }
+
+        long endMillis = spec.getEndMillis();
+        long historyMillis = spec.getHistoryDays() * DAY_MILLIS;
+        long[] dates = new long[transactions];
+        for (int i = 0; i < transactions; i++) {
+            dates[i] = endMillis - (long) (random.nextDouble() * historyMillis);
+        }
+        Arrays.sort(dates);
+        for (int i = 1; i < transactions; i++) {
+            // Balance history points are identified by their time, so no two transactions of a user share a time.
+            dates[i] = Math.max(dates[i], dates[i - 1] + 1);
+        }
+        // Deposits are fewer but larger than withdrawals, so that the expected balance of a user does not drift.
+        double depositScale = spec.getDepositRatio() > 0 ? (1 - spec.getDepositRatio()) / spec.getDepositRatio() : 1;
+        int[] counterparties = new int[transactions];
+        long[] amounts = new long[transactions];
+        for (int i = 0; i < transactions; i++) {
+            counterparties[i] = pickZipf(random, counterpartyWeights);
+            double amount = spec.getAmountMedian() * Math.exp(spec.getAmountSigma() * random.nextGaussian());
+            if (random.nextDouble() < spec.getDepositRatio()) {
+                amounts[i] = Math.max(1, Math.round(amount * depositScale));
+            } else {
+                amounts[i] = -Math.max(1, Math.round(amount));
+            }
+        }
+
+        // Transactions are created in date order, except for back-dated transactions, which are created up to
+        // maxBackdateDays after their date, so that their IDs are out of date order like those of imported history.
+        PriorityQueue<long[]> backdated = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        for (int i = 0; i < transactions; i++) {
+            if (random.nextDouble() < spec.getBackdatedRatio()) {
+                long lag = (long) (random.nextDouble() * spec.getMaxBackdateDays() * DAY_MILLIS);
+                backdated.add(new long[]{dates[i] + lag, i});
+            } else {
+                while (!backdated.isEmpty() && backdated.peek()[0] <= dates[i]) {
+                    createTransaction(userID, (int) backdated.poll()[1], dates, counterparties, amounts,
+                            counterpartyCategories);
+                }
+                createTransaction(userID, i, dates, counterparties, amounts, counterpartyCategories);
+            }
+        }
+        while (!backdated.isEmpty()) {
+            createTransaction(userID, (int) backdated.poll()[1], dates, counterparties, amounts,
+                    counterpartyCategories);
+        }
+
+        long balance = 0;
+        for (int i = 0; i < transactions; i++) {
+            long open = balance;
+            balance += amounts[i];
+            customORM.createBalanceHistoryPoint(userID,
+                    new BalanceHistoryPoint(open, balance, Math.abs(amounts[i]), dates[i]));
+        }
+        customORM.setCurrentTimeMillis(userID, transactions > 0 ? dates[transactions - 1] : 0);
+
+        for (int i = 0; i < spec.getSavingGoalsPerUser(); i++) {
+            long savePerMonth = 1000 * (1 + random.nextInt(50));
+            customORM.createSavingGoal(userID, customORM.allocateSavingGoalID(userID), "Saving goal " + (i + 1),
+                    savePerMonth * (6 + random.nextInt(30)), savePerMonth, 1000 * random.nextInt(100));
+        }
+        for (int i = 0; i < spec.getPaymentRequestsPerUser(); i++) {
+            long dueDateMillis = endMillis + (long) ((random.nextDouble() * 90 - 30) * DAY_MILLIS);
+            long amount = Math.max(1, Math.round(spec.getAmountMedian()
+                    * Math.exp(spec.getAmountSigma() * random.nextGaussian())));
+            customORM.createPaymentRequest(userID, customORM.allocatePaymentRequestID(userID),
+                    "Payment request " + (i + 1), DateCodec.toDate(dueDateMillis), dueDateMillis, amount,
+                    1 + random.nextInt(3));
+        }
+        connection.commit();
+        return sessionID;
+    }
+
+    /**
+     * Method used to write a single generated transaction to the database, categorizing it if a category rule of the
+     * user matches it.
+     *
+     * @param userID                 The ID of the user.
+     * @param index                  The index of the transaction in date order.
+     * @param dates                  The dates in milliseconds of the transactions of the user.
+     * @param counterparties         The counterparties of the transactions of the user.
+     * @param amounts                The amounts in cents of the transactions of the user, negative for withdrawals.
+     * @param counterpartyCategories The categoryIDs assigned to the counterparties by the category rules of the user
+     *                               (0 if none).
+     */
+    private void createTransaction(int userID, int index, long[] dates, int[] counterparties, long[] amounts,
+                                   long[] counterpartyCategories) throws SQLException {
+        long transactionID = customORM.allocateTransactionID(userID);
+        int counterparty = counterparties[index];
+        customORM.createTransaction(userID, transactionID, DateCodec.toDate(dates[index]), dates[index],
+                Math.abs(amounts[index]), descriptions[counterparty], ibans[counterparty],
+                amounts[index] >= 0 ? "deposit" : "withdrawal");
+        if (counterpartyCategories[counterparty] > 0) {
+            customORM.linkTransactionToCategory(userID, transactionID, counterpartyCategories[counterparty]);
+        }
+        generatedTransactions++;
+        if (generatedTransactions % LOG_INTERVAL == 0) {
+            LOGGER.info("Generated {} of {} transactions", generatedTransactions, spec.getTransactions());
+        }
+    }
+
+    /**
+     * Method used to compute the cumulative distribution of a Zipf distribution.
+     *
+     * @param size     The number of elements.
+     * @param exponent The exponent of the distribution (0 for an even distribution).
+     * @return The cumulative probabilities of the elements, the last being 1.
+     */
+    private static double[] getZipfCumulativeWeights(int size, double exponent) {
+        double[] weights = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            weights[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    /**
+     * Method used to pick a random element from a distribution.
+     *
+     * @param random            The random number generator.
+     * @param cumulativeWeights The cumulative probabilities of the elements.
+     * @return The index of the picked element.
+     */
+    private static int pickZipf(Random random, double[] cumulativeWeights) {
+        int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulativeWeights.length - 1);
+    }
+
+    /**
+     * Method used to set a pragma of the database connection.
+     *
+     * @param pragma The pragma and its value.
+     */
+    private void executePragma(String pragma) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("PRAGMA " + pragma + ";");
+        }
+    }
+
+    /**
+     * Method used to generate a dataset from the command line.
+     * The first argument is the filename of the database, the other arguments set the properties of the DatasetSpec,
+     * like --users=100 or --transactions=1000000. --end takes an ISO-8601 instant or "now".
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length == 0) {
+            System.err.println("Usage: DatasetGenerator <database> [--property=value ...]");
+            System.exit(1);
+        }
+        DatasetSpec spec = new DatasetSpec();
+        for (int i = 1; i < args.length; i++) {
+            String[] argument = args[i].replaceFirst("^--", "").split("=", 2);
+            if (argument.length != 2) {
+                throw new IllegalArgumentException("Arguments should look like --property=value: " + args[i]);
+            }
+            setProperty(spec, argument[0], argument[1]);
+        }
+        DatabaseConnection.setUp(args[0]);
+        long start = System.currentTimeMillis();
+        List<String> sessionIDs = new DatasetGenerator(args[0], spec).generate();
+        LOGGER.info("Generated {} users and {} transactions in {} s", sessionIDs.size(), spec.getTransactions(),
+                (System.currentTimeMillis() - start) / 1000);
+        LOGGER.info("The sessionID of the first user is {}", sessionIDs.get(0));
+    }
+
+    /**
+     * Method used to set a property of a DatasetSpec from its command line value.
+     *
+     * @param spec  The DatasetSpec.
+     * @param name  The name of the property.
+     * @param value The value of the property.
+     */
+    private static void setProperty(DatasetSpec spec, String name, String value) {
+        switch (name) {
+            case "seed":
+                spec.setSeed(Long.parseLong(value));
+                break;
+            case "users":
+                spec.setUsers(Integer.parseInt(value));
+                break;
+            case "transactions":
+                spec.setTransactions(Long.parseLong(value));
+                break;
+            case "userSkew":
+                spec.setUserSkew(Double.parseDouble(value));
+                break;
+            case "end":
+                spec.setEndMillis(value.equals("now") ? System.currentTimeMillis()
+                        : Instant.parse(value).toEpochMilli());
+                break;
+            case "historyDays":
+                spec.setHistoryDays(Integer.parseInt(value));
+                break;
+            case "counterparties":
+                spec.setCounterparties(Integer.parseInt(value));
+                break;
+            case "counterpartySkew":
+                spec.setCounterpartySkew(Double.parseDouble(value));
+                break;
+            case "amountMedian":
+                spec.setAmountMedian(Long.parseLong(value));
+                break;
+            case "amountSigma":
+                spec.setAmountSigma(Double.parseDouble(value));
+                break;
+            case "depositRatio":
+                spec.setDepositRatio(Double.parseDouble(value));
+                break;
+            case "backdatedRatio":
+                spec.setBackdatedRatio(Double.parseDouble(value));
+                break;
+            case "maxBackdateDays":
+                spec.setMaxBackdateDays(Integer.parseInt(value));
+                break;
+            case "categoriesPerUser":
+                spec.setCategoriesPerUser(Integer.parseInt(value));
+                break;
+            case "rulesPerUser":
+                spec.setRulesPerUser(Integer.parseInt(value));
+                break;
+            case "savingGoalsPerUser":
+                spec.setSavingGoalsPerUser(Integer.parseInt(value));
+                break;
+            case "paymentRequestsPerUser":
+                spec.setPaymentRequestsPerUser(Integer.parseInt(value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown property: " + name);
+        }
+    }
+
+}
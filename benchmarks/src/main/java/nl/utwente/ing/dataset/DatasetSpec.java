@@ -0,0 +1,342 @@
+package nl.utwente.ing.dataset;
+
+import java.time.Instant;
+
+/**
+ * The DatasetSpec class.
+ * Used to store the size and the distributions of a dataset created by the DatasetGenerator.
+ * Datasets created from equal DatasetSpecs are identical, apart from the database-assigned IDs of the users.
+ * Skews are exponents of Zipf distributions, where 0 spreads evenly and larger exponents concentrate more on the first
+ * users or counterparties.
+ *
+ * @author Daan Kooij
+ */
+public class DatasetSpec {
+
+    private static final long DEFAULT_END_MILLIS = Instant.parse("2019-01-01T00:00:00Z").toEpochMilli();
+
+    private long seed = 1;
+    private int users = 10;
+    private long transactions = 10000;
+    private double userSkew = 1.0;
+    private long endMillis = DEFAULT_END_MILLIS;
+    private int historyDays = 730;
+    private int counterparties = 1000;
+    private double counterpartySkew = 1.0;
+    private long amountMedian = 2500;
+    private double amountSigma = 1.0;
+    private double depositRatio = 0.2;
+    private double backdatedRatio = 0.05;
+    private int maxBackdateDays = 30;
+    private int categoriesPerUser = 20;
+    private int rulesPerUser = 10;
+    private int savingGoalsPerUser = 2;
+    private int paymentRequestsPerUser = 3;
+
+    /**
+     * Method used to retrieve the seed from which all random choices are made.
+     *
+     * @return The seed from which all random choices are made.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Method used to set the seed from which all random choices are made.
+     *
+     * @param seed The seed from which all random choices are made.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Method used to retrieve the number of users.
+     *
+     * @return The number of users.
+     */
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Method used to set the number of users.
+     *
+     * @param users The number of users.
+     */
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    /**
+     * Method used to retrieve the total number of transactions of all users.
+     *
+     * @return The total number of transactions of all users.
+     */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * Method used to set the total number of transactions of all users.
+     *
+     * @param transactions The total number of transactions of all users.
+     */
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    /**
+     * Method used to retrieve the exponent of the Zipf distribution of the transactions over the users.
+     *
+     * @return The exponent of the Zipf distribution of the transactions over the users.
+     */
+    public double getUserSkew() {
+        return userSkew;
+    }
+
+    /**
+     * Method used to set the exponent of the Zipf distribution of the transactions over the users.
+     *
+     * @param userSkew The exponent of the Zipf distribution of the transactions over the users.
+     */
+    public void setUserSkew(double userSkew) {
+        this.userSkew = userSkew;
+    }
+
+    /**
+     * Method used to retrieve the time in milliseconds at which the history of every user ends.
+     *
+     * @return The time in milliseconds at which the history of every user ends.
+     */
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * Method used to set the time in milliseconds at which the history of every user ends.
+     *
+     * @param endMillis The time in milliseconds at which the history of every user ends.
+     */
+    public void setEndMillis(long endMillis) {
+        this.endMillis = endMillis;
+    }
+
+    /**
+     * Method used to retrieve the number of days before the end over which the transactions of a user are spread.
+     *
+     * @return The number of days before the end over which the transactions of a user are spread.
+     */
+    public int getHistoryDays() {
+        return historyDays;
+    }
+
+    /**
+     * Method used to set the number of days before the end over which the transactions of a user are spread.
+     *
+     * @param historyDays The number of days before the end over which the transactions of a user are spread.
+     */
+    public void setHistoryDays(int historyDays) {
+        this.historyDays = historyDays;
+    }
+
+    /**
+     * Method used to retrieve the number of counterparties (IBAN and description) shared by all users.
+     *
+     * @return The number of counterparties (IBAN and description) shared by all users.
+     */
+    public int getCounterparties() {
+        return counterparties;
+    }
+
+    /**
+     * Method used to set the number of counterparties (IBAN and description) shared by all users.
+     *
+     * @param counterparties The number of counterparties (IBAN and description) shared by all users.
+     */
+    public void setCounterparties(int counterparties) {
+        this.counterparties = counterparties;
+    }
+
+    /**
+     * Method used to retrieve the exponent of the Zipf distribution of the transactions over the counterparties.
+     *
+     * @return The exponent of the Zipf distribution of the transactions over the counterparties.
+     */
+    public double getCounterpartySkew() {
+        return counterpartySkew;
+    }
+
+    /**
+     * Method used to set the exponent of the Zipf distribution of the transactions over the counterparties.
+     *
+     * @param counterpartySkew The exponent of the Zipf distribution of the transactions over the counterparties.
+     */
+    public void setCounterpartySkew(double counterpartySkew) {
+        this.counterpartySkew = counterpartySkew;
+    }
+
+    /**
+     * Method used to retrieve the median amount in cents of withdrawals.
+     *
+     * @return The median amount in cents of withdrawals.
+     */
+    public long getAmountMedian() {
+        return amountMedian;
+    }
+
+    /**
+     * Method used to set the median amount in cents of withdrawals.
+     *
+     * @param amountMedian The median amount in cents of withdrawals.
+     */
+    public void setAmountMedian(long amountMedian) {
+        this.amountMedian = amountMedian;
+    }
+
+    /**
+     * Method used to retrieve the standard deviation of the logarithm of the amounts of transactions.
+     *
+     * @return The standard deviation of the logarithm of the amounts of transactions.
+     */
+    public double getAmountSigma() {
+        return amountSigma;
+    }
+
+    /**
+     * Method used to set the standard deviation of the logarithm of the amounts of transactions.
+     *
+     * @param amountSigma The standard deviation of the logarithm of the amounts of transactions.
+     */
+    public void setAmountSigma(double amountSigma) {
+        this.amountSigma = amountSigma;
+    }
+
+    /**
+     * Method used to retrieve the fraction of transactions that are deposits.
+     *
+     * @return The fraction of transactions that are deposits.
+     */
+    public double getDepositRatio() {
+        return depositRatio;
+    }
+
+    /**
+     * Method used to set the fraction of transactions that are deposits.
+     *
+     * @param depositRatio The fraction of transactions that are deposits.
+     */
+    public void setDepositRatio(double depositRatio) {
+        this.depositRatio = depositRatio;
+    }
+
+    /**
+     * Method used to retrieve the fraction of transactions that are created after transactions dated later than them.
+     *
+     * @return The fraction of transactions that are created after transactions dated later than them.
+     */
+    public double getBackdatedRatio() {
+        return backdatedRatio;
+    }
+
+    /**
+     * Method used to set the fraction of transactions that are created after transactions dated later than them.
+     *
+     * @param backdatedRatio The fraction of transactions that are created after transactions dated later than them.
+     */
+    public void setBackdatedRatio(double backdatedRatio) {
+        this.backdatedRatio = backdatedRatio;
+    }
+
+    /**
+     * Method used to retrieve the maximum number of days by which a transaction is created after its date.
+     *
+     * @return The maximum number of days by which a transaction is created after its date.
+     */
+    public int getMaxBackdateDays() {
+        return maxBackdateDays;
+    }
+
+    /**
+     * Method used to set the maximum number of days by which a transaction is created after its date.
+     *
+     * @param maxBackdateDays The maximum number of days by which a transaction is created after its date.
+     */
+    public void setMaxBackdateDays(int maxBackdateDays) {
+        this.maxBackdateDays = maxBackdateDays;
+    }
+
+    /**
+     * Method used to retrieve the number of categories of every user.
+     *
+     * @return The number of categories of every user.
+     */
+    public int getCategoriesPerUser() {
+        return categoriesPerUser;
+    }
+
+    /**
+     * Method used to set the number of categories of every user.
+     *
+     * @param categoriesPerUser The number of categories of every user.
+     */
+    public void setCategoriesPerUser(int categoriesPerUser) {
+        this.categoriesPerUser = categoriesPerUser;
+    }
+
+    /**
+     * Method used to retrieve the number of category rules of every user.
+     *
+     * @return The number of category rules of every user.
+     */
+    public int getRulesPerUser() {
+        return rulesPerUser;
+    }
+
+    /**
+     * Method used to set the number of category rules of every user.
+     *
+     * @param rulesPerUser The number of category rules of every user.
+     */
+    public void setRulesPerUser(int rulesPerUser) {
+        this.rulesPerUser = rulesPerUser;
+    }
+
+    /**
+     * Method used to retrieve the number of saving goals of every user.
+     *
+     * @return The number of saving goals of every user.
+     */
+    public int getSavingGoalsPerUser() {
+        return savingGoalsPerUser;
+    }
+
+    /**
+     * Method used to set the number of saving goals of every user.
+     *
+     * @param savingGoalsPerUser The number of saving goals of every user.
+     */
+    public void setSavingGoalsPerUser(int savingGoalsPerUser) {
+        this.savingGoalsPerUser = savingGoalsPerUser;
+    }
+
+    /**
+     * Method used to retrieve the number of payment requests of every user.
+     *
+     * @return The number of payment requests of every user.
+     */
+    public int getPaymentRequestsPerUser() {
+        return paymentRequestsPerUser;
+    }
+
+    /**
+     * Method used to set the number of payment requests of every user.
+     *
+     * @param paymentRequestsPerUser The number of payment requests of every user.
+     */
+    public void setPaymentRequestsPerUser(int paymentRequestsPerUser) {
+        this.paymentRequestsPerUser = paymentRequestsPerUser;
+    }
+
+}
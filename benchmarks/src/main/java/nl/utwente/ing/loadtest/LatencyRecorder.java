@@ -0,0 +1,133 @@
+package nl.utwente.ing.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The LatencyRecorder class.
+ * Records the latencies of the requests of a single scenario exactly, so that high percentiles are not distorted by
+ * bucketing. Two latencies are recorded for every request: the response time, measured from the moment the request
+ * should have been sent according to the arrival schedule, and the service time, measured from the moment it was
+ * actually sent. When the server falls behind, requests are sent late; only the response time includes that delay,
+ * which corrects for coordinated omission. Requests that were never sent, because the load test ended before they could
+ * be, are recorded as errors with only a response time, measured up to the end of the load test.
+ *
+ * @author Daan Kooij
+ */
+public class LatencyRecorder {
+
+    private long[] responseTimes = new long[1024];
+    private long[] serviceTimes = new long[1024];
+    private int count = 0;
+    private int serviceCount = 0;
+    private int errors = 0;
+    private int unsent = 0;
+
+    /**
+     * Method used to record a request.
+     *
+     * @param responseNanos The response time of the request in nanoseconds.
+     * @param serviceNanos  The service time of the request in nanoseconds.
+     * @param success       Whether the request was answered with a successful HTTP status code.
+     */
+    public synchronized void record(long responseNanos, long serviceNanos, boolean success) {
+        recordResponseTime(responseNanos);
+        if (serviceCount == serviceTimes.length) {
+            serviceTimes = Arrays.copyOf(serviceTimes, serviceCount * 2);
+        }
+        serviceTimes[serviceCount++] = serviceNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * Method used to record a request that was never sent, as an error.
+     *
+     * @param responseNanos The time in nanoseconds from the moment the request should have been sent until the end of
+     *                      the load test.
+     */
+    public synchronized void recordUnsent(long responseNanos) {
+        recordResponseTime(responseNanos);
+        errors++;
+        unsent++;
+    }
+
+    /**
+     * Method used to record the response time of a request.
+     *
+     * @param responseNanos The response time of the request in nanoseconds.
+     */
+    private void recordResponseTime(long responseNanos) {
+        if (count == responseTimes.length) {
+            responseTimes = Arrays.copyOf(responseTimes, count * 2);
+        }
+        responseTimes[count++] = responseNanos;
+    }
+
+    /**
+     * Method used to retrieve the number of recorded requests.
+     *
+     * @return The number of recorded requests.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Method used to retrieve the number of recorded requests that were not successful.
+     *
+     * @return The number of recorded requests that were not successful.
+     */
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Method used to retrieve the number of recorded requests that were never sent.
+     *
+     * @return The number of recorded requests that were never sent.
+     */
+    public synchronized int getUnsent() {
+        return unsent;
+    }
+
+    /**
+     * Method used to retrieve percentiles of the response times.
+     *
+     * @param percentiles The percentiles, like 99.9.
+     * @return The response times at the percentiles in nanoseconds.
+     */
+    public synchronized long[] getResponseTimePercentiles(double... percentiles) {
+        return getPercentiles(responseTimes, count, percentiles);
+    }
+
+    /**
+     * Method used to retrieve percentiles of the service times.
+     *
+     * @param percentiles The percentiles, like 99.9.
+     * @return The service times at the percentiles in nanoseconds.
+     */
+    public synchronized long[] getServiceTimePercentiles(double... percentiles) {
+        return getPercentiles(serviceTimes, serviceCount, percentiles);
+    }
+
+    /**
+     * Method used to compute percentiles of recorded latencies using the nearest-rank method.
+     *
+     * @param latencies   The recorded latencies.
+     * @param count       The number of recorded latencies.
+     * @param percentiles The percentiles.
+     * @return The latencies at the percentiles, or 0 if nothing was recorded.
+     */
+    private static long[] getPercentiles(long[] latencies, int count, double[] percentiles) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length && count > 0; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100 * count);
+            result[i] = sorted[Math.min(Math.max(rank, 1), count) - 1];
+        }
+        return result;
+    }
+
+}
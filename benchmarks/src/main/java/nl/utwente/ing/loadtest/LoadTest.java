@@ -0,0 +1,398 @@
+package nl.utwente.ing.loadtest;
+
+import nl.utwente.ing.api.Application;
+import nl.utwente.ing.dataset.DatasetGenerator;
+import nl.utwente.ing.dataset.DatasetSpec;
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.persistentmodel.DatabaseConnection;
+import nl.utwente.ing.model.persistentmodel.PaymentRequestSweeper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The LoadTest class.
+ * Drives a mix of scenarios against the REST API and reports the throughput and latency percentiles of every scenario.
+ * By default, the Application is started in this JVM on a temporary database that is filled by the DatasetGenerator;
+ * with --url, an already running server is tested instead, whose users are created over HTTP.
+ * With --rate, requests arrive at a fixed rate regardless of how fast they are answered (an open loop, like real
+ * users), and are sent by --concurrency connections. Response times are measured from the scheduled arrival of a
+ * request, so that the time a request waits because the server is behind is not omitted. Requests still waiting to be
+ * sent when the load test ends are not dropped silently, but reported as errors. Without --rate, every
+ * connection sends its next request as soon as the previous one is answered (a closed loop), which measures the
+ * maximum throughput but not the latency users would see at that throughput.
+ *
+ * @author Daan Kooij
+ */
+public class LoadTest {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private final String baseURL;
+    private final List<String> sessionIDs;
+    private final Scenario[] scenarios;
+    private final double[] cumulativeWeights;
+    private final Map<Scenario, LatencyRecorder> recorders = new EnumMap<>(Scenario.class);
+    private final AtomicLong transactionClock = new AtomicLong(System.currentTimeMillis());
+    private volatile long measurementStart;
+
+    /**
+     * The constructor of LoadTest.
+     *
+     * @param baseURL    The URL of the API, like http://localhost:8080/api/v1.
+     * @param sessionIDs The sessionIDs of the existing users, each having a category with ID 1.
+     * @param mix        The relative weights of the scenarios.
+     */
+    public LoadTest(String baseURL, List<String> sessionIDs, Map<Scenario, Double> mix) {
+        this.baseURL = baseURL;
+        this.sessionIDs = sessionIDs;
+        this.scenarios = mix.keySet().toArray(new Scenario[0]);
+        this.cumulativeWeights = new double[scenarios.length];
+        double sum = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            sum += mix.get(scenarios[i]);
+            cumulativeWeights[i] = sum;
+        }
+        for (int i = 0; i < scenarios.length; i++) {
+            cumulativeWeights[i] /= sum;
+            recorders.put(scenarios[i], new LatencyRecorder());
+        }
+    }
+
+    /**
+     * Method used to run the load test with requests arriving at a fixed rate.
+     * When the server has fallen behind, requests that are still waiting to be sent TIMEOUT_MILLIS after the last
+     * arrival are abandoned, and recorded as errors with a response time measured up to that moment.
+     *
+     * @param rate          The number of requests per second.
+     * @param concurrency   The number of connections sending requests.
+     * @param warmupSeconds The number of seconds at the start of which the requests are not recorded.
+     * @param totalSeconds  The number of seconds the load test takes, including the warmup.
+     */
+    public void runOpenLoop(double rate, int concurrency, int warmupSeconds, int totalSeconds)
+            throws InterruptedException {
+        ExecutorService connections = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        measurementStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = start + TimeUnit.SECONDS.toNanos(totalSeconds);
+        double intervalNanos = 1e9 / rate;
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled >= end) {
+                break;
+            }
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            connections.execute(new Request(pickScenario(), scheduled));
+        }
+        connections.shutdown();
+        if (!connections.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            long abandoned = System.nanoTime();
+            List<Runnable> unsent = connections.shutdownNow();
+            for (Runnable request : unsent) {
+                ((Request) request).abandon(abandoned);
+            }
+            System.err.println(unsent.size() + " requests were still waiting to be sent at the end of the load test");
+            // The requests being sent are answered or time out within TIMEOUT_MILLIS
+            connections.awaitTermination(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Method used to run the load test with every connection sending its next request as soon as the previous one is
+     * answered.
+     *
+     * @param concurrency   The number of connections sending requests.
+     * @param warmupSeconds The number of seconds at the start of which the requests are not recorded.
+     * @param totalSeconds  The number of seconds the load test takes, including the warmup.
+     */
+    public void runClosedLoop(int concurrency, int warmupSeconds, int totalSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        measurementStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = start + TimeUnit.SECONDS.toNanos(totalSeconds);
+        Thread[] threads = new Thread[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            threads[i] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    execute(pickScenario(), System.nanoTime());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Method used to send the request of a scenario for a random user and record its latency.
+     *
+     * @param scenario  The scenario.
+     * @param scheduled The time in nanoseconds (of System.nanoTime) at which the request should have been sent.
+     */
+    private void execute(Scenario scenario, long scheduled) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String sessionID = sessionIDs.get(random.nextInt(sessionIDs.size()));
+        long sent = System.nanoTime();
+        int status;
+        switch (scenario) {
+            case SESSION:
+                status = send(baseURL, "POST", "/sessions", null, null);
+                break;
+            case TRANSACTION:
+                long dateMillis = transactionClock.addAndGet(1000);
+                status = send(baseURL, "POST", "/transactions", sessionID, String.format(Locale.ROOT,
+                        "{\"date\":\"%s\",\"amount\":%d.%02d,\"description\":\"Load test %d\"," +
+                                "\"externalIBAN\":\"NL39RABO0300065264\",\"type\":\"%s\"}",
+                        DateCodec.toDate(dateMillis), 1 + random.nextInt(500), random.nextInt(100),
+                        random.nextInt(10), random.nextInt(5) == 0 ? "deposit" : "withdrawal"));
+                break;
+            case BALANCE_HISTORY:
+                status = send(baseURL, "GET", "/balance/history?interval=day&intervals=30", sessionID, null);
+                break;
+            default:
+                status = send(baseURL, "POST", "/categoryRules", sessionID, String.format(Locale.ROOT,
+                        "{\"description\":\"Load test %d\",\"iBAN\":\"\",\"type\":\"\",\"category_id\":1," +
+                                "\"applyOnHistory\":true}", random.nextInt(10)));
+                break;
+        }
+        long answered = System.nanoTime();
+        if (scheduled >= measurementStart) {
+            recorders.get(scenario).record(answered - scheduled, answered - sent, status >= 200 && status < 300);
+        }
+    }
+
+    /**
+     * The Request class.
+     * A request of the open loop, which remembers when it should have been sent, so that it can still be recorded if
+     * it is never sent.
+     */
+    private class Request implements Runnable {
+
+        private final Scenario scenario;
+        private final long scheduled;
+
+        /**
+         * The constructor of Request.
+         *
+         * @param scenario  The scenario of the request.
+         * @param scheduled The time in nanoseconds (of System.nanoTime) at which the request should be sent.
+         */
+        Request(Scenario scenario, long scheduled) {
+            this.scenario = scenario;
+            this.scheduled = scheduled;
+        }
+
+        @Override
+        public void run() {
+            execute(scenario, scheduled);
+        }
+
+        /**
+         * Method used to record the request as never sent.
+         *
+         * @param abandoned The time in nanoseconds (of System.nanoTime) at which the request was abandoned.
+         */
+        void abandon(long abandoned) {
+            if (scheduled >= measurementStart) {
+                recorders.get(scenario).recordUnsent(abandoned - scheduled);
+            }
+        }
+
+    }
+
+    /**
+     * Method used to pick a random scenario according to the mix.
+     *
+     * @return The picked scenario.
+     */
+    private Scenario pickScenario() {
+        double value = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < scenarios.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        return scenarios[scenarios.length - 1];
+    }
+
+    /**
+     * Method used to send a request to the API and read its response completely, so that the connection can be
+     * reused by the next request.
+     *
+     * @param baseURL   The URL of the API.
+     * @param method    The HTTP method.
+     * @param path      The path of the endpoint, relative to the base URL.
+     * @param sessionID The sessionID sent in the X-session-ID header (null if none).
+     * @param body      The json body of the request (null if none).
+     * @return The HTTP status code of the response, or -1 if the request failed.
+     */
+    private static int send(String baseURL, String method, String path, String sessionID, String body) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseURL + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            if (sessionID != null) {
+                connection.setRequestProperty("X-session-ID", sessionID);
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream output = connection.getOutputStream()) {
+                    output.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (input != null) {
+                byte[] buffer = new byte[8192];
+                while (input.read(buffer) != -1) {
+                    // The response is only read to free the connection.
+                }
+                input.close();
+            }
+            return status;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method used to print the throughput and the latency percentiles of every scenario.
+     *
+     * @param measuredSeconds The number of seconds during which requests were recorded.
+     */
+    public void printReport(int measuredSeconds) {
+        System.out.printf("%-12s %9s %7s %9s | %s | %s%n", "scenario", "requests", "errors", "req/s",
+                "response time ms: p50 p90 p99 p99.9 max", "service time ms: p50 p99");
+        int total = 0;
+        int unsent = 0;
+        for (Map.Entry<Scenario, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            total += recorder.getCount();
+            unsent += recorder.getUnsent();
+            long[] response = recorder.getResponseTimePercentiles(PERCENTILES);
+            long[] service = recorder.getServiceTimePercentiles(50, 99);
+            System.out.printf(Locale.ROOT, "%-12s %9d %7d %9.1f | %8.2f %8.2f %8.2f %8.2f %8.2f | %8.2f %8.2f%n",
+                    entry.getKey().getName(), recorder.getCount(), recorder.getErrors(),
+                    (double) recorder.getCount() / measuredSeconds, response[0] / 1e6, response[1] / 1e6,
+                    response[2] / 1e6, response[3] / 1e6, response[4] / 1e6, service[0] / 1e6, service[1] / 1e6);
+        }
+        System.out.printf(Locale.ROOT, "%-12s %9d %7s %9.1f%n", "total", total, "", (double) total / measuredSeconds);
+        if (unsent > 0) {
+            System.out.println(unsent + " of the errors are requests that were never sent, because the server had " +
+                    "fallen too far behind");
+        }
+    }
+
+    /**
+     * Method used to run a load test from the command line.
+     * Options: --rate=requests per second (0 for a closed loop), --concurrency=connections, --duration=seconds,
+     * --warmup=seconds, --mix=session:1,transaction:20,history:10,rule:1, --users=number of users,
+     * --transactions=number of transactions generated for the users before the test, --seed=seed and
+     * --url=base URL of a running server (like http://localhost:8080/api/v1).
+     *
+     * @param args The command line arguments.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("rate", "100");
+        options.put("concurrency", "16");
+        options.put("duration", "60");
+        options.put("warmup", "10");
+        options.put("mix", "session:1,transaction:20,history:10,rule:1");
+        options.put("users", "100");
+        options.put("transactions", "100000");
+        options.put("seed", "1");
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2 || !options.containsKey(option[0]) && !option[0].equals("url")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(option[0], option[1]);
+        }
+        Map<Scenario, Double> mix = new LinkedHashMap<>();
+        for (String entry : options.get("mix").split(",")) {
+            String[] weight = entry.split(":");
+            mix.put(Scenario.fromName(weight[0]), Double.parseDouble(weight[1]));
+        }
+        int users = Integer.parseInt(options.get("users"));
+
+        String baseURL = options.get("url");
+        List<String> sessionIDs;
+        ConfigurableApplicationContext context = null;
+        if (baseURL == null) {
+            File database = File.createTempFile("loadtest", ".db");
+            database.deleteOnExit();
+            DatabaseConnection.setUp(database.getPath());
+            DatasetSpec spec = new DatasetSpec();
+            spec.setSeed(Long.parseLong(options.get("seed")));
+            spec.setUsers(users);
+            spec.setTransactions(Long.parseLong(options.get("transactions")));
+            spec.setEndMillis(System.currentTimeMillis());
+            sessionIDs = new DatasetGenerator(database.getPath(), spec).generate();
+            PaymentRequestSweeper.start();
+            context = SpringApplication.run(Application.class, "--server.port=0");
+            int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+            baseURL = "http://localhost:" + port + "/api/v1";
+        } else {
+            sessionIDs = createUsers(baseURL, users);
+        }
+
+        LoadTest loadTest = new LoadTest(baseURL, sessionIDs, mix);
+        double rate = Double.parseDouble(options.get("rate"));
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int duration = Integer.parseInt(options.get("duration"));
+        if (rate > 0) {
+            loadTest.runOpenLoop(rate, concurrency, warmup, duration);
+        } else {
+            loadTest.runClosedLoop(concurrency, warmup, duration);
+        }
+        loadTest.printReport(duration - warmup);
+        if (context != null) {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Method used to create users with a category over HTTP, for testing a server that was not started by the load
+     * test.
+     *
+     * @param baseURL The URL of the API.
+     * @param users   The number of users.
+     * @return The sessionIDs of the created users.
+     */
+    private static List<String> createUsers(String baseURL, int users) throws IOException {
+        List<String> sessionIDs = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseURL + "/sessions").openConnection();
+            connection.setRequestMethod("POST");
+            Scanner scanner = new Scanner(connection.getInputStream(), "UTF-8").useDelimiter("\\A");
+            String response = scanner.next();
+            scanner.close();
+            String sessionID = response.replaceAll(".*\"id\"\\s*:\\s*\"([^\"]+)\".*", "$1");
+            sessionIDs.add(sessionID);
+            send(baseURL, "POST", "/categories", sessionID, "{\"name\":\"Load test\"}");
+        }
+        return sessionIDs;
+    }
+
+}
@@ -0,0 +1,61 @@
+package nl.utwente.ing.loadtest;
+
+/**
+ * The Scenario enum.
+ * The kinds of requests the load test sends, each representing a typical use of the API.
+ *
+ * @author Daan Kooij
+ */
+public enum Scenario {
+
+    /**
+     * A new user opening the application: POST /sessions.
+     */
+    SESSION("session"),
+
+    /**
+     * A transaction coming in for an existing user: POST /transactions.
+     */
+    TRANSACTION("transaction"),
+
+    /**
+     * A dashboard polling the balance history of an existing user: GET /balance/history.
+     */
+    BALANCE_HISTORY("history"),
+
+    /**
+     * An existing user creating a category rule that is applied to all its transactions: POST /categoryRules.
+     */
+    CATEGORY_RULE("rule");
+
+    private final String name;
+
+    Scenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Method used to retrieve the name of the Scenario, as used on the command line and in the report.
+     *
+     * @return The name of the Scenario.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Method used to find a Scenario by its name.
+     *
+     * @param name The name of the Scenario.
+     * @return The Scenario with the name.
+     */
+    public static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.name.equals(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+
+}
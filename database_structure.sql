@@ -1,16 +1,25 @@
+-- The schema of the database, as created by DatabaseConnection (schema version 5).
+-- Databases created by older versions of the application are migrated to this schema when the application starts.
+-- Amounts are stored as integer numbers of cents, and dates are stored both as the text received through the API and
+-- as a number of milliseconds since the epoch (the *_millis columns), which is used for comparing and ordering.
+
 CREATE TABLE IF NOT EXISTS User_Table(
   user_id INTEGER PRIMARY KEY AUTOINCREMENT,
   session_id TEXT,
   highest_transaction_id BIGINT,
   highest_category_id BIGINT,
-  highest_category_rule_id BIGINT
+  highest_saving_goal_id BIGINT,
+  highest_category_rule_id BIGINT,
+  highest_payment_request_id BIGINT,
+  system_time_millis BIGINT
 );
 
 CREATE TABLE IF NOT EXISTS Transaction_Table(
   user_id INTEGER,
   transaction_id BIGINT,
   date DATETIME,
-  amount FLOAT,
+  date_millis BIGINT,
+  amount INTEGER,
   description TEXT,
   external_iban TEXT,
   type TEXT,
@@ -47,4 +56,97 @@ CREATE TABLE IF NOT EXISTS CategoryRule_Table(
   FOREIGN KEY(user_id) REFERENCES User_Table(user_id),
   FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),
   PRIMARY KEY(user_id, category_rule_id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS BalanceHistory_Table(
+  user_id INTEGER,
+  time_stamp_millis BIGINT,
+  open INTEGER,
+  close INTEGER,
+  volume INTEGER,
+  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),
+  PRIMARY KEY(user_id, time_stamp_millis)
+);
+
+CREATE TABLE IF NOT EXISTS SavingGoal_Table(
+  user_id INTEGER,
+  saving_goal_id BIGINT,
+  name TEXT,
+  goal INTEGER,
+  save_per_month INTEGER,
+  min_balance_required INTEGER,
+  balance INTEGER,
+  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),
+  PRIMARY KEY(user_id, saving_goal_id)
+);
+
+CREATE TABLE IF NOT EXISTS PaymentRequest_Table(
+  user_id INTEGER,
+  payment_request_id BIGINT,
+  description TEXT,
+  due_date TEXT,
+  due_date_millis BIGINT,
+  amount INTEGER,
+  number_of_requests BIGINT,
+  filled BOOLEAN,
+  expired BOOLEAN,
+  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),
+  PRIMARY KEY(user_id, payment_request_id)
+);
+
+CREATE TABLE IF NOT EXISTS PaymentRequest_Transaction(
+  user_id INTEGER,
+  transaction_id BIGINT,
+  payment_request_id BIGINT,
+  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),
+  FOREIGN KEY(transaction_id) REFERENCES Transaction_Table(transaction_id),
+  FOREIGN KEY(payment_request_id) REFERENCES PaymentRequest_Table(payment_request_id),
+  PRIMARY KEY(user_id, payment_request_id, transaction_id)
+);
+
+CREATE TABLE IF NOT EXISTS CategoryStatistics_Table(
+  user_id INTEGER,
+  category_id BIGINT,
+  period TEXT,
+  type TEXT,
+  total INTEGER,
+  count INTEGER,
+  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),
+  FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),
+  PRIMARY KEY(user_id, category_id, period, type)
+);
+
+-- Full-text index over the descriptions of transactions. The rowid of a row is composed of the user_id (high 32 bits)
+-- and the transaction_id (low 32 bits) of the transaction it indexes.
+CREATE VIRTUAL TABLE IF NOT EXISTS Transaction_FTS USING fts5(
+  description,
+  tokenize = 'unicode61 remove_diacritics 1'
+);
+
+-- Indexes
+
+CREATE INDEX IF NOT EXISTS Transaction_Date_Index
+ON Transaction_Table(user_id, date_millis, transaction_id);
+
+CREATE INDEX IF NOT EXISTS Transaction_Type_Date_Index
+ON Transaction_Table(user_id, type, date_millis, transaction_id);
+
+CREATE INDEX IF NOT EXISTS Transaction_IBAN_Date_Index
+ON Transaction_Table(user_id, external_iban, date_millis, transaction_id);
+
+CREATE INDEX IF NOT EXISTS Transaction_Amount_Index
+ON Transaction_Table(user_id, amount);
+
+CREATE INDEX IF NOT EXISTS Category_Name_Index
+ON Category_Table(user_id, name);
+
+-- Partial indexes containing only the open payment requests
+CREATE INDEX IF NOT EXISTS PaymentRequest_Open_Index
+ON PaymentRequest_Table(user_id, amount, due_date_millis)
+WHERE filled = 0 AND expired = 0;
+
+CREATE INDEX IF NOT EXISTS PaymentRequest_Due_Date_Index
+ON PaymentRequest_Table(due_date_millis)
+WHERE filled = 0 AND expired = 0;
+
+PRAGMA user_version = 5;
@@ -1,10 +1,16 @@
 package nl.utwente.ing.api;
 
+import nl.utwente.ing.metrics.StartupTimer;
 import nl.utwente.ing.model.persistentmodel.DatabaseConnection;
+import nl.utwente.ing.model.persistentmodel.PaymentRequestSweeper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.embedded.Compression;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
@@ -17,18 +23,32 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter
 @SpringBootApplication
 public class Application {
 
+    private static final long ASYNC_REQUEST_TIMEOUT_MILLIS = 30000;
+    private static final int COMPRESSION_MIN_RESPONSE_SIZE = 2048;
+
     /**
      * Method used by the Spring framework to start the application.
+     * The connection to the database is set up in the background while the Spring context is initialized; until it has
+     * been set up, the readiness endpoint reports that the application is not ready. The time spent in every phase of
+     * starting is printed once both have finished.
      *
      * @param args The command line arguments.
      */
     public static void main(String[] args) {
-        DatabaseConnection.setUp("ing.db");
+        StartupTimer.recordSinceJvmStart("jvm");
+        DatabaseConnection.setUpInBackground("ing.db");
+        long start = System.nanoTime();
         SpringApplication.run(Application.class, args);
+        StartupTimer.record("spring_context", System.nanoTime() - start);
+        DatabaseConnection.awaitSetUp();
+        PaymentRequestSweeper.start();
+        StartupTimer.recordSinceJvmStart("ready");
+        StartupTimer.report();
     }
 
     /**
-     * Method used to enable Cross-Origin Resource Sharing.
+     * Method used to enable Cross-Origin Resource Sharing, to configure asynchronous request processing and to record
+     * the metrics of requests.
      *
      * @return WebMvcConfigurerAdapter object.
      */
@@ -39,6 +59,39 @@ public class Application {
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/**").allowedOrigins("*").allowedMethods("*");
             }
+
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                // Requests are answered by the ModelExecutor, which rejects work it cannot start soon, so a request
+                // that is still not answered after this timeout is stuck behind a slow operation.
+                configurer.setDefaultTimeout(ASYNC_REQUEST_TIMEOUT_MILLIS);
+            }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestMetricsInterceptor());
+            }
+        };
+    }
+
+    /**
+     * Method used to enable compression of responses.
+     * JSON responses are compressed with gzip when the client accepts it, unless they are known to be smaller than
+     * COMPRESSION_MIN_RESPONSE_SIZE bytes, for which compressing costs more than it saves.
+     * Responses are not streamed: list endpoints read their page completely in the model executor and the page is
+     * serialized as a whole afterwards. Their size is bounded by the limit of the page instead (at most 100 elements),
+     * and compression reduces the number of bytes sent.
+     *
+     * @return EmbeddedServletContainerCustomizer object.
+     */
+    @Bean
+    public EmbeddedServletContainerCustomizer compressionCustomizer() {
+        return container -> {
+            Compression compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMimeTypes(new String[]{"application/json", "text/plain"});
+            compression.setMinResponseSize(COMPRESSION_MIN_RESPONSE_SIZE);
+            container.setCompression(compression);
         };
     }
 
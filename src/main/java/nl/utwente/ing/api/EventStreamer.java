@@ -0,0 +1,136 @@
+package nl.utwente.ing.api;
+
+import nl.utwente.ing.exception.InvalidSessionIDException;
+import nl.utwente.ing.model.Model;
+import nl.utwente.ing.model.event.AccountEvent;
+import nl.utwente.ing.model.event.EventSubscription;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The EventStreamer class.
+ * Streams the changes to the data of a user to a client as server-sent events.
+ * The model only adds events to the subscription of the stream, which never blocks; the events are sent to the client
+ * on a separate thread, so that a slow client never delays the operations of the model.
+ *
+ * @author Daan Kooij
+ */
+public class EventStreamer {
+
+    /**
+     * The time after which a stream is closed; clients using EventSource reconnect automatically.
+     */
+    private static final long STREAM_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    private static final int DELIVERY_THREADS = 2;
+
+    private final Supplier<Model> model;
+    private final ExecutorService deliveryExecutor;
+
+    /**
+     * The constructor of EventStreamer.
+     *
+     * @param model Supplies the model of which the changes are streamed.
+     */
+    public EventStreamer(Supplier<Model> model) {
+        this.model = model;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.deliveryExecutor = Executors.newFixedThreadPool(DELIVERY_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "event-delivery-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Method used to open a stream of the changes to the data of a certain user.
+     *
+     * @param sessionID The sessionID of the user.
+     * @return The SseEmitter through which the changes are sent.
+     * @throws InvalidSessionIDException If sessionID does not belong to a user.
+     */
+    public SseEmitter open(String sessionID) throws InvalidSessionIDException {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        Stream stream = new Stream(emitter);
+        stream.subscription = model.get().subscribe(sessionID, stream::schedule);
+        emitter.onCompletion(stream::close);
+        emitter.onTimeout(stream::close);
+        try {
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            stream.close();
+        }
+        // Events published before the subscription was assigned to the stream are sent now
+        stream.schedule();
+        return emitter;
+    }
+
+    /**
+     * The Stream class.
+     * Sends the events of one subscription to one client.
+     */
+    private class Stream {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private volatile EventSubscription subscription;
+
+        /**
+         * The constructor of Stream.
+         *
+         * @param emitter The SseEmitter through which the events are sent.
+         */
+        Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Method used to schedule sending the pending events of the subscription, unless this is scheduled already.
+         */
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this::send);
+            }
+        }
+
+        /**
+         * Method used to send the pending events of the subscription to the client.
+         * Events are polled and sent while holding the lock of the stream, so that they are sent in order.
+         */
+        synchronized void send() {
+            scheduled.set(false);
+            if (subscription == null) {
+                return;
+            }
+            try {
+                for (AccountEvent event : subscription.poll()) {
+                    emitter.send(SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException e) {
+                // The client has disconnected
+                close();
+                emitter.completeWithError(e);
+            } catch (IllegalStateException e) {
+                // The stream has been closed already
+                close();
+            }
+        }
+
+        /**
+         * Method used to stop the subscription of the stream from receiving events.
+         */
+        void close() {
+            if (subscription != null) {
+                model.get().unsubscribe(subscription);
+            }
+        }
+
+    }
+
+}
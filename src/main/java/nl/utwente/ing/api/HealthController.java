@@ -0,0 +1,72 @@
+package nl.utwente.ing.api;
+
+import nl.utwente.ing.model.bean.HealthStatus;
+import nl.utwente.ing.model.bean.StorageStatistics;
+import nl.utwente.ing.model.persistentmodel.DatabaseHealth;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The HealthController class.
+ * Exposes the health of the application to an orchestrator, and the size of its storage to monitoring.
+ * The liveness endpoint tells whether the application should be restarted, the readiness endpoint whether requests
+ * should be sent to it. Like the metrics, these endpoints are not part of the API and do not require a session.
+ *
+ * @author Daan Kooij
+ */
+@RestController
+public class HealthController {
+
+    /**
+     * Method used to check whether the application is alive.
+     *
+     * @return A ResponseEntity containing HTTP status code 200 if the connection to the database is open, or HTTP
+     * status code 503 otherwise.
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/health/live")
+    public ResponseEntity<HealthStatus> getLiveness() {
+        if (DatabaseHealth.isAlive()) {
+            return ResponseEntity.status(200).body(new HealthStatus(Collections.emptyList()));
+        } else {
+            return ResponseEntity.status(503).body(new HealthStatus(
+                    Collections.singletonList("The database connection is not open")));
+        }
+    }
+
+    /**
+     * Method used to check whether the application is ready to serve requests.
+     *
+     * @return A ResponseEntity containing HTTP status code 200 if the database can be used and its schema is up to
+     * date, or HTTP status code 503 and the reasons why not otherwise.
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/health/ready")
+    public ResponseEntity<HealthStatus> getReadiness() {
+        List<String> problems = DatabaseHealth.getReadinessProblems();
+        return ResponseEntity.status(problems.isEmpty() ? 200 : 503).body(new HealthStatus(problems));
+    }
+
+    /**
+     * Method used to retrieve the size of the database, the number of rows of its tables and the sizes of the caches
+     * kept in memory.
+     *
+     * @param exact Whether the rows of the tables should be counted exactly, which visits every table, instead of
+     *              being estimated.
+     * @return A ResponseEntity containing HTTP status code 200 and the StorageStatistics, or HTTP status code 503 if
+     * the database cannot be queried.
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/health/stats")
+    public ResponseEntity getStorageStatistics(@RequestParam(value = "exact", defaultValue = "false") boolean exact) {
+        StorageStatistics statistics = DatabaseHealth.getStorageStatistics(exact);
+        if (statistics == null) {
+            return ResponseEntity.status(503).body("Database is not available");
+        }
+        return ResponseEntity.status(200).body(statistics);
+    }
+
+}
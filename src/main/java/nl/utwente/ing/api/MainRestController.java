@@ -2,16 +2,22 @@ package nl.utwente.ing.api;
 
 import nl.utwente.ing.exception.InvalidSessionIDException;
 import nl.utwente.ing.exception.ResourceNotFoundException;
+import nl.utwente.ing.model.DateCodec;
 import nl.utwente.ing.model.Model;
+import nl.utwente.ing.model.analytics.IntervalCalendar;
 import nl.utwente.ing.model.bean.*;
 import nl.utwente.ing.model.persistentmodel.PersistentModel;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The MainRestController class.
@@ -23,14 +29,37 @@ import java.util.Map;
 @RestController
 public class MainRestController {
 
-    private Model model;
+    private volatile Model model;
+    private ModelExecutor modelExecutor;
+    private EventStreamer eventStreamer;
 
     /**
      * The constructor of MainRestController.
-     * Initializes the model.
+     * Initializes the executor on which the operations of the model are executed and the streamer of the changes to
+     * the model. The model itself is created when it is first used, because creating it waits for the connection to
+     * the database, which is set up in the background while Spring starts.
      */
     public MainRestController() {
-        model = new PersistentModel();
+        modelExecutor = new ModelExecutor();
+        eventStreamer = new EventStreamer(this::getModel);
+    }
+
+    /**
+     * Method used to retrieve the model, creating it the first time this method is called.
+     *
+     * @return The Model used to store data.
+     */
+    private Model getModel() {
+        Model current = model;
+        if (current == null) {
+            synchronized (this) {
+                if (model == null) {
+                    model = new PersistentModel();
+                }
+                current = model;
+            }
+        }
+        return current;
     }
 
     /**
@@ -52,117 +81,315 @@ public class MainRestController {
         }
     }
 
+    /**
+     * Method used to retrieve the entity tag of the data of the user issuing the current request.
+     * The entity tag changes whenever the data of the user changes. It is a weak entity tag, because the same data is
+     * sent both compressed and uncompressed, depending on the Accept-Encoding HTTP header of the request.
+     *
+     * @param sessionID The sessionID of the user issuing the current request.
+     * @return The entity tag, including the W/ prefix and the surrounding quotes.
+     */
+    private String getETag(String sessionID) throws InvalidSessionIDException {
+        return weakETag(getModel().getVersion(sessionID));
+    }
+
+    /**
+     * Method used to create a weak entity tag.
+     *
+     * @param value The value of the entity tag.
+     * @return The entity tag, including the W/ prefix and the surrounding quotes.
+     */
+    private static String weakETag(String value) {
+        return "W/\"" + value + "\"";
+    }
+
+    /**
+     * Method used to determine whether the client issuing the current request already has the current representation
+     * of the requested resource, by comparing the entity tags in its If-None-Match HTTP header to the current one.
+     * Entity tags are compared weakly, ignoring their W/ prefix.
+     *
+     * @param ifNoneMatch The If-None-Match HTTP header (empty String if not specified).
+     * @param eTag        The current entity tag of the requested resource.
+     * @return Whether the client already has the current representation of the requested resource.
+     */
+    private static boolean isNotModified(String ifNoneMatch, String eTag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || stripWeakPrefix(tag).equals(stripWeakPrefix(eTag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method used to remove the W/ prefix from an entity tag, if it has one.
+     *
+     * @param eTag The entity tag.
+     * @return The entity tag without the W/ prefix.
+     */
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    /**
+     * Method used to create the response for a client that already has the current representation of the requested
+     * resource. Like the response with the representation itself, it varies with the Accept-Encoding HTTP header, so
+     * that caches do not answer a client with a representation in an encoding it does not accept.
+     *
+     * @param eTag The current entity tag of the requested resource.
+     * @return A ResponseEntity with HTTP status code 304.
+     */
+    private static ResponseEntity notModified(String eTag) {
+        return ResponseEntity.status(304).eTag(eTag).varyBy("Accept-Encoding").build();
+    }
+
     /**
      * Method used to retrieve the transactions belonging to the user issuing the current request.
+     * The requested page, of at most 100 transactions, is read into memory as a whole before it is written to the
+     * response.
      *
-     * @param pSessionID The sessionID specified in the request parameters.
-     * @param hSessionID The sessionID specified in the HTTP header.
-     * @param category   The category to be filtered on (empty String if no filter).
-     * @param limit      The maximum amount of transactions to be fetched.
-     * @param offset     The starting index to fetch transactions.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @param pSessionID  The sessionID specified in the request parameters.
+     * @param hSessionID  The sessionID specified in the HTTP header.
+     * @param ifNoneMatch The entity tags of the transactions the client already has (empty String if none).
+     * @param category    The category to be filtered on (empty String if no filter).
+     * @param from        The date from which (inclusive) transactions are fetched (empty String if no filter).
+     * @param to          The date until which (exclusive) transactions are fetched (empty String if no filter).
+     * @param minAmount   The minimum amount (inclusive) of the transactions (empty String if no filter).
+     * @param maxAmount   The maximum amount (inclusive) of the transactions (empty String if no filter).
+     * @param type        The type to be filtered on ("deposit" or "withdrawal", empty String if no filter).
+     * @param iban        The external IBAN to be filtered on (empty String if no filter).
+     * @param limit       The maximum amount of transactions to be fetched.
+     * @param offset      The starting index to fetch transactions.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * an ArrayList of Transaction belonging to the user issuing the current request.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/transactions")
-    public ResponseEntity getTransactions(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                          @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                          @RequestParam(value = "category", defaultValue = "") String category,
-                                          @RequestParam(value = "limit", defaultValue = "20") String limit,
-                                          @RequestParam(value = "offset", defaultValue = "0") String offset) {
-        int limitInt = 20;
-        int offsetInt = 0;
-        try {
-            limitInt = Integer.parseInt(limit);
-            if (limitInt < 1 || limitInt > 100) {
-                limitInt = 20;
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getTransactions(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                             @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                             @RequestHeader(value = "If-None-Match", defaultValue = "") String ifNoneMatch,
+                                                             @RequestParam(value = "category", defaultValue = "") String category,
+                                                             @RequestParam(value = "from", defaultValue = "") String from,
+                                                             @RequestParam(value = "to", defaultValue = "") String to,
+                                                             @RequestParam(value = "min_amount", defaultValue = "") String minAmount,
+                                                             @RequestParam(value = "max_amount", defaultValue = "") String maxAmount,
+                                                             @RequestParam(value = "type", defaultValue = "") String type,
+                                                             @RequestParam(value = "iban", defaultValue = "") String iban,
+                                                             @RequestParam(value = "limit", defaultValue = "20") String limit,
+                                                             @RequestParam(value = "offset", defaultValue = "0") String offset) {
+        return modelExecutor.read(() -> {
+            TransactionFilter filter = new TransactionFilter();
+            if (!category.equals("")) {
+                filter.setCategory(category);
             }
-        } catch (NumberFormatException e) {
-            // Do nothing
-        }
-        try {
-            offsetInt = Integer.parseInt(offset);
-        } catch (NumberFormatException e) {
-            // Do nothing
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            ArrayList<Transaction> transactions = model.getTransactions(sessionID, category, limitInt, offsetInt);
-            return ResponseEntity.status(200).body(transactions);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+            try {
+                if (!from.equals("")) {
+                    filter.setFromMillis(DateCodec.toMillis(from));
+                }
+                if (!to.equals("")) {
+                    filter.setToMillis(DateCodec.toMillis(to));
+                }
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.status(405).body("Invalid input given (date format should be: \"yyyy-MM-dd'T'HH:mm:ss.SSSZ\")");
+            }
+            try {
+                if (!minAmount.equals("")) {
+                    filter.setMinAmount(Money.toCents(minAmount));
+                }
+                if (!maxAmount.equals("")) {
+                    filter.setMaxAmount(Money.toCents(maxAmount));
+                }
+            } catch (NumberFormatException | ArithmeticException e) {
+                return ResponseEntity.status(405).body("Invalid input given (min_amount and max_amount should be numbers)");
+            }
+            if (type.equals("deposit") || type.equals("withdrawal")) {
+                filter.setType(type);
+            } else if (!type.equals("")) {
+                return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
+            }
+            if (!iban.equals("")) {
+                filter.setExternalIBAN(iban);
+            }
+            int limitInt = 20;
+            int offsetInt = 0;
+            try {
+                limitInt = Integer.parseInt(limit);
+                if (limitInt < 1 || limitInt > 100) {
+                    limitInt = 20;
+                }
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                offsetInt = Integer.parseInt(offset);
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                String eTag = this.getETag(sessionID);
+                if (isNotModified(ifNoneMatch, eTag)) {
+                    return notModified(eTag);
+                }
+                ArrayList<Transaction> transactions = getModel().getTransactions(sessionID, filter, limitInt, offsetInt);
+                return ResponseEntity.status(200).eTag(eTag).body(transactions);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
      * Method used to create a new Transaction for the user issuing the current request.
+     * The StatementBudget covers a Transaction in the same month as the previous one of the user, or in the month
+     * after it. A Transaction after several months without any creates a Transaction for every saving goal for every
+     * month in between, which takes statements for each of these Transaction objects.
      *
      * @param pSessionID The sessionID specified in the request parameters.
      * @param hSessionID The sessionID specified in the HTTP header.
      * @param t          The Transaction object as specified in the json request body.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Transaction created using this method.
      */
     @RequestMapping(method = RequestMethod.POST,
             value = RestControllerConstants.URI_PREFIX + "/transactions")
-    public ResponseEntity postTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                          @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                          @RequestBody Transaction t) {
-        if (t == null || t.getDate() == null || t.getAmount() == 0 || t.getDescription() == null || t.getExternalIBAN() == null || t.getType() == null) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        if (!t.getType().equals("deposit") && !t.getType().equals("withdrawal")) {
-            return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
-        }
-        try {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-            dateFormat.setLenient(false);
-            dateFormat.parse(t.getDate().trim());
-        } catch (ParseException e) {
-            return ResponseEntity.status(405).body("Invalid input given (date format should be: \"yyyy-MM-dd'T'HH:mm:ss.SSSZ\")");
-        }
+    @StatementBudget(40)
+    public CompletableFuture<ResponseEntity> postTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                             @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                             @RequestBody Transaction t) {
+        return modelExecutor.write(() -> {
+            if (t == null || t.getDate() == null || t.getAmount() == 0 || t.getDescription() == null || t.getExternalIBAN() == null || t.getType() == null) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            if (!t.getType().equals("deposit") && !t.getType().equals("withdrawal")) {
+                return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
+            }
+            long dateMillis;
+            try {
+                dateMillis = DateCodec.toMillis(t.getDate());
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.status(405).body("Invalid input given (date format should be: \"yyyy-MM-dd'T'HH:mm:ss.SSSZ\")");
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                Transaction transaction;
+                if (t.getCategory() != null) {
+                    transaction = getModel().postTransaction(sessionID, t.getDate(), dateMillis, t.getAmount(), t.getDescription(),
+                            t.getExternalIBAN(), t.getType(), t.getCategory().getID());
+                } else {
+                    transaction = getModel().postTransaction(sessionID, t.getDate(), dateMillis, t.getAmount(), t.getDescription(),
+                            t.getExternalIBAN(), t.getType(), 0);
+                }
+                return ResponseEntity.status(201).body(transaction);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
+    }
+
+    /**
+     * Method used to stream the changes to the data of the user issuing the current request as server-sent events.
+     * Every event has the type of the change as its name and a json object with the type and the id of the changed
+     * resource as its data. When the client does not keep up, an overflow event is sent instead of the events that
+     * were dropped, after which the client should retrieve all resources again.
+     *
+     * @param pSessionID The sessionID specified in the request parameters.
+     * @param hSessionID The sessionID specified in the HTTP header.
+     * @return A ResponseEntity containing a HTTP status code and, if the session is valid, an SseEmitter through
+     * which the changes are sent.
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = RestControllerConstants.URI_PREFIX + "/events")
+    public ResponseEntity<SseEmitter> getEvents(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID) {
         try {
             String sessionID = this.getSessionID(pSessionID, hSessionID);
-            Transaction transaction;
-            if (t.getCategory() != null) {
-                transaction = model.postTransaction(sessionID, t.getDate(), t.getAmount(), t.getDescription(), t.getExternalIBAN(),
-                        t.getType(), t.getCategory().getID());
-            } else {
-                transaction = model.postTransaction(sessionID, t.getDate(), t.getAmount(), t.getDescription(), t.getExternalIBAN(),
-                        t.getType(), 0);
-            }
-            return ResponseEntity.status(201).body(transaction);
+            return ResponseEntity.status(200).body(eventStreamer.open(sessionID));
         } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
+            // A streaming response cannot carry a status message
+            return ResponseEntity.status(401).body(null);
         }
     }
 
+    /**
+     * Method used to search the transactions of the user issuing the current request by their description.
+     *
+     * @param pSessionID The sessionID specified in the request parameters.
+     * @param hSessionID The sessionID specified in the HTTP header.
+     * @param query      The words to search for.
+     * @param limit      The maximum amount of transactions to be fetched.
+     * @param offset     The starting index to fetch transactions.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
+     * an ArrayList of Transaction belonging to the user issuing the current request, the most relevant first.
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = RestControllerConstants.URI_PREFIX + "/transactions/search")
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> searchTransactions(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                @RequestParam(value = "q", defaultValue = "") String query,
+                                                                @RequestParam(value = "limit", defaultValue = "20") String limit,
+                                                                @RequestParam(value = "offset", defaultValue = "0") String offset) {
+        return modelExecutor.read(() -> {
+            if (query.trim().equals("")) {
+                return ResponseEntity.status(405).body("Invalid input given (q should contain at least one word)");
+            }
+            int limitInt = 20;
+            int offsetInt = 0;
+            try {
+                limitInt = Integer.parseInt(limit);
+                if (limitInt < 1 || limitInt > 100) {
+                    limitInt = 20;
+                }
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                offsetInt = Integer.parseInt(offset);
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                ArrayList<Transaction> transactions = getModel().searchTransactions(sessionID, query, limitInt, offsetInt);
+                return ResponseEntity.status(200).body(transactions);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
+    }
+
     /**
      * Method used to retrieve a certain Transaction of the user issuing the current request.
      *
      * @param pSessionID    The sessionID specified in the request parameters.
      * @param hSessionID    The sessionID specified in the HTTP header.
      * @param transactionID The transactionID of the Transaction that will be retrieved.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Transaction with transactionID belonging to the user issuing the current request.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/transactions/{transactionID}")
-    public ResponseEntity getTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                         @PathVariable String transactionID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long transactionIDLong = Long.parseLong(transactionID);
-            Transaction transaction = model.getTransaction(sessionID, transactionIDLong);
-            return ResponseEntity.status(200).body(transaction);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (ResourceNotFoundException | NumberFormatException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(4)
+    public CompletableFuture<ResponseEntity> getTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                            @PathVariable String transactionID) {
+        return modelExecutor.read(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long transactionIDLong = Long.parseLong(transactionID);
+                Transaction transaction = getModel().getTransaction(sessionID, transactionIDLong);
+                return ResponseEntity.status(200).body(transaction);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (ResourceNotFoundException | NumberFormatException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -172,47 +399,49 @@ public class MainRestController {
      * @param hSessionID    The sessionID specified in the HTTP header.
      * @param transactionID The transactionID of the Transaction that will be updated.
      * @param t             The Transaction object as specified in the json HTTP body.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Transaction updated using this method.
      */
     @RequestMapping(method = RequestMethod.PUT,
             value = RestControllerConstants.URI_PREFIX + "/transactions/{transactionID}")
-    public ResponseEntity putTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                         @PathVariable String transactionID,
-                                         @RequestBody Transaction t) {
-        if (t == null) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        if (!t.getType().equals("deposit") && !t.getType().equals("withdrawal")) {
-            return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
-        }
-        if (!t.getDate().equals("") && !t.getDate().equals(null)) {
-            try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-                dateFormat.setLenient(false);
-                dateFormat.parse(t.getDate().trim());
-            } catch (ParseException e) {
-                return ResponseEntity.status(405).body("Invalid input given (date format should be: \"yyyy-MM-dd'T'HH:mm:ss.SSSZ\")");
+    @StatementBudget(40)
+    public CompletableFuture<ResponseEntity> putTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                            @PathVariable String transactionID,
+                                                            @RequestBody Transaction t) {
+        return modelExecutor.write(() -> {
+            if (t == null) {
+                return ResponseEntity.status(405).body("Invalid input given");
             }
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long transactionIDLong = Long.parseLong(transactionID);
-            Transaction transaction;
-            if (t.getCategory() != null) {
-                transaction = model.putTransaction(sessionID, transactionIDLong, t.getDate(), t.getAmount(),
-                        t.getDescription(), t.getExternalIBAN(), t.getType(), t.getCategory().getID());
-            } else {
-                transaction = model.putTransaction(sessionID, transactionIDLong, t.getDate(), t.getAmount(),
-                        t.getDescription(), t.getExternalIBAN(), t.getType(), 0);
+            if (!t.getType().equals("deposit") && !t.getType().equals("withdrawal")) {
+                return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
             }
-            return ResponseEntity.status(200).body(transaction);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+            long dateMillis = 0;
+            if (!t.getDate().equals("") && !t.getDate().equals(null)) {
+                try {
+                    dateMillis = DateCodec.toMillis(t.getDate());
+                } catch (DateTimeParseException e) {
+                    return ResponseEntity.status(405).body("Invalid input given (date format should be: \"yyyy-MM-dd'T'HH:mm:ss.SSSZ\")");
+                }
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long transactionIDLong = Long.parseLong(transactionID);
+                Transaction transaction;
+                if (t.getCategory() != null) {
+                    transaction = getModel().putTransaction(sessionID, transactionIDLong, t.getDate(), dateMillis,
+                            t.getAmount(), t.getDescription(), t.getExternalIBAN(), t.getType(), t.getCategory().getID());
+                } else {
+                    transaction = getModel().putTransaction(sessionID, transactionIDLong, t.getDate(), dateMillis,
+                            t.getAmount(), t.getDescription(), t.getExternalIBAN(), t.getType(), 0);
+                }
+                return ResponseEntity.status(200).body(transaction);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -221,23 +450,26 @@ public class MainRestController {
      * @param pSessionID    The sessionID specified in the request parameters.
      * @param hSessionID    The sessionID specified in the HTTP header.
      * @param transactionID The transactionID of the Transaction that will be deleted.
-     * @return A ResponseEntity containing a HTTP status code and a status message.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and a status message.
      */
     @RequestMapping(method = RequestMethod.DELETE,
             value = RestControllerConstants.URI_PREFIX + "/transactions/{transactionID}")
-    public ResponseEntity deleteTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                            @PathVariable String transactionID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long transactionIDLong = Long.parseLong(transactionID);
-            model.deleteTransaction(sessionID, transactionIDLong);
-            return ResponseEntity.status(204).body("Resource deleted");
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(8)
+    public CompletableFuture<ResponseEntity> deleteTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                               @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                               @PathVariable String transactionID) {
+        return modelExecutor.write(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long transactionIDLong = Long.parseLong(transactionID);
+                getModel().deleteTransaction(sessionID, transactionIDLong);
+                return ResponseEntity.status(204).body("Resource deleted");
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -247,63 +479,75 @@ public class MainRestController {
      * @param hSessionID    The sessionID specified in the HTTP header.
      * @param transactionID The transactionID of the Transaction to which the Category will be assigned.
      * @param body          The body of the json request.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Transaction to which a Category is assigned.
      */
     @RequestMapping(method = RequestMethod.PATCH,
             value = RestControllerConstants.URI_PREFIX + "/transactions/{transactionID}/category")
-    public ResponseEntity assignCategoryToTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                                      @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                                      @PathVariable String transactionID,
-                                                      @RequestBody Map<String, Long> body) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long transactionIDLong = Long.parseLong(transactionID);
-            long categoryIDLong = body.get("category_id");
-            Transaction transaction = model.assignCategoryToTransaction(sessionID, transactionIDLong, categoryIDLong);
-            return ResponseEntity.status(200).body(transaction);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(11)
+    public CompletableFuture<ResponseEntity> assignCategoryToTransaction(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                         @PathVariable String transactionID,
+                                                                         @RequestBody Map<String, Long> body) {
+        return modelExecutor.write(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long transactionIDLong = Long.parseLong(transactionID);
+                long categoryIDLong = body.get("category_id");
+                Transaction transaction = getModel().assignCategoryToTransaction(sessionID, transactionIDLong, categoryIDLong);
+                return ResponseEntity.status(200).body(transaction);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
      * Method used to retrieve the categories belonging to the user issuing the current request.
      *
-     * @param pSessionID The sessionID specified in the request parameters.
-     * @param hSessionID The sessionID specified in the HTTP header.
-     * @param limit      The maximum amount of categories to be fetched.
-     * @param offset     The starting index to fetch categories.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @param pSessionID  The sessionID specified in the request parameters.
+     * @param hSessionID  The sessionID specified in the HTTP header.
+     * @param ifNoneMatch The entity tags of the categories the client already has (empty String if none).
+     * @param limit       The maximum amount of categories to be fetched.
+     * @param offset      The starting index to fetch categories.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * an ArrayList of Category belonging to the user issuing the current request.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/categories")
-    public ResponseEntity getCategories(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                        @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                        @RequestParam(value = "limit", defaultValue = "20") String limit,
-                                        @RequestParam(value = "offset", defaultValue = "0") String offset) {
-        int limitInt = 20;
-        int offsetInt = 0;
-        try {
-            limitInt = Integer.parseInt(limit);
-        } catch (NumberFormatException e) {
-            // Do nothing
-        }
-        try {
-            offsetInt = Integer.parseInt(offset);
-        } catch (NumberFormatException e) {
-            // Do nothing
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            ArrayList<Category> categories = model.getCategories(sessionID, limitInt, offsetInt);
-            return ResponseEntity.status(200).body(categories);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getCategories(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                           @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                           @RequestHeader(value = "If-None-Match", defaultValue = "") String ifNoneMatch,
+                                                           @RequestParam(value = "limit", defaultValue = "20") String limit,
+                                                           @RequestParam(value = "offset", defaultValue = "0") String offset) {
+        return modelExecutor.read(() -> {
+            int limitInt = 20;
+            int offsetInt = 0;
+            try {
+                limitInt = Integer.parseInt(limit);
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                offsetInt = Integer.parseInt(offset);
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                String eTag = this.getETag(sessionID);
+                if (isNotModified(ifNoneMatch, eTag)) {
+                    return notModified(eTag);
+                }
+                ArrayList<Category> categories = getModel().getCategories(sessionID, limitInt, offsetInt);
+                return ResponseEntity.status(200).eTag(eTag).body(categories);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
@@ -312,24 +556,74 @@ public class MainRestController {
      * @param pSessionID The sessionID specified in the request parameters.
      * @param hSessionID The sessionID specified in the HTTP header.
      * @param c          The Category object as specified in the json HTTP body.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Category created by using this method.
      */
     @RequestMapping(method = RequestMethod.POST,
             value = RestControllerConstants.URI_PREFIX + "/categories")
-    public ResponseEntity postCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                       @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                       @RequestBody Category c) {
-        if (c == null || c.getName() == null) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            Category category = model.postCategory(sessionID, c.getName());
-            return ResponseEntity.status(201).body(category);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+    @StatementBudget(5)
+    public CompletableFuture<ResponseEntity> postCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                          @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                          @RequestBody Category c) {
+        return modelExecutor.write(() -> {
+            if (c == null || c.getName() == null) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                Category category = getModel().postCategory(sessionID, c.getName());
+                return ResponseEntity.status(201).body(category);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
+    }
+
+    /**
+     * Method used to retrieve the total, count and average amount of the transactions of the user issuing the current
+     * request per Category, period and type.
+     *
+     * @param pSessionID The sessionID specified in the request parameters.
+     * @param hSessionID The sessionID specified in the HTTP header.
+     * @param interval   The length of the periods ("month" or "year").
+     * @param from       The first period (inclusive) of which statistics are retrieved
+     *                   ("yyyy-MM" or "yyyy", empty String if no filter).
+     * @param to         The last period (inclusive) of which statistics are retrieved
+     *                   ("yyyy-MM" or "yyyy", empty String if no filter).
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
+     * an ArrayList of CategoryStatistic belonging to the user issuing the current request.
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = RestControllerConstants.URI_PREFIX + "/categories/statistics")
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getCategoryStatistics(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                   @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                   @RequestParam(value = "interval", defaultValue = "month") String interval,
+                                                                   @RequestParam(value = "from", defaultValue = "") String from,
+                                                                   @RequestParam(value = "to", defaultValue = "") String to) {
+        return modelExecutor.read(() -> {
+            String periodPattern;
+            if (interval.equals("month")) {
+                periodPattern = "\\d{4}-\\d{2}";
+            } else if (interval.equals("year")) {
+                periodPattern = "\\d{4}";
+            } else {
+                return ResponseEntity.status(405).body("Invalid input given (interval should be 'month' or 'year')");
+            }
+            if ((!from.equals("") && !from.matches(periodPattern)) || (!to.equals("") && !to.matches(periodPattern))) {
+                return ResponseEntity.status(405).body("Invalid input given (from and to should be formatted as " +
+                        (interval.equals("month") ? "\"yyyy-MM\")" : "\"yyyy\")"));
+            }
+            String lastPeriod = to.equals("") ? "9999-12" : to;
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                ArrayList<CategoryStatistic> categoryStatistics =
+                        getModel().getCategoryStatistics(sessionID, interval.equals("year"), from, lastPeriod);
+                return ResponseEntity.status(200).body(categoryStatistics);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
@@ -338,24 +632,27 @@ public class MainRestController {
      * @param pSessionID The sessionID specified in the request parameters.
      * @param hSessionID The sessionID specified in the HTTP header.
      * @param categoryID The categoryID of the Category that will be retrieved.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Category with categoryID belonging to the user issuing the current request.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/categories/{categoryID}")
-    public ResponseEntity getCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                      @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                      @PathVariable String categoryID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long categoryIDLong = Long.parseLong(categoryID);
-            Category category = model.getCategory(sessionID, categoryIDLong);
-            return ResponseEntity.status(200).body(category);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                         @PathVariable String categoryID) {
+        return modelExecutor.read(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long categoryIDLong = Long.parseLong(categoryID);
+                Category category = getModel().getCategory(sessionID, categoryIDLong);
+                return ResponseEntity.status(200).body(category);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -365,28 +662,31 @@ public class MainRestController {
      * @param hSessionID The sessionID specified in the HTTP header.
      * @param categoryID The categoryID of the Category that will be updated.
      * @param c          The Category object as specified in the json HTTP body.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the Category updated using this method.
      */
     @RequestMapping(method = RequestMethod.PUT,
             value = RestControllerConstants.URI_PREFIX + "/categories/{categoryID}")
-    public ResponseEntity putCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                      @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                      @PathVariable String categoryID,
-                                      @RequestBody Category c) {
-        if (c == null || c.getName() == null) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long categoryIDLong = Long.parseLong(categoryID);
-            Category category = model.putCategory(sessionID, categoryIDLong, c.getName());
-            return ResponseEntity.status(200).body(category);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(4)
+    public CompletableFuture<ResponseEntity> putCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                         @PathVariable String categoryID,
+                                                         @RequestBody Category c) {
+        return modelExecutor.write(() -> {
+            if (c == null || c.getName() == null) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long categoryIDLong = Long.parseLong(categoryID);
+                Category category = getModel().putCategory(sessionID, categoryIDLong, c.getName());
+                return ResponseEntity.status(200).body(category);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -395,33 +695,37 @@ public class MainRestController {
      * @param pSessionID The sessionID specified in the request parameters.
      * @param hSessionID The sessionID specified in the HTTP header.
      * @param categoryID The categoryID of the Category that will be deleted.
-     * @return A ResponseEntity containing a HTTP status code and a status message.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and a status message.
      */
     @RequestMapping(method = RequestMethod.DELETE,
             value = RestControllerConstants.URI_PREFIX + "/categories/{categoryID}")
-    public ResponseEntity deleteCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                         @PathVariable String categoryID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long categoryIDLong = Long.parseLong(categoryID);
-            model.deleteCategory(sessionID, categoryIDLong);
-            return ResponseEntity.status(204).body("Resource deleted");
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(5)
+    public CompletableFuture<ResponseEntity> deleteCategory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                            @PathVariable String categoryID) {
+        return modelExecutor.write(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long categoryIDLong = Long.parseLong(categoryID);
+                getModel().deleteCategory(sessionID, categoryIDLong);
+                return ResponseEntity.status(204).body("Resource deleted");
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
      * Method used to generate and retrieve a new sessionID.
      *
-     * @return A ResponseEntity containing a HTTP status code the sessionID generated by this method.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code the sessionID generated by this method.
      */
     @RequestMapping(method = RequestMethod.POST, value = RestControllerConstants.URI_PREFIX + "/sessions")
-    public ResponseEntity getSessionID() {
-        return ResponseEntity.status(201).body(model.getSession());
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getSessionID() {
+        return modelExecutor.write(() -> ResponseEntity.status(201).body(getModel().getSession()));
     }
 
     /**
@@ -429,53 +733,61 @@ public class MainRestController {
      *
      * @param pSessionID The sessionID specified in the request parameters.
      * @param hSessionID The sessionID specified in the HTTP header.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * an ArrayList of CategoryRules belonging to the user issuing the current request.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/categoryRules")
-    public ResponseEntity getCategoryRules(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                           @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            ArrayList<CategoryRule> categoryRules = model.getCategoryRules(sessionID);
-            return ResponseEntity.status(200).body(categoryRules);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getCategoryRules(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                              @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID) {
+        return modelExecutor.read(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                ArrayList<CategoryRule> categoryRules = getModel().getCategoryRules(sessionID);
+                return ResponseEntity.status(200).body(categoryRules);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
      * Method used to create a new CategoryRule for the user issuing the current request.
+     * Applying a rule on the history assigns the Category to every matching Transaction separately, which is why this
+     * endpoint has a budget per matching Transaction.
      *
      * @param pSessionID The sessionID specified in the request parameters.
      * @param hSessionID The sessionID specified in the HTTP header.
      * @param c          The CategoryRule object as specified in the json HTTP body.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the CategoryRule created by using this method.
      */
     @RequestMapping(method = RequestMethod.POST,
             value = RestControllerConstants.URI_PREFIX + "/categoryRules")
-    public ResponseEntity postCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                           @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                           @RequestBody CategoryRule c) {
-        if (c == null || c.getDescription() == null || c.getiBAN() == null || c.getType() == null || c.getCategory_id() <= 0) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        if (!c.getType().equals("") && !c.getType().equals("deposit") && !c.getType().equals("withdrawal")) {
-            return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            CategoryRule categoryRule = model.postCategoryRule(sessionID, c.getDescription(), c.getiBAN(), c.getType(),
-                    c.getCategory_id(), c.getApplyOnHistory());
-            return ResponseEntity.status(201).body(categoryRule);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (ResourceNotFoundException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(10)
+    public CompletableFuture<ResponseEntity> postCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                              @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                              @RequestBody CategoryRule c) {
+        return modelExecutor.write(() -> {
+            if (c == null || c.getDescription() == null || c.getiBAN() == null || c.getType() == null || c.getCategory_id() <= 0) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            if (!c.getType().equals("") && !c.getType().equals("deposit") && !c.getType().equals("withdrawal")) {
+                return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal')");
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                CategoryRule categoryRule = getModel().postCategoryRule(sessionID, c.getDescription(), c.getiBAN(), c.getType(),
+                        c.getCategory_id(), c.getApplyOnHistory());
+                return ResponseEntity.status(201).body(categoryRule);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (ResourceNotFoundException e) {
+                e.printStackTrace();
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -484,24 +796,27 @@ public class MainRestController {
      * @param pSessionID     The sessionID specified in the request parameters.
      * @param hSessionID     The sessionID specified in the HTTP header.
      * @param categoryRuleID The categoryID of the CategoryRule that will be retrieved.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the CategoryRule with categoryRuleID belonging to the user issuing the current request.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/categoryRules/{categoryRuleID}")
-    public ResponseEntity getCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                          @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                          @PathVariable String categoryRuleID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long categoryRuleIDLong = Long.parseLong(categoryRuleID);
-            CategoryRule categoryRule = model.getCategoryRule(sessionID, categoryRuleIDLong);
-            return ResponseEntity.status(200).body(categoryRule);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (ResourceNotFoundException | NumberFormatException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                             @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                             @PathVariable String categoryRuleID) {
+        return modelExecutor.read(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long categoryRuleIDLong = Long.parseLong(categoryRuleID);
+                CategoryRule categoryRule = getModel().getCategoryRule(sessionID, categoryRuleIDLong);
+                return ResponseEntity.status(200).body(categoryRule);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (ResourceNotFoundException | NumberFormatException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -511,33 +826,36 @@ public class MainRestController {
      * @param hSessionID     The sessionID specified in the HTTP header.
      * @param categoryRuleID The categoryRuleID of the CategoryRule that will be updated.
      * @param c              The CategoryRule object as specified in the json HTTP body.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the CategoryRule updated using this method.
      */
     @RequestMapping(method = RequestMethod.PUT,
             value = RestControllerConstants.URI_PREFIX + "/categoryRules/{categoryRuleID}")
-    public ResponseEntity putCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                          @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                          @PathVariable String categoryRuleID,
-                                          @RequestBody CategoryRule c) {
+    @StatementBudget(7)
+    public CompletableFuture<ResponseEntity> putCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                             @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                             @PathVariable String categoryRuleID,
+                                                             @RequestBody CategoryRule c) {
+        return modelExecutor.write(() -> {
 
-        if (c == null || c.getDescription() == null || c.getiBAN() == null || c.getType() == null || c.getCategory_id() <= 0) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        if (!c.getType().equals("deposit") && !c.getType().equals("withdrawal") && !c.getType().equals("")) {
-            return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal' or '')");
-        }
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long categoryRuleIDLong = Long.parseLong(categoryRuleID);
-            CategoryRule categoryRule = model.putCategoryRule(sessionID, categoryRuleIDLong, c.getDescription(), c.getiBAN(),
-                    c.getType(), c.getCategory_id());
-            return ResponseEntity.status(200).body(categoryRule);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+            if (c == null || c.getDescription() == null || c.getiBAN() == null || c.getType() == null || c.getCategory_id() <= 0) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            if (!c.getType().equals("deposit") && !c.getType().equals("withdrawal") && !c.getType().equals("")) {
+                return ResponseEntity.status(405).body("Invalid input given (type should be 'deposit' or 'withdrawal' or '')");
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long categoryRuleIDLong = Long.parseLong(categoryRuleID);
+                CategoryRule categoryRule = getModel().putCategoryRule(sessionID, categoryRuleIDLong, c.getDescription(), c.getiBAN(),
+                        c.getType(), c.getCategory_id());
+                return ResponseEntity.status(200).body(categoryRule);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -546,23 +864,26 @@ public class MainRestController {
      * @param pSessionID     The sessionID specified in the request parameters.
      * @param hSessionID     The sessionID specified in the HTTP header.
      * @param categoryRuleID The categoryRuleID of the CategoryRule that will be deleted.
-     * @return A ResponseEntity containing a HTTP status code and a status message.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and a status message.
      */
     @RequestMapping(method = RequestMethod.DELETE,
             value = RestControllerConstants.URI_PREFIX + "/categoryRules/{categoryRuleID}")
-    public ResponseEntity deleteCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                             @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                             @PathVariable String categoryRuleID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long categoryRuleIDLong = Long.parseLong(categoryRuleID);
-            model.deleteCategoryRule(sessionID, categoryRuleIDLong);
-            return ResponseEntity.status(204).body("Resource deleted");
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(3)
+    public CompletableFuture<ResponseEntity> deleteCategoryRule(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                @PathVariable String categoryRuleID) {
+        return modelExecutor.write(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long categoryRuleIDLong = Long.parseLong(categoryRuleID);
+                getModel().deleteCategoryRule(sessionID, categoryRuleIDLong);
+                return ResponseEntity.status(204).body("Resource deleted");
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
@@ -570,38 +891,112 @@ public class MainRestController {
      *
      * @param pSessionID   The sessionID specified in the request parameters.
      * @param hSessionID   The sessionID specified in the HTTP header.
+     * @param ifNoneMatch  The entity tags of the balance history the client already has (empty String if none).
      * @param intervalTime The type of the to be retrieved intervals.
      * @param intervals    The number of the to be retrieved intervals.
-     * @return A ResponseEntity containing a HTTP status code and either a status message or
+     * @param tz           The time zone in which the intervals are aligned (empty String for the time zone of the
+     *                     server).
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
      * the balance history over the specified period.
      */
     @RequestMapping(method = RequestMethod.GET,
             value = RestControllerConstants.URI_PREFIX + "/balance/history")
-    public ResponseEntity getBalanceHistory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                            @RequestParam(value = "interval", defaultValue = "month") String intervalTime,
-                                            @RequestParam(value = "intervals", defaultValue = "24") String intervals) {
-        int intervalsNumber = 24;
-        try {
-            intervalsNumber = Integer.parseInt(intervals);
-            if (intervalsNumber < 1 || intervalsNumber > 100) {
-                intervalsNumber = 24;
+    @StatementBudget(3)
+    public CompletableFuture<ResponseEntity> getBalanceHistory(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                               @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                               @RequestHeader(value = "If-None-Match", defaultValue = "") String ifNoneMatch,
+                                                               @RequestParam(value = "interval", defaultValue = "month") String intervalTime,
+                                                               @RequestParam(value = "intervals", defaultValue = "24") String intervals,
+                                                               @RequestParam(value = "tz", defaultValue = "") String tz) {
+        return modelExecutor.read(() -> {
+            int intervalsNumber = 24;
+            try {
+                intervalsNumber = Integer.parseInt(intervals);
+                if (intervalsNumber < 1 || intervalsNumber > 100) {
+                    intervalsNumber = 24;
+                }
+            } catch (NumberFormatException e) {
+                // Do nothing
             }
-        } catch (NumberFormatException e) {
-            // Do nothing
-        }
 
-        if (!(intervalTime.equals("hour") || intervalTime.equals("day") || intervalTime.equals("week") || intervalTime.equals("month") || intervalTime.equals("year"))) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
+            if (!(intervalTime.equals("hour") || intervalTime.equals("day") || intervalTime.equals("week") || intervalTime.equals("month") || intervalTime.equals("year"))) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            ZoneId zone = ZoneId.systemDefault();
+            try {
+                if (!tz.equals("")) {
+                    zone = ZoneId.of(tz.trim());
+                }
+            } catch (DateTimeException e) {
+                return ResponseEntity.status(405).body("Invalid input given (tz should be a time zone, like \"Europe/Amsterdam\")");
+            }
 
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            ArrayList<Interval> intervalsList = model.getIntervals(sessionID, intervalsNumber, intervalTime);
-            return ResponseEntity.status(200).body(intervalsList);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                // The balance history also changes when a new interval starts, so the start of the current interval
+                // is part of the entity tag.
+                long currentIntervalStart = IntervalCalendar.getBoundaries(intervalTime, 1, zone, Instant.now())[0];
+                String eTag = weakETag(getModel().getVersion(sessionID) + "-" + Long.toString(currentIntervalStart, 36));
+                if (isNotModified(ifNoneMatch, eTag)) {
+                    return notModified(eTag);
+                }
+                ArrayList<Interval> intervalsList = getModel().getIntervals(sessionID, intervalsNumber, intervalTime, zone);
+                return ResponseEntity.status(200).eTag(eTag).body(intervalsList);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
+    }
+
+    /**
+     * Method used to retrieve the counterparties (external IBANs) with the highest total transaction amount, either of
+     * the user issuing the current request or of all users together.
+     * By default, the volumes are estimated using a sketch, which answers in constant time regardless of the number of
+     * transactions; every returned volume overestimates the true volume by at most the returned error.
+     * The IBANs of the counterparties of all users together are masked, since they belong to the transactions of other
+     * users.
+     *
+     * @param pSessionID The sessionID specified in the request parameters.
+     * @param hSessionID The sessionID specified in the HTTP header.
+     * @param scope      Whether the counterparties of the user ("user") or of all users ("global") are retrieved.
+     * @param exact      Whether the volumes should be computed exactly over all transactions ("true" or "false").
+     * @param limit      The maximum amount of counterparties to be fetched.
+     * @return A CompletableFuture of a ResponseEntity containing a HTTP status code and either a status message or
+     * an ArrayList of Counterparty, the highest volume first.
+     */
+    @RequestMapping(method = RequestMethod.GET,
+            value = RestControllerConstants.URI_PREFIX + "/counterparties")
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getTopCounterparties(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                  @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                  @RequestParam(value = "scope", defaultValue = "user") String scope,
+                                                                  @RequestParam(value = "exact", defaultValue = "false") String exact,
+                                                                  @RequestParam(value = "limit", defaultValue = "10") String limit) {
+        return modelExecutor.read(() -> {
+            if (!(scope.equals("user") || scope.equals("global"))) {
+                return ResponseEntity.status(405).body("Invalid input given (scope should be 'user' or 'global')");
+            }
+            if (!(exact.equals("true") || exact.equals("false"))) {
+                return ResponseEntity.status(405).body("Invalid input given (exact should be 'true' or 'false')");
+            }
+            int limitInt = 10;
+            try {
+                limitInt = Integer.parseInt(limit);
+                if (limitInt < 1 || limitInt > 32) {
+                    limitInt = 10;
+                }
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                ArrayList<Counterparty> counterparties = getModel().getTopCounterparties(sessionID, scope.equals("global"),
+                        Boolean.parseBoolean(exact), limitInt);
+                return ResponseEntity.status(200).body(counterparties);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
@@ -609,19 +1004,28 @@ public class MainRestController {
      *
      * @param pSessionID   The sessionID specified in the request parameters.
      * @param hSessionID   The sessionID specified in the HTTP header.
-     * @return A ResponseEntity containing an HTTP status code and either a status message or
+     * @param ifNoneMatch  The entity tags of the savinggoals the client already has (empty String if none).
+     * @return A CompletableFuture of a ResponseEntity containing an HTTP status code and either a status message or
      * a list of all the savinggoals of the specified user.
      */
     @RequestMapping(method = RequestMethod.GET, value = RestControllerConstants.URI_PREFIX + "/savingGoals")
-    public ResponseEntity getSavingGoals(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            ArrayList<SavingGoal> savingGoals = model.getSavingGoals(sessionID);
-            return ResponseEntity.status(200).body(savingGoals);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+    @StatementBudget(2)
+    public CompletableFuture<ResponseEntity> getSavingGoals(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                            @RequestHeader(value = "If-None-Match", defaultValue = "") String ifNoneMatch) {
+        return modelExecutor.read(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                String eTag = this.getETag(sessionID);
+                if (isNotModified(ifNoneMatch, eTag)) {
+                    return notModified(eTag);
+                }
+                ArrayList<SavingGoal> savingGoals = getModel().getSavingGoals(sessionID);
+                return ResponseEntity.status(200).eTag(eTag).body(savingGoals);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
@@ -634,26 +1038,29 @@ public class MainRestController {
      * status message the newly created savinggoal of the specified user.
      */
     @RequestMapping(method = RequestMethod.POST, value = RestControllerConstants.URI_PREFIX + "/savingGoals")
-    public ResponseEntity postSavingGoal(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                         @RequestBody SavingGoal s) {
+    @StatementBudget(5)
+    public CompletableFuture<ResponseEntity> postSavingGoal(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                            @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                            @RequestBody SavingGoal s) {
+        return modelExecutor.write(() -> {
 
-        if (s == null || s.getName().equals(null) || s.getSavePerMonth() < 1 || s.getGoal() < 1) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
-        float minBalanceRequired = 0;
-        if (s.getMinBalanceRequired() > 0) {
-            minBalanceRequired = s.getMinBalanceRequired();
-        }
-        s.setMinBalanceRequired(minBalanceRequired);
+            if (s == null || s.getName().equals(null) || s.getSavePerMonth() < Money.CENTS_PER_UNIT || s.getGoal() < Money.CENTS_PER_UNIT) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            long minBalanceRequired = 0;
+            if (s.getMinBalanceRequired() > 0) {
+                minBalanceRequired = s.getMinBalanceRequired();
+            }
+            s.setMinBalanceRequired(minBalanceRequired);
 
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            SavingGoal savingGoal = model.postSavingGoal(sessionID, s.getName(), s.getGoal(), s.getSavePerMonth(), s.getMinBalanceRequired());
-            return ResponseEntity.status(201).body(savingGoal);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                SavingGoal savingGoal = getModel().postSavingGoal(sessionID, s.getName(), s.getGoal(), s.getSavePerMonth(), s.getMinBalanceRequired());
+                return ResponseEntity.status(201).body(savingGoal);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
@@ -667,38 +1074,71 @@ public class MainRestController {
      */
     @RequestMapping(method = RequestMethod.DELETE,
             value = RestControllerConstants.URI_PREFIX + "/savingGoals/{savingGoalID}")
-    public ResponseEntity deleteSavingGoal(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                             @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                             @PathVariable String savingGoalID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            long savingGoalIDLong = Long.parseLong(savingGoalID);
-            model.deleteSavingGoal(sessionID, savingGoalIDLong);
-            return ResponseEntity.status(204).body("Resource deleted");
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        } catch (NumberFormatException | ResourceNotFoundException e) {
-            return ResponseEntity.status(404).body("Resource not found");
-        }
+    @StatementBudget(10)
+    public CompletableFuture<ResponseEntity> deleteSavingGoal(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                              @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                              @PathVariable String savingGoalID) {
+        return modelExecutor.write(() -> {
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                long savingGoalIDLong = Long.parseLong(savingGoalID);
+                getModel().deleteSavingGoal(sessionID, savingGoalIDLong);
+                return ResponseEntity.status(204).body("Resource deleted");
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            } catch (NumberFormatException | ResourceNotFoundException e) {
+                return ResponseEntity.status(404).body("Resource not found");
+            }
+        });
     }
 
     /**
-     * Method used to get all the payment requests.
+     * Method used to get the payment requests.
      *
      * @param pSessionID    The sessionID specified in the request parameters.
      * @param hSessionID    The sessionID specified in the HTTP header.
-     * @return A responseEntity containing an HTTP status code or a list of payment requests of the user.
+     * @param filled        The filled status to be filtered on ("true" or "false", empty String if no filter).
+     * @param limit         The maximum amount of payment requests to be fetched.
+     * @param offset        The starting index to fetch payment requests.
+     * @return A CompletableFuture of a ResponseEntity containing an HTTP status code or a list of payment requests of the user.
      */
     @RequestMapping(method = RequestMethod.GET, value = RestControllerConstants.URI_PREFIX + "/paymentRequests")
-    public ResponseEntity getPaymentRequests(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID) {
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            ArrayList<PaymentRequest> paymentRequests = model.getPaymentRequests(sessionID);
-            return ResponseEntity.status(200).body(paymentRequests);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+    @StatementBudget(3)
+    public CompletableFuture<ResponseEntity> getPaymentRequests(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                @RequestParam(value = "filled", defaultValue = "") String filled,
+                                                                @RequestParam(value = "limit", defaultValue = "20") String limit,
+                                                                @RequestParam(value = "offset", defaultValue = "0") String offset) {
+        return modelExecutor.read(() -> {
+            Boolean filledFilter = null;
+            if (filled.equals("true") || filled.equals("false")) {
+                filledFilter = Boolean.parseBoolean(filled);
+            } else if (!filled.equals("")) {
+                return ResponseEntity.status(405).body("Invalid input given (filled should be 'true' or 'false')");
+            }
+            int limitInt = 20;
+            int offsetInt = 0;
+            try {
+                limitInt = Integer.parseInt(limit);
+                if (limitInt < 1 || limitInt > 100) {
+                    limitInt = 20;
+                }
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                offsetInt = Integer.parseInt(offset);
+            } catch (NumberFormatException e) {
+                // Do nothing
+            }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                ArrayList<PaymentRequest> paymentRequests = getModel().getPaymentRequests(sessionID, filledFilter, limitInt, offsetInt);
+                return ResponseEntity.status(200).body(paymentRequests);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
     /**
@@ -710,21 +1150,31 @@ public class MainRestController {
      * @return  A responseEntity containing an HTTP status code or the newly created payment requests of the user.
      */
     @RequestMapping(method = RequestMethod.POST, value = RestControllerConstants.URI_PREFIX + "/paymentRequests")
-    public ResponseEntity postPaymentRequest(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
-                                         @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
-                                         @RequestBody PaymentRequest p) {
+    @StatementBudget(5)
+    public CompletableFuture<ResponseEntity> postPaymentRequest(@RequestParam(value = "session_id", defaultValue = "") String pSessionID,
+                                                                @RequestHeader(value = "X-session-ID", defaultValue = "") String hSessionID,
+                                                                @RequestBody PaymentRequest p) {
+        return modelExecutor.write(() -> {
 
-        if (p == null || p.getTransactions().size() > 0 || p.getNumber_of_requests() <= 0 || p.isFilled() || p.getAmount() <= 0 || p.getDescription() == null || p.getDue_date() == null) {
-            return ResponseEntity.status(405).body("Invalid input given");
-        }
+            if (p == null || p.getTransactions().size() > 0 || p.getNumber_of_requests() <= 0 || p.isFilled() || p.getAmount() <= 0 || p.getDescription() == null || p.getDue_date() == null) {
+                return ResponseEntity.status(405).body("Invalid input given");
+            }
+            long dueDateMillis;
+            try {
+                dueDateMillis = DateCodec.toMillis(p.getDue_date());
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.status(405).body("Invalid input given (due_date format should be: \"yyyy-MM-dd'T'HH:mm:ss.SSSZ\")");
+            }
 
-        try {
-            String sessionID = this.getSessionID(pSessionID, hSessionID);
-            PaymentRequest paymentRequest = model.postPaymentRequest(sessionID, p.getDescription(), p.getDue_date(), p.getAmount(), p.getNumber_of_requests());
-            return ResponseEntity.status(201).body(paymentRequest);
-        } catch (InvalidSessionIDException e) {
-            return ResponseEntity.status(401).body("Session ID is missing or invalid");
-        }
+            try {
+                String sessionID = this.getSessionID(pSessionID, hSessionID);
+                PaymentRequest paymentRequest = getModel().postPaymentRequest(sessionID, p.getDescription(), p.getDue_date(), dueDateMillis,
+                        p.getAmount(), p.getNumber_of_requests());
+                return ResponseEntity.status(201).body(paymentRequest);
+            } catch (InvalidSessionIDException e) {
+                return ResponseEntity.status(401).body("Session ID is missing or invalid");
+            }
+        });
     }
 
 }
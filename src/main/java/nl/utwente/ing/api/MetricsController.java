@@ -0,0 +1,39 @@
+package nl.utwente.ing.api;
+
+import nl.utwente.ing.metrics.QueryMetrics;
+import nl.utwente.ing.metrics.RequestMetrics;
+import nl.utwente.ing.metrics.SpanTimer;
+import nl.utwente.ing.metrics.StartupTimer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * The MetricsController class.
+ * Exposes the metrics collected by the application in the Prometheus text format, so that they can be scraped by a
+ * monitoring system.
+ *
+ * @author Daan Kooij
+ */
+@RestController
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Method used to retrieve the metrics collected by the application.
+     *
+     * @return A ResponseEntity containing HTTP status code 200 and the metrics in the Prometheus text format.
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/metrics")
+    public ResponseEntity<String> getMetrics() {
+        StringBuilder output = new StringBuilder();
+        RequestMetrics.writePrometheus(output);
+        SpanTimer.writePrometheus(output);
+        QueryMetrics.writePrometheus(output);
+        StartupTimer.writePrometheus(output);
+        return ResponseEntity.status(200).header("Content-Type", PROMETHEUS_CONTENT_TYPE).body(output.toString());
+    }
+
+}
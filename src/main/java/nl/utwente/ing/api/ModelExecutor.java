@@ -0,0 +1,141 @@
+package nl.utwente.ing.api;
+
+import nl.utwente.ing.metrics.StatementCounter;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ModelExecutor class.
+ * Executes the work of the MainRestController endpoints on dedicated thread pools instead of on the threads of the
+ * web server, so that slow operations do not keep the web server from accepting other requests.
+ * Reading and writing operations are executed on separate pools, so that a burst of writes (like an import) does not
+ * delay reads. The pools only bound how many operations are executed at the same time: reading operations run in
+ * transactions on read-only connections of their own, so that they are not held up by a write in progress, while
+ * writing operations are executed one at a time by the model, whatever the number of write threads. Both pools have a bounded queue: when a queue is full, the operation is rejected immediately with
+ * HTTP status code 503, instead of letting the waiting time of every queued request grow without bound.
+ * The StatementCounter of the request is bound to the thread executing its operation. When the ing.debug system
+ * property is true, the number of SQL statements of the operation is returned in the X-SQL-Statements header; when the
+ * ing.failOnStatementBudget system property is true, an operation that exceeds the StatementBudget of its endpoint is
+ * answered with HTTP status code 500, so that tests fail on it. Responses are built completely by the operation, so
+ * every statement of a request is executed, and counted, before its response is checked.
+ *
+ * @author Daan Kooij
+ */
+public class ModelExecutor {
+
+    private static final int READ_THREADS = 8;
+    private static final int READ_QUEUE_CAPACITY = 256;
+    private static final int WRITE_THREADS = 2;
+    private static final int WRITE_QUEUE_CAPACITY = 128;
+    private static final boolean DEBUG = Boolean.getBoolean("ing.debug");
+    private static final boolean FAIL_ON_STATEMENT_BUDGET = Boolean.getBoolean("ing.failOnStatementBudget");
+
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadPoolExecutor writeExecutor;
+
+    /**
+     * The constructor of ModelExecutor.
+     * Creates the thread pools for reading and writing operations.
+     */
+    public ModelExecutor() {
+        readExecutor = createExecutor("model-read", READ_THREADS, READ_QUEUE_CAPACITY);
+        writeExecutor = createExecutor("model-write", WRITE_THREADS, WRITE_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Method used to execute an operation that only reads data.
+     *
+     * @param operation The operation, producing the response to the request.
+     * @return A CompletableFuture that completes with the response produced by the operation, or with a response with
+     * HTTP status code 503 if there are too many reading operations waiting already.
+     */
+    public CompletableFuture<ResponseEntity> read(Callable<ResponseEntity> operation) {
+        return submit(readExecutor, operation);
+    }
+
+    /**
+     * Method used to execute an operation that writes data.
+     *
+     * @param operation The operation, producing the response to the request.
+     * @return A CompletableFuture that completes with the response produced by the operation, or with a response with
+     * HTTP status code 503 if there are too many writing operations waiting already.
+     */
+    public CompletableFuture<ResponseEntity> write(Callable<ResponseEntity> operation) {
+        return submit(writeExecutor, operation);
+    }
+
+    /**
+     * Method used to submit an operation to one of the thread pools.
+     *
+     * @param executor  The thread pool.
+     * @param operation The operation, producing the response to the request.
+     * @return A CompletableFuture that completes with the response produced by the operation.
+     */
+    private static CompletableFuture<ResponseEntity> submit(ThreadPoolExecutor executor,
+                                                            Callable<ResponseEntity> operation) {
+        CompletableFuture<ResponseEntity> future = new CompletableFuture<>();
+        StatementCounter statements = StatementCounter.current();
+        try {
+            executor.execute(() -> {
+                StatementCounter.bind(statements);
+                try {
+                    future.complete(checkStatements(operation.call(), statements));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    StatementCounter.bind(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.complete(ResponseEntity.status(503).header("Retry-After", "1")
+                    .body("Service is busy, please try again later"));
+        }
+        return future;
+    }
+
+    /**
+     * Method used to check the number of SQL statements an operation has executed against the budget of its endpoint,
+     * and to add it to the response when debugging.
+     *
+     * @param response   The response produced by the operation.
+     * @param statements The StatementCounter of the request (null if the statements are not counted).
+     * @return The response, a copy of it with the X-SQL-Statements header, or a response with HTTP status code 500 if
+     * the budget is exceeded and ing.failOnStatementBudget is true.
+     */
+    private static ResponseEntity checkStatements(ResponseEntity response, StatementCounter statements) {
+        if (statements == null) {
+            return response;
+        }
+        if (FAIL_ON_STATEMENT_BUDGET && statements.isOverBudget()) {
+            response = ResponseEntity.status(500).body("Statement budget exceeded: " + statements.getCount() +
+                    " SQL statements executed, budget is " + statements.getBudget());
+        }
+        if (DEBUG) {
+            response = ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders())
+                    .header("X-SQL-Statements", Long.toString(statements.getCount())).body(response.getBody());
+        }
+        return response;
+    }
+
+    /**
+     * Method used to create a thread pool with a fixed number of threads and a bounded queue, which rejects
+     * operations when its queue is full.
+     *
+     * @param name          The name of the thread pool, used to name its threads.
+     * @param threads       The number of threads of the thread pool.
+     * @param queueCapacity The maximum number of operations that can be waiting for a thread.
+     * @return The created thread pool.
+     */
+    private static ThreadPoolExecutor createExecutor(String name, int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+}
@@ -0,0 +1,80 @@
+package nl.utwente.ing.api;
+
+import nl.utwente.ing.metrics.RequestMetrics;
+import nl.utwente.ing.metrics.StatementCounter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * The RequestMetricsInterceptor class.
+ * Records the latency, the HTTP status code and the number of SQL statements of every request answered by the
+ * MainRestController in RequestMetrics.
+ * Most endpoints are answered asynchronously by the ModelExecutor, in which case the request is dispatched twice; the
+ * latency is measured from the start of the first dispatch until the response is written in the last one, so that it
+ * includes the time spent waiting for the ModelExecutor. The StatementCounter of the request is created in the first
+ * dispatch with the StatementBudget of the endpoint, and is bound to the thread of every dispatch while it runs; the
+ * ModelExecutor binds it to its own threads.
+ *
+ * @author Daan Kooij
+ */
+public class RequestMetricsInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".START";
+    private static final String STATEMENTS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".STATEMENTS";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isMainRestControllerHandler(handler)) {
+            return true;
+        }
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            StatementBudget budget = ((HandlerMethod) handler).getMethodAnnotation(StatementBudget.class);
+            request.setAttribute(STATEMENTS_ATTRIBUTE, budget != null
+                    ? new StatementCounter(budget.value())
+                    : new StatementCounter(StatementCounter.NO_BUDGET));
+        }
+        StatementCounter.bind((StatementCounter) request.getAttribute(STATEMENTS_ATTRIBUTE));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        StatementCounter.bind(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StatementCounter.bind(null);
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null || !isMainRestControllerHandler(handler)) {
+            return;
+        }
+        String endpoint = ((HandlerMethod) handler).getMethod().getName();
+        StatementCounter statements = (StatementCounter) request.getAttribute(STATEMENTS_ATTRIBUTE);
+        if (statements.isOverBudget()) {
+            System.err.println("Request to " + endpoint + " executed " + statements.getCount() +
+                    " SQL statements, exceeding its budget of " + statements.getBudget());
+        }
+        // An exception that was not turned into a response is answered with status 500 after this interceptor.
+        int status = ex != null ? 500 : response.getStatus();
+        RequestMetrics.record(endpoint, request.getMethod(), status, System.nanoTime() - (Long) start, statements);
+    }
+
+    /**
+     * Method used to check whether a handler is a method of the MainRestController.
+     *
+     * @param handler The handler of a request.
+     * @return true if the handler is a method of the MainRestController, false otherwise.
+     */
+    private static boolean isMainRestControllerHandler(Object handler) {
+        return handler instanceof HandlerMethod
+                && ((HandlerMethod) handler).getBeanType() == MainRestController.class;
+    }
+
+}
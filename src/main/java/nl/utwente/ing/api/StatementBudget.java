@@ -0,0 +1,28 @@
+package nl.utwente.ing.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The StatementBudget annotation.
+ * Declares the maximum number of SQL statements an endpoint of the MainRestController is expected to execute to
+ * answer a single request. Requests that exceed the budget are logged and counted by the RequestMetricsInterceptor;
+ * when the ing.failOnStatementBudget system property is true (as in tests), they are answered with HTTP status code
+ * 500 instead.
+ *
+ * @author Daan Kooij
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StatementBudget {
+
+    /**
+     * Method used to retrieve the budget.
+     *
+     * @return The maximum number of SQL statements of a single request.
+     */
+    int value();
+
+}
@@ -0,0 +1,46 @@
+package nl.utwente.ing.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timestamp;
+
+/**
+ * The BalanceRewriteEvent class.
+ * A Java Flight Recorder event emitted when the balance history points after a new transaction are shifted by its
+ * amount. The rows touched by the event are the balance history points that were rewritten, which is what makes
+ * back-dated transactions expensive.
+ *
+ * @author Daan Kooij
+ */
+@Name("nl.utwente.ing.BalanceRewrite")
+@Label("Balance History Rewrite")
+@Description("Shifting of the balance history points after a transaction by its amount.")
+public class BalanceRewriteEvent extends ModelEvent {
+
+    @Label("From")
+    @Description("The time stamp of the transaction, after which the balance history points are shifted.")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long fromMillis;
+
+    @Label("Amount")
+    @Description("The amount in cents by which the balance history points are shifted.")
+    long amount;
+
+    /**
+     * Method used to start a BalanceRewriteEvent.
+     *
+     * @param userID     The ID of the user whose balance history is rewritten.
+     * @param fromMillis The time stamp in milliseconds after which the balance history points are shifted.
+     * @param amount     The amount in cents by which the balance history points are shifted.
+     * @return The started BalanceRewriteEvent, which should be finished when the rewrite ends.
+     */
+    static BalanceRewriteEvent begin(int userID, long fromMillis, long amount) {
+        BalanceRewriteEvent event = new BalanceRewriteEvent();
+        event.fromMillis = fromMillis;
+        event.amount = amount;
+        event.start(userID);
+        return event;
+    }
+
+}
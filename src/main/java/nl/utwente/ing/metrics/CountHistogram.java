@@ -0,0 +1,60 @@
+package nl.utwente.ing.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CountHistogram class.
+ * Counts small quantities, like the number of SQL statements of a request, in a fixed set of buckets. Like the
+ * LatencyHistogram, recording is thread-safe and never blocks.
+ *
+ * @author Daan Kooij
+ */
+public class CountHistogram {
+
+    /**
+     * The upper bounds (inclusive) of the buckets; quantities above the last bound are counted in an additional
+     * overflow bucket.
+     */
+    private static final long[] BUCKET_BOUNDS = {0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Method used to record a quantity.
+     *
+     * @param value The quantity.
+     */
+    public void record(long value) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && value > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        bucketCounts.incrementAndGet(bucket);
+        sum.add(value);
+    }
+
+    /**
+     * Method used to write the histogram in the Prometheus text format.
+     *
+     * @param output The StringBuilder to which the histogram is written.
+     * @param name   The name of the metric.
+     * @param labels The labels of the histogram, formatted like name="value" (empty String if none).
+     */
+    public void writePrometheus(StringBuilder output, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            cumulative += bucketCounts.get(i);
+            output.append(name).append("_bucket{").append(labels).append(separator)
+                    .append("le=\"").append(BUCKET_BOUNDS[i]).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += bucketCounts.get(BUCKET_BOUNDS.length);
+        output.append(name).append("_bucket{").append(labels).append(separator).append("le=\"+Inf\"} ")
+                .append(cumulative).append('\n');
+        output.append(name).append("_sum{").append(labels).append("} ").append(sum.sum()).append('\n');
+        output.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+    }
+
+}
@@ -0,0 +1,286 @@
+package nl.utwente.ing.metrics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The InstrumentedConnection class.
+ * Wraps a database connection so that the executions of its statements are recorded in QueryMetrics: those of its
+ * PreparedStatements, and those of the SQL executed by its plain Statements. Every statement of an executed batch is
+ * recorded as an execution of its own, since the database executes them one by one.
+ * Statements are named after the static String constant of a class holding the SQL they were prepared from. Constants
+ * that are templates for String.format (like a list of placeholders) are matched on the part before their first format
+ * specifier. Statements that match no constant are recorded as OTHER.
+ *
+ * @author Daan Kooij
+ */
+public class InstrumentedConnection {
+
+    private static final String OTHER = "OTHER";
+    private static final Pattern FORMAT_SPECIFIER = Pattern.compile("%(\\d+\\$)?s");
+
+    private InstrumentedConnection() {
+
+    }
+
+    /**
+     * Method used to wrap a database connection.
+     *
+     * @param connection  The database connection.
+     * @param queryHolder The class holding the SQL of the statements as static String constants.
+     * @return A connection that records the executions of its statements.
+     */
+    public static Connection wrap(Connection connection, Class<?> queryHolder) {
+        Map<String, String> exactNames = new HashMap<>();
+        Map<String, String> templateNames = new LinkedHashMap<>();
+        for (Field field : queryHolder.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class) {
+                try {
+                    field.setAccessible(true);
+                    String sql = (String) field.get(null);
+                    Matcher matcher = FORMAT_SPECIFIER.matcher(sql);
+                    if (matcher.find()) {
+                        templateNames.put(sql.substring(0, matcher.start()), field.getName());
+                    } else {
+                        exactNames.putIfAbsent(sql, field.getName());
+                    }
+                } catch (IllegalAccessException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement") && args != null && args[0] instanceof String) {
+                        String sql = (String) args[0];
+                        return instrumentStatement((PreparedStatement) result, getName(sql, exactNames, templateNames),
+                                sql);
+                    }
+                    if (method.getName().equals("createStatement")) {
+                        return instrumentStatement((Statement) result, exactNames, templateNames);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Method used to determine the name of a statement.
+     *
+     * @param sql           The SQL of the statement.
+     * @param exactNames    The names of the constants, by their SQL.
+     * @param templateNames The names of the template constants, by the part of their SQL before the first format
+     *                      specifier.
+     * @return The name of the constant the statement was prepared from, or OTHER if it matches no constant.
+     */
+    private static String getName(String sql, Map<String, String> exactNames, Map<String, String> templateNames) {
+        String name = exactNames.get(sql);
+        if (name != null) {
+            return name;
+        }
+        String longestPrefix = "";
+        name = OTHER;
+        for (Map.Entry<String, String> entry : templateNames.entrySet()) {
+            if (sql.startsWith(entry.getKey()) && entry.getKey().length() > longestPrefix.length()) {
+                longestPrefix = entry.getKey();
+                name = entry.getValue();
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Method used to wrap a PreparedStatement, so that its executions are recorded.
+     *
+     * @param statement The PreparedStatement.
+     * @param name      The name of the statement.
+     * @param sql       The SQL of the statement.
+     * @return A PreparedStatement that records its executions.
+     */
+    private static PreparedStatement instrumentStatement(PreparedStatement statement, String name, String sql) {
+        int[] batchSize = new int[1];
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String methodName = method.getName();
+                    if (methodName.equals("addBatch") && args == null) {
+                        batchSize[0]++;
+                    } else if (methodName.equals("clearBatch")) {
+                        batchSize[0] = 0;
+                    } else if (methodName.equals("executeBatch")) {
+                        String[] names = new String[batchSize[0]];
+                        String[] sqls = new String[batchSize[0]];
+                        Arrays.fill(names, name);
+                        Arrays.fill(sqls, sql);
+                        batchSize[0] = 0;
+                        return executeBatch(statement, method, names, sqls);
+                    } else if (args == null && isExecution(methodName)) {
+                        return execute(statement, method, args, name, sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    /**
+     * Method used to wrap a plain Statement, so that the executions of the SQL passed to it are recorded.
+     *
+     * @param statement     The Statement.
+     * @param exactNames    The names of the constants, by their SQL.
+     * @param templateNames The names of the template constants, by the part of their SQL before the first format
+     *                      specifier.
+     * @return A Statement that records its executions.
+     */
+    private static Statement instrumentStatement(Statement statement, Map<String, String> exactNames,
+                                                 Map<String, String> templateNames) {
+        List<String> batch = new ArrayList<>();
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    String methodName = method.getName();
+                    if (methodName.equals("addBatch")) {
+                        batch.add((String) args[0]);
+                    } else if (methodName.equals("clearBatch")) {
+                        batch.clear();
+                    } else if (methodName.equals("executeBatch")) {
+                        String[] names = new String[batch.size()];
+                        for (int i = 0; i < names.length; i++) {
+                            names[i] = getName(batch.get(i), exactNames, templateNames);
+                        }
+                        String[] sqls = batch.toArray(new String[0]);
+                        batch.clear();
+                        return executeBatch(statement, method, names, sqls);
+                    } else if (args != null && args[0] instanceof String && isExecution(methodName)) {
+                        String sql = (String) args[0];
+                        return execute(statement, method, args, getName(sql, exactNames, templateNames), sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    /**
+     * Method used to check whether a method of a statement executes it.
+     *
+     * @param methodName The name of the method.
+     * @return true if the method executes the statement (apart from executing a batch), false otherwise.
+     */
+    private static boolean isExecution(String methodName) {
+        return methodName.equals("executeQuery") || methodName.equals("executeUpdate")
+                || methodName.equals("execute");
+    }
+
+    /**
+     * Method used to execute a statement, recording the execution.
+     *
+     * @param statement The statement.
+     * @param method    The method executing the statement.
+     * @param args      The arguments of the method.
+     * @param name      The name of the statement.
+     * @param sql       The SQL of the statement.
+     * @return The result of the method, with a ResultSet wrapped so that the rows read from it are recorded.
+     */
+    private static Object execute(Statement statement, Method method, Object[] args, String name, String sql)
+            throws Throwable {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invoke(statement, method, args);
+        } catch (SQLException e) {
+            QueryMetrics.recordError(name);
+            throw e;
+        }
+        long rows = result instanceof Integer ? (Integer) result : 0;
+        QueryMetrics.recordExecution(name, sql, System.nanoTime() - start, rows);
+        if (result instanceof ResultSet) {
+            return instrumentResultSet((ResultSet) result, name);
+        }
+        return result;
+    }
+
+    /**
+     * Method used to execute the batch of a statement, recording every statement in it as an execution. The time it
+     * took to execute the batch is divided evenly over its statements.
+     *
+     * @param statement The statement.
+     * @param method    The executeBatch method.
+     * @param names     The names of the statements in the batch.
+     * @param sqls      The SQL of the statements in the batch.
+     * @return The update counts of the statements in the batch.
+     */
+    private static Object executeBatch(Statement statement, Method method, String[] names, String[] sqls)
+            throws Throwable {
+        long start = System.nanoTime();
+        int[] updateCounts;
+        try {
+            updateCounts = (int[]) invoke(statement, method, null);
+        } catch (SQLException e) {
+            for (String name : new HashSet<>(Arrays.asList(names))) {
+                QueryMetrics.recordError(name);
+            }
+            throw e;
+        }
+        long nanos = names.length == 0 ? 0 : (System.nanoTime() - start) / names.length;
+        for (int i = 0; i < names.length; i++) {
+            long rows = i < updateCounts.length ? Math.max(updateCounts[i], 0) : 0;
+            QueryMetrics.recordExecution(names[i], sqls[i], nanos, rows);
+        }
+        return updateCounts;
+    }
+
+    /**
+     * Method used to wrap a ResultSet, so that the rows read from it are recorded.
+     *
+     * @param resultSet The ResultSet.
+     * @param name      The name of the statement the ResultSet belongs to.
+     * @return A ResultSet that records the rows read from it.
+     */
+    private static ResultSet instrumentResultSet(ResultSet resultSet, String name) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = invoke(resultSet, method, args);
+                    } catch (SQLException e) {
+                        QueryMetrics.recordError(name);
+                        throw e;
+                    }
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                        QueryMetrics.recordRow(name);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Method used to invoke a method on the object wrapped by a proxy, rethrowing the exception thrown by the method
+     * itself instead of the reflection exception wrapping it.
+     *
+     * @param target The wrapped object.
+     * @param method The method.
+     * @param args   The arguments of the method.
+     * @return The result of the method.
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package nl.utwente.ing.metrics;
+
+/**
+ * The JfrModelEventFactory class, an implementation of the ModelEventFactory interface.
+ * Starts the Java Flight Recorder events of the model. This class is only loaded by ModelEvents, by name, and is not
+ * compiled when building with a JDK that lacks Java Flight Recorder.
+ *
+ * @author Daan Kooij
+ */
+class JfrModelEventFactory implements ModelEventFactory {
+
+    @Override
+    public ModelEventHandle beginOperation(String operation, int userID) {
+        return ModelOperationEvent.begin(operation, userID);
+    }
+
+    @Override
+    public RuleMatchEventHandle beginRuleMatch(String operation, int userID) {
+        return RuleMatchEvent.begin(operation, userID);
+    }
+
+    @Override
+    public ModelEventHandle beginBalanceRewrite(int userID, long fromMillis, long amount) {
+        return BalanceRewriteEvent.begin(userID, fromMillis, amount);
+    }
+
+}
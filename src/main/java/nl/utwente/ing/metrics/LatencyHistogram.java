@@ -0,0 +1,107 @@
+package nl.utwente.ing.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class.
+ * Counts durations in a fixed set of buckets, so that recording a duration takes constant time and memory regardless
+ * of how many durations are recorded. Recording is thread-safe and never blocks.
+ *
+ * @author Daan Kooij
+ */
+public class LatencyHistogram {
+
+    /**
+     * The upper bounds (inclusive) of the buckets in microseconds; durations above the last bound are counted in an
+     * additional overflow bucket.
+     */
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000, 500000, 1000000, 2500000,
+            5000000, 10000000
+    };
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Method used to record a duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        bucketCounts.incrementAndGet(bucket);
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Method used to retrieve the number of recorded durations.
+     *
+     * @return The number of recorded durations.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Method used to estimate a quantile of the recorded durations.
+     * The bucket containing the quantile is determined exactly; within that bucket, the durations are assumed to be
+     * spread evenly. Quantiles that fall in the overflow bucket are estimated as the upper bound of the last bucket.
+     *
+     * @param quantile The quantile, between 0 and 1 (like 0.95 for the 95th percentile).
+     * @return The estimated quantile in seconds, or 0 if no durations were recorded.
+     */
+    public double getQuantileSeconds(double quantile) {
+        long[] counts = new long[bucketCounts.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = bucketCounts.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        double rank = quantile * total;
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            if (counts[i] > 0 && cumulative + counts[i] >= rank) {
+                long lowerBound = i == 0 ? 0 : BUCKET_BOUNDS_MICROS[i - 1];
+                double fraction = (rank - cumulative) / counts[i];
+                return (lowerBound + fraction * (BUCKET_BOUNDS_MICROS[i] - lowerBound)) / 1e6;
+            }
+            cumulative += counts[i];
+        }
+        return BUCKET_BOUNDS_MICROS[BUCKET_BOUNDS_MICROS.length - 1] / 1e6;
+    }
+
+    /**
+     * Method used to write the histogram in the Prometheus text format.
+     *
+     * @param output The StringBuilder to which the histogram is written.
+     * @param name   The name of the metric.
+     * @param labels The labels of the histogram, formatted like name="value" (empty String if none).
+     */
+    public void writePrometheus(StringBuilder output, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+            cumulative += bucketCounts.get(i);
+            output.append(name).append("_bucket{").append(labels).append(separator)
+                    .append("le=\"").append(BUCKET_BOUNDS_MICROS[i] / 1e6).append("\"} ").append(cumulative)
+                    .append('\n');
+        }
+        cumulative += bucketCounts.get(BUCKET_BOUNDS_MICROS.length);
+        output.append(name).append("_bucket{").append(labels).append(separator).append("le=\"+Inf\"} ")
+                .append(cumulative).append('\n');
+        output.append(name).append("_sum{").append(labels).append("} ").append(sumNanos.sum() / 1e9).append('\n');
+        output.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+    }
+
+}
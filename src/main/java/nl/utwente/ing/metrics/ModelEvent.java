@@ -0,0 +1,64 @@
+package nl.utwente.ing.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The ModelEvent class.
+ * The base of the Java Flight Recorder events that are emitted by the model, recording the user an event belongs to and
+ * the number of SQL statements and rows the event caused, determined using the per-thread totals of QueryMetrics.
+ * When no recording is running, an event is not enabled and starting and finishing it only checks that flag, so the
+ * events can stay in place in production.
+ * The events are started using ModelEvents, which does not load them if the Java runtime lacks Java Flight Recorder.
+ *
+ * @author Daan Kooij
+ */
+@Category({"ING", "Model"})
+@StackTrace(false)
+public abstract class ModelEvent extends Event implements ModelEventHandle {
+
+    @Label("User ID")
+    int userID;
+
+    @Label("SQL Statements")
+    @Description("The number of SQL statements executed during the event.")
+    long statements;
+
+    @Label("Rows Touched")
+    @Description("The number of rows read or changed by the SQL statements executed during the event.")
+    long rows;
+
+    private transient long startStatements;
+    private transient long startRows;
+
+    /**
+     * Method used to start the event, if it is enabled.
+     *
+     * @param userID The ID of the user the event belongs to.
+     */
+    void start(int userID) {
+        if (isEnabled()) {
+            this.userID = userID;
+            this.startStatements = QueryMetrics.getThreadStatements();
+            this.startRows = QueryMetrics.getThreadRows();
+            begin();
+        }
+    }
+
+    /**
+     * Method used to finish the event, committing it to the recording if it is enabled and lasted longer than the
+     * threshold of the recording.
+     */
+    @Override
+    public void finish() {
+        if (shouldCommit()) {
+            statements = QueryMetrics.getThreadStatements() - startStatements;
+            rows = QueryMetrics.getThreadRows() - startRows;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package nl.utwente.ing.metrics;
+
+/**
+ * The ModelEventFactory interface.
+ * Consists of method specifications to start the events emitted by the model, so that ModelEvents can start them
+ * without referring to the Java Flight Recorder event classes.
+ *
+ * @author Daan Kooij
+ */
+interface ModelEventFactory {
+
+    /**
+     * Method used to start an event of an operation of the model that changes the data of a user.
+     *
+     * @param operation The name of the operation, like postTransaction.
+     * @param userID    The ID of the user the operation is performed for.
+     * @return The handle of the started event.
+     */
+    ModelEventHandle beginOperation(String operation, int userID);
+
+    /**
+     * Method used to start an event of the matching of category rules against transactions.
+     *
+     * @param operation The name of the operation the matching is part of, like postTransaction.
+     * @param userID    The ID of the user whose category rules are matched.
+     * @return The handle of the started event.
+     */
+    RuleMatchEventHandle beginRuleMatch(String operation, int userID);
+
+    /**
+     * Method used to start an event of the shifting of the balance history points after a transaction.
+     *
+     * @param userID     The ID of the user whose balance history is rewritten.
+     * @param fromMillis The time stamp in milliseconds after which the balance history points are shifted.
+     * @param amount     The amount in cents by which the balance history points are shifted.
+     * @return The handle of the started event.
+     */
+    ModelEventHandle beginBalanceRewrite(int userID, long fromMillis, long amount);
+
+}
@@ -0,0 +1,17 @@
+package nl.utwente.ing.metrics;
+
+/**
+ * The ModelEventHandle interface.
+ * Consists of method specifications to finish an event of the model that was started using ModelEvents, without
+ * depending on whether the event is a Java Flight Recorder event or a placeholder that does nothing.
+ *
+ * @author Daan Kooij
+ */
+public interface ModelEventHandle {
+
+    /**
+     * Method used to finish the event.
+     */
+    void finish();
+
+}
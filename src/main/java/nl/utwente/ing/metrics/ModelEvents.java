@@ -0,0 +1,88 @@
+package nl.utwente.ing.metrics;
+
+/**
+ * The ModelEvents class.
+ * Consists of methods that start the Java Flight Recorder events emitted by the model. Java Flight Recorder is not
+ * part of every Java runtime the application supports (Java 8 runtimes before 8u262 lack it), so the event classes are
+ * only loaded if it is; otherwise the methods return a handle that does nothing. Callers only refer to the handles,
+ * so that loading them never requires the jdk.jfr classes.
+ * The event classes are started through JfrModelEventFactory, which is loaded by name, so that no other class refers
+ * to them. When building with a JDK before 11, the no-jfr profile leaves them out of the build, and the events are
+ * never emitted.
+ *
+ * @author Daan Kooij
+ */
+public class ModelEvents {
+
+    private static final String JFR_FACTORY = "nl.utwente.ing.metrics.JfrModelEventFactory";
+
+    private static final RuleMatchEventHandle DISABLED = new RuleMatchEventHandle() {
+        @Override
+        public void finish(int rules, int transactions, int matches) {
+
+        }
+
+        @Override
+        public void finish() {
+
+        }
+    };
+
+    private static final ModelEventFactory FACTORY = loadFactory();
+
+    private ModelEvents() {
+
+    }
+
+    /**
+     * Method used to start an event of an operation of the model that changes the data of a user.
+     *
+     * @param operation The name of the operation, like postTransaction.
+     * @param userID    The ID of the user the operation is performed for.
+     * @return The handle of the started event, which should be finished when the operation ends.
+     */
+    public static ModelEventHandle beginOperation(String operation, int userID) {
+        return FACTORY != null ? FACTORY.beginOperation(operation, userID) : DISABLED;
+    }
+
+    /**
+     * Method used to start an event of the matching of category rules against transactions.
+     *
+     * @param operation The name of the operation the matching is part of, like postTransaction.
+     * @param userID    The ID of the user whose category rules are matched.
+     * @return The handle of the started event, which should be finished when the matching ends.
+     */
+    public static RuleMatchEventHandle beginRuleMatch(String operation, int userID) {
+        return FACTORY != null ? FACTORY.beginRuleMatch(operation, userID) : DISABLED;
+    }
+
+    /**
+     * Method used to start an event of the shifting of the balance history points after a transaction.
+     *
+     * @param userID     The ID of the user whose balance history is rewritten.
+     * @param fromMillis The time stamp in milliseconds after which the balance history points are shifted.
+     * @param amount     The amount in cents by which the balance history points are shifted.
+     * @return The handle of the started event, which should be finished when the rewrite ends.
+     */
+    public static ModelEventHandle beginBalanceRewrite(int userID, long fromMillis, long amount) {
+        return FACTORY != null ? FACTORY.beginBalanceRewrite(userID, fromMillis, amount) : DISABLED;
+    }
+
+    /**
+     * Method used to load the factory of the Java Flight Recorder events, if both the Java runtime provides the Java
+     * Flight Recorder event API and the event classes were built.
+     *
+     * @return The factory, or null if the events cannot be emitted.
+     */
+    private static ModelEventFactory loadFactory() {
+        ClassLoader classLoader = ModelEvents.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, classLoader);
+            return (ModelEventFactory) Class.forName(JFR_FACTORY, true, classLoader).getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+}
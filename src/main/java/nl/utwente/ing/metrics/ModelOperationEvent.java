@@ -0,0 +1,36 @@
+package nl.utwente.ing.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The ModelOperationEvent class.
+ * A Java Flight Recorder event emitted for every operation of the model that changes the data of a user, covering the
+ * time spent waiting until its transaction can begin.
+ *
+ * @author Daan Kooij
+ */
+@Name("nl.utwente.ing.ModelOperation")
+@Label("Model Operation")
+@Description("An operation of the model that changes the data of a user.")
+public class ModelOperationEvent extends ModelEvent {
+
+    @Label("Operation")
+    String operation;
+
+    /**
+     * Method used to start a ModelOperationEvent.
+     *
+     * @param operation The name of the operation, like postTransaction.
+     * @param userID    The ID of the user the operation is performed for.
+     * @return The started ModelOperationEvent, which should be finished when the operation ends.
+     */
+    static ModelOperationEvent begin(String operation, int userID) {
+        ModelOperationEvent event = new ModelOperationEvent();
+        event.operation = operation;
+        event.start(userID);
+        return event;
+    }
+
+}
@@ -0,0 +1,139 @@
+package nl.utwente.ing.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The QueryMetrics class.
+ * Keeps track of the number of executions, the execution time, the number of rows and the number of errors of every
+ * SQL statement, labelled by the name of the constant the statement is defined by.
+ * Statements that take longer than the slow query threshold are logged, without the values of their parameters. The
+ * threshold can be configured with the ing.slowQueryMillis system property.
+ * Besides the metrics per statement, running totals of the statements executed and rows touched are kept per thread,
+ * so that the statements of a single operation can be counted by comparing the totals at its start and end, and
+ * every statement is counted by the StatementCounter of the request it is executed for.
+ *
+ * @author Daan Kooij
+ */
+public class QueryMetrics {
+
+    private static final long SLOW_QUERY_MILLIS = Long.getLong("ing.slowQueryMillis", 250);
+
+    private static final Map<String, Query> queries = new ConcurrentHashMap<>();
+    private static final ThreadLocal<long[]> threadTotals = ThreadLocal.withInitial(() -> new long[2]);
+
+    /**
+     * Method used to record an execution of a statement.
+     *
+     * @param name  The name of the statement.
+     * @param sql   The SQL of the statement, used for the slow query log.
+     * @param nanos The time it took to execute the statement in nanoseconds.
+     * @param rows  The number of rows changed by the statement (0 for queries, whose rows are counted as they are read).
+     */
+    static void recordExecution(String name, String sql, long nanos, long rows) {
+        Query query = getQuery(name);
+        query.latency.record(nanos);
+        query.rows.add(rows);
+        long[] totals = threadTotals.get();
+        totals[0]++;
+        totals[1] += rows;
+        StatementCounter counter = StatementCounter.current();
+        if (counter != null) {
+            counter.increment();
+        }
+        if (nanos / 1000000 >= SLOW_QUERY_MILLIS) {
+            System.err.println("Slow query " + name + " took " + nanos / 1000000 + " ms (parameters redacted):\n" +
+                    sql);
+        }
+    }
+
+    /**
+     * Method used to record that a row was read from the result of a statement.
+     *
+     * @param name The name of the statement.
+     */
+    static void recordRow(String name) {
+        getQuery(name).rows.increment();
+        threadTotals.get()[1]++;
+    }
+
+    /**
+     * Method used to record that a statement failed.
+     *
+     * @param name The name of the statement.
+     */
+    static void recordError(String name) {
+        getQuery(name).errors.increment();
+    }
+
+    /**
+     * Method used to retrieve the number of statements the current thread has executed so far.
+     *
+     * @return The number of statements executed by the current thread.
+     */
+    public static long getThreadStatements() {
+        return threadTotals.get()[0];
+    }
+
+    /**
+     * Method used to retrieve the number of rows the statements of the current thread have read or changed so far.
+     *
+     * @return The number of rows read or changed by the current thread.
+     */
+    public static long getThreadRows() {
+        return threadTotals.get()[1];
+    }
+
+    /**
+     * Method used to write the metrics of all statements in the Prometheus text format.
+     *
+     * @param output The StringBuilder to which the metrics are written.
+     */
+    public static void writePrometheus(StringBuilder output) {
+        Map<String, Query> sortedQueries = new TreeMap<>(queries);
+        output.append("# HELP ing_query_duration_seconds Time to execute a SQL statement (until the first row for " +
+                "queries).\n");
+        output.append("# TYPE ing_query_duration_seconds histogram\n");
+        for (Map.Entry<String, Query> entry : sortedQueries.entrySet()) {
+            entry.getValue().latency.writePrometheus(output, "ing_query_duration_seconds",
+                    "query=\"" + entry.getKey() + "\"");
+        }
+        output.append("# HELP ing_query_rows_total Rows read or changed by a SQL statement.\n");
+        output.append("# TYPE ing_query_rows_total counter\n");
+        for (Map.Entry<String, Query> entry : sortedQueries.entrySet()) {
+            output.append("ing_query_rows_total{query=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue().rows.sum()).append('\n');
+        }
+        output.append("# HELP ing_query_errors_total Failed executions of a SQL statement.\n");
+        output.append("# TYPE ing_query_errors_total counter\n");
+        for (Map.Entry<String, Query> entry : sortedQueries.entrySet()) {
+            output.append("ing_query_errors_total{query=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue().errors.sum()).append('\n');
+        }
+    }
+
+    /**
+     * Method used to retrieve the metrics of a statement, creating them if they do not exist yet.
+     *
+     * @param name The name of the statement.
+     * @return The metrics of the statement.
+     */
+    private static Query getQuery(String name) {
+        return queries.computeIfAbsent(name, key -> new Query());
+    }
+
+    /**
+     * The Query class.
+     * Used to store the metrics of a single statement.
+     */
+    private static class Query {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+    }
+
+}
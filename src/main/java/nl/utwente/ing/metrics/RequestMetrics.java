@@ -0,0 +1,105 @@
+package nl.utwente.ing.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The RequestMetrics class.
+ * Keeps track of the number of requests per HTTP status code, the latency and the number of SQL statements of every
+ * endpoint of the API, labelled by the name of the method handling the endpoint and the HTTP method of the endpoint.
+ * Besides the latency histogram, the estimated 50th, 95th and 99th percentiles of the latency are exported, so that
+ * they can be read without a monitoring system that computes quantiles from histograms.
+ *
+ * @author Daan Kooij
+ */
+public class RequestMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private static final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private RequestMetrics() {
+
+    }
+
+    /**
+     * Method used to record a request that has been answered.
+     *
+     * @param endpoint   The name of the method handling the endpoint.
+     * @param httpMethod The HTTP method of the request.
+     * @param status     The HTTP status code of the response.
+     * @param nanos      The time it took to answer the request in nanoseconds.
+     * @param statements The StatementCounter of the request.
+     */
+    public static void record(String endpoint, String httpMethod, int status, long nanos,
+                              StatementCounter statements) {
+        Endpoint metrics = endpoints.computeIfAbsent("endpoint=\"" + endpoint + "\",method=\"" + httpMethod + "\"",
+                key -> new Endpoint());
+        metrics.latency.record(nanos);
+        metrics.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        metrics.statements.record(statements.getCount());
+        if (statements.isOverBudget()) {
+            metrics.overBudget.increment();
+        }
+    }
+
+    /**
+     * Method used to write the metrics of all endpoints in the Prometheus text format.
+     *
+     * @param output The StringBuilder to which the metrics are written.
+     */
+    public static void writePrometheus(StringBuilder output) {
+        Map<String, Endpoint> sortedEndpoints = new TreeMap<>(endpoints);
+        output.append("# HELP ing_http_requests_total Requests answered by an endpoint, by HTTP status code.\n");
+        output.append("# TYPE ing_http_requests_total counter\n");
+        for (Map.Entry<String, Endpoint> entry : sortedEndpoints.entrySet()) {
+            for (Map.Entry<Integer, LongAdder> status : new TreeMap<>(entry.getValue().statuses).entrySet()) {
+                output.append("ing_http_requests_total{").append(entry.getKey()).append(",status=\"")
+                        .append(status.getKey()).append("\"} ").append(status.getValue().sum()).append('\n');
+            }
+        }
+        output.append("# HELP ing_http_request_duration_seconds Time to answer a request.\n");
+        output.append("# TYPE ing_http_request_duration_seconds histogram\n");
+        for (Map.Entry<String, Endpoint> entry : sortedEndpoints.entrySet()) {
+            entry.getValue().latency.writePrometheus(output, "ing_http_request_duration_seconds", entry.getKey());
+        }
+        output.append("# HELP ing_http_request_duration_quantile_seconds Estimated quantile of the time to answer a " +
+                "request.\n");
+        output.append("# TYPE ing_http_request_duration_quantile_seconds gauge\n");
+        for (Map.Entry<String, Endpoint> entry : sortedEndpoints.entrySet()) {
+            for (double quantile : QUANTILES) {
+                output.append("ing_http_request_duration_quantile_seconds{").append(entry.getKey())
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(entry.getValue().latency.getQuantileSeconds(quantile)).append('\n');
+            }
+        }
+        output.append("# HELP ing_http_request_statements SQL statements executed to answer a request.\n");
+        output.append("# TYPE ing_http_request_statements histogram\n");
+        for (Map.Entry<String, Endpoint> entry : sortedEndpoints.entrySet()) {
+            entry.getValue().statements.writePrometheus(output, "ing_http_request_statements", entry.getKey());
+        }
+        output.append("# HELP ing_http_statement_budget_exceeded_total Requests that executed more SQL statements " +
+                "than the budget of their endpoint.\n");
+        output.append("# TYPE ing_http_statement_budget_exceeded_total counter\n");
+        for (Map.Entry<String, Endpoint> entry : sortedEndpoints.entrySet()) {
+            output.append("ing_http_statement_budget_exceeded_total{").append(entry.getKey()).append("} ")
+                    .append(entry.getValue().overBudget.sum()).append('\n');
+        }
+    }
+
+    /**
+     * The Endpoint class.
+     * Used to store the metrics of a single endpoint.
+     */
+    private static class Endpoint {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final CountHistogram statements = new CountHistogram();
+        private final LongAdder overBudget = new LongAdder();
+
+    }
+
+}
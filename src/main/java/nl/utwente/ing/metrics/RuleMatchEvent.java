@@ -0,0 +1,60 @@
+package nl.utwente.ing.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The RuleMatchEvent class.
+ * A Java Flight Recorder event emitted when category rules are matched against transactions, either when a
+ * transaction is created or when a category rule is applied to the history of a user.
+ *
+ * @author Daan Kooij
+ */
+@Name("nl.utwente.ing.RuleMatch")
+@Label("Category Rule Matching")
+@Description("Matching of category rules against transactions, including assigning the matched categories.")
+public class RuleMatchEvent extends ModelEvent implements RuleMatchEventHandle {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rules")
+    int rules;
+
+    @Label("Transactions")
+    int transactions;
+
+    @Label("Matches")
+    int matches;
+
+    /**
+     * Method used to start a RuleMatchEvent.
+     *
+     * @param operation The name of the operation the matching is part of, like postTransaction.
+     * @param userID    The ID of the user whose category rules are matched.
+     * @return The started RuleMatchEvent, which should be finished when the matching ends.
+     */
+    static RuleMatchEvent begin(String operation, int userID) {
+        RuleMatchEvent event = new RuleMatchEvent();
+        event.operation = operation;
+        event.start(userID);
+        return event;
+    }
+
+    /**
+     * Method used to finish the RuleMatchEvent.
+     *
+     * @param rules        The number of category rules that were matched against the transactions.
+     * @param transactions The number of transactions that were matched against the category rules.
+     * @param matches      The number of transactions a category was assigned to.
+     */
+    @Override
+    public void finish(int rules, int transactions, int matches) {
+        this.rules = rules;
+        this.transactions = transactions;
+        this.matches = matches;
+        finish();
+    }
+
+}
@@ -0,0 +1,20 @@
+package nl.utwente.ing.metrics;
+
+/**
+ * The RuleMatchEventHandle interface.
+ * Consists of method specifications to finish an event of the matching of category rules, recording what was matched.
+ *
+ * @author Daan Kooij
+ */
+public interface RuleMatchEventHandle extends ModelEventHandle {
+
+    /**
+     * Method used to finish the event.
+     *
+     * @param rules        The number of category rules that were matched against the transactions.
+     * @param transactions The number of transactions that were matched against the category rules.
+     * @param matches      The number of transactions a category was assigned to.
+     */
+    void finish(int rules, int transactions, int matches);
+
+}
@@ -0,0 +1,68 @@
+package nl.utwente.ing.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SpanTimer class.
+ * Used to time the consecutive steps (spans) of an operation, like the steps of creating a transaction, so that it can
+ * be seen which step the time of the operation is spent in. Every call to lap records the time since the previous lap
+ * (or since the start of the operation) as the duration of the span that has just ended.
+ * A SpanTimer is used by a single thread; the durations of all SpanTimers are collected in shared histograms.
+ *
+ * @author Daan Kooij
+ */
+public class SpanTimer {
+
+    private static final Map<String, LatencyHistogram> spans = new ConcurrentHashMap<>();
+
+    private final String operation;
+    private long lapStart;
+
+    /**
+     * The constructor of SpanTimer.
+     *
+     * @param operation The name of the operation.
+     */
+    private SpanTimer(String operation) {
+        this.operation = operation;
+        this.lapStart = System.nanoTime();
+    }
+
+    /**
+     * Method used to start timing an operation.
+     *
+     * @param operation The name of the operation.
+     * @return A SpanTimer that times the spans of the operation, starting now.
+     */
+    public static SpanTimer start(String operation) {
+        return new SpanTimer(operation);
+    }
+
+    /**
+     * Method used to end the current span and start the next one.
+     *
+     * @param span The name of the span that has just ended.
+     */
+    public void lap(String span) {
+        long now = System.nanoTime();
+        spans.computeIfAbsent("operation=\"" + operation + "\",span=\"" + span + "\"", key -> new LatencyHistogram())
+                .record(now - lapStart);
+        lapStart = now;
+    }
+
+    /**
+     * Method used to write the durations of all spans in the Prometheus text format.
+     *
+     * @param output The StringBuilder to which the durations are written.
+     */
+    public static void writePrometheus(StringBuilder output) {
+        output.append("# HELP ing_span_duration_seconds Time spent in a step of an operation.\n");
+        output.append("# TYPE ing_span_duration_seconds histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(spans).entrySet()) {
+            entry.getValue().writePrometheus(output, "ing_span_duration_seconds", entry.getKey());
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package nl.utwente.ing.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The StartupTimer class.
+ * Records how long the phases of starting the application take, like connecting to the database and initializing
+ * the Spring context, so that it can be seen what the time until the application is ready is spent on. Some phases
+ * run in parallel, so their durations do not add up to the total startup time.
+ * A phase that is recorded more than once accumulates its durations.
+ *
+ * @author Daan Kooij
+ */
+public class StartupTimer {
+
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private StartupTimer() {
+
+    }
+
+    /**
+     * Method used to record the duration of a phase of starting the application.
+     *
+     * @param phase The name of the phase.
+     * @param nanos The duration of the phase in nanoseconds.
+     */
+    public static synchronized void record(String phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    /**
+     * Method used to record the time between the start of the Java virtual machine and now as a phase, like the time
+     * until the main method is entered or until the application is ready.
+     *
+     * @param phase The name of the phase.
+     */
+    public static void recordSinceJvmStart(String phase) {
+        long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        record(phase, millis * 1000000);
+    }
+
+    /**
+     * Method used to print the durations of all phases recorded so far.
+     */
+    public static synchronized void report() {
+        StringBuilder report = new StringBuilder("Startup phases:");
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            report.append(' ').append(entry.getKey()).append('=').append(entry.getValue() / 1000000).append("ms");
+        }
+        System.out.println(report);
+    }
+
+    /**
+     * Method used to write the durations of all phases in the Prometheus text format.
+     *
+     * @param output The StringBuilder to which the durations are written.
+     */
+    public static synchronized void writePrometheus(StringBuilder output) {
+        output.append("# HELP ing_startup_phase_seconds Time spent in a phase of starting the application.\n");
+        output.append("# TYPE ing_startup_phase_seconds gauge\n");
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            output.append("ing_startup_phase_seconds{phase=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue() / 1e9).append('\n');
+        }
+    }
+
+}
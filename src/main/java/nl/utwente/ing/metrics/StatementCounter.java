@@ -0,0 +1,93 @@
+package nl.utwente.ing.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The StatementCounter class.
+ * Counts the SQL statements executed for a single request. The work of a request can move between threads (from the
+ * thread of the web server to a thread of the ModelExecutor and back), so a StatementCounter is bound to every thread
+ * working on the request, and every statement executed through an InstrumentedConnection is counted by the
+ * StatementCounter bound to the executing thread.
+ * A request can have a budget: the number of statements it is expected to need at most. Exceeding the budget usually
+ * means that a statement is executed for every row of a result (an N+1 pattern).
+ *
+ * @author Daan Kooij
+ */
+public class StatementCounter {
+
+    /**
+     * The budget of requests that do not declare one.
+     */
+    public static final int NO_BUDGET = -1;
+
+    private static final ThreadLocal<StatementCounter> current = new ThreadLocal<>();
+
+    private final int budget;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The constructor of StatementCounter.
+     *
+     * @param budget The maximum number of statements the request is expected to need (NO_BUDGET if none).
+     */
+    public StatementCounter(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Method used to retrieve the StatementCounter bound to the current thread.
+     *
+     * @return The StatementCounter bound to the current thread, or null if none is bound.
+     */
+    public static StatementCounter current() {
+        return current.get();
+    }
+
+    /**
+     * Method used to bind a StatementCounter to the current thread, replacing the one bound before.
+     *
+     * @param counter The StatementCounter to be bound, or null to unbind the current one.
+     */
+    public static void bind(StatementCounter counter) {
+        if (counter == null) {
+            current.remove();
+        } else {
+            current.set(counter);
+        }
+    }
+
+    /**
+     * Method used to count a statement.
+     */
+    void increment() {
+        count.incrementAndGet();
+    }
+
+    /**
+     * Method used to retrieve the number of statements counted so far.
+     *
+     * @return The number of statements counted so far.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Method used to retrieve the budget of the request.
+     *
+     * @return The maximum number of statements the request is expected to need (NO_BUDGET if none).
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Method used to check whether the request has executed more statements than its budget.
+     *
+     * @return true if the request has a budget and has exceeded it, false otherwise.
+     */
+    public boolean isOverBudget() {
+        return budget != NO_BUDGET && count.get() > budget;
+    }
+
+}
@@ -0,0 +1,118 @@
+package nl.utwente.ing.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The DateCodec class.
+ * Dates are exchanged in the json API as Strings in the "yyyy-MM-dd'T'HH:mm:ss.SSSZ" format, and compared and stored
+ * as a long number of milliseconds since the epoch. This class converts between the two.
+ * Dates are always parsed using the offset they contain and formatted in UTC, so that the conversions do not depend
+ * on the time zone of the server the application runs on.
+ * Dates are parsed like the non-lenient SimpleDateFormat used by earlier versions of the API did, so that dates that
+ * were accepted before still are: fields do not have to be padded with zeros, the milliseconds may have fewer than
+ * three digits (and are read as a number of milliseconds, so ".5" means 5 milliseconds) and the offset may be written
+ * as "GMT+01:00" or "GMT" as well. Unlike before, time zone names (like "CET") and text following the date are
+ * rejected. Dates are always formatted with all fields padded and an offset like "+0000".
+ * The underlying formatters are immutable, so a single instance of each is shared by all threads.
+ *
+ * @author Daan Kooij
+ */
+public final class DateCodec {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSZ")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter PARSER = new DateTimeFormatterBuilder()
+            .appendValue(ChronoField.YEAR, 1, 9, SignStyle.NORMAL)
+            .appendLiteral('-')
+            .appendValue(ChronoField.MONTH_OF_YEAR, 1, 2, SignStyle.NOT_NEGATIVE)
+            .appendLiteral('-')
+            .appendValue(ChronoField.DAY_OF_MONTH, 1, 2, SignStyle.NOT_NEGATIVE)
+            .appendLiteral('T')
+            .appendValue(ChronoField.HOUR_OF_DAY, 1, 2, SignStyle.NOT_NEGATIVE)
+            .appendLiteral(':')
+            .appendValue(ChronoField.MINUTE_OF_HOUR, 1, 2, SignStyle.NOT_NEGATIVE)
+            .appendLiteral(':')
+            .appendValue(ChronoField.SECOND_OF_MINUTE, 1, 2, SignStyle.NOT_NEGATIVE)
+            .appendLiteral('.')
+            .appendValue(ChronoField.MILLI_OF_SECOND, 1, 3, SignStyle.NOT_NEGATIVE)
+            .optionalStart()
+            .appendLiteral("GMT")
+            .appendOffset("+HH:MM", "")
+            .optionalEnd()
+            .optionalStart()
+            .appendOffset("+HHMM", "+0000")
+            .optionalEnd()
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private DateCodec() {
+
+    }
+
+    /**
+     * Method used to convert a date to a number of milliseconds since the epoch.
+     *
+     * @param date The date, in the "yyyy-MM-dd'T'HH:mm:ss.SSSZ" format.
+     * @return The number of milliseconds since the epoch.
+     * @throws DateTimeParseException If the date is not a valid date in the "yyyy-MM-dd'T'HH:mm:ss.SSSZ" format.
+     */
+    public static long toMillis(String date) throws DateTimeParseException {
+        return OffsetDateTime.parse(date.trim(), PARSER).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Method used to convert a number of milliseconds since the epoch to a date in UTC.
+     *
+     * @param millis The number of milliseconds since the epoch.
+     * @return The date, in the "yyyy-MM-dd'T'HH:mm:ss.SSSZ" format.
+     */
+    public static String toDate(long millis) {
+        return FORMATTER.format(Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC));
+    }
+
+    /**
+     * Method used to count the months that started, at midnight in UTC on the first of the month, after a certain
+     * time up to and including another time.
+     *
+     * @param fromMillis The first time in milliseconds since the epoch.
+     * @param toMillis   The other time in milliseconds since the epoch.
+     * @return The number of months that started after fromMillis up to and including toMillis (negative if toMillis
+     * lies in an earlier month than fromMillis).
+     */
+    public static long monthsBetween(long fromMillis, long toMillis) {
+        return toMonth(fromMillis).until(toMonth(toMillis), ChronoUnit.MONTHS);
+    }
+
+    /**
+     * Method used to compute the start of a month, at midnight in UTC on the first of the month, relative to the month
+     * containing a certain time.
+     *
+     * @param millis The time in milliseconds since the epoch.
+     * @param months The number of months after the month containing millis (0 for that month itself).
+     * @return The start of the month in milliseconds since the epoch.
+     */
+    public static long toStartOfMonthMillis(long millis, long months) {
+        return toMonth(millis).plusMonths(months).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Method used to retrieve the month in UTC containing a certain time.
+     *
+     * @param millis The time in milliseconds since the epoch.
+     * @return The month containing millis in UTC.
+     */
+    private static YearMonth toMonth(long millis) {
+        return YearMonth.from(Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC));
+    }
+
+}
@@ -3,7 +3,9 @@ package nl.utwente.ing.model;
 import nl.utwente.ing.exception.InvalidSessionIDException;
 import nl.utwente.ing.exception.ResourceNotFoundException;
 import nl.utwente.ing.model.bean.*;
+import nl.utwente.ing.model.event.EventSubscription;
 
+import java.time.ZoneId;
 import java.util.ArrayList;
 
 /**
@@ -16,15 +18,43 @@ import java.util.ArrayList;
 public interface Model {
 
     /**
-     * Method used to retrieve the transactions belonging to a certain user.
+     * Method used to retrieve the transactions belonging to a certain user, together with their Category.
+     * The transactions are ordered by date, the oldest first, and transactions with the same date by their id.
      *
-     * @param sessionID    The sessionID of the user.
-     * @param categoryName The category to be filtered on (empty String if no filter).
-     * @param limit        The maximum amount of transactions to be fetched.
-     * @param offset       The starting index to fetch transactions.
+     * @param sessionID The sessionID of the user.
+     * @param filter    The criteria the transactions should match.
+     * @param limit     The maximum amount of transactions to be fetched.
+     * @param offset    The starting index to fetch transactions.
      * @return An ArrayList of Transaction belonging to the user with sessionID.
      */
-    ArrayList<Transaction> getTransactions(String sessionID, String categoryName, int limit, int offset)
+    ArrayList<Transaction> getTransactions(String sessionID, TransactionFilter filter, int limit, int offset)
+            throws InvalidSessionIDException;
+
+    /**
+     * Method used to search the transactions belonging to a certain user by their description.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param query     The words to search for.
+     * @param limit     The maximum amount of transactions to be fetched.
+     * @param offset    The starting index to fetch transactions.
+     * @return An ArrayList of Transaction belonging to the user with sessionID, the most relevant first.
+     */
+    ArrayList<Transaction> searchTransactions(String sessionID, String query, int limit, int offset)
+            throws InvalidSessionIDException;
+
+    /**
+     * Method used to retrieve the external IBANs with the highest total transaction amount, either of a certain user or
+     * of all users together. The IBANs of the counterparties of all users together are masked, so that the
+     * counterparties of other users are not disclosed.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param global    Whether the counterparties of all users together should be retrieved.
+     * @param exact     Whether the volumes should be computed exactly over all transactions, instead of being
+     *                  estimated using a sketch.
+     * @param limit     The maximum amount of counterparties to be retrieved.
+     * @return An ArrayList of Counterparty, the highest volume first.
+     */
+    ArrayList<Counterparty> getTopCounterparties(String sessionID, boolean global, boolean exact, int limit)
             throws InvalidSessionIDException;
 
     /**
@@ -32,7 +62,8 @@ public interface Model {
      *
      * @param sessionID    The sessionID of the user.
      * @param date         The date of the to be created Transaction.
-     * @param amount       The amount of the to be created Transaction.
+     * @param dateMillis   The date in milliseconds of the to be created Transaction.
+     * @param amount       The amount in cents of the to be created Transaction.
      * @param description  The description of the to be created Transaction
      * @param externalIBAN The external IBAN of the to be created Transaction.
      * @param type         The type of the to be created Transaction.
@@ -40,8 +71,8 @@ public interface Model {
      *                     (0 if no Category).
      * @return The Transaction created by this method.
      */
-    Transaction postTransaction(String sessionID, String date, float amount, String description, String externalIBAN, String type,
-                                long categoryID) throws InvalidSessionIDException, ResourceNotFoundException;
+    Transaction postTransaction(String sessionID, String date, long dateMillis, long amount, String description,
+                                String externalIBAN, String type, long categoryID) throws InvalidSessionIDException, ResourceNotFoundException;
 
     /**
      * Method used to retrieve a certain Transaction of a certain user.
@@ -59,7 +90,8 @@ public interface Model {
      * @param sessionID     The sessionID of the user.
      * @param transactionID The transactionID of the Transaction that will be updated.
      * @param date          The new date of the to be updated Transaction.
-     * @param amount        The new amount of the to be updated Transaction.
+     * @param dateMillis    The new date in milliseconds of the to be updated Transaction (ignored if date is empty).
+     * @param amount        The new amount in cents of the to be updated Transaction.
      * @param description   The new description of the to be updated Transaction.
      * @param externalIBAN  The new external IBAN of the to be updated Transaction.
      * @param type          The new type of the to be updated Transaction.
@@ -67,8 +99,8 @@ public interface Model {
      *                      (0 if no Category).
      * @return The Transaction updated by this method.
      */
-    Transaction putTransaction(String sessionID, long transactionID, String date, float amount, String description,
-                               String externalIBAN, String type, long categoryID)
+    Transaction putTransaction(String sessionID, long transactionID, String date, long dateMillis, long amount,
+                               String description, String externalIBAN, String type, long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException;
 
     /**
@@ -102,6 +134,19 @@ public interface Model {
      */
     ArrayList<Category> getCategories(String sessionID, int limit, int offset) throws InvalidSessionIDException;
 
+    /**
+     * Method used to retrieve the total, count and average amount of the transactions of a certain user per Category,
+     * period and type.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param yearly    Whether the statistics should be computed per year (true) or per month (false).
+     * @param from      The first period (inclusive) of which statistics are retrieved.
+     * @param to        The last period (inclusive) of which statistics are retrieved.
+     * @return An ArrayList of CategoryStatistic belonging to the user with sessionID, the most recent period first.
+     */
+    ArrayList<CategoryStatistic> getCategoryStatistics(String sessionID, boolean yearly, String from, String to)
+            throws InvalidSessionIDException;
+
     /**
      * Method used to create a new Category for a certain user.
      *
@@ -143,7 +188,7 @@ public interface Model {
      * Method used to retrieve all the CategoryRules of a certain user.
      *
      * @param sessionID The sessionID of the user.
-     * @return A list of all CategoryRules of the user.
+     * @return An ArrayList of all CategoryRules of the user.
      * @throws InvalidSessionIDException
      */
     ArrayList<CategoryRule> getCategoryRules(String sessionID) throws InvalidSessionIDException;
@@ -209,14 +254,16 @@ public interface Model {
      * @param sessionID         The sessionID of the to be retrieved intervals.
      * @param intervalsNumber   The number of intervals to be retrieved.
      * @param intervalTime      The type of the to be retrieved intervals.
-     * @return  The specified intervals.
+     * @param zone              The time zone in which the intervals are aligned.
+     * @return  The specified intervals, the most recent interval first.
      * @throws InvalidSessionIDException
      */
-    ArrayList<Interval> getIntervals(String sessionID, int intervalsNumber, String intervalTime) throws InvalidSessionIDException;
+    ArrayList<Interval> getIntervals(String sessionID, int intervalsNumber, String intervalTime, ZoneId zone)
+            throws InvalidSessionIDException;
 
     ArrayList<SavingGoal> getSavingGoals(String sessionID) throws InvalidSessionIDException;
 
-    SavingGoal postSavingGoal(String sessionID, String name, float goal, float savePerMonth, float minBalanceRequired)
+    SavingGoal postSavingGoal(String sessionID, String name, long goal, long savePerMonth, long minBalanceRequired)
             throws InvalidSessionIDException;
 
     void deleteSavingGoal(String sessionID, long savingGoalID) throws InvalidSessionIDException, ResourceNotFoundException;
@@ -228,7 +275,43 @@ public interface Model {
      */
     Session getSession();
 
-    ArrayList<PaymentRequest> getPaymentRequests(String sessionID) throws InvalidSessionIDException;
+    /**
+     * Method used to retrieve the version of the data of a certain user.
+     * The version changes whenever the data of the user changes.
+     *
+     * @param sessionID The sessionID of the user.
+     * @return The version of the data of the user with sessionID.
+     */
+    String getVersion(String sessionID) throws InvalidSessionIDException;
+
+    /**
+     * Method used to subscribe to the changes to the data of a certain user.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param listener  Called whenever an event is added to the subscription; should not block.
+     * @return The subscription, from which the events can be collected.
+     */
+    EventSubscription subscribe(String sessionID, Runnable listener) throws InvalidSessionIDException;
+
+    /**
+     * Method used to stop a subscription from receiving events.
+     *
+     * @param subscription The subscription.
+     */
+    void unsubscribe(EventSubscription subscription);
+
+    /**
+     * Method used to retrieve the payment requests belonging to a certain user.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param filled    The filled status to be filtered on (null if no filter).
+     * @param limit     The maximum amount of payment requests to be fetched.
+     * @param offset    The starting index to fetch payment requests.
+     * @return An ArrayList of PaymentRequest belonging to the user with sessionID.
+     */
+    ArrayList<PaymentRequest> getPaymentRequests(String sessionID, Boolean filled, int limit, int offset)
+            throws InvalidSessionIDException;
 
-    PaymentRequest postPaymentRequest(String sessionID, String description, String due_date, float amount, long number_of_requests) throws InvalidSessionIDException;
+    PaymentRequest postPaymentRequest(String sessionID, String description, String due_date, long dueDateMillis, long amount,
+                                      long number_of_requests) throws InvalidSessionIDException;
 }
@@ -0,0 +1,152 @@
+package nl.utwente.ing.model.analytics;
+
+import nl.utwente.ing.model.bean.Counterparty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CounterpartySketches class.
+ * Keeps a SpaceSavingSketch of the transaction volume per external IBAN for every recently active user, and one for
+ * all users of the deployment together, so that the top counterparties can be retrieved without visiting the
+ * transaction history.
+ * Memory is bounded: every sketch has a fixed capacity, and only the sketches of the most recently used users are
+ * kept. A sketch that is not available (because the application was restarted, or the user was not active recently)
+ * has to be seeded from the database using the seed methods before it is used.
+ *
+ * @author Daan Kooij
+ */
+public class CounterpartySketches {
+
+    public static final int USER_SKETCH_CAPACITY = 32;
+    public static final int GLOBAL_SKETCH_CAPACITY = 256;
+    private static final int MAX_USER_SKETCHES = 10000;
+
+    private static final Map<Integer, SpaceSavingSketch> userSketches = Collections.synchronizedMap(
+            new LinkedHashMap<Integer, SpaceSavingSketch>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, SpaceSavingSketch> eldest) {
+                    return size() > MAX_USER_SKETCHES;
+                }
+            });
+    private static volatile SpaceSavingSketch globalSketch;
+
+    /**
+     * Method used to add the amount of a new transaction to the sketches.
+     * Sketches that have not been seeded yet are skipped, since they will include the transaction once they are seeded.
+     *
+     * @param userID       The id of the user to which the transaction belongs.
+     * @param externalIBAN The external IBAN of the transaction.
+     * @param amount       The amount in cents of the transaction.
+     */
+    public static void record(int userID, String externalIBAN, long amount) {
+        if (externalIBAN == null) {
+            return;
+        }
+        SpaceSavingSketch userSketch = userSketches.get(userID);
+        if (userSketch != null) {
+            userSketch.add(externalIBAN, amount);
+        }
+        SpaceSavingSketch sketch = globalSketch;
+        if (sketch != null) {
+            sketch.add(externalIBAN, amount);
+        }
+    }
+
+    /**
+     * Method used to discard the sketch of a user, for example because a transaction of the user was changed or
+     * deleted, which a sketch cannot account for. The sketch will be seeded again when it is used next.
+     *
+     * @param userID The id of the user.
+     */
+    public static void invalidate(int userID) {
+        userSketches.remove(userID);
+    }
+
+    /**
+     * Method used to retrieve the sketch of a user.
+     *
+     * @param userID The id of the user.
+     * @return The sketch of the user (null if it has not been seeded).
+     */
+    public static SpaceSavingSketch getUserSketch(int userID) {
+        return userSketches.get(userID);
+    }
+
+    /**
+     * Method used to seed the sketch of a user with the exact volumes of the user's top counterparties.
+     *
+     * @param userID         The id of the user.
+     * @param counterparties The exact top counterparties of the user, at most USER_SKETCH_CAPACITY.
+     * @return The seeded sketch of the user.
+     */
+    public static SpaceSavingSketch seedUserSketch(int userID, List<Counterparty> counterparties) {
+        SpaceSavingSketch sketch = createSketch(USER_SKETCH_CAPACITY, counterparties);
+        userSketches.put(userID, sketch);
+        return sketch;
+    }
+
+    /**
+     * Method used to retrieve the sketch of all users together.
+     *
+     * @return The sketch of all users together (null if it has not been seeded).
+     */
+    public static SpaceSavingSketch getGlobalSketch() {
+        return globalSketch;
+    }
+
+    /**
+     * Method used to seed the sketch of all users together with the exact volumes of the top counterparties.
+     *
+     * @param counterparties The exact top counterparties of all users together, at most GLOBAL_SKETCH_CAPACITY.
+     * @return The seeded sketch of all users together.
+     */
+    public static SpaceSavingSketch seedGlobalSketch(List<Counterparty> counterparties) {
+        SpaceSavingSketch sketch = createSketch(GLOBAL_SKETCH_CAPACITY, counterparties);
+        globalSketch = sketch;
+        return sketch;
+    }
+
+    /**
+     * Method used to retrieve the counterparties with the highest estimated volume from a sketch.
+     *
+     * @param sketch The sketch.
+     * @param limit  The maximum number of counterparties to be retrieved.
+     * @return A List of Counterparty objects, the highest estimated volume first.
+     */
+    public static List<Counterparty> getTop(SpaceSavingSketch sketch, int limit) {
+        List<Counterparty> counterparties = new ArrayList<>();
+        for (SpaceSavingSketch.Counter counter : sketch.getTop(limit)) {
+            counterparties.add(new Counterparty(counter.getKey(), counter.getWeight(), counter.getError()));
+        }
+        return counterparties;
+    }
+
+    /**
+     * Method used to create a sketch that already contains the volumes of certain counterparties.
+     *
+     * @param capacity       The capacity of the sketch.
+     * @param counterparties The counterparties the sketch is seeded with.
+     * @return The created sketch.
+     */
+    private static SpaceSavingSketch createSketch(int capacity, List<Counterparty> counterparties) {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        for (Counterparty counterparty : counterparties) {
+            sketch.add(counterparty.getExternalIBAN(), counterparty.getVolume());
+        }
+        return sketch;
+    }
+
+    /**
+     * Method used to retrieve the number of users of which a sketch is kept.
+     *
+     * @return The number of users of which a sketch is kept.
+     */
+    public static int getUserSketchCount() {
+        return userSketches.size();
+    }
+
+}
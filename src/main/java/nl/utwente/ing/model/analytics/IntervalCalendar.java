@@ -0,0 +1,98 @@
+package nl.utwente.ing.model.analytics;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The IntervalCalendar class.
+ * Computes the boundaries of consecutive calendar intervals (hours, days, weeks, months or years) in a certain time
+ * zone. The last interval is the one containing the current time; weeks start on Sunday.
+ * Boundaries are computed on the local time of the time zone, so that a day always starts at midnight and a month
+ * always starts on the first, also around daylight saving time transitions.
+ *
+ * @author Daan Kooij
+ */
+public final class IntervalCalendar {
+
+    private IntervalCalendar() {
+
+    }
+
+    /**
+     * Method used to compute the boundaries of the specified number of intervals up to and including the interval
+     * containing the specified time.
+     * Interval i starts at boundaries[i] (inclusive) and ends at boundaries[i + 1] (exclusive).
+     *
+     * @param intervalTime    The type of the intervals ("hour", "day", "week", "month" or "year").
+     * @param intervalsNumber The number of intervals.
+     * @param zone            The time zone in which the intervals are aligned.
+     * @param now             The time that is contained in the last interval.
+     * @return An array of intervalsNumber + 1 boundaries in milliseconds, in ascending order.
+     * @throws IllegalArgumentException If intervalTime is not a supported type of interval.
+     */
+    public static long[] getBoundaries(String intervalTime, int intervalsNumber, ZoneId zone, Instant now) {
+        ChronoUnit unit = getUnit(intervalTime);
+        long[] boundaries = new long[intervalsNumber + 1];
+        if (unit == ChronoUnit.HOURS) {
+            Instant end = now.atZone(zone).truncatedTo(ChronoUnit.HOURS).toInstant().plus(1, ChronoUnit.HOURS);
+            for (int i = 0; i <= intervalsNumber; i++) {
+                boundaries[i] = end.minus(intervalsNumber - i, ChronoUnit.HOURS).toEpochMilli();
+            }
+        } else {
+            LocalDate end = getStart(now.atZone(zone).toLocalDate(), unit).plus(1, unit);
+            for (int i = 0; i <= intervalsNumber; i++) {
+                boundaries[i] = end.minus(intervalsNumber - i, unit).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Method used to retrieve the unit of time corresponding to a type of interval.
+     *
+     * @param intervalTime The type of interval ("hour", "day", "week", "month" or "year").
+     * @return The corresponding unit of time.
+     * @throws IllegalArgumentException If intervalTime is not a supported type of interval.
+     */
+    private static ChronoUnit getUnit(String intervalTime) {
+        switch (intervalTime) {
+            case "hour":
+                return ChronoUnit.HOURS;
+            case "day":
+                return ChronoUnit.DAYS;
+            case "week":
+                return ChronoUnit.WEEKS;
+            case "month":
+                return ChronoUnit.MONTHS;
+            case "year":
+                return ChronoUnit.YEARS;
+            default:
+                throw new IllegalArgumentException("Unsupported interval: " + intervalTime);
+        }
+    }
+
+    /**
+     * Method used to retrieve the first day of the interval containing a certain day.
+     *
+     * @param day  The day.
+     * @param unit The unit of time of the interval (days, weeks, months or years).
+     * @return The first day of the interval containing day.
+     */
+    private static LocalDate getStart(LocalDate day, ChronoUnit unit) {
+        switch (unit) {
+            case WEEKS:
+                return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+            case MONTHS:
+                return day.with(TemporalAdjusters.firstDayOfMonth());
+            case YEARS:
+                return day.with(TemporalAdjusters.firstDayOfYear());
+            default:
+                return day;
+        }
+    }
+
+}
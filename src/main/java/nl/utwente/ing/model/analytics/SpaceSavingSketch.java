@@ -0,0 +1,125 @@
+package nl.utwente.ing.model.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The SpaceSavingSketch class.
+ * Keeps track of the keys with the highest total weight in a stream of weighted keys, using at most a fixed number of
+ * counters (the weighted Space-Saving algorithm).
+ * When a key that is not tracked arrives while all counters are in use, the counter with the lowest weight is taken
+ * over by the new key. The estimated weight of a key therefore never underestimates its true weight, and overestimates
+ * it by at most the error stored with its counter. Every key whose true weight exceeds the total weight divided by the
+ * capacity is guaranteed to be tracked.
+ *
+ * @author Daan Kooij
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    /**
+     * The constructor of SpaceSavingSketch.
+     *
+     * @param capacity The maximum number of keys that are tracked.
+     */
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Method used to add weight to a key.
+     *
+     * @param key    The key.
+     * @param weight The weight that is added to the key.
+     */
+    public synchronized void add(String key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.weight += weight;
+        } else if (counters.size() < capacity) {
+            counters.put(key, new Counter(key, weight, 0));
+        } else {
+            Counter minimum = null;
+            for (Counter candidate : counters.values()) {
+                if (minimum == null || candidate.weight < minimum.weight) {
+                    minimum = candidate;
+                }
+            }
+            counters.remove(minimum.key);
+            counters.put(key, new Counter(key, minimum.weight + weight, minimum.weight));
+        }
+    }
+
+    /**
+     * Method used to retrieve the tracked keys with the highest estimated weight.
+     *
+     * @param limit The maximum number of keys to be retrieved.
+     * @return A List of Counter objects, the highest estimated weight first.
+     */
+    public synchronized List<Counter> getTop(int limit) {
+        List<Counter> top = new ArrayList<>();
+        for (Counter counter : counters.values()) {
+            top.add(new Counter(counter.key, counter.weight, counter.error));
+        }
+        top.sort((a, b) -> Long.compare(b.weight, a.weight));
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    /**
+     * The Counter class.
+     * Used to store the estimated weight of a key and the maximum amount by which this weight is overestimated.
+     */
+    public static class Counter {
+
+        private final String key;
+        private long weight;
+        private final long error;
+
+        /**
+         * The constructor of Counter.
+         *
+         * @param key    The key of the to be created Counter.
+         * @param weight The estimated weight of the key.
+         * @param error  The maximum amount by which the estimated weight overestimates the true weight.
+         */
+        Counter(String key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        /**
+         * Method used to retrieve the key of Counter.
+         *
+         * @return The key of Counter.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Method used to retrieve the estimated weight of the key of Counter.
+         *
+         * @return The estimated weight of the key of Counter.
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+        /**
+         * Method used to retrieve the maximum amount by which the estimated weight of Counter is overestimated.
+         *
+         * @return The maximum amount by which the estimated weight of Counter is overestimated.
+         */
+        public long getError() {
+            return error;
+        }
+
+    }
+
+}
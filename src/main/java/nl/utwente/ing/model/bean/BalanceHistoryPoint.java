@@ -2,43 +2,43 @@ package nl.utwente.ing.model.bean;
 
 public class BalanceHistoryPoint {
 
-    private float open;
-    private float close;
-    private float volume;
+    private long open;
+    private long close;
+    private long volume;
     private long timeStamp;
 
     public BalanceHistoryPoint() {
 
     }
 
-    public BalanceHistoryPoint(float open, float close, float volume, long timeStamp) {
+    public BalanceHistoryPoint(long open, long close, long volume, long timeStamp) {
         this.open = open;
         this.close = close;
         this.volume = volume;
         this.timeStamp = timeStamp;
     }
 
-    public float getOpen() {
+    public long getOpen() {
         return open;
     }
 
-    public void setOpen(float open) {
+    public void setOpen(long open) {
         this.open = open;
     }
 
-    public float getClose() {
+    public long getClose() {
         return close;
     }
 
-    public void setClose(float close) {
+    public void setClose(long close) {
         this.close = close;
     }
 
-    public float getVolume() {
+    public long getVolume() {
         return volume;
     }
 
-    public void setVolume(float volume) {
+    public void setVolume(long volume) {
         this.volume = volume;
     }
 
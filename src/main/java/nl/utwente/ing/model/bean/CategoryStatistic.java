@@ -0,0 +1,97 @@
+package nl.utwente.ing.model.bean;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * The CategoryStatistic class.
+ * Used to store the total, count and average amount of the transactions of a certain type that belong to a certain
+ * Category during a certain period.
+ *
+ * @author Daan Kooij
+ */
+public class CategoryStatistic {
+
+    private Category category;
+    private String period;
+    private String type;
+    @JsonSerialize(using = Money.Serializer.class)
+    private long total;
+    private long count;
+
+    /**
+     * A constructor of CategoryStatistic.
+     *
+     * @param category The Category of the to be created CategoryStatistic.
+     * @param period   The period of the to be created CategoryStatistic ("yyyy-MM" for a month, "yyyy" for a year).
+     * @param type     The type (deposit or withdrawal) of the transactions of the to be created CategoryStatistic.
+     * @param total    The total amount in cents of the transactions of the to be created CategoryStatistic.
+     * @param count    The number of transactions of the to be created CategoryStatistic.
+     */
+    public CategoryStatistic(Category category, String period, String type, long total, long count) {
+        this.category = category;
+        this.period = period;
+        this.type = type;
+        this.total = total;
+        this.count = count;
+    }
+
+    /**
+     * Method used to retrieve the Category of CategoryStatistic.
+     *
+     * @return The Category of CategoryStatistic.
+     */
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Method used to retrieve the period of CategoryStatistic.
+     *
+     * @return The period of CategoryStatistic ("yyyy-MM" for a month, "yyyy" for a year).
+     */
+    public String getPeriod() {
+        return period;
+    }
+
+    /**
+     * Method used to retrieve the type (deposit or withdrawal) of the transactions of CategoryStatistic.
+     *
+     * @return The type of the transactions of CategoryStatistic.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Method used to retrieve the total amount in cents of the transactions of CategoryStatistic.
+     *
+     * @return The total amount in cents of the transactions of CategoryStatistic.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Method used to retrieve the number of transactions of CategoryStatistic.
+     *
+     * @return The number of transactions of CategoryStatistic.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Method used to retrieve the average amount in cents of the transactions of CategoryStatistic,
+     * rounded half up to whole cents.
+     *
+     * @return The average amount in cents of the transactions of CategoryStatistic.
+     */
+    @JsonSerialize(using = Money.Serializer.class)
+    public long getAverage() {
+        if (count == 0) {
+            return 0;
+        }
+        return Math.floorDiv(2 * total + count, 2 * count);
+    }
+
+}
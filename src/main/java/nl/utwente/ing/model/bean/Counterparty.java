@@ -0,0 +1,60 @@
+package nl.utwente.ing.model.bean;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * The Counterparty class.
+ * Used to store the volume of the transactions with a certain external IBAN.
+ *
+ * @author Daan Kooij
+ */
+public class Counterparty {
+
+    private String externalIBAN;
+    @JsonSerialize(using = Money.Serializer.class)
+    private long volume;
+    @JsonSerialize(using = Money.Serializer.class)
+    private long error;
+
+    /**
+     * A constructor of Counterparty.
+     *
+     * @param externalIBAN The external IBAN of the to be created Counterparty.
+     * @param volume       The (estimated) total amount in cents of the transactions with the external IBAN.
+     * @param error        The maximum amount in cents by which the volume is overestimated (0 if exact).
+     */
+    public Counterparty(String externalIBAN, long volume, long error) {
+        this.externalIBAN = externalIBAN;
+        this.volume = volume;
+        this.error = error;
+    }
+
+    /**
+     * Method used to retrieve the external IBAN of Counterparty.
+     *
+     * @return The external IBAN of Counterparty.
+     */
+    public String getExternalIBAN() {
+        return externalIBAN;
+    }
+
+    /**
+     * Method used to retrieve the (estimated) total amount in cents of the transactions with the external IBAN of
+     * Counterparty.
+     *
+     * @return The (estimated) total amount in cents of the transactions of Counterparty.
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    /**
+     * Method used to retrieve the maximum amount in cents by which the volume of Counterparty is overestimated.
+     *
+     * @return The maximum amount in cents by which the volume of Counterparty is overestimated (0 if exact).
+     */
+    public long getError() {
+        return error;
+    }
+
+}
@@ -0,0 +1,44 @@
+package nl.utwente.ing.model.bean;
+
+import java.util.List;
+
+/**
+ * The HealthStatus class.
+ * Used to store whether the application is ready to serve requests, and why not if it is not.
+ *
+ * @author Daan Kooij
+ */
+public class HealthStatus {
+
+    private String status;
+    private List<String> problems;
+
+    /**
+     * The constructor of HealthStatus.
+     *
+     * @param problems The reasons why the application is not ready (empty if it is ready).
+     */
+    public HealthStatus(List<String> problems) {
+        this.status = problems.isEmpty() ? "UP" : "DOWN";
+        this.problems = problems;
+    }
+
+    /**
+     * Method used to retrieve the status of HealthStatus.
+     *
+     * @return UP if the application is ready to serve requests, DOWN otherwise.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Method used to retrieve the problems of HealthStatus.
+     *
+     * @return The reasons why the application is not ready (empty if it is ready).
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+
+}
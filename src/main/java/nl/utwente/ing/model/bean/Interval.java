@@ -1,19 +1,32 @@
 package nl.utwente.ing.model.bean;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 public class Interval {
 
-    private float open;
-    private float close;
-    private float high;
-    private float low;
-    private float volume;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long open;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long close;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long high;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long low;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long volume;
     private long timeStamp;
 
     public Interval() {
 
     }
 
-    public Interval(float open, float close, float high, float low, float volume, long timeStamp) {
+    public Interval(long open, long close, long high, long low, long volume, long timeStamp) {
         this.open = open;
         this.close = close;
         this.high = high;
@@ -22,43 +35,43 @@ public class Interval {
         this.timeStamp = timeStamp;
     }
 
-    public float getOpen() {
+    public long getOpen() {
         return open;
     }
 
-    public void setOpen(float open) {
+    public void setOpen(long open) {
         this.open = open;
     }
 
-    public float getClose() {
+    public long getClose() {
         return close;
     }
 
-    public void setClose(float close) {
+    public void setClose(long close) {
         this.close = close;
     }
 
-    public float getHigh() {
+    public long getHigh() {
         return high;
     }
 
-    public void setHigh(float high) {
+    public void setHigh(long high) {
         this.high = high;
     }
 
-    public float getLow() {
+    public long getLow() {
         return low;
     }
 
-    public void setLow(float low) {
+    public void setLow(long low) {
         this.low = low;
     }
 
-    public float getVolume() {
+    public long getVolume() {
         return volume;
     }
 
-    public void setVolume(float volume) {
+    public void setVolume(long volume) {
         this.volume = volume;
     }
 
@@ -0,0 +1,95 @@
+package nl.utwente.ing.model.bean;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The Money class.
+ * Monetary amounts are stored as a long number of cents throughout the application, so that adding and subtracting
+ * amounts is exact. This class converts between cents and the decimal amounts used in the json API.
+ *
+ * @author Daan Kooij
+ */
+public final class Money {
+
+    public static final long CENTS_PER_UNIT = 100;
+
+    private static final int SCALE = 2;
+
+    private Money() {
+
+    }
+
+    /**
+     * Method used to convert a decimal amount to cents, rounding half up to whole cents.
+     *
+     * @param amount The decimal amount.
+     * @return The amount in cents.
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Method used to convert a decimal amount to cents, rounding half up to whole cents.
+     *
+     * @param amount The decimal amount.
+     * @return The amount in cents.
+     */
+    public static long toCents(String amount) {
+        return toCents(new BigDecimal(amount.trim()));
+    }
+
+    /**
+     * Method used to convert an amount in cents to a decimal amount.
+     *
+     * @param cents The amount in cents.
+     * @return The decimal amount.
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * The Serializer class.
+     * Used by the Spring framework to write an amount in cents as a decimal json number.
+     */
+    public static class Serializer extends JsonSerializer<Long> {
+
+        @Override
+        public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(toDecimal(cents));
+        }
+
+    }
+
+    /**
+     * The Deserializer class.
+     * Used by the Spring framework to read a decimal json number (or string) as an amount in cents.
+     */
+    public static class Deserializer extends JsonDeserializer<Long> {
+
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            try {
+                if (parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+                    return toCents(parser.getText());
+                }
+                return toCents(parser.getDecimalValue());
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw context.mappingException("Invalid amount: " + parser.getText());
+            }
+        }
+
+    }
+
+}
@@ -1,5 +1,8 @@
 package nl.utwente.ing.model.bean;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.util.ArrayList;
 
 public class PaymentRequest {
@@ -7,7 +10,9 @@ public class PaymentRequest {
     private long id;
     private String description;
     private String due_date;
-    private float amount;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long amount;
     private long number_of_requests;
     private boolean filled;
     private ArrayList<Transaction> transactions;
@@ -16,7 +21,7 @@ public class PaymentRequest {
 
     }
 
-    public PaymentRequest(long id, String description, String due_date, float amount, long number_of_requests, boolean filled, ArrayList<Transaction> transactions) {
+    public PaymentRequest(long id, String description, String due_date, long amount, long number_of_requests, boolean filled, ArrayList<Transaction> transactions) {
         this.id = id;
         this.description = description;
         this.due_date = due_date;
@@ -50,11 +55,11 @@ public class PaymentRequest {
         this.due_date = due_date;
     }
 
-    public float getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(float amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
@@ -1,19 +1,30 @@
 package nl.utwente.ing.model.bean;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 public class SavingGoal {
 
     private long id;
     private String name;
-    private float goal;
-    private float savePerMonth;
-    private float minBalanceRequired;
-    private float balance;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long goal;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long savePerMonth;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long minBalanceRequired;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long balance;
 
     public SavingGoal() {
 
     }
 
-    public SavingGoal(long id, String name, float goal, float savePerMonth, float minBalanceRequired, float balance) {
+    public SavingGoal(long id, String name, long goal, long savePerMonth, long minBalanceRequired, long balance) {
         this.id = id;
         this.name = name;
         this.goal = goal;
@@ -38,35 +49,35 @@ public class SavingGoal {
         this.name = name;
     }
 
-    public float getGoal() {
+    public long getGoal() {
         return goal;
     }
 
-    public void setGoal(float goal) {
+    public void setGoal(long goal) {
         this.goal = goal;
     }
 
-    public float getSavePerMonth() {
+    public long getSavePerMonth() {
         return savePerMonth;
     }
 
-    public void setSavePerMonth(float savePerMonth) {
+    public void setSavePerMonth(long savePerMonth) {
         this.savePerMonth = savePerMonth;
     }
 
-    public float getMinBalanceRequired() {
+    public long getMinBalanceRequired() {
         return minBalanceRequired;
     }
 
-    public void setMinBalanceRequired(float minBalanceRequired) {
+    public void setMinBalanceRequired(long minBalanceRequired) {
         this.minBalanceRequired = minBalanceRequired;
     }
 
-    public float getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(float balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 }
@@ -0,0 +1,158 @@
+package nl.utwente.ing.model.bean;
+
+import java.util.Map;
+
+/**
+ * The StorageStatistics class.
+ * Used to store the size of the database of the application, the (estimated) number of rows of its tables and the
+ * sizes of the caches kept in memory.
+ *
+ * @author Daan Kooij
+ */
+public class StorageStatistics {
+
+    private long fileSize;
+    private long walSize;
+    private String journalMode;
+    private long pageSize;
+    private long pageCount;
+    private long freePageCount;
+    private long cacheSize;
+    private Map<String, Long> rowCounts;
+    private boolean rowCountsExact;
+    private long rowCountsAge;
+    private Map<String, Integer> cacheEntries;
+
+    /**
+     * The constructor of StorageStatistics.
+     *
+     * @param fileSize       The size of the database file in bytes.
+     * @param walSize        The size of the write-ahead log of the database in bytes (0 if there is none).
+     * @param journalMode    The journal mode of the database.
+     * @param pageSize       The size of a page of the database in bytes.
+     * @param pageCount      The number of pages of the database.
+     * @param freePageCount  The number of unused pages of the database.
+     * @param cacheSize      The size of the page cache of the database, as configured by the cache_size pragma.
+     * @param rowCounts      The number of rows per table.
+     * @param rowCountsExact Whether the rows were counted exactly, instead of being estimated.
+     * @param rowCountsAge   The time in milliseconds since the rows were counted.
+     * @param cacheEntries   The number of entries per cache kept in memory.
+     */
+    public StorageStatistics(long fileSize, long walSize, String journalMode, long pageSize, long pageCount,
+                             long freePageCount, long cacheSize, Map<String, Long> rowCounts, boolean rowCountsExact,
+                             long rowCountsAge, Map<String, Integer> cacheEntries) {
+        this.fileSize = fileSize;
+        this.walSize = walSize;
+        this.journalMode = journalMode;
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        this.freePageCount = freePageCount;
+        this.cacheSize = cacheSize;
+        this.rowCounts = rowCounts;
+        this.rowCountsExact = rowCountsExact;
+        this.rowCountsAge = rowCountsAge;
+        this.cacheEntries = cacheEntries;
+    }
+
+    /**
+     * Method used to retrieve the size of the database file.
+     *
+     * @return The size of the database file in bytes.
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Method used to retrieve the size of the write-ahead log of the database.
+     *
+     * @return The size of the write-ahead log of the database in bytes (0 if there is none).
+     */
+    public long getWalSize() {
+        return walSize;
+    }
+
+    /**
+     * Method used to retrieve the journal mode of the database.
+     *
+     * @return The journal mode of the database, like delete or wal.
+     */
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    /**
+     * Method used to retrieve the size of a page of the database.
+     *
+     * @return The size of a page of the database in bytes.
+     */
+    public long getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Method used to retrieve the number of pages of the database.
+     *
+     * @return The number of pages of the database.
+     */
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Method used to retrieve the number of unused pages of the database, which can be reclaimed by a vacuum.
+     *
+     * @return The number of unused pages of the database.
+     */
+    public long getFreePageCount() {
+        return freePageCount;
+    }
+
+    /**
+     * Method used to retrieve the size of the page cache of the database.
+     *
+     * @return The size of the page cache as configured by the cache_size pragma: a number of pages if positive, a
+     * number of kibibytes if negative.
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Method used to retrieve the number of rows per table.
+     *
+     * @return The number of rows per table.
+     */
+    public Map<String, Long> getRowCounts() {
+        return rowCounts;
+    }
+
+    /**
+     * Method used to determine whether the rows were counted exactly, instead of being estimated by the highest rowid
+     * of every table.
+     *
+     * @return Whether the rows were counted exactly.
+     */
+    public boolean isRowCountsExact() {
+        return rowCountsExact;
+    }
+
+    /**
+     * Method used to retrieve the time since the rows were counted, as they are not counted on every request.
+     *
+     * @return The time in milliseconds since the rows were counted.
+     */
+    public long getRowCountsAge() {
+        return rowCountsAge;
+    }
+
+    /**
+     * Method used to retrieve the number of entries per cache kept in memory.
+     *
+     * @return The number of entries per cache kept in memory.
+     */
+    public Map<String, Integer> getCacheEntries() {
+        return cacheEntries;
+    }
+
+}
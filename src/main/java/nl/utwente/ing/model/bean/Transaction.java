@@ -1,5 +1,8 @@
 package nl.utwente.ing.model.bean;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 /**
  * The Transaction class.
  * Used to store information about a Transaction.
@@ -10,7 +13,9 @@ public class Transaction {
 
     private long id;
     private String date;
-    private float amount;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long amount;
     private String description;
     private String externalIBAN;
     private String type;
@@ -29,12 +34,12 @@ public class Transaction {
      *
      * @param id           The id of the to be created Transaction.
      * @param date         The date of the to be created Transaction.
-     * @param amount       The amount of the to be created Transaction.
+     * @param amount       The amount in cents of the to be created Transaction.
      * @param description  The description of the to be created Transaction.
      * @param externalIBAN The externalIBAN of the to be created Transaction.
      * @param type         The type of the to be created Transaction.
      */
-    public Transaction(long id, String date, float amount, String description, String externalIBAN, String type) {
+    public Transaction(long id, String date, long amount, String description, String externalIBAN, String type) {
         this.id = id;
         this.date = date;
         this.amount = amount;
@@ -82,18 +87,18 @@ public class Transaction {
     /**
      * Method used to retrieve the amount of Transaction.
      *
-     * @return The amount of Transaction.
+     * @return The amount in cents of Transaction.
      */
-    public float getAmount() {
+    public long getAmount() {
         return amount;
     }
 
     /**
      * Method used to update the amount of Transaction.
      *
-     * @param amount The new amount of Transaction.
+     * @param amount The new amount in cents of Transaction.
      */
-    public void setAmount(float amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
@@ -0,0 +1,146 @@
+package nl.utwente.ing.model.bean;
+
+/**
+ * The TransactionFilter class.
+ * Used to store the criteria on which the transactions of a user are filtered.
+ * Criteria that are null are not filtered on.
+ *
+ * @author Daan Kooij
+ */
+public class TransactionFilter {
+
+    private String category;
+    private Long fromMillis;
+    private Long toMillis;
+    private Long minAmount;
+    private Long maxAmount;
+    private String type;
+    private String externalIBAN;
+
+    /**
+     * Method used to retrieve the name of the Category that transactions should belong to.
+     *
+     * @return The name of the Category that transactions should belong to.
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Method used to set the name of the Category that transactions should belong to.
+     *
+     * @param category The name of the Category that transactions should belong to.
+     */
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    /**
+     * Method used to retrieve the time in milliseconds from which (inclusive) transactions should be dated.
+     *
+     * @return The time in milliseconds from which (inclusive) transactions should be dated.
+     */
+    public Long getFromMillis() {
+        return fromMillis;
+    }
+
+    /**
+     * Method used to set the time in milliseconds from which (inclusive) transactions should be dated.
+     *
+     * @param fromMillis The time in milliseconds from which (inclusive) transactions should be dated.
+     */
+    public void setFromMillis(Long fromMillis) {
+        this.fromMillis = fromMillis;
+    }
+
+    /**
+     * Method used to retrieve the time in milliseconds until which (exclusive) transactions should be dated.
+     *
+     * @return The time in milliseconds until which (exclusive) transactions should be dated.
+     */
+    public Long getToMillis() {
+        return toMillis;
+    }
+
+    /**
+     * Method used to set the time in milliseconds until which (exclusive) transactions should be dated.
+     *
+     * @param toMillis The time in milliseconds until which (exclusive) transactions should be dated.
+     */
+    public void setToMillis(Long toMillis) {
+        this.toMillis = toMillis;
+    }
+
+    /**
+     * Method used to retrieve the minimum amount in cents (inclusive) of transactions.
+     *
+     * @return The minimum amount in cents (inclusive) of transactions.
+     */
+    public Long getMinAmount() {
+        return minAmount;
+    }
+
+    /**
+     * Method used to set the minimum amount in cents (inclusive) of transactions.
+     *
+     * @param minAmount The minimum amount in cents (inclusive) of transactions.
+     */
+    public void setMinAmount(Long minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    /**
+     * Method used to retrieve the maximum amount in cents (inclusive) of transactions.
+     *
+     * @return The maximum amount in cents (inclusive) of transactions.
+     */
+    public Long getMaxAmount() {
+        return maxAmount;
+    }
+
+    /**
+     * Method used to set the maximum amount in cents (inclusive) of transactions.
+     *
+     * @param maxAmount The maximum amount in cents (inclusive) of transactions.
+     */
+    public void setMaxAmount(Long maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * Method used to retrieve the type (deposit or withdrawal) of transactions.
+     *
+     * @return The type (deposit or withdrawal) of transactions.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Method used to set the type (deposit or withdrawal) of transactions.
+     *
+     * @param type The type (deposit or withdrawal) of transactions.
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Method used to retrieve the external IBAN of transactions.
+     *
+     * @return The external IBAN of transactions.
+     */
+    public String getExternalIBAN() {
+        return externalIBAN;
+    }
+
+    /**
+     * Method used to set the external IBAN of transactions.
+     *
+     * @param externalIBAN The external IBAN of transactions.
+     */
+    public void setExternalIBAN(String externalIBAN) {
+        this.externalIBAN = externalIBAN;
+    }
+
+}
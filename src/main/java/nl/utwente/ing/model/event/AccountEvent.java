@@ -0,0 +1,68 @@
+package nl.utwente.ing.model.event;
+
+/**
+ * The AccountEvent class.
+ * Used to notify clients of a change to the data of a user, so that they only have to retrieve the changed resource
+ * instead of polling all resources.
+ *
+ * @author Daan Kooij
+ */
+public class AccountEvent {
+
+    public static final String TRANSACTION_CREATED = "transaction_created";
+    public static final String TRANSACTION_UPDATED = "transaction_updated";
+    public static final String TRANSACTION_DELETED = "transaction_deleted";
+    public static final String CATEGORY_ASSIGNED = "category_assigned";
+    public static final String BALANCE_CHANGED = "balance_changed";
+    public static final String PAYMENT_REQUEST_FILLED = "payment_request_filled";
+    public static final String SAVING_GOAL_ADVANCED = "saving_goal_advanced";
+    /**
+     * Sent instead of the events that were dropped because a client did not keep up; the client should retrieve all
+     * resources again.
+     */
+    public static final String OVERFLOW = "overflow";
+
+    private String type;
+    private long id;
+
+    /**
+     * The constructor of AccountEvent.
+     *
+     * @param type The type of the to be created AccountEvent.
+     * @param id   The id of the resource that changed (0 if the change does not concern a single resource).
+     */
+    public AccountEvent(String type, long id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * Method used to retrieve the type of AccountEvent.
+     *
+     * @return The type of AccountEvent.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Method used to retrieve the id of the resource that changed.
+     *
+     * @return The id of the resource that changed (0 if the change does not concern a single resource).
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Method used to determine whether AccountEvent only matters as the latest of its kind, so that a pending
+     * AccountEvent of the same type about the same resource can be replaced by it.
+     *
+     * @return Whether AccountEvent can be coalesced with earlier events of the same type about the same resource.
+     */
+    boolean isCoalescable() {
+        return type.equals(BALANCE_CHANGED) || type.equals(TRANSACTION_UPDATED) || type.equals(CATEGORY_ASSIGNED)
+                || type.equals(SAVING_GOAL_ADVANCED);
+    }
+
+}
@@ -0,0 +1,82 @@
+package nl.utwente.ing.model.event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The AccountEventBus class.
+ * Delivers the AccountEvent objects published by the model to the subscriptions of the user they concern.
+ * Publishing never blocks: every subscription buffers its events until its client collects them.
+ *
+ * @author Daan Kooij
+ */
+public class AccountEventBus {
+
+    public static final int SUBSCRIPTION_CAPACITY = 64;
+
+    private static final Map<Integer, List<EventSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Method used to subscribe to the events of a certain user.
+     *
+     * @param userID   The id of the user.
+     * @param listener Called whenever an event is added to the subscription; should not block.
+     * @return The subscription, from which the events can be collected.
+     */
+    public static EventSubscription subscribe(int userID, Runnable listener) {
+        EventSubscription subscription = new EventSubscription(userID, SUBSCRIPTION_CAPACITY, listener);
+        subscriptions.compute(userID, (id, userSubscriptions) -> {
+            if (userSubscriptions == null) {
+                userSubscriptions = new CopyOnWriteArrayList<>();
+            }
+            userSubscriptions.add(subscription);
+            return userSubscriptions;
+        });
+        return subscription;
+    }
+
+    /**
+     * Method used to stop a subscription from receiving events.
+     *
+     * @param subscription The subscription.
+     */
+    public static void unsubscribe(EventSubscription subscription) {
+        subscriptions.computeIfPresent(subscription.getUserID(), (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    /**
+     * Method used to publish an event to all subscriptions of a certain user.
+     *
+     * @param userID The id of the user.
+     * @param type   The type of the event.
+     * @param id     The id of the resource that changed (0 if the change does not concern a single resource).
+     */
+    public static void publish(int userID, String type, long id) {
+        List<EventSubscription> userSubscriptions = subscriptions.get(userID);
+        if (userSubscriptions != null) {
+            AccountEvent event = new AccountEvent(type, id);
+            for (EventSubscription subscription : userSubscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Method used to retrieve the number of subscriptions of all users together.
+     *
+     * @return The number of subscriptions.
+     */
+    public static int getSubscriptionCount() {
+        int count = 0;
+        for (List<EventSubscription> userSubscriptions : subscriptions.values()) {
+            count += userSubscriptions.size();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,88 @@
+package nl.utwente.ing.model.event;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The EventSubscription class.
+ * Buffers the AccountEvent objects of one user for one client until the client collects them.
+ * The buffer is bounded, so that a client that does not keep up cannot make the application run out of memory:
+ * - An event that only matters as the latest of its kind (like a changed balance) replaces the pending event of the
+ *   same type about the same resource in its place in the buffer, instead of taking up another place, so that it is
+ *   still delivered before the events that were added after it.
+ * - When the buffer is full, the oldest pending event is dropped, and the client receives a single overflow event
+ *   before the remaining events, telling it to retrieve all resources again.
+ *
+ * @author Daan Kooij
+ */
+public class EventSubscription {
+
+    private final int userID;
+    private final int capacity;
+    private final Runnable listener;
+    private final LinkedHashMap<String, AccountEvent> pending = new LinkedHashMap<>();
+    private long sequence = 0;
+    private boolean overflowed = false;
+
+    /**
+     * The constructor of EventSubscription.
+     *
+     * @param userID   The id of the user whose events are buffered.
+     * @param capacity The maximum number of pending events.
+     * @param listener Called whenever an event is added to the buffer; should not block.
+     */
+    EventSubscription(int userID, int capacity, Runnable listener) {
+        this.userID = userID;
+        this.capacity = capacity;
+        this.listener = listener;
+    }
+
+    /**
+     * Method used to retrieve the id of the user whose events are buffered.
+     *
+     * @return The id of the user whose events are buffered.
+     */
+    public int getUserID() {
+        return userID;
+    }
+
+    /**
+     * Method used to add an event to the buffer.
+     *
+     * @param event The event.
+     */
+    void offer(AccountEvent event) {
+        synchronized (this) {
+            String key = event.isCoalescable() ? event.getType() + ":" + event.getId() : Long.toString(sequence++);
+            if (!pending.containsKey(key) && pending.size() >= capacity) {
+                Iterator<Map.Entry<String, AccountEvent>> oldest = pending.entrySet().iterator();
+                oldest.next();
+                oldest.remove();
+                overflowed = true;
+            }
+            pending.put(key, event);
+        }
+        listener.run();
+    }
+
+    /**
+     * Method used to remove and retrieve all pending events, oldest first.
+     * If events were dropped since the previous call, the first event is an overflow event.
+     *
+     * @return A List of the pending events.
+     */
+    public synchronized List<AccountEvent> poll() {
+        List<AccountEvent> events = new ArrayList<>(pending.size() + 1);
+        if (overflowed) {
+            events.add(new AccountEvent(AccountEvent.OVERFLOW, 0));
+            overflowed = false;
+        }
+        events.addAll(pending.values());
+        pending.clear();
+        return events;
+    }
+
+}
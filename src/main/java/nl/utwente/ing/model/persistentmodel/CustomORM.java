@@ -1,21 +1,36 @@
 package nl.utwente.ing.model.persistentmodel;
 
+import nl.utwente.ing.metrics.InstrumentedConnection;
 import nl.utwente.ing.model.bean.*;
+import nl.utwente.ing.model.storage.*;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * The CustomORM class.
- * Serves as a connection between the PersistentModel class and the SQL database.
+ * Serves as a connection between the PersistentModel class and the SQL database, implementing all stores of the
+ * SQLiteStorageEngine.
  * Contains methods that translate Java statements to SQL queries and updates.
  *
  * @author Daan Kooij
  */
-public class CustomORM {
+public class CustomORM implements TransactionStore, CategoryStore, CategoryRuleStore, BalanceHistoryStore,
+        UserStore, SavingGoalStore, PaymentRequestStore {
+
+    private static final Pattern FORMAT_SPECIFIER = Pattern.compile("%(\\d+\\$)?s");
+    // Shared by all instances of CustomORM, since every instance wraps the connection it is given in a proxy of its own
+    private static final Object ID_ALLOCATION_LOCK = new Object();
 
     private Connection connection;
 
@@ -29,8 +44,9 @@ public class CustomORM {
                     "FROM User_Table\n" +
                     "WHERE user_id = ?;";
     private static final String CREATE_TRANSACTION =
-            "INSERT INTO Transaction_Table (user_id, transaction_id, date, amount, description, external_iban, type)\n" +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?);";
+            "INSERT INTO Transaction_Table (user_id, transaction_id, date, date_millis, amount, description, " +
+                    "external_iban, type)\n" +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
     private static final String GET_TRANSACTION =
             "SELECT transaction_id, date, amount, description, external_iban, type\n" +
                     "FROM Transaction_Table\n" +
@@ -38,7 +54,7 @@ public class CustomORM {
                     "AND transaction_id = ?;";
     private static final String UPDATE_TRANSACTION_DATE =
             "UPDATE Transaction_Table\n" +
-                    "SET date = ?\n" +
+                    "SET date = ?, date_millis = ?\n" +
                     "WHERE user_id = ?\n" +
                     "AND transaction_id = ?;";
     private static final String UPDATE_TRANSACTION_AMOUNT =
@@ -69,23 +85,88 @@ public class CustomORM {
             "SELECT transaction_id, date, amount, description, external_iban, type\n" +
                     "FROM Transaction_Table\n" +
                     "WHERE user_id = ?\n" +
+                    "ORDER BY date_millis, transaction_id\n" +
                     "LIMIT ?\n" +
                     "OFFSET ?;";
     private static final String GET_ALL_TRANSACTIONS =
             "SELECT transaction_id, date, amount, description, external_iban, type\n" +
                     "FROM Transaction_Table\n" +
                     "WHERE user_id = ?;";
-    private static final String GET_TRANSACTIONS_BY_CATEGORY =
-            "SELECT t.transaction_id, t.date, t.amount, t.description, t.external_iban, t.type\n" +
-                    "FROM Transaction_Table t, Category_Table c, Transaction_Category tc\n" +
-                    "WHERE t.transaction_id = tc.transaction_id\n" +
-                    "AND tc.category_id = c.category_id\n" +
-                    "AND t.user_id = tc.user_id\n" +
-                    "AND tc.user_id = c.user_id\n" +
+    private static final String JOIN_TRANSACTION_CATEGORY =
+            "LEFT JOIN Category_Table c\n" +
+                    "ON c.user_id = t.user_id\n" +
+                    "AND c.category_id = (\n" +
+                    "  SELECT tc.category_id\n" +
+                    "  FROM Transaction_Category tc\n" +
+                    "  WHERE tc.user_id = t.user_id\n" +
+                    "  AND tc.transaction_id = t.transaction_id\n" +
+                    "  LIMIT 1\n" +
+                    ")\n";
+    private static final String GET_FILTERED_TRANSACTIONS =
+            "SELECT t.transaction_id, t.date, t.amount, t.description, t.external_iban, t.type, c.category_id, " +
+                    "c.name\n" +
+                    "FROM Transaction_Table t\n" +
+                    JOIN_TRANSACTION_CATEGORY +
+                    "WHERE t.user_id = ?\n" +
+                    "%s" +
+                    "ORDER BY t.date_millis, t.transaction_id\n" +
+                    "LIMIT ?\n" +
+                    "OFFSET ?;";
+    private static final String FILTER_TRANSACTIONS_BY_CATEGORY =
+            "AND EXISTS (\n" +
+                    "  SELECT 1\n" +
+                    "  FROM Transaction_Category tc, Category_Table c\n" +
+                    "  WHERE tc.user_id = t.user_id\n" +
+                    "  AND tc.transaction_id = t.transaction_id\n" +
+                    "  AND c.user_id = tc.user_id\n" +
+                    "  AND c.category_id = tc.category_id\n" +
+                    "  AND c.name = ?\n" +
+                    ")\n";
+    private static final String FILTER_TRANSACTIONS_FROM_DATE =
+            "AND t.date_millis >= ?\n";
+    private static final String FILTER_TRANSACTIONS_TO_DATE =
+            "AND t.date_millis < ?\n";
+    private static final String FILTER_TRANSACTIONS_MIN_AMOUNT =
+            "AND t.amount >= ?\n";
+    private static final String FILTER_TRANSACTIONS_MAX_AMOUNT =
+            "AND t.amount <= ?\n";
+    private static final String FILTER_TRANSACTIONS_BY_TYPE =
+            "AND t.type = ?\n";
+    private static final String FILTER_TRANSACTIONS_BY_EXTERNAL_IBAN =
+            "AND t.external_iban = ?\n";
+    private static final String INDEX_TRANSACTION_DESCRIPTION =
+            "INSERT OR REPLACE INTO Transaction_FTS (rowid, description)\n" +
+                    "VALUES (?, ?);";
+    private static final String UNINDEX_TRANSACTION_DESCRIPTION =
+            "DELETE FROM Transaction_FTS\n" +
+                    "WHERE rowid = ?;";
+    private static final String SEARCH_TRANSACTIONS =
+            "SELECT t.transaction_id, t.date, t.amount, t.description, t.external_iban, t.type, c.category_id, " +
+                    "c.name\n" +
+                    "FROM Transaction_FTS f, Transaction_Table t\n" +
+                    JOIN_TRANSACTION_CATEGORY +
+                    "WHERE Transaction_FTS MATCH ?\n" +
+                    "AND f.rowid BETWEEN ? AND ?\n" +
                     "AND t.user_id = ?\n" +
-                    "AND c.name = ?\n" +
+                    "AND t.transaction_id = f.rowid & 4294967295\n" +
+                    "ORDER BY f.rank, f.rowid\n" +
                     "LIMIT ?\n" +
                     "OFFSET ?;";
+    private static final String GET_TOP_COUNTERPARTIES =
+            "SELECT external_iban, SUM(amount)\n" +
+                    "FROM Transaction_Table\n" +
+                    "WHERE user_id = ?\n" +
+                    "AND external_iban IS NOT NULL\n" +
+                    "GROUP BY external_iban\n" +
+                    "ORDER BY SUM(amount) DESC\n" +
+                    "LIMIT ?;";
+    private static final String GET_GLOBAL_TOP_COUNTERPARTIES =
+            "SELECT external_iban, SUM(amount)\n" +
+                    "FROM Transaction_Table\n" +
+                    "WHERE external_iban IS NOT NULL\n" +
+                    "GROUP BY external_iban\n" +
+                    "ORDER BY SUM(amount) DESC\n" +
+                    "LIMIT ?;";
     private static final String INCREASE_HIGHEST_CATEGORY_ID =
             "UPDATE User_Table\n" +
                     "SET highest_category_id = highest_category_id + 1\n" +
@@ -133,6 +214,81 @@ public class CustomORM {
             "DELETE FROM Transaction_Category\n" +
                     "WHERE user_id = ?\n" +
                     "AND category_id = ?;";
+    // Matches like PersistentModel.transactionMatchesCategoryRule; instr is case sensitive like String.contains
+    private static final String MATCHES_CATEGORY_RULE =
+            "AND instr(type, ?) > 0\n" +
+                    "AND instr(description, ?) > 0\n" +
+                    "AND instr(external_iban, ?) > 0";
+    private static final String GET_TRANSACTIONS_MATCHING_CATEGORY_RULE =
+            "SELECT transaction_id\n" +
+                    "FROM Transaction_Table\n" +
+                    "WHERE user_id = ?\n" +
+                    MATCHES_CATEGORY_RULE + "\n" +
+                    "ORDER BY transaction_id;";
+    private static final String UNLINK_TRANSACTIONS_MATCHING_CATEGORY_RULE =
+            "DELETE FROM Transaction_Category\n" +
+                    "WHERE user_id = ?\n" +
+                    "AND transaction_id IN (\n" +
+                    "  SELECT transaction_id\n" +
+                    "  FROM Transaction_Table\n" +
+                    "  WHERE user_id = ?\n" +
+                    "  " + MATCHES_CATEGORY_RULE + "\n" +
+                    ");";
+    private static final String LINK_TRANSACTIONS_MATCHING_CATEGORY_RULE =
+            "INSERT INTO Transaction_Category (user_id, transaction_id, category_id)\n" +
+                    "SELECT user_id, transaction_id, ?\n" +
+                    "FROM Transaction_Table\n" +
+                    "WHERE user_id = ?\n" +
+                    MATCHES_CATEGORY_RULE + ";";
+    private static final String DELETE_USER_CATEGORY_STATISTICS =
+            "DELETE FROM CategoryStatistics_Table\n" +
+                    "WHERE user_id = ?;";
+    private static final String CREATE_USER_CATEGORY_STATISTICS =
+            "INSERT INTO CategoryStatistics_Table (user_id, category_id, period, type, total, count)\n" +
+                    "SELECT tc.user_id, tc.category_id, strftime('%Y-%m', t.date_millis / 1000, 'unixepoch'), t.type, " +
+                    "SUM(t.amount), COUNT(*)\n" +
+                    "FROM Transaction_Table t, Transaction_Category tc\n" +
+                    "WHERE t.user_id = ?\n" +
+                    "AND tc.user_id = t.user_id\n" +
+                    "AND tc.transaction_id = t.transaction_id\n" +
+                    "AND t.date_millis IS NOT NULL\n" +
+                    "GROUP BY tc.category_id, strftime('%Y-%m', t.date_millis / 1000, 'unixepoch'), t.type;";
+    private static final String GET_CATEGORY_STATISTIC_CONTRIBUTIONS =
+            "SELECT tc.category_id, strftime('%Y-%m', t.date_millis / 1000, 'unixepoch'), t.type, t.amount\n" +
+                    "FROM Transaction_Table t, Transaction_Category tc\n" +
+                    "WHERE t.user_id = ?\n" +
+                    "AND t.transaction_id = ?\n" +
+                    "AND t.date_millis IS NOT NULL\n" +
+                    "AND tc.user_id = t.user_id\n" +
+                    "AND tc.transaction_id = t.transaction_id\n" +
+                    "AND (? IS NULL OR tc.category_id = ?);";
+    private static final String CREATE_CATEGORY_STATISTIC =
+            "INSERT OR IGNORE INTO CategoryStatistics_Table (user_id, category_id, period, type, total, count)\n" +
+                    "VALUES (?, ?, ?, ?, 0, 0);";
+    private static final String UPDATE_CATEGORY_STATISTIC =
+            "UPDATE CategoryStatistics_Table\n" +
+                    "SET total = total + ?, count = count + ?\n" +
+                    "WHERE user_id = ?\n" +
+                    "AND category_id = ?\n" +
+                    "AND period = ?\n" +
+                    "AND type = ?;";
+    private static final String DELETE_CATEGORY_STATISTICS =
+            "DELETE FROM CategoryStatistics_Table\n" +
+                    "WHERE user_id = ?\n" +
+                    "AND category_id = ?;";
+    private static final String GET_CATEGORY_STATISTICS =
+            "SELECT s.category_id, c.name, %1$s, s.type, SUM(s.total), SUM(s.count)\n" +
+                    "FROM CategoryStatistics_Table s, Category_Table c\n" +
+                    "WHERE s.user_id = ?\n" +
+                    "AND c.user_id = s.user_id\n" +
+                    "AND c.category_id = s.category_id\n" +
+                    "AND %1$s >= ?\n" +
+                    "AND %1$s <= ?\n" +
+                    "GROUP BY s.category_id, c.name, %1$s, s.type\n" +
+                    "HAVING SUM(s.count) > 0\n" +
+                    "ORDER BY %1$s DESC, s.category_id, s.type;";
+    private static final String MONTHLY_PERIOD = "s.period";
+    private static final String YEARLY_PERIOD = "substr(s.period, 1, 4)";
     private static final String GET_CATEGORY_ID_BY_TRANSACTION_ID =
             "SELECT tc.category_id\n" +
                     "FROM Transaction_Table t, Transaction_Category tc\n" +
@@ -208,16 +364,11 @@ public class CustomORM {
     private static final String CREATE_BALANCE_HISTORY_POINT =
             "INSERT INTO BalanceHistory_Table (user_id, time_stamp_millis, open, close, volume)\n" +
                     "VALUES (?, ?, ?, ?, ?);";
-    private static final String UPDATE_BALANCE_HISTORY_POINT =
+    private static final String SHIFT_FUTURE_BALANCE_HISTORY_POINTS =
             "UPDATE BalanceHistory_Table\n" +
-                    "SET open = ?, close = ?, volume = ?\n" +
+                    "SET open = open + ?, close = close + ?\n" +
                     "WHERE user_id = ?\n" +
-                    "AND time_stamp_millis = ?;";
-    private static final String GET_FUTURE_BALANCE_HISTORY_POINTS =
-            "SELECT time_stamp_millis, open, close, volume\n" +
-                    "FROM BalanceHistory_Table\n" +
-                    "WHERE user_id = ?\n" +
-                    "AND time_stamp_millis > ?\n;";
+                    "AND time_stamp_millis > ?;";
     private static final String INCREASE_HIGHEST_SAVING_GOAL_ID =
             "UPDATE User_Table\n" +
                     "SET highest_saving_goal_id = highest_saving_goal_id + 1\n" +
@@ -272,14 +423,19 @@ public class CustomORM {
     private static final String GET_PAYMENT_REQUESTS =
             "SELECT payment_request_id, description, due_date, amount, number_of_requests, filled\n" +
                     "FROM PaymentRequest_Table\n" +
-                    "WHERE user_id = ?;";
-    private static final String GET_PAYMENT_REQUEST_TRANSACTIONS =
-            "SELECT t.transaction_id, t.date, t.amount, t.description, t.external_iban, t.type\n" +
+                    "WHERE user_id = ?\n" +
+                    "AND (? IS NULL OR filled = ?)\n" +
+                    "ORDER BY payment_request_id ASC\n" +
+                    "LIMIT ?\n" +
+                    "OFFSET ?;";
+    private static final String GET_PAYMENT_REQUESTS_TRANSACTIONS =
+            "SELECT pt.payment_request_id, t.transaction_id, t.date, t.amount, t.description, t.external_iban, t.type\n" +
                     "FROM Transaction_Table t, PaymentRequest_Transaction pt\n" +
                     "WHERE pt.user_id = ?\n" +
                     "AND pt.user_id = t.user_id\n" +
-                    "AND pt.payment_request_id = ?\n" +
-                    "AND pt.transaction_id = t.transaction_id;";
+                    "AND pt.transaction_id = t.transaction_id\n" +
+                    "AND pt.payment_request_id IN (%s)\n" +
+                    "ORDER BY pt.payment_request_id ASC, t.transaction_id ASC;";
     private static final String UPDATE_PAYMENT_REQUEST_FILLED =
             "UPDATE PaymentRequest_Table\n" +
                     "SET filled = ?\n" +
@@ -289,8 +445,8 @@ public class CustomORM {
             "INSERT INTO PaymentRequest_Transaction (user_id, transaction_id, payment_request_id)\n" +
                     "VALUES (?, ?, ?);";
     private static final String CREATE_PAYMENT_REQUEST =
-            "INSERT INTO PaymentRequest_Table (user_id, payment_request_id, description, due_date, amount, number_of_requests, filled)\n" +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?);";
+            "INSERT INTO PaymentRequest_Table (user_id, payment_request_id, description, due_date, due_date_millis, amount, number_of_requests, filled, expired)\n" +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0);";
     private static final String PAYMENT_REQUEST_IS_FILLED =
             "SELECT pr.number_of_requests, COUNT(pt.transaction_id)\n" +
                     "FROM PaymentRequest_Table pr, PaymentRequest_Transaction pt\n" +
@@ -298,55 +454,117 @@ public class CustomORM {
                     "AND pr.payment_request_id = ?\n" +
                     "AND pr.payment_request_id = pt.payment_request_id\n" +
                     "AND pr.user_id = pt.user_id;";
-    private static final String GET_OPEN_PAYMENT_REQUESTS =
+    private static final String GET_OPEN_PAYMENT_REQUEST =
             "SELECT payment_request_id, description, due_date, amount, number_of_requests, filled\n" +
                     "FROM PaymentRequest_Table\n" +
                     "WHERE user_id = ?\n" +
-                    "AND filled = ?;";
+                    "AND amount = ?\n" +
+                    "AND filled = 0\n" +
+                    "AND expired = 0\n" +
+                    "AND due_date_millis >= ?\n" +
+                    "ORDER BY payment_request_id ASC\n" +
+                    "LIMIT 1;";
+    private static final String GET_EXPIRING_PAYMENT_REQUEST_USERS =
+            "SELECT pr.user_id\n" +
+                    "FROM PaymentRequest_Table pr, User_Table u\n" +
+                    "WHERE pr.user_id = u.user_id\n" +
+                    "AND pr.filled = 0\n" +
+                    "AND pr.expired = 0\n" +
+                    "AND pr.due_date_millis < u.system_time_millis\n" +
+                    "ORDER BY pr.rowid\n" +
+                    "LIMIT ?;";
+    private static final String EXPIRE_PAYMENT_REQUESTS =
+            "UPDATE PaymentRequest_Table\n" +
+                    "SET expired = 1\n" +
+                    "WHERE rowid IN (\n" +
+                    "  SELECT pr.rowid\n" +
+                    "  FROM PaymentRequest_Table pr, User_Table u\n" +
+                    "  WHERE pr.user_id = u.user_id\n" +
+                    "  AND pr.filled = 0\n" +
+                    "  AND pr.expired = 0\n" +
+                    "  AND pr.due_date_millis < u.system_time_millis\n" +
+                    "  ORDER BY pr.rowid\n" +
+                    "  LIMIT ?\n" +
+                    ");";
 
 
     /**
      * The constructor of CustomORM.
-     * Sets the connection field to the connection parameter.
+     * Sets the connection field to the connection parameter, wrapped so that the executions of the statements of
+     * CustomORM are recorded in QueryMetrics.
      *
      * @param connection The database connection.
      */
     public CustomORM(Connection connection) {
-        this.connection = connection;
+        this.connection = InstrumentedConnection.wrap(connection, CustomORM.class);
     }
 
     /**
-     * Method used to increase the highestTransactionID field of a certain user by one in the database.
-     *
-     * @param userID The id of the user whose highestTransactionID field should be increased.
+     * Method used to prepare every statement of CustomORM once without executing it, so that SQLite has parsed the
+     * schema and the classes used to execute statements have been loaded before the first request arrives. Fragments
+     * of statements (like the filters of the transactions) and templates (completed using String.format) are skipped.
+     * A statement that cannot be prepared is reported, so that a statement that does not match the schema is noticed
+     * on startup.
      */
-    public void increaseHighestTransactionID(int userID) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(INCREASE_HIGHEST_TRANSACTION_ID);
-            statement.setInt(1, userID);
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    void prepareStatements() {
+        for (Field field : CustomORM.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class) {
+                try {
+                    String sql = (String) field.get(null);
+                    if (sql.trim().endsWith(";") && !FORMAT_SPECIFIER.matcher(sql).find()) {
+                        connection.prepareStatement(sql).close();
+                    }
+                } catch (IllegalAccessException | SQLException e) {
+                    System.err.println("Error preparing statement " + field.getName());
+                    e.printStackTrace();
+                }
+            }
         }
     }
 
     /**
-     * Method used to retrieve the highestTransactionID field of a certain user from the database.
+     * Method used to allocate a new ID for a certain user, by increasing one of the highest ID fields of the user by
+     * one and reading it back.
+     * SQLite does not return the updated value of an UPDATE statement, so both statements are executed while holding
+     * a lock shared by all instances of CustomORM, whatever connection they use. Two concurrent allocations for the
+     * same user can therefore never read back the same ID.
      *
-     * @param userID The id of the user whose highestTransactionID field should be retrieved.
-     * @return The value of the highestTransactionID field of the user with userID.
+     * @param increaseSQL The statement increasing the highest ID field of the user.
+     * @param getSQL      The statement retrieving the highest ID field of the user.
+     * @param userID      The id of the user for whom an ID should be allocated.
+     * @return The allocated ID, or -1 if it could not be allocated.
      */
-    public long getHighestTransactionID(int userID) {
-        long highestTransactionID = -1;
-        try {
-            PreparedStatement statement = connection.prepareStatement(GET_HIGHEST_TRANSACTION_ID);
-            statement.setInt(1, userID);
-            ResultSet rs = statement.executeQuery();
-            highestTransactionID = rs.getLong(1);
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private long allocateID(String increaseSQL, String getSQL, int userID) {
+        long id = -1;
+        synchronized (ID_ALLOCATION_LOCK) {
+            try (PreparedStatement increaseStatement = connection.prepareStatement(increaseSQL);
+                 PreparedStatement getStatement = connection.prepareStatement(getSQL)) {
+                increaseStatement.setInt(1, userID);
+                if (increaseStatement.executeUpdate() == 1) {
+                    getStatement.setInt(1, userID);
+                    try (ResultSet rs = getStatement.executeQuery()) {
+                        if (rs.next()) {
+                            id = rs.getLong(1);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
         }
-        return highestTransactionID;
+        return id;
+    }
+
+    /**
+     * Method used to allocate a new transactionID for a certain user, by increasing the
+     * highestTransactionID field of the user by one and reading it back.
+     *
+     * @param userID The id of the user for whom a transactionID should be allocated.
+     * @return The allocated transactionID, or -1 if it could not be allocated.
+     */
+    public long allocateTransactionID(int userID) {
+        return allocateID(INCREASE_HIGHEST_TRANSACTION_ID, GET_HIGHEST_TRANSACTION_ID, userID);
     }
 
     /**
@@ -355,22 +573,25 @@ public class CustomORM {
      * @param userID        The id of the user to which this new Transaction will belong.
      * @param transactionID The transactionID of the to be inserted Transaction.
      * @param date          The date of the to be inserted Transaction.
-     * @param amount        The amount of the to be inserted Transaction.
+     * @param dateMillis    The date of the to be inserted Transaction in milliseconds since the epoch.
+     * @param amount        The amount in cents of the to be inserted Transaction.
      * @param externalIBAN  The externalIBAN of the to be inserted Transaction.
      * @param type          The type of the to be inserted Transaction.
      */
-    public void createTransaction(int userID, long transactionID, String date, float amount, String description, String externalIBAN,
-                                  String type) {
+    public void createTransaction(int userID, long transactionID, String date, long dateMillis, long amount,
+                                  String description, String externalIBAN, String type) {
         try {
             PreparedStatement statement = connection.prepareStatement(CREATE_TRANSACTION);
             statement.setInt(1, userID);
             statement.setLong(2, transactionID);
             statement.setString(3, date);
-            statement.setFloat(4, amount);
-            statement.setString(5, description);
-            statement.setString(6, externalIBAN);
-            statement.setString(7, type);
+            statement.setLong(4, dateMillis);
+            statement.setLong(5, amount);
+            statement.setString(6, description);
+            statement.setString(7, externalIBAN);
+            statement.setString(8, type);
             statement.executeUpdate();
+            indexTransactionDescription(userID, transactionID, description);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -392,7 +613,7 @@ public class CustomORM {
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
                 String date = resultSet.getString(2);
-                float amount = resultSet.getFloat(3);
+                long amount = resultSet.getLong(3);
                 String description = resultSet.getString(4);
                 String externalIBAN = resultSet.getString(5);
                 String type = resultSet.getString(6);
@@ -408,16 +629,20 @@ public class CustomORM {
      * Method used to change the date of a Transaction in the database.
      *
      * @param date          The new date of the Transaction.
+     * @param dateMillis    The new date of the Transaction in milliseconds since the epoch.
      * @param userID        The id of the user whose Transaction with transactionID will be updated.
      * @param transactionID The id of the to be updated Transaction.
      */
-    public void updateTransactionDate(String date, int userID, long transactionID) {
+    public void updateTransactionDate(String date, long dateMillis, int userID, long transactionID) {
         try {
+            updateCategoryStatistics(userID, transactionID, null, -1);
             PreparedStatement statement = connection.prepareStatement(UPDATE_TRANSACTION_DATE);
             statement.setString(1, date);
-            statement.setInt(2, userID);
-            statement.setLong(3, transactionID);
+            statement.setLong(2, dateMillis);
+            statement.setInt(3, userID);
+            statement.setLong(4, transactionID);
             statement.executeUpdate();
+            updateCategoryStatistics(userID, transactionID, null, 1);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -426,17 +651,19 @@ public class CustomORM {
     /**
      * Method used to change the amount of a Transaction in the database.
      *
-     * @param amount        The new amount of the Transaction.
+     * @param amount        The new amount in cents of the Transaction.
      * @param userID        The id of the user whose Transaction with transactionID will be updated.
      * @param transactionID The id of the to be updated Transaction.
      */
-    public void updateTransactionAmount(float amount, int userID, long transactionID) {
+    public void updateTransactionAmount(long amount, int userID, long transactionID) {
         try {
+            updateCategoryStatistics(userID, transactionID, null, -1);
             PreparedStatement statement = connection.prepareStatement(UPDATE_TRANSACTION_AMOUNT);
-            statement.setFloat(1, amount);
+            statement.setLong(1, amount);
             statement.setInt(2, userID);
             statement.setLong(3, transactionID);
             statement.executeUpdate();
+            updateCategoryStatistics(userID, transactionID, null, 1);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -456,6 +683,7 @@ public class CustomORM {
             statement.setInt(2, userID);
             statement.setLong(3, transactionID);
             statement.executeUpdate();
+            indexTransactionDescription(userID, transactionID, description);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -489,11 +717,13 @@ public class CustomORM {
      */
     public void updateTransactionType(String type, int userID, long transactionID) {
         try {
+            updateCategoryStatistics(userID, transactionID, null, -1);
             PreparedStatement statement = connection.prepareStatement(UPDATE_TRANSACTION_TYPE);
             statement.setString(1, type);
             statement.setInt(2, userID);
             statement.setLong(3, transactionID);
             statement.executeUpdate();
+            updateCategoryStatistics(userID, transactionID, null, 1);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -507,13 +737,121 @@ public class CustomORM {
      */
     public void deleteTransaction(int userID, long transactionID) {
         try {
+            updateCategoryStatistics(userID, transactionID, null, -1);
             PreparedStatement statement = connection.prepareStatement(DELETE_TRANSACTION);
             statement.setInt(1, userID);
             statement.setLong(2, transactionID);
             statement.executeUpdate();
+            PreparedStatement unindexStatement = connection.prepareStatement(UNINDEX_TRANSACTION_DESCRIPTION);
+            unindexStatement.setLong(1, getSearchRowID(userID, transactionID));
+            unindexStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Method used to add the description of a Transaction to the full-text index, replacing the description that was
+     * indexed for the Transaction before (if any).
+     *
+     * @param userID        The id of the user to which the Transaction belongs.
+     * @param transactionID The id of the Transaction.
+     * @param description   The description of the Transaction.
+     */
+    private void indexTransactionDescription(int userID, long transactionID, String description) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(INDEX_TRANSACTION_DESCRIPTION);
+        statement.setLong(1, getSearchRowID(userID, transactionID));
+        statement.setString(2, description);
+        statement.executeUpdate();
+    }
+
+    /**
+     * Method used to retrieve the rowid under which the description of a Transaction is stored in the full-text index.
+     * The user id is stored in the high 32 bits and the transaction id in the low 32 bits.
+     *
+     * @param userID        The id of the user to which the Transaction belongs.
+     * @param transactionID The id of the Transaction.
+     * @return The rowid of the Transaction in the full-text index.
+     */
+    private static long getSearchRowID(int userID, long transactionID) {
+        return ((long) userID << 32) | transactionID;
+    }
+
+    /**
+     * Method used to search the Transaction objects belonging to a certain user by their description, using the
+     * full-text index. Every word of the query should occur in the description, possibly as the prefix of a longer
+     * word. The most relevant Transaction objects are returned first, together with their Category.
+     *
+     * @param userID The id of the user to who the to be retrieved Transaction objects belong.
+     * @param query  The words to search for.
+     * @param limit  The (maximum) amount of Transaction objects to be retrieved.
+     * @param offset The starting index to retrieve Transaction objects.
+     * @return An ArrayList of Transaction objects.
+     */
+    public ArrayList<Transaction> searchTransactions(int userID, String query, int limit, int offset) {
+        ArrayList<Transaction> transactions = new ArrayList<>();
+        String matchExpression = getMatchExpression(query);
+        if (matchExpression.isEmpty()) {
+            return transactions;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(SEARCH_TRANSACTIONS)) {
+            statement.setString(1, matchExpression);
+            statement.setLong(2, getSearchRowID(userID, 0));
+            statement.setLong(3, getSearchRowID(userID, 0xFFFFFFFFL));
+            statement.setInt(4, userID);
+            statement.setInt(5, limit);
+            statement.setInt(6, offset);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                transactions.add(getTransactionWithCategory(resultSet));
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return transactions;
+    }
+
+    /**
+     * Method used to convert the current row of a query that joins the Category of a Transaction to a Transaction
+     * object.
+     *
+     * @param resultSet The ResultSet, positioned at the row to be converted.
+     * @return The Transaction of the row, with its Category (null if it has none).
+     */
+    private static Transaction getTransactionWithCategory(ResultSet resultSet) throws SQLException {
+        long transactionID = resultSet.getLong(1);
+        String date = resultSet.getString(2);
+        long amount = resultSet.getLong(3);
+        String description = resultSet.getString(4);
+        String externalIBAN = resultSet.getString(5);
+        String type = resultSet.getString(6);
+        Transaction transaction = new Transaction(transactionID, date, amount, description, externalIBAN, type);
+        long categoryID = resultSet.getLong(7);
+        if (!resultSet.wasNull()) {
+            transaction.setCategory(new Category(categoryID, resultSet.getString(8)));
+        }
+        return transaction;
+    }
+
+    /**
+     * Method used to convert a search query entered by a user to an FTS5 match expression.
+     * Every word is quoted, so that characters with a special meaning in FTS5 are matched literally, and turned into a
+     * prefix query, so that results are found while the user is still typing.
+     *
+     * @param query The search query entered by the user.
+     * @return The FTS5 match expression (empty String if the query does not contain any words).
+     */
+    private static String getMatchExpression(String query) {
+        StringBuilder matchExpression = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            if (!word.isEmpty()) {
+                if (matchExpression.length() > 0) {
+                    matchExpression.append(' ');
+                }
+                matchExpression.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+            }
+        }
+        return matchExpression.toString();
     }
 
     /**
@@ -535,7 +873,7 @@ public class CustomORM {
             while (resultSet.next()) {
                 long transactionID = resultSet.getLong(1);
                 String date = resultSet.getString(2);
-                float amount = resultSet.getFloat(3);
+                long amount = resultSet.getLong(3);
                 String description = resultSet.getString(4);
                 String externalIBAN = resultSet.getString(5);
                 String type = resultSet.getString(6);
@@ -562,7 +900,7 @@ public class CustomORM {
             while (resultSet.next()) {
                 long transactionID = resultSet.getLong(1);
                 String date = resultSet.getString(2);
-                float amount = resultSet.getFloat(3);
+                long amount = resultSet.getLong(3);
                 String description = resultSet.getString(4);
                 String externalIBAN = resultSet.getString(5);
                 String type = resultSet.getString(6);
@@ -575,32 +913,41 @@ public class CustomORM {
     }
 
     /**
-     * Method used to retrieve a batch of Transaction objects
-     * belonging to a certain user and category from the database.
+     * Method used to retrieve a batch of Transaction objects belonging to a certain user that match a certain filter
+     * from the database, together with their Category.
+     * Only the criteria of the filter that are set are added to the WHERE clause of the query, so that every
+     * criterion is evaluated by SQLite, which can use the indexes on Transaction_Table to only visit matching rows.
+     * The Category of every Transaction is joined in the same query, so the batch is read with a single statement.
      *
-     * @param userID       The id of the user to who the to be retrieved Transaction objects belong.
-     * @param categoryName The name of the Category to which the retrieved Transaction objects belong.
-     * @param limit        The (maximum) amount of Transaction objects to be retrieved.
-     * @param offset       The starting index to retrieve Transaction objects.
+     * @param userID The id of the user to who the to be retrieved Transaction objects belong.
+     * @param filter The criteria the to be retrieved Transaction objects should match.
+     * @param limit  The (maximum) amount of Transaction objects to be retrieved.
+     * @param offset The starting index to retrieve Transaction objects.
      * @return An ArrayList of Transaction objects.
      */
-    public ArrayList<Transaction> getTransactionsByCategory(int userID, String categoryName, int limit, int offset) {
+    public ArrayList<Transaction> getTransactions(int userID, TransactionFilter filter, int limit, int offset) {
         ArrayList<Transaction> transactions = new ArrayList<>();
-        try {
-            PreparedStatement statement = connection.prepareStatement(GET_TRANSACTIONS_BY_CATEGORY);
-            statement.setInt(1, userID);
-            statement.setString(2, categoryName);
-            statement.setInt(3, limit);
-            statement.setInt(4, offset);
+        StringBuilder conditions = new StringBuilder();
+        ArrayList<Object> parameters = new ArrayList<>();
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_BY_CATEGORY, filter.getCategory());
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_FROM_DATE, filter.getFromMillis());
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_TO_DATE, filter.getToMillis());
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_MIN_AMOUNT, filter.getMinAmount());
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_MAX_AMOUNT, filter.getMaxAmount());
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_BY_TYPE, filter.getType());
+        addFilterCondition(conditions, parameters, FILTER_TRANSACTIONS_BY_EXTERNAL_IBAN, filter.getExternalIBAN());
+        try (PreparedStatement statement =
+                     connection.prepareStatement(String.format(GET_FILTERED_TRANSACTIONS, conditions))) {
+            int index = 1;
+            statement.setInt(index++, userID);
+            for (Object parameter : parameters) {
+                statement.setObject(index++, parameter);
+            }
+            statement.setInt(index++, limit);
+            statement.setInt(index, offset);
             ResultSet resultSet = statement.executeQuery();
             while (resultSet.next()) {
-                long transactionID = resultSet.getLong(1);
-                String date = resultSet.getString(2);
-                float amount = resultSet.getFloat(3);
-                String description = resultSet.getString(4);
-                String externalIBAN = resultSet.getString(5);
-                String type = resultSet.getString(6);
-                transactions.add(new Transaction(transactionID, date, amount, description, externalIBAN, type));
+                transactions.add(getTransactionWithCategory(resultSet));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -609,18 +956,76 @@ public class CustomORM {
     }
 
     /**
-     * Method used to increase the highestCategoryID field of a certain user by one in the database.
+     * Method used to add a condition to a query that is being built, if the value it compares against is set.
      *
-     * @param userID The id of the user whose highestCategoryID field should be increased.
+     * @param conditions The conditions of the query that is being built.
+     * @param parameters The parameters of the query that is being built.
+     * @param condition  The condition that should be added, containing a single parameter.
+     * @param value      The value of the parameter of the condition (null if the condition should not be added).
      */
-    public void increaseHighestCategoryID(int userID) {
+    private static void addFilterCondition(StringBuilder conditions, ArrayList<Object> parameters, String condition,
+                                           Object value) {
+        if (value != null) {
+            conditions.append(condition);
+            parameters.add(value);
+        }
+    }
+
+    /**
+     * Method used to retrieve the external IBANs with the highest total transaction amount of a certain user from the
+     * database, computed exactly over all transactions of the user.
+     *
+     * @param userID The id of the user to who the transactions belong.
+     * @param limit  The (maximum) amount of counterparties to be retrieved.
+     * @return An ArrayList of Counterparty objects, the highest volume first.
+     */
+    public ArrayList<Counterparty> getTopCounterparties(int userID, int limit) {
+        ArrayList<Counterparty> counterparties = new ArrayList<>();
         try {
-            PreparedStatement statement = connection.prepareStatement(INCREASE_HIGHEST_CATEGORY_ID);
+            PreparedStatement statement = connection.prepareStatement(GET_TOP_COUNTERPARTIES);
             statement.setInt(1, userID);
-            statement.executeUpdate();
+            statement.setInt(2, limit);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                counterparties.add(new Counterparty(resultSet.getString(1), resultSet.getLong(2), 0));
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return counterparties;
+    }
+
+    /**
+     * Method used to retrieve the external IBANs with the highest total transaction amount over all users from the
+     * database, computed exactly over all transactions.
+     *
+     * @param limit The (maximum) amount of counterparties to be retrieved.
+     * @return An ArrayList of Counterparty objects, the highest volume first.
+     */
+    public ArrayList<Counterparty> getGlobalTopCounterparties(int limit) {
+        ArrayList<Counterparty> counterparties = new ArrayList<>();
+        try {
+            PreparedStatement statement = connection.prepareStatement(GET_GLOBAL_TOP_COUNTERPARTIES);
+            statement.setInt(1, limit);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                counterparties.add(new Counterparty(resultSet.getString(1), resultSet.getLong(2), 0));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return counterparties;
+    }
+
+    /**
+     * Method used to allocate a new categoryID for a certain user, by increasing the
+     * highestCategoryID field of the user by one and reading it back.
+     *
+     * @param userID The id of the user for whom a categoryID should be allocated.
+     * @return The allocated categoryID, or -1 if it could not be allocated.
+     */
+    public long allocateCategoryID(int userID) {
+        return allocateID(INCREASE_HIGHEST_CATEGORY_ID, GET_HIGHEST_CATEGORY_ID, userID);
     }
 
     /**
@@ -762,6 +1167,7 @@ public class CustomORM {
             statement.setLong(2, transactionID);
             statement.setLong(3, categoryID);
             statement.executeUpdate();
+            updateCategoryStatistics(userID, transactionID, categoryID, 1);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -776,6 +1182,7 @@ public class CustomORM {
      */
     public void unlinkTransactionFromCategory(int userID, long transactionID, long categoryID) {
         try {
+            updateCategoryStatistics(userID, transactionID, categoryID, -1);
             PreparedStatement statement = connection.prepareStatement(UNLINK_TRANSACTION_FROM_CATEGORY);
             statement.setInt(1, userID);
             statement.setLong(2, transactionID);
@@ -794,6 +1201,7 @@ public class CustomORM {
      */
     public void unlinkTransactionFromAllCategories(int userID, long transactionID) {
         try {
+            updateCategoryStatistics(userID, transactionID, null, -1);
             PreparedStatement statement = connection.prepareStatement(UNLINK_TRANSACTION_FROM_ALL_CATEGORIES);
             statement.setInt(1, userID);
             statement.setLong(2, transactionID);
@@ -815,11 +1223,158 @@ public class CustomORM {
             statement.setInt(1, userID);
             statement.setLong(2, categoryID);
             statement.executeUpdate();
+            PreparedStatement statisticsStatement = connection.prepareStatement(DELETE_CATEGORY_STATISTICS);
+            statisticsStatement.setInt(1, userID);
+            statisticsStatement.setLong(2, categoryID);
+            statisticsStatement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Method used to link all Transaction objects of a certain user that match a CategoryRule to a Category in the
+     * database, unlinking them from the Category objects they were linked to before. A Transaction matches the CategoryRule if its type,
+     * description and external IBAN contain the type, description and IBAN of the CategoryRule respectively.
+     *
+     * The statistics of the user are computed again from the transactions afterwards, which takes about as long as
+     * matching the transactions themselves.
+     *
+     * @param userID      The id of the user to who the Transaction and Category objects belong.
+     * @param description The description of the CategoryRule.
+     * @param iBAN        The IBAN of the CategoryRule.
+     * @param type        The type of the CategoryRule.
+     * @param categoryID  The id of the Category to which the matching Transaction objects will be linked.
+     * @return An ArrayList containing the ids of the linked Transaction objects, in ascending order.
+     */
+    public ArrayList<Long> linkMatchingTransactionsToCategory(int userID, String description, String iBAN, String type,
+                                                              long categoryID) {
+        ArrayList<Long> transactionIDs = new ArrayList<>();
+        try {
+            PreparedStatement statement = connection.prepareStatement(GET_TRANSACTIONS_MATCHING_CATEGORY_RULE);
+            statement.setInt(1, userID);
+            statement.setString(2, type);
+            statement.setString(3, description);
+            statement.setString(4, iBAN);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                transactionIDs.add(resultSet.getLong(1));
+            }
+            if (transactionIDs.isEmpty()) {
+                return transactionIDs;
+            }
+
+            PreparedStatement unlinkStatement = connection.prepareStatement(UNLINK_TRANSACTIONS_MATCHING_CATEGORY_RULE);
+            unlinkStatement.setInt(1, userID);
+            unlinkStatement.setInt(2, userID);
+            unlinkStatement.setString(3, type);
+            unlinkStatement.setString(4, description);
+            unlinkStatement.setString(5, iBAN);
+            unlinkStatement.executeUpdate();
+
+            PreparedStatement linkStatement = connection.prepareStatement(LINK_TRANSACTIONS_MATCHING_CATEGORY_RULE);
+            linkStatement.setLong(1, categoryID);
+            linkStatement.setInt(2, userID);
+            linkStatement.setString(3, type);
+            linkStatement.setString(4, description);
+            linkStatement.setString(5, iBAN);
+            linkStatement.executeUpdate();
+
+            PreparedStatement deleteStatisticsStatement = connection.prepareStatement(DELETE_USER_CATEGORY_STATISTICS);
+            deleteStatisticsStatement.setInt(1, userID);
+            deleteStatisticsStatement.executeUpdate();
+            PreparedStatement createStatisticsStatement = connection.prepareStatement(CREATE_USER_CATEGORY_STATISTICS);
+            createStatisticsStatement.setInt(1, userID);
+            createStatisticsStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return transactionIDs;
+    }
+
+    /**
+     * Method used to add the contribution of a Transaction to the statistics of the Category objects it is linked to,
+     * or to subtract it from these statistics.
+     * Should be called with sign -1 before a Transaction is changed or unlinked, and with sign 1 after a Transaction
+     * is changed or linked, so that the statistics always reflect the current transactions.
+     *
+     * @param userID        The id of the user to who the Transaction belongs.
+     * @param transactionID The id of the Transaction.
+     * @param categoryID    The id of the Category whose statistics are updated (null for all linked Category objects).
+     * @param sign          1 if the contribution should be added, -1 if it should be subtracted.
+     */
+    private void updateCategoryStatistics(int userID, long transactionID, Long categoryID, int sign)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(GET_CATEGORY_STATISTIC_CONTRIBUTIONS);
+        statement.setInt(1, userID);
+        statement.setLong(2, transactionID);
+        if (categoryID == null) {
+            statement.setNull(3, Types.BIGINT);
+            statement.setNull(4, Types.BIGINT);
+        } else {
+            statement.setLong(3, categoryID);
+            statement.setLong(4, categoryID);
+        }
+        ResultSet resultSet = statement.executeQuery();
+        PreparedStatement createStatement = connection.prepareStatement(CREATE_CATEGORY_STATISTIC);
+        PreparedStatement updateStatement = connection.prepareStatement(UPDATE_CATEGORY_STATISTIC);
+        while (resultSet.next()) {
+            long linkedCategoryID = resultSet.getLong(1);
+            String period = resultSet.getString(2);
+            String type = resultSet.getString(3);
+            long amount = resultSet.getLong(4);
+
+            createStatement.setInt(1, userID);
+            createStatement.setLong(2, linkedCategoryID);
+            createStatement.setString(3, period);
+            createStatement.setString(4, type);
+            createStatement.executeUpdate();
+
+            updateStatement.setLong(1, sign * amount);
+            updateStatement.setInt(2, sign);
+            updateStatement.setInt(3, userID);
+            updateStatement.setLong(4, linkedCategoryID);
+            updateStatement.setString(5, period);
+            updateStatement.setString(6, type);
+            updateStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Method used to retrieve the total, count and average amount of the transactions of a certain user per Category,
+     * period and type from the database.
+     * These are read from the statistics that are kept up to date whenever transactions are changed, so that the
+     * transactions themselves do not have to be visited.
+     *
+     * @param userID The id of the user to who the statistics belong.
+     * @param yearly Whether the statistics should be computed per year (true) or per month (false).
+     * @param from   The first period (inclusive) of which statistics are retrieved.
+     * @param to     The last period (inclusive) of which statistics are retrieved.
+     * @return An ArrayList of CategoryStatistic objects, the most recent period first.
+     */
+    public ArrayList<CategoryStatistic> getCategoryStatistics(int userID, boolean yearly, String from, String to) {
+        ArrayList<CategoryStatistic> categoryStatistics = new ArrayList<>();
+        try {
+            PreparedStatement statement = connection.prepareStatement(
+                    String.format(GET_CATEGORY_STATISTICS, yearly ? YEARLY_PERIOD : MONTHLY_PERIOD));
+            statement.setInt(1, userID);
+            statement.setString(2, from);
+            statement.setString(3, to);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                Category category = new Category(resultSet.getLong(1), resultSet.getString(2));
+                String period = resultSet.getString(3);
+                String type = resultSet.getString(4);
+                long total = resultSet.getLong(5);
+                long count = resultSet.getLong(6);
+                categoryStatistics.add(new CategoryStatistic(category, period, type, total, count));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return categoryStatistics;
+    }
+
     /**
      * Method used to retrieve the id of the Category that is linked to a certain Transaction from the database.
      *
@@ -880,15 +1435,14 @@ public class CustomORM {
     }
 
     /**
-     * Method used to retrieve a batch of CategoryRule objects belonging to a certain user from the database.
+     * Method used to retrieve all CategoryRule objects belonging to a certain user from the database.
      *
-     * @param userID The id of the user to who the to be retrieved Category objects belong.
+     * @param userID The id of the user to who the to be retrieved CategoryRule objects belong.
      * @return An ArrayList of CategoryRule objects.
      */
     public ArrayList<CategoryRule> getCategoryRules(int userID) {
         ArrayList<CategoryRule> categoryRules = new ArrayList<>();
-        try {
-            PreparedStatement statement = connection.prepareStatement(GET_CATEGORYRULES);
+        try (PreparedStatement statement = connection.prepareStatement(GET_CATEGORYRULES)) {
             statement.setInt(1, userID);
             ResultSet resultSet = statement.executeQuery();
             while (resultSet.next()) {
@@ -935,37 +1489,14 @@ public class CustomORM {
     }
 
     /**
-     * Method used to increase the highest ID of CategoryRules by one.
-     *
-     * @param userID The ID of the user.
-     */
-    public void increaseHighestCategoryRuleID(int userID) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(INCREASE_HIGHEST_CATEGORYRULE_ID);
-            statement.setInt(1, userID);
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Method used to retrieve the highest ID of CategoryRules.
+     * Method used to allocate a new categoryRuleID for a certain user, by increasing the
+     * highestCategoryRuleID field of the user by one and reading it back.
      *
-     * @param userID The ID of the user.
-     * @return The highest ID of CategoryRules.
+     * @param userID The id of the user for whom a categoryRuleID should be allocated.
+     * @return The allocated categoryRuleID, or -1 if it could not be allocated.
      */
-    public long getHighestCategoryRuleID(int userID) {
-        long highestCategoryRuleID = -1;
-        try {
-            PreparedStatement statement = connection.prepareStatement(GET_HIGHEST_CATEGORYRULE_ID);
-            statement.setInt(1, userID);
-            ResultSet rs = statement.executeQuery();
-            highestCategoryRuleID = rs.getLong(1);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return highestCategoryRuleID;
+    public long allocateCategoryRuleID(int userID) {
+        return allocateID(INCREASE_HIGHEST_CATEGORYRULE_ID, GET_HIGHEST_CATEGORYRULE_ID, userID);
     }
 
     /**
@@ -1106,9 +1637,9 @@ public class CustomORM {
             statement.setLong(3, endTimestampMillis);
             ResultSet resultSet = statement.executeQuery();
             while (resultSet.next()) {
-                float open = resultSet.getFloat(1);
-                float close = resultSet.getFloat(2);
-                float volume = resultSet.getFloat(3);
+                long open = resultSet.getLong(1);
+                long close = resultSet.getLong(2);
+                long volume = resultSet.getLong(3);
                 long timeStampMillis = resultSet.getLong(4);
                 balanceHistoryPoints.add(new BalanceHistoryPoint(open, close, volume, timeStampMillis));
             }
@@ -1126,15 +1657,15 @@ public class CustomORM {
      * @param timestampMillis The timestamp of the to be added balance history point.
      * @return The close value of the balance history point that was the last before the specified time.
      */
-    public float getPreviousBalanceHistoryPointClose(int userID, long timestampMillis) {
-        float close = 0;
+    public long getPreviousBalanceHistoryPointClose(int userID, long timestampMillis) {
+        long close = 0;
         try {
             PreparedStatement statement = connection.prepareStatement(GET_PREVIOUS_BALANCE_HISTORY_POINT_CLOSE);
             statement.setInt(1, userID);
             statement.setLong(2, timestampMillis);
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                close = resultSet.getFloat(1);
+                close = resultSet.getLong(1);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1153,29 +1684,9 @@ public class CustomORM {
             PreparedStatement statement = connection.prepareStatement(CREATE_BALANCE_HISTORY_POINT);
             statement.setInt(1, userID);
             statement.setLong(2, balanceHistoryPoint.getTimeStamp());
-            statement.setFloat(3, balanceHistoryPoint.getOpen());
-            statement.setFloat(4, balanceHistoryPoint.getClose());
-            statement.setFloat(5, balanceHistoryPoint.getVolume());
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Method used to update a balance history point in the database.
-     *
-     * @param userID The ID of the specified user.
-     * @param b      The balance history point that needs to be updated, its timestamp must already exist in the database.
-     */
-    public void updateBalanceHistoryPoint(int userID, BalanceHistoryPoint b) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(UPDATE_BALANCE_HISTORY_POINT);
-            statement.setFloat(1, b.getOpen());
-            statement.setFloat(2, b.getClose());
-            statement.setFloat(3, b.getVolume());
-            statement.setInt(4, userID);
-            statement.setLong(5, b.getTimeStamp());
+            statement.setLong(3, balanceHistoryPoint.getOpen());
+            statement.setLong(4, balanceHistoryPoint.getClose());
+            statement.setLong(5, balanceHistoryPoint.getVolume());
             statement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1183,30 +1694,24 @@ public class CustomORM {
     }
 
     /**
-     * Method used to retrieve the balance history points that are further in time then the given timestamp
+     * Method used to add an amount to the open and close values of all balance history points of a user that are
+     * further in time than the given timestamp.
      *
      * @param userID          The ID of the specified user.
-     * @param timestampMillis The timestamp of the balance history point before the points to return.
-     * @return All balance history points that occur after the timestamp given.
+     * @param timestampMillis The timestamp of the balance history point before the points to shift.
+     * @param amount          The amount in cents to be added to the open and close values.
      */
-    public ArrayList<BalanceHistoryPoint> getFutureBalanceHistoryPoints(int userID, long timestampMillis) {
-        ArrayList<BalanceHistoryPoint> balanceHistoryPoints = new ArrayList<>();
+    public void shiftFutureBalanceHistoryPoints(int userID, long timestampMillis, long amount) {
         try {
-            PreparedStatement statement = connection.prepareStatement(GET_FUTURE_BALANCE_HISTORY_POINTS);
-            statement.setInt(1, userID);
-            statement.setLong(2, timestampMillis);
-            ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                long timeStamp = resultSet.getLong(1);
-                float open = resultSet.getFloat(2);
-                float low = resultSet.getFloat(3);
-                float volume = resultSet.getFloat(4);
-                balanceHistoryPoints.add(new BalanceHistoryPoint(open, low, volume, timeStamp));
-            }
+            PreparedStatement statement = connection.prepareStatement(SHIFT_FUTURE_BALANCE_HISTORY_POINTS);
+            statement.setLong(1, amount);
+            statement.setLong(2, amount);
+            statement.setInt(3, userID);
+            statement.setLong(4, timestampMillis);
+            statement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return balanceHistoryPoints;
     }
 
     /**
@@ -1224,10 +1729,10 @@ public class CustomORM {
             while (resultSet.next()) {
                 long savingGoalID = resultSet.getLong(1);
                 String name = resultSet.getString(2);
-                float goal = resultSet.getFloat(3);
-                float savePerMonth = resultSet.getFloat(4);
-                float minBalanceRequired = resultSet.getFloat(5);
-                float balance = resultSet.getFloat(6);
+                long goal = resultSet.getLong(3);
+                long savePerMonth = resultSet.getLong(4);
+                long minBalanceRequired = resultSet.getLong(5);
+                long balance = resultSet.getLong(6);
                 savingGoals.add(new SavingGoal(savingGoalID, name, goal, savePerMonth, minBalanceRequired, balance));
             }
         } catch (SQLException e) {
@@ -1237,37 +1742,14 @@ public class CustomORM {
     }
 
     /**
-     * Method used to increase the highest savinggoal ID of the specified user.
+     * Method used to allocate a new savingGoalID for a certain user, by increasing the
+     * highestSavingGoalID field of the user by one and reading it back.
      *
-     * @param userID    The ID of the specified user.
+     * @param userID The id of the user for whom a savingGoalID should be allocated.
+     * @return The allocated savingGoalID, or -1 if it could not be allocated.
      */
-    public void increaseHighestSavingGoalID(int userID) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(INCREASE_HIGHEST_SAVING_GOAL_ID);
-            statement.setInt(1, userID);
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Method used to retrieve the highest savinggoal ID of the specified user.
-     *
-     * @param userID    The ID of the specified user.
-     * @return  The highest savinggoal ID.
-     */
-    public long getHighestSavingGoalID(int userID) {
-        long highestSavingGoalID = -1;
-        try {
-            PreparedStatement statement = connection.prepareStatement(GET_HIGHEST_SAVING_GOAL_ID);
-            statement.setInt(1, userID);
-            ResultSet rs = statement.executeQuery();
-            highestSavingGoalID = rs.getLong(1);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return highestSavingGoalID;
+    public long allocateSavingGoalID(int userID) {
+        return allocateID(INCREASE_HIGHEST_SAVING_GOAL_ID, GET_HIGHEST_SAVING_GOAL_ID, userID);
     }
 
     /**
@@ -1276,21 +1758,21 @@ public class CustomORM {
      * @param userID                The ID of the specified user.
      * @param savingGoalID          The ID of the to be created savinggoal.
      * @param name                  The name of the to be created savinggoal.
-     * @param goal                  The goal of the to be created savinggoal.
-     * @param savePerMonth          The amount to be saved per month of the to be created savinggoal.
-     * @param minBalanceRequired    The minimal balance that the user needs to have for the savinggoal
+     * @param goal                  The goal in cents of the to be created savinggoal.
+     * @param savePerMonth          The amount in cents to be saved per month of the to be created savinggoal.
+     * @param minBalanceRequired    The minimal balance in cents that the user needs to have for the savinggoal
      *                              to save money.
      */
-    public void createSavingGoal(int userID, long savingGoalID, String name, float goal, float savePerMonth, float minBalanceRequired) {
+    public void createSavingGoal(int userID, long savingGoalID, String name, long goal, long savePerMonth, long minBalanceRequired) {
         try {
             PreparedStatement statement = connection.prepareStatement(CREATE_SAVING_GOAL);
             statement.setInt(1, userID);
             statement.setLong(2, savingGoalID);
             statement.setString(3, name);
-            statement.setFloat(4, goal);
-            statement.setFloat(5, savePerMonth);
-            statement.setFloat(6, minBalanceRequired);
-            statement.setFloat(7, 0);
+            statement.setLong(4, goal);
+            statement.setLong(5, savePerMonth);
+            statement.setLong(6, minBalanceRequired);
+            statement.setLong(7, 0);
             statement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1313,10 +1795,10 @@ public class CustomORM {
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
                 String name = resultSet.getString(1);
-                float goal = resultSet.getFloat(2);
-                float saverPerMonth = resultSet.getFloat(3);
-                float minBalanceRequired = resultSet.getFloat(4);
-                float balance = resultSet.getFloat(5);
+                long goal = resultSet.getLong(2);
+                long saverPerMonth = resultSet.getLong(3);
+                long minBalanceRequired = resultSet.getLong(4);
+                long balance = resultSet.getLong(5);
                 savingGoal = new SavingGoal(savingGoalID, name, goal, saverPerMonth, minBalanceRequired, balance);
             }
 
@@ -1411,12 +1893,12 @@ public class CustomORM {
      *
      * @param userID        The ID of the specified user.
      * @param savingGoalID  The ID of the to be updated savinggoal.
-     * @param newBalance    The new balance of the savinggoal.
+     * @param newBalance    The new balance in cents of the savinggoal.
      */
-    public void updateSavingGoalBalance(int userID, long savingGoalID, float newBalance) {
+    public void updateSavingGoalBalance(int userID, long savingGoalID, long newBalance) {
         try {
             PreparedStatement statement = connection.prepareStatement(UPDATE_SAVING_GOAL_BALANCE);
-            statement.setFloat(1, newBalance);
+            statement.setLong(1, newBalance);
             statement.setInt(2, userID);
             statement.setLong(3, savingGoalID);
             statement.executeUpdate();
@@ -1426,83 +1908,80 @@ public class CustomORM {
     }
 
     /**
-     * Method used to retrieve all the payment requests from a specific user.
+     * Method used to retrieve a batch of payment requests from a specific user, together with their linked transactions.
+     * The payment requests are fetched with one query and the transactions of the whole batch with a second query,
+     * after which the transactions are grouped by the payment request they belong to.
      *
      * @param userID    The ID of the user.
-     * @return  All payment requests of the specified user.
+     * @param filled    The filled status to be filtered on (null if no filter).
+     * @param limit     The (maximum) amount of payment requests to be retrieved.
+     * @param offset    The starting index to retrieve payment requests.
+     * @return  A batch of payment requests of the specified user.
      */
-    public ArrayList<PaymentRequest> getPaymentRequests(int userID) {
-        ArrayList<PaymentRequest> paymentRequests = new ArrayList<>();
+    public ArrayList<PaymentRequest> getPaymentRequests(int userID, Boolean filled, int limit, int offset) {
+        Map<Long, PaymentRequest> paymentRequests = new LinkedHashMap<>();
         try {
             PreparedStatement statement = connection.prepareStatement(GET_PAYMENT_REQUESTS);
             statement.setInt(1, userID);
+            if (filled == null) {
+                statement.setNull(2, Types.BOOLEAN);
+                statement.setNull(3, Types.BOOLEAN);
+            } else {
+                statement.setBoolean(2, filled);
+                statement.setBoolean(3, filled);
+            }
+            statement.setInt(4, limit);
+            statement.setInt(5, offset);
             ResultSet resultSet = statement.executeQuery();
             while (resultSet.next()) {
                 long paymentRequestID = resultSet.getLong(1);
                 String description = resultSet.getString(2);
                 String due_date = resultSet.getString(3);
-                float amount = resultSet.getFloat(4);
+                long amount = resultSet.getLong(4);
                 long number_of_requests = resultSet.getLong(5);
-                boolean filled = resultSet.getBoolean(6);
-
-                ArrayList<Transaction> transactions = new ArrayList<>();
+                boolean paymentRequestFilled = resultSet.getBoolean(6);
+                paymentRequests.put(paymentRequestID, new PaymentRequest(paymentRequestID, description, due_date, amount,
+                        number_of_requests, paymentRequestFilled, new ArrayList<>()));
+            }
 
-                PreparedStatement transactionStatement = connection.prepareStatement(GET_PAYMENT_REQUEST_TRANSACTIONS);
+            if (paymentRequests.size() > 0) {
+                String placeholders = String.join(", ", Collections.nCopies(paymentRequests.size(), "?"));
+                PreparedStatement transactionStatement =
+                        connection.prepareStatement(String.format(GET_PAYMENT_REQUESTS_TRANSACTIONS, placeholders));
                 transactionStatement.setInt(1, userID);
-                transactionStatement.setLong(2, paymentRequestID);
+                int parameterIndex = 2;
+                for (long paymentRequestID : paymentRequests.keySet()) {
+                    transactionStatement.setLong(parameterIndex++, paymentRequestID);
+                }
                 ResultSet transactionResultSet = transactionStatement.executeQuery();
                 while (transactionResultSet.next()) {
-                    long transactionID = transactionResultSet.getLong(1);
-                    String date = transactionResultSet.getString(2);
-                    float transactionAmount = transactionResultSet.getFloat(3);
-                    String transactionDescription = transactionResultSet.getString(4);
-                    String externalIBAN = transactionResultSet.getString(5);
-                    String type = transactionResultSet.getString(6);
-                    transactions.add(new Transaction(transactionID, date, transactionAmount, transactionDescription, externalIBAN, type));
+                    long paymentRequestID = transactionResultSet.getLong(1);
+                    long transactionID = transactionResultSet.getLong(2);
+                    String date = transactionResultSet.getString(3);
+                    long transactionAmount = transactionResultSet.getLong(4);
+                    String transactionDescription = transactionResultSet.getString(5);
+                    String externalIBAN = transactionResultSet.getString(6);
+                    String type = transactionResultSet.getString(7);
+                    paymentRequests.get(paymentRequestID).getTransactions().add(new Transaction(transactionID, date,
+                            transactionAmount, transactionDescription, externalIBAN, type));
                 }
-
-                paymentRequests.add(new PaymentRequest(paymentRequestID, description, due_date, amount, number_of_requests, filled, transactions));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return paymentRequests;
-
+        return new ArrayList<>(paymentRequests.values());
     }
 
 
     /**
-     * Method used to increase the highest payment request ID of a user.
+     * Method used to allocate a new paymentRequestID for a certain user, by increasing the
+     * highestPaymentRequestID field of the user by one and reading it back.
      *
-     * @param userID    The ID of the user.
+     * @param userID The id of the user for whom a paymentRequestID should be allocated.
+     * @return The allocated paymentRequestID, or -1 if it could not be allocated.
      */
-    public void increaseHighestPaymentRequestID(int userID) {
-        try {
-            PreparedStatement statement = connection.prepareStatement(INCREASE_HIGHEST_PAYMENT_REQUEST_ID);
-            statement.setInt(1, userID);
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Method used to retrieve the highest payment request ID of a user.
-     *
-     * @param userID    The ID of the user.
-     * @return  The highest payment request ID of the specified user.
-     */
-    public long getHighestPaymentRequestID(int userID) {
-        long highestPaymentRequestID = -1;
-        try {
-            PreparedStatement statement = connection.prepareStatement(GET_HIGHEST_PAYMENT_REQUEST_ID);
-            statement.setInt(1, userID);
-            ResultSet rs = statement.executeQuery();
-            highestPaymentRequestID = rs.getLong(1);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return highestPaymentRequestID;
+    public long allocatePaymentRequestID(int userID) {
+        return allocateID(INCREASE_HIGHEST_PAYMENT_REQUEST_ID, GET_HIGHEST_PAYMENT_REQUEST_ID, userID);
     }
 
     /**
@@ -1512,19 +1991,21 @@ public class CustomORM {
      * @param paymentRequestID      The ID of the payment request.
      * @param description           The description of the payment request.
      * @param due_date              The due date of the payment request.
-     * @param amount                The amount to be payed.
+     * @param dueDateMillis         The due date of the payment request in milliseconds since the epoch.
+     * @param amount                The amount in cents to be payed.
      * @param number_of_requests    The number of payments needed.
      */
-    public void createPaymentRequest(int userID, long paymentRequestID, String description, String due_date, float amount, long number_of_requests) {
+    public void createPaymentRequest(int userID, long paymentRequestID, String description, String due_date,
+                                     long dueDateMillis, long amount, long number_of_requests) {
         try {
             PreparedStatement statement = connection.prepareStatement(CREATE_PAYMENT_REQUEST);
             statement.setInt(1, userID);
             statement.setLong(2, paymentRequestID);
             statement.setString(3, description);
             statement.setString(4, due_date);
-            statement.setFloat(5, amount);
-            statement.setLong(6, number_of_requests);
-            statement.setBoolean(7, false);
+            statement.setLong(5, dueDateMillis);
+            statement.setLong(6, amount);
+            statement.setLong(7, number_of_requests);
             statement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1532,33 +2013,64 @@ public class CustomORM {
     }
 
     /**
-     * Method used to retrieve all the payment requests that are not filled.
+     * Method used to retrieve the oldest payment request of a certain amount that is not filled and not expired at a
+     * certain time.
      *
-     * @param userID    The ID of the user.
-     * @return  A list of payment requests that are not filled.
+     * @param userID            The ID of the user.
+     * @param amount            The amount in cents of the payment request.
+     * @param timestampMillis   The time at which the payment request should not be expired.
+     * @return  The oldest open payment request with the specified amount, or null if there is none.
      */
-    public ArrayList<PaymentRequest> getOpenPaymentRequests(int userID) {
-        // ordered by ID ASC
-        ArrayList<PaymentRequest> paymentRequests = new ArrayList<>();
+    public PaymentRequest getOpenPaymentRequest(int userID, long amount, long timestampMillis) {
+        PaymentRequest paymentRequest = null;
         try {
-            PreparedStatement statement = connection.prepareStatement(GET_OPEN_PAYMENT_REQUESTS);
+            PreparedStatement statement = connection.prepareStatement(GET_OPEN_PAYMENT_REQUEST);
             statement.setInt(1, userID);
-            statement.setBoolean(2, false);
+            statement.setLong(2, amount);
+            statement.setLong(3, timestampMillis);
             ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
+            if (resultSet.next()) {
                 long paymentRequestID = resultSet.getLong(1);
                 String description = resultSet.getString(2);
                 String due_date = resultSet.getString(3);
-                float amount = resultSet.getFloat(4);
                 long number_of_requests = resultSet.getLong(5);
                 boolean filled = resultSet.getBoolean(6);
+                paymentRequest = new PaymentRequest(paymentRequestID, description, due_date, amount, number_of_requests,
+                        filled, new ArrayList<>());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return paymentRequest;
+    }
 
-                paymentRequests.add(new PaymentRequest(paymentRequestID, description, due_date, amount, number_of_requests, filled, new ArrayList<>()));
+    /**
+     * Method used to mark a batch of payment requests as expired.
+     * A payment request expires when it is not filled and its due date lies before the current system time of the user
+     * it belongs to, after which it is no longer considered when matching deposits.
+     * The users of the batch are retrieved before it is marked, so this method should be called within a transaction.
+     *
+     * @param batchSize The maximum amount of payment requests to be marked as expired.
+     * @return An ArrayList containing the ID of the user of every payment request that was marked as expired.
+     */
+    public ArrayList<Integer> expirePaymentRequests(int batchSize) {
+        ArrayList<Integer> userIDs = new ArrayList<>();
+        try {
+            PreparedStatement statement = connection.prepareStatement(GET_EXPIRING_PAYMENT_REQUEST_USERS);
+            statement.setInt(1, batchSize);
+            ResultSet resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                userIDs.add(resultSet.getInt(1));
+            }
+            if (!userIDs.isEmpty()) {
+                statement = connection.prepareStatement(EXPIRE_PAYMENT_REQUESTS);
+                statement.setInt(1, batchSize);
+                statement.executeUpdate();
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return paymentRequests;
+        return userIDs;
     }
 
     /**
@@ -1,172 +1,784 @@
 package nl.utwente.ing.model.persistentmodel;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.sql.Statement;
+import nl.utwente.ing.metrics.StartupTimer;
+import org.sqlite.SQLiteConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
 
 /**
  * The DatabaseConnection class.
  * Consists of methods that allow the application to set up a connection to the database and use this connection.
+ * Setting up the connection can be done in the background while the rest of the application starts, in which case
+ * retrieving the connection waits until it has been set up.
+ * Checking every table and index of the schema on every start is avoided using a fingerprint of the schema, which is
+ * stored in the application_id pragma of the database once the schema is up to date: when both the stored schema
+ * version and the stored fingerprint match, a single query is enough to know that nothing has to be created or
+ * migrated.
+ * The database uses write-ahead logging, so that besides the connection that writes data, up to READ_CONNECTIONS
+ * read-only connections can read committed data without waiting for a write in progress.
  *
  * @author Daan Kooij
  */
 public class DatabaseConnection {
 
+    /**
+     * The version of the database schema created by this class, stored in the user_version pragma of the database.
+     * Databases with a lower version are brought up to date by the migrate method.
+     */
+    public static final int SCHEMA_VERSION = 5;
+
+    /**
+     * The maximum number of read-only connections that are open at the same time.
+     */
+    public static final int READ_CONNECTIONS = 8;
+
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private static final String CREATE_USER_TABLE =
+            "CREATE TABLE IF NOT EXISTS User_Table(\n" +
+                    "  user_id INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
+                    "  session_id TEXT,\n" +
+                    "  highest_transaction_id BIGINT,\n" +
+                    "  highest_category_id BIGINT\n," +
+                    "  highest_saving_goal_id BIGINT,\n" +
+                    "  highest_category_rule_id BIGINT,\n" +
+                    "  highest_payment_request_id BIGINT,\n" +
+                    "  system_time_millis BIGINT\n" +
+                    ");";
+    private static final String CREATE_TRANSACTION_TABLE =
+            "CREATE TABLE IF NOT EXISTS Transaction_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  transaction_id BIGINT,\n" +
+                    "  date DATETIME,\n" +
+                    "  date_millis BIGINT,\n" +
+                    "  amount INTEGER,\n" +
+                    "  description TEXT,\n" +
+                    "  external_iban TEXT,\n" +
+                    "  type TEXT,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  PRIMARY KEY(user_id, transaction_id)\n" +
+                    ");";
+    private static final String CREATE_CATEGORY_TABLE =
+            "CREATE TABLE IF NOT EXISTS Category_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  category_id BIGINT,\n" +
+                    "  name TEXT,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  PRIMARY KEY(user_id, category_id)\n" +
+                    ");";
+    private static final String CREATE_TRANSACTION_CATEGORY_TABLE =
+            "CREATE TABLE IF NOT EXISTS Transaction_Category(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  transaction_id BIGINT,\n" +
+                    "  category_id BIGINT,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  FOREIGN KEY(transaction_id) REFERENCES Transaction_Table(transaction_id),\n" +
+                    "  FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),\n" +
+                    "  PRIMARY KEY(user_id, transaction_id, category_id)\n" +
+                    ");";
+    private static final String CREATE_CATEGORY_RULE_TABLE =
+            "CREATE TABLE IF NOT EXISTS CategoryRule_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  category_rule_id BIGINT,\n" +
+                    "  description TEXT,\n" +
+                    "  iban TEXT,\n" +
+                    "  type TEXT,\n" +
+                    "  category_id BIGINT,\n" +
+                    "  apply_on_history BOOLEAN,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),\n" +
+                    "  PRIMARY KEY(user_id, category_rule_id)\n" +
+                    ");";
+    private static final String CREATE_BALANCE_HISTORY_TABLE =
+            "CREATE TABLE IF NOT EXISTS BalanceHistory_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  time_stamp_millis BIGINT,\n" +
+                    "  open INTEGER,\n" +
+                    "  close INTEGER,\n" +
+                    "  volume INTEGER,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  PRIMARY KEY(user_id, time_stamp_millis)\n" +
+                    ");";
+    private static final String CREATE_SAVING_GOAL_TABLE =
+            "CREATE TABLE IF NOT EXISTS SavingGoal_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  saving_goal_id BIGINT,\n" +
+                    "  name TEXT,\n" +
+                    "  goal INTEGER,\n" +
+                    "  save_per_month INTEGER,\n" +
+                    "  min_balance_required INTEGER,\n" +
+                    "  balance INTEGER,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  PRIMARY KEY(user_id, saving_goal_id)\n" +
+                    ");";
+    private static final String CREATE_PAYMENT_REQUEST_TABLE =
+            "CREATE TABLE IF NOT EXISTS PaymentRequest_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  payment_request_id BIGINT,\n" +
+                    "  description TEXT,\n" +
+                    "  due_date TEXT ,\n" +
+                    "  due_date_millis BIGINT ,\n" +
+                    "  amount INTEGER,\n" +
+                    "  number_of_requests BIGINT ,\n" +
+                    "  filled BOOLEAN ,\n" +
+                    "  expired BOOLEAN ,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  PRIMARY KEY(user_id, payment_request_id)\n" +
+                    ");";
+    private static final String CREATE_PAYMENT_REQUEST_TRANSACTION_TABLE =
+            "CREATE TABLE IF NOT EXISTS PaymentRequest_Transaction(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  transaction_id BIGINT,\n" +
+                    "  payment_request_id BIGINT,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  FOREIGN KEY(transaction_id) REFERENCES Transaction_Table(transaction_id),\n" +
+                    "  FOREIGN KEY(payment_request_id) REFERENCES PaymentRequest_Table(payment_request_id),\n" +
+                    "  PRIMARY KEY(user_id, payment_request_id, transaction_id)\n" +
+                    ");";
+    private static final String CREATE_CATEGORY_STATISTICS_TABLE =
+            "CREATE TABLE IF NOT EXISTS CategoryStatistics_Table(\n" +
+                    "  user_id INTEGER,\n" +
+                    "  category_id BIGINT,\n" +
+                    "  period TEXT,\n" +
+                    "  type TEXT,\n" +
+                    "  total INTEGER,\n" +
+                    "  count INTEGER,\n" +
+                    "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
+                    "  FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),\n" +
+                    "  PRIMARY KEY(user_id, category_id, period, type)\n" +
+                    ");";
+    // Full-text index over the descriptions of transactions. The rowid of a row is composed of the user_id (high 32
+    // bits) and the transaction_id (low 32 bits) of the transaction it indexes, so that a search can be restricted to
+    // the transactions of a single user using a rowid range, and a row can be updated or deleted by its rowid.
+    private static final String CREATE_TRANSACTION_FTS_TABLE =
+            "CREATE VIRTUAL TABLE IF NOT EXISTS Transaction_FTS USING fts5(\n" +
+                    "  description,\n" +
+                    "  tokenize = 'unicode61 remove_diacritics 1'\n" +
+                    ");";
+
+    private static final String[] CREATE_INDEXES = {
+            // GET /transactions lists transactions ordered by date and transactionID, so both are included as the
+            // last columns of the indexes used by it, and a page is read in index order without sorting.
+            "CREATE INDEX IF NOT EXISTS Transaction_Date_Index\n" +
+                    "ON Transaction_Table(user_id, date_millis, transaction_id);",
+            // Composite indexes backing the filters on GET /transactions; the date is included after the filtered
+            // column so that a type or IBAN filter combined with a date range is still a single index range scan.
+            "CREATE INDEX IF NOT EXISTS Transaction_Type_Date_Index\n" +
+                    "ON Transaction_Table(user_id, type, date_millis, transaction_id);",
+            "CREATE INDEX IF NOT EXISTS Transaction_IBAN_Date_Index\n" +
+                    "ON Transaction_Table(user_id, external_iban, date_millis, transaction_id);",
+            "CREATE INDEX IF NOT EXISTS Transaction_Amount_Index\n" +
+                    "ON Transaction_Table(user_id, amount);",
+            "CREATE INDEX IF NOT EXISTS Category_Name_Index\n" +
+                    "ON Category_Table(user_id, name);",
+            // Partial indexes only containing the open payment requests, so that matching deposits against open
+            // payment requests and sweeping expired payment requests never have to visit filled or expired ones.
+            "CREATE INDEX IF NOT EXISTS PaymentRequest_Open_Index\n" +
+                    "ON PaymentRequest_Table(user_id, amount, due_date_millis)\n" +
+                    "WHERE filled = 0 AND expired = 0;",
+            "CREATE INDEX IF NOT EXISTS PaymentRequest_Due_Date_Index\n" +
+                    "ON PaymentRequest_Table(due_date_millis)\n" +
+                    "WHERE filled = 0 AND expired = 0;"
+    };
+
+    private static final String GET_SCHEMA_STAMP =
+            "SELECT v.user_version, a.application_id\n" +
+                    "FROM pragma_user_version v, pragma_application_id a;";
+
+    /**
+     * The fingerprint of the schema created by this class: a checksum over the SCHEMA_VERSION and the definitions of
+     * all tables and indexes, so that any change to them (even one that does not require a migration, like a new
+     * index) makes the stored fingerprint outdated.
+     */
+    static final int SCHEMA_FINGERPRINT = computeSchemaFingerprint(SCHEMA_VERSION, CREATE_USER_TABLE,
+            CREATE_TRANSACTION_TABLE, CREATE_CATEGORY_TABLE, CREATE_TRANSACTION_CATEGORY_TABLE,
+            CREATE_CATEGORY_RULE_TABLE, CREATE_BALANCE_HISTORY_TABLE, CREATE_SAVING_GOAL_TABLE,
+            CREATE_PAYMENT_REQUEST_TABLE, CREATE_PAYMENT_REQUEST_TRANSACTION_TABLE, CREATE_CATEGORY_STATISTICS_TABLE,
+            CREATE_TRANSACTION_FTS_TABLE, String.join("\n", CREATE_INDEXES));
+
     private static Connection connection;
+    private static volatile CompletableFuture<Void> setUpCompletion = CompletableFuture.completedFuture(null);
+    private static String databaseName;
+    private static Exception setUpFailure;
+    private static boolean writeAheadLogging;
+    private static final BlockingQueue<Connection> idleReadConnections = new LinkedBlockingQueue<>();
+    private static int openReadConnections;
 
     /**
      * Method used to set up the connection to the SQLite database.
-     * Furthermore, this method calls the createTables method, which initializes the tables of the database if necessary.
-     * After using this method, the connection is stored in the connection field.
+     * Furthermore, this method calls the createTables method, which initializes the tables of the database if necessary,
+     * migrates databases created by older versions of the application and creates the indexes of the database.
+     * After using this method, the connection is stored in the connection field. If setting up the connection fails,
+     * the application keeps running, but the failure is stored so that it can be reported by DatabaseHealth.
+     * The read-only connections of a database set up before are closed.
      *
      * @param databaseName The filename of the SQLite database that will be connected to.
      */
     public static void setUp(String databaseName) {
+        closeReadConnections();
+        DatabaseConnection.databaseName = databaseName;
+        setUpFailure = null;
         try {
+            long start = System.nanoTime();
             String driver = "org.sqlite.JDBC";
             Class.forName(driver);
             String databaseURL = "jdbc:sqlite:" + databaseName;
             connection = DriverManager.getConnection(databaseURL);
-            createTables();
+            writeAheadLogging = enableWriteAheadLogging();
+            long connected = System.nanoTime();
+            StartupTimer.record("database_connect", connected - start);
+            if (hasCurrentSchema()) {
+                StartupTimer.record("schema_check", System.nanoTime() - connected);
+            } else {
+                boolean newDatabase = !tableExists("User_Table");
+                boolean tablesCreated = createTables();
+                if (newDatabase) {
+                    setSchemaVersion(SCHEMA_VERSION);
+                } else {
+                    migrate();
+                }
+                boolean indexesCreated = createIndexes();
+                // Only a schema that is known to be complete is fingerprinted, so that a failure is retried on the
+                // next start.
+                if (tablesCreated && indexesCreated && getSchemaVersion() == SCHEMA_VERSION) {
+                    setSchemaFingerprint(SCHEMA_FINGERPRINT);
+                }
+                StartupTimer.record("schema_update", System.nanoTime() - connected);
+            }
             System.out.println("Setting up database connection complete");
         } catch (Exception e) {
+            setUpFailure = e;
             e.printStackTrace();
             System.err.println("Error connecting to database");
         }
     }
 
+    /**
+     * Method used to set up the connection to the SQLite database on a background thread, so that the rest of the
+     * application can start in the meantime. Retrieving the connection waits until it has been set up.
+     * Once the connection has been set up, the statements of CustomORM are prepared once, so that SQLite has parsed the
+     * schema and the statement classes have been loaded before the first request arrives. Setting up is only complete
+     * after this warm-up, so that the application is not reported ready while it still uses the connection.
+     *
+     * @param databaseName The filename of the SQLite database that will be connected to.
+     */
+    public static void setUpInBackground(String databaseName) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        setUpCompletion = completion;
+        Thread thread = new Thread(() -> {
+            try {
+                setUp(databaseName);
+                if (setUpFailure == null) {
+                    long start = System.nanoTime();
+                    new CustomORM(connection).prepareStatements();
+                    StartupTimer.record("statement_warmup", System.nanoTime() - start);
+                }
+            } finally {
+                completion.complete(null);
+            }
+        }, "database-setup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method used to check whether setting up the connection to the database has finished, successfully or not.
+     *
+     * @return true if setting up the connection has finished, false if it is still in progress in the background.
+     */
+    public static boolean isSetUpComplete() {
+        return setUpCompletion.isDone();
+    }
+
+    /**
+     * Method used to wait until setting up the connection to the database has finished.
+     */
+    public static void awaitSetUp() {
+        setUpCompletion.join();
+    }
+
+    /**
+     * Method used to switch the database to write-ahead logging, which is stored in the database, so that it only
+     * changes anything the first time the database is used.
+     *
+     * @return true if the database uses write-ahead logging, false if it does not support it (like an in-memory
+     * database).
+     */
+    private static boolean enableWriteAheadLogging() throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS + ";");
+        ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode = WAL;");
+        boolean enabled = resultSet.next() && resultSet.getString(1).equalsIgnoreCase("wal");
+        statement.close();
+        return enabled;
+    }
+
     /**
      * Method used to create tables in the database if they do not yet exist.
      * If this method is called when the database is empty, the appropriate tables will be created in the database.
      * If this method is called when the database already contains the tables that this method tries to create,
      * nothing will change.
+     *
+     * @return true if all tables exist, false otherwise.
      */
-    private static void createTables() {
+    private static boolean createTables() {
         try {
             connection.setAutoCommit(false);
             Statement statement = connection.createStatement();
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS User_Table(\n" +
-                            "  user_id INTEGER PRIMARY KEY AUTOINCREMENT,\n" +
-                            "  session_id TEXT,\n" +
-                            "  highest_transaction_id BIGINT,\n" +
-                            "  highest_category_id BIGINT\n," +
-                            "  highest_saving_goal_id BIGINT,\n" +
-                            "  highest_category_rule_id BIGINT,\n" +
-                            "  highest_payment_request_id BIGINT,\n" +
-                            "  system_time_millis BIGINT\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS Transaction_Table(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  transaction_id BIGINT,\n" +
-                            "  date DATETIME,\n" +
-                            "  amount FLOAT,\n" +
-                            "  description TEXT,\n" +
-                            "  external_iban TEXT,\n" +
-                            "  type TEXT,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  PRIMARY KEY(user_id, transaction_id)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS Category_Table(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  category_id BIGINT,\n" +
-                            "  name TEXT,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  PRIMARY KEY(user_id, category_id)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS Transaction_Category(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  transaction_id BIGINT,\n" +
-                            "  category_id BIGINT,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  FOREIGN KEY(transaction_id) REFERENCES Transaction_Table(transaction_id),\n" +
-                            "  FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),\n" +
-                            "  PRIMARY KEY(user_id, transaction_id, category_id)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS CategoryRule_Table(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  category_rule_id BIGINT,\n" +
-                            "  description TEXT,\n" +
-                            "  iban TEXT,\n" +
-                            "  type TEXT,\n" +
-                            "  category_id BIGINT,\n" +
-                            "  apply_on_history BOOLEAN,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  FOREIGN KEY(category_id) REFERENCES Category_Table(category_id),\n" +
-                            "  PRIMARY KEY(user_id, category_rule_id)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS BalanceHistory_Table(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  time_stamp_millis BIGINT,\n" +
-                            "  open float ,\n" +
-                            "  close float ,\n" +
-                            "  volume float ,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  PRIMARY KEY(user_id, time_stamp_millis)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS SavingGoal_Table(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  saving_goal_id BIGINT,\n" +
-                            "  name TEXT,\n" +
-                            "  goal float,\n" +
-                            "  save_per_month float,\n" +
-                            "  min_balance_required float,\n" +
-                            "  balance float,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  PRIMARY KEY(user_id, saving_goal_id)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS PaymentRequest_Table(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  payment_request_id BIGINT,\n" +
-                            "  description TEXT,\n" +
-                            "  due_date TEXT ,\n" +
-                            "  amount float ,\n" +
-                            "  number_of_requests BIGINT ,\n" +
-                            "  filled BOOLEAN ,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  PRIMARY KEY(user_id, payment_request_id)\n" +
-                            ");"
-            );
-            statement.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS PaymentRequest_Transaction(\n" +
-                            "  user_id INTEGER,\n" +
-                            "  transaction_id BIGINT,\n" +
-                            "  payment_request_id BIGINT,\n" +
-                            "  FOREIGN KEY(user_id) REFERENCES User_Table(user_id),\n" +
-                            "  FOREIGN KEY(transaction_id) REFERENCES Transaction_Table(transaction_id),\n" +
-                            "  FOREIGN KEY(payment_request_id) REFERENCES PaymentRequest_Table(payment_request_id),\n" +
-                            "  PRIMARY KEY(user_id, payment_request_id, transaction_id)\n" +
-                            ");"
-            );
+            statement.executeUpdate(CREATE_USER_TABLE);
+            statement.executeUpdate(CREATE_TRANSACTION_TABLE);
+            statement.executeUpdate(CREATE_CATEGORY_TABLE);
+            statement.executeUpdate(CREATE_TRANSACTION_CATEGORY_TABLE);
+            statement.executeUpdate(CREATE_CATEGORY_RULE_TABLE);
+            statement.executeUpdate(CREATE_BALANCE_HISTORY_TABLE);
+            statement.executeUpdate(CREATE_SAVING_GOAL_TABLE);
+            statement.executeUpdate(CREATE_PAYMENT_REQUEST_TABLE);
+            statement.executeUpdate(CREATE_PAYMENT_REQUEST_TRANSACTION_TABLE);
+            statement.executeUpdate(CREATE_TRANSACTION_FTS_TABLE);
+            statement.executeUpdate(CREATE_CATEGORY_STATISTICS_TABLE);
             statement.close();
             connection.setAutoCommit(true);
+            return true;
         } catch (SQLException e) {
             System.err.println("Error creating tables");
+            return false;
+        }
+    }
+
+    /**
+     * Method used to create indexes in the database if they do not yet exist.
+     * Should be called after the tables have been created and migrated, since the indexes may cover columns that were
+     * added by a migration.
+     *
+     * @return true if all indexes exist, false otherwise.
+     */
+    private static boolean createIndexes() {
+        try {
+            Statement statement = connection.createStatement();
+            for (String createIndex : CREATE_INDEXES) {
+                statement.executeUpdate(createIndex);
+            }
+            statement.close();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error creating indexes");
+            return false;
         }
     }
 
     /**
-     * Method used to retrieve the connection to the database.
+     * Method used to bring a database created by an older version of the application up to date with SCHEMA_VERSION.
+     * Every migration is executed in its own database transaction, after which the schema version is increased.
+     */
+    private static void migrate() {
+        try {
+            int version = getSchemaVersion();
+            while (version < SCHEMA_VERSION) {
+                version++;
+                connection.setAutoCommit(false);
+                if (version == 1) {
+                    migrateToVersion1();
+                } else if (version == 2) {
+                    migrateToVersion2();
+                } else if (version == 3) {
+                    migrateToVersion3();
+                } else if (version == 4) {
+                    migrateToVersion4();
+                } else if (version == 5) {
+                    migrateToVersion5();
+                }
+                setSchemaVersion(version);
+                connection.commit();
+                connection.setAutoCommit(true);
+                System.out.println("Migrated database to schema version " + version);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.err.println("Error migrating database");
+            try {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            } catch (SQLException rollbackException) {
+                rollbackException.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Migration to schema version 1.
+     * Adds the due_date_millis and expired columns to PaymentRequest_Table and fills the due_date_millis column by
+     * parsing the stored due dates. Due dates that cannot be parsed never expire.
+     */
+    private static void migrateToVersion1() throws SQLException {
+        addColumnIfNotExists("PaymentRequest_Table", "due_date_millis", "BIGINT");
+        addColumnIfNotExists("PaymentRequest_Table", "expired", "BOOLEAN DEFAULT 0");
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+        dateFormat.setLenient(false);
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+                "SELECT user_id, payment_request_id, due_date\n" +
+                        "FROM PaymentRequest_Table\n" +
+                        "WHERE due_date_millis IS NULL;"
+        );
+        PreparedStatement update = connection.prepareStatement(
+                "UPDATE PaymentRequest_Table\n" +
+                        "SET due_date_millis = ?, expired = 0\n" +
+                        "WHERE user_id = ?\n" +
+                        "AND payment_request_id = ?;"
+        );
+        while (resultSet.next()) {
+            long dueDateMillis = Long.MAX_VALUE;
+            try {
+                dueDateMillis = dateFormat.parse(resultSet.getString(3).trim()).getTime();
+            } catch (ParseException | NullPointerException e) {
+                // Do nothing
+            }
+            update.setLong(1, dueDateMillis);
+            update.setInt(2, resultSet.getInt(1));
+            update.setLong(3, resultSet.getLong(2));
+            update.executeUpdate();
+        }
+        update.close();
+        statement.close();
+    }
+
+    /**
+     * Migration to schema version 2.
+     * Monetary amounts used to be stored as floating point numbers; they are now stored as INTEGER numbers of cents.
+     * Since SQLite cannot change the type of a column, the affected tables are rebuilt.
+     */
+    private static void migrateToVersion2() throws SQLException {
+        rebuildTable("Transaction_Table", CREATE_TRANSACTION_TABLE,
+                "user_id, transaction_id, date, amount, description, external_iban, type",
+                "user_id, transaction_id, date, CAST(ROUND(amount * 100) AS INTEGER), description, external_iban, type");
+        rebuildTable("BalanceHistory_Table", CREATE_BALANCE_HISTORY_TABLE,
+                "user_id, time_stamp_millis, open, close, volume",
+                "user_id, time_stamp_millis, CAST(ROUND(open * 100) AS INTEGER), " +
+                        "CAST(ROUND(close * 100) AS INTEGER), CAST(ROUND(volume * 100) AS INTEGER)");
+        rebuildTable("SavingGoal_Table", CREATE_SAVING_GOAL_TABLE,
+                "user_id, saving_goal_id, name, goal, save_per_month, min_balance_required, balance",
+                "user_id, saving_goal_id, name, CAST(ROUND(goal * 100) AS INTEGER), " +
+                        "CAST(ROUND(save_per_month * 100) AS INTEGER), " +
+                        "CAST(ROUND(min_balance_required * 100) AS INTEGER), CAST(ROUND(balance * 100) AS INTEGER)");
+        rebuildTable("PaymentRequest_Table", CREATE_PAYMENT_REQUEST_TABLE,
+                "user_id, payment_request_id, description, due_date, due_date_millis, amount, number_of_requests, " +
+                        "filled, expired",
+                "user_id, payment_request_id, description, due_date, due_date_millis, " +
+                        "CAST(ROUND(amount * 100) AS INTEGER), number_of_requests, filled, expired");
+    }
+
+    /**
+     * Migration to schema version 3.
+     * Adds the date_millis column to Transaction_Table and fills it by parsing the stored dates, so that transactions
+     * can be filtered and ordered on their date using an index. Dates that cannot be parsed are left NULL.
+     */
+    private static void migrateToVersion3() throws SQLException {
+        addColumnIfNotExists("Transaction_Table", "date_millis", "BIGINT");
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+        dateFormat.setLenient(false);
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+                "SELECT user_id, transaction_id, date\n" +
+                        "FROM Transaction_Table\n" +
+                        "WHERE date_millis IS NULL;"
+        );
+        PreparedStatement update = connection.prepareStatement(
+                "UPDATE Transaction_Table\n" +
+                        "SET date_millis = ?\n" +
+                        "WHERE user_id = ?\n" +
+                        "AND transaction_id = ?;"
+        );
+        while (resultSet.next()) {
+            try {
+                update.setLong(1, dateFormat.parse(resultSet.getString(3).trim()).getTime());
+            } catch (ParseException | NullPointerException e) {
+                continue;
+            }
+            update.setInt(2, resultSet.getInt(1));
+            update.setLong(3, resultSet.getLong(2));
+            update.executeUpdate();
+        }
+        update.close();
+        statement.close();
+    }
+
+    /**
+     * Migration to schema version 4.
+     * Fills the full-text index Transaction_FTS with the descriptions of the existing transactions.
+     */
+    private static void migrateToVersion4() throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("DELETE FROM Transaction_FTS;");
+        statement.executeUpdate(
+                "INSERT INTO Transaction_FTS (rowid, description)\n" +
+                        "SELECT (user_id << 32) | transaction_id, description\n" +
+                        "FROM Transaction_Table;"
+        );
+        statement.close();
+    }
+
+    /**
+     * Migration to schema version 5.
+     * Fills CategoryStatistics_Table with the monthly totals and counts of the existing categorized transactions.
+     */
+    private static void migrateToVersion5() throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("DELETE FROM CategoryStatistics_Table;");
+        statement.executeUpdate(
+                "INSERT INTO CategoryStatistics_Table (user_id, category_id, period, type, total, count)\n" +
+                        "SELECT tc.user_id, tc.category_id, strftime('%Y-%m', t.date_millis / 1000, 'unixepoch'), " +
+                        "t.type, SUM(t.amount), COUNT(*)\n" +
+                        "FROM Transaction_Table t, Transaction_Category tc\n" +
+                        "WHERE t.user_id = tc.user_id\n" +
+                        "AND t.transaction_id = tc.transaction_id\n" +
+                        "AND t.date_millis IS NOT NULL\n" +
+                        "GROUP BY tc.user_id, tc.category_id, strftime('%Y-%m', t.date_millis / 1000, 'unixepoch'), " +
+                        "t.type;"
+        );
+        statement.close();
+    }
+
+    /**
+     * Method used to rebuild a table according to its current definition, converting its rows in the process.
+     * Indexes on the table are dropped and should be recreated afterwards.
+     *
+     * @param table         The name of the table.
+     * @param createTable   The statement that creates the table.
+     * @param columns       The columns of the rebuilt table that are filled.
+     * @param selectColumns The expressions over the old table used to fill these columns.
+     */
+    private static void rebuildTable(String table, String createTable, String columns, String selectColumns)
+            throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate(createTable.replace(" " + table + "(", " " + table + "_New("));
+        statement.executeUpdate("INSERT INTO " + table + "_New (" + columns + ")\n" +
+                "SELECT " + selectColumns + "\n" +
+                "FROM " + table + ";");
+        statement.executeUpdate("DROP TABLE " + table + ";");
+        statement.executeUpdate("ALTER TABLE " + table + "_New RENAME TO " + table + ";");
+        statement.close();
+    }
+
+    /**
+     * Method used to add a column to a table if the table does not contain a column with that name yet.
+     *
+     * @param table      The name of the table.
+     * @param column     The name of the column.
+     * @param definition The type (and constraints) of the column.
+     */
+    private static void addColumnIfNotExists(String table, String column, String definition) throws SQLException {
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ");");
+        boolean exists = false;
+        while (resultSet.next()) {
+            if (resultSet.getString("name").equalsIgnoreCase(column)) {
+                exists = true;
+            }
+        }
+        if (!exists) {
+            statement.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition + ";");
+        }
+        statement.close();
+    }
+
+    /**
+     * Method used to check whether a table exists in the database.
+     *
+     * @param table The name of the table.
+     * @return true if the table exists, false otherwise.
+     */
+    private static boolean tableExists(String table) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                "SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?;");
+        statement.setString(1, table);
+        boolean exists = statement.executeQuery().next();
+        statement.close();
+        return exists;
+    }
+
+    /**
+     * Method used to retrieve the schema version of the database.
+     *
+     * @return The schema version stored in the database.
+     */
+    public static int getSchemaVersion() throws SQLException {
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("PRAGMA user_version;");
+        int version = resultSet.next() ? resultSet.getInt(1) : 0;
+        statement.close();
+        return version;
+    }
+
+    /**
+     * Method used to store the schema version of the database.
+     *
+     * @param version The new schema version.
+     */
+    private static void setSchemaVersion(int version) throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("PRAGMA user_version = " + version + ";");
+        statement.close();
+    }
+
+    /**
+     * Method used to check, using a single query, whether the schema of the database is up to date: both its schema
+     * version and its fingerprint should match those of the application.
+     *
+     * @return true if the schema of the database is up to date, false otherwise.
+     */
+    public static boolean hasCurrentSchema() throws SQLException {
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(GET_SCHEMA_STAMP);
+        boolean current = resultSet.next() && resultSet.getInt(1) == SCHEMA_VERSION
+                && resultSet.getInt(2) == SCHEMA_FINGERPRINT;
+        statement.close();
+        return current;
+    }
+
+    /**
+     * Method used to store the fingerprint of the schema of the database.
+     *
+     * @param fingerprint The fingerprint of the schema.
+     */
+    private static void setSchemaFingerprint(int fingerprint) throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate("PRAGMA application_id = " + fingerprint + ";");
+        statement.close();
+    }
+
+    /**
+     * Method used to compute the fingerprint of a schema.
+     *
+     * @param version     The version of the schema.
+     * @param definitions The statements defining the tables and indexes of the schema.
+     * @return The CRC-32 checksum of the version and the definitions.
+     */
+    private static int computeSchemaFingerprint(int version, String... definitions) {
+        CRC32 checksum = new CRC32();
+        checksum.update(Integer.toString(version).getBytes(StandardCharsets.UTF_8));
+        for (String definition : definitions) {
+            checksum.update(definition.getBytes(StandardCharsets.UTF_8));
+        }
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Method used to retrieve the filename of the database.
+     *
+     * @return The filename of the SQLite database that was connected to (null if setUp has not been called).
+     */
+    public static String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * Method used to retrieve the exception that made setting up the connection to the database fail.
+     *
+     * @return The exception thrown while setting up the connection (null if setting up did not fail).
+     */
+    public static Exception getSetUpFailure() {
+        return setUpFailure;
+    }
+
+    /**
+     * Method used to retrieve the connection to the database, waiting until it has been set up if that is still in
+     * progress in the background.
      *
      * @return The Connection to the database.
      */
     public static Connection getDatabaseConnection() {
+        if (!setUpCompletion.isDone()) {
+            long start = System.nanoTime();
+            setUpCompletion.join();
+            StartupTimer.record("database_wait", System.nanoTime() - start);
+        }
         return connection;
     }
 
+    /**
+     * Method used to check whether read-only connections to the database can be used next to the connection that
+     * writes data, which requires write-ahead logging.
+     *
+     * @return true if read-only connections can be used, false otherwise.
+     */
+    static boolean hasReadConnections() {
+        getDatabaseConnection();
+        return writeAheadLogging;
+    }
+
+    /**
+     * Method used to take a read-only connection to the database, which should be returned using returnReadConnection
+     * once it is no longer used. A new connection is opened if fewer than READ_CONNECTIONS connections are open;
+     * otherwise this method waits until another thread returns a connection.
+     *
+     * @return A read-only Connection to the database.
+     */
+    static Connection takeReadConnection() throws SQLException {
+        Connection readConnection = idleReadConnections.poll();
+        if (readConnection != null) {
+            return readConnection;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (openReadConnections < READ_CONNECTIONS) {
+                SQLiteConfig config = new SQLiteConfig();
+                config.setReadOnly(true);
+                config.setBusyTimeout(Integer.toString(BUSY_TIMEOUT_MILLIS));
+                readConnection = DriverManager.getConnection("jdbc:sqlite:" + databaseName, config.toProperties());
+                openReadConnections++;
+                return readConnection;
+            }
+        }
+        try {
+            return idleReadConnections.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read-only connection", e);
+        }
+    }
+
+    /**
+     * Method used to return a read-only connection taken using takeReadConnection, so that other threads can use it.
+     *
+     * @param readConnection The read-only Connection to the database.
+     */
+    static void returnReadConnection(Connection readConnection) {
+        idleReadConnections.add(readConnection);
+    }
+
+    /**
+     * Method used to close the read-only connections to the database that are not in use.
+     */
+    private static synchronized void closeReadConnections() {
+        Connection readConnection;
+        while ((readConnection = idleReadConnections.poll()) != null) {
+            try {
+                readConnection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        openReadConnections = 0;
+    }
+
+    /**
+     * Method used to close the connection to the database and the read-only connections to it.
+     */
+    public static void close() {
+        closeReadConnections();
+        try {
+            getDatabaseConnection().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
 }
@@ -0,0 +1,205 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.analytics.CounterpartySketches;
+import nl.utwente.ing.model.bean.StorageStatistics;
+import nl.utwente.ing.model.event.AccountEventBus;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The DatabaseHealth class.
+ * Consists of methods that check whether the connection to the database set up by DatabaseConnection can be used, and
+ * that report the size of the database, so that an orchestrator can tell when the application is ready to serve
+ * requests and monitoring can alert on the growth of the storage.
+ * Counting the rows of a table visits the whole table and holds up writers meanwhile, so by default the number of
+ * rows of a table is estimated by its highest rowid, which SQLite finds without visiting the table. The estimate is
+ * exact for tables from which no rows were deleted, and too high otherwise. Exact counts are only computed on request,
+ * and at most once per ROW_COUNT_MAX_AGE_MILLIS. All other statistics are read from the database header and are cheap.
+ *
+ * @author Daan Kooij
+ */
+public class DatabaseHealth {
+
+    private static final long ROW_COUNT_MAX_AGE_MILLIS = 60000;
+
+    private static final String[] TABLES = {
+            "User_Table", "Transaction_Table", "Category_Table", "Transaction_Category", "CategoryRule_Table",
+            "BalanceHistory_Table", "SavingGoal_Table", "PaymentRequest_Table", "PaymentRequest_Transaction",
+            "CategoryStatistics_Table"
+    };
+
+    private static RowCounts exactRowCounts;
+
+    /**
+     * Method used to check whether the application is alive, meaning that it holds an open connection to the
+     * database or is still setting it up. An application that is not alive will not recover by itself and should be
+     * restarted.
+     *
+     * @return true if the connection to the database is open or being set up, false otherwise.
+     */
+    public static boolean isAlive() {
+        if (!DatabaseConnection.isSetUpComplete()) {
+            return true;
+        }
+        Connection connection = DatabaseConnection.getDatabaseConnection();
+        try {
+            return connection != null && !connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Method used to check whether the application is ready to serve requests: the connection to the database has
+     * been set up, it can execute queries, and the schema version and fingerprint of the database match those of the
+     * application.
+     *
+     * @return The reasons why the application is not ready (empty if it is ready).
+     */
+    public static List<String> getReadinessProblems() {
+        List<String> problems = new ArrayList<>();
+        if (!DatabaseConnection.isSetUpComplete()) {
+            problems.add("The database connection is still being set up");
+            return problems;
+        }
+        Exception setUpFailure = DatabaseConnection.getSetUpFailure();
+        if (setUpFailure != null) {
+            problems.add("Setting up the database connection failed: " + setUpFailure);
+        }
+        if (!isAlive()) {
+            problems.add("The database connection is not open");
+            return problems;
+        }
+        try {
+            Statement statement = DatabaseConnection.getDatabaseConnection().createStatement();
+            statement.executeQuery("SELECT user_id FROM User_Table LIMIT 1;").close();
+            statement.close();
+            if (!DatabaseConnection.hasCurrentSchema()) {
+                int schemaVersion = DatabaseConnection.getSchemaVersion();
+                problems.add(schemaVersion != DatabaseConnection.SCHEMA_VERSION
+                        ? "The database schema is at version " + schemaVersion + " instead of " +
+                        DatabaseConnection.SCHEMA_VERSION
+                        : "The database schema does not match the fingerprint of the schema of the application");
+            }
+        } catch (SQLException e) {
+            problems.add("The database cannot be queried: " + e.getMessage());
+        }
+        return problems;
+    }
+
+    /**
+     * Method used to retrieve the size of the database, the number of rows of its tables and the sizes of the caches
+     * kept in memory.
+     *
+     * @param exact Whether the rows of the tables should be counted exactly, instead of being estimated.
+     * @return The StorageStatistics of the application, or null if the database cannot be queried (yet).
+     */
+    public static StorageStatistics getStorageStatistics(boolean exact) {
+        if (!DatabaseConnection.isSetUpComplete() || !isAlive()) {
+            return null;
+        }
+        try {
+            String databaseName = DatabaseConnection.getDatabaseName();
+            RowCounts counts = exact ? getExactRowCounts() : getEstimatedRowCounts();
+            Map<String, Integer> cacheEntries = new LinkedHashMap<>();
+            cacheEntries.put("userVersions", UserVersions.getUserCount());
+            cacheEntries.put("counterpartySketches", CounterpartySketches.getUserSketchCount());
+            cacheEntries.put("eventSubscriptions", AccountEventBus.getSubscriptionCount());
+            return new StorageStatistics(new File(databaseName).length(), new File(databaseName + "-wal").length(),
+                    getPragma("journal_mode"), Long.parseLong(getPragma("page_size")),
+                    Long.parseLong(getPragma("page_count")), Long.parseLong(getPragma("freelist_count")),
+                    Long.parseLong(getPragma("cache_size")), counts.counts, exact,
+                    System.currentTimeMillis() - counts.millis, cacheEntries);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Method used to estimate the number of rows per table by the highest rowid of every table.
+     *
+     * @return The estimated number of rows per table.
+     */
+    private static RowCounts getEstimatedRowCounts() throws SQLException {
+        return queryRowCounts("SELECT IFNULL(MAX(rowid), 0) FROM %s;");
+    }
+
+    /**
+     * Method used to retrieve the exact number of rows per table, counting them again if they were counted more than
+     * ROW_COUNT_MAX_AGE_MILLIS ago.
+     *
+     * @return The number of rows per table.
+     */
+    private static synchronized RowCounts getExactRowCounts() throws SQLException {
+        if (exactRowCounts == null || System.currentTimeMillis() - exactRowCounts.millis > ROW_COUNT_MAX_AGE_MILLIS) {
+            exactRowCounts = queryRowCounts("SELECT COUNT(*) FROM %s;");
+        }
+        return exactRowCounts;
+    }
+
+    /**
+     * Method used to execute a query returning a number of rows for every table.
+     *
+     * @param query The query, in which %s is replaced by the name of the table.
+     * @return The number of rows per table, as determined by the query.
+     */
+    private static RowCounts queryRowCounts(String query) throws SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        Statement statement = DatabaseConnection.getDatabaseConnection().createStatement();
+        for (String table : TABLES) {
+            ResultSet resultSet = statement.executeQuery(String.format(query, table));
+            counts.put(table, resultSet.next() ? resultSet.getLong(1) : 0);
+            resultSet.close();
+        }
+        statement.close();
+        return new RowCounts(Collections.unmodifiableMap(counts), System.currentTimeMillis());
+    }
+
+    /**
+     * Method used to retrieve the value of a pragma of the database.
+     *
+     * @param pragma The name of the pragma.
+     * @return The value of the pragma.
+     */
+    private static String getPragma(String pragma) throws SQLException {
+        Statement statement = DatabaseConnection.getDatabaseConnection().createStatement();
+        ResultSet resultSet = statement.executeQuery("PRAGMA " + pragma + ";");
+        String value = resultSet.next() ? resultSet.getString(1) : null;
+        statement.close();
+        return value;
+    }
+
+    /**
+     * The DatabaseHealth.RowCounts class.
+     * Used to store the number of rows per table together with the time at which they were determined, so that both
+     * are always read from the same computation.
+     */
+    private static final class RowCounts {
+
+        private final Map<String, Long> counts;
+        private final long millis;
+
+        /**
+         * The constructor of RowCounts.
+         *
+         * @param counts The number of rows per table.
+         * @param millis The time in milliseconds since the epoch at which the rows were counted.
+         */
+        private RowCounts(Map<String, Long> counts, long millis) {
+            this.counts = counts;
+            this.millis = millis;
+        }
+
+    }
+
+}
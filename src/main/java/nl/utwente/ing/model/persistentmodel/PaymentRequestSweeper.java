@@ -0,0 +1,80 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.storage.StorageEngine;
+import nl.utwente.ing.model.storage.StorageEngines;
+import nl.utwente.ing.model.storage.StorageTransaction;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PaymentRequestSweeper class.
+ * Periodically marks payment requests whose due date has passed as expired, so that the set of open payment requests
+ * that every deposit is matched against stays small.
+ * Expired payment requests are marked in batches, each in a transaction of its own, so that a large backlog never keeps
+ * the operations of users waiting for long. The version of every user of which payment requests expired is increased
+ * once the batch has been committed, since the payment requests retrieved by the user earlier are outdated by then.
+ *
+ * @author Daan Kooij
+ */
+public class PaymentRequestSweeper implements Runnable {
+
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+    private static final int BATCH_SIZE = 500;
+
+    private static ScheduledExecutorService scheduler;
+
+    private StorageEngine storageEngine;
+
+    /**
+     * The constructor of PaymentRequestSweeper.
+     *
+     * @param storageEngine The StorageEngine of which the payment requests are expired.
+     */
+    public PaymentRequestSweeper(StorageEngine storageEngine) {
+        this.storageEngine = storageEngine;
+    }
+
+    /**
+     * Method used to start sweeping expired payment requests periodically on a background thread.
+     * Should be called after the database connection has been set up. Calling this method more than once has no effect.
+     */
+    public static synchronized void start() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "payment-request-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            PaymentRequestSweeper sweeper = new PaymentRequestSweeper(StorageEngines.getStorageEngine());
+            scheduler.scheduleWithFixedDelay(sweeper, 0, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Method used to mark all payment requests that have expired since the previous sweep, one batch at a time.
+     */
+    @Override
+    public void run() {
+        try {
+            int expired;
+            do {
+                try (StorageTransaction storageTransaction = storageEngine.beginTransaction()) {
+                    ArrayList<Integer> userIDs = storageEngine.getPaymentRequestStore().expirePaymentRequests(BATCH_SIZE);
+                    for (int userID : new HashSet<>(userIDs)) {
+                        storageTransaction.afterCommit(() -> UserVersions.increment(userID));
+                    }
+                    storageTransaction.commit();
+                    expired = userIDs.size();
+                }
+            } while (expired == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // Prevent the scheduler from cancelling future sweeps
+            e.printStackTrace();
+        }
+    }
+
+}
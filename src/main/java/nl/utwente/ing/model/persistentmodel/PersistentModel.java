@@ -2,67 +2,196 @@ package nl.utwente.ing.model.persistentmodel;
 
 import nl.utwente.ing.exception.InvalidSessionIDException;
 import nl.utwente.ing.exception.ResourceNotFoundException;
+import nl.utwente.ing.metrics.ModelEventHandle;
+import nl.utwente.ing.metrics.ModelEvents;
+import nl.utwente.ing.metrics.RuleMatchEventHandle;
+import nl.utwente.ing.metrics.SpanTimer;
+import nl.utwente.ing.model.DateCodec;
 import nl.utwente.ing.model.Model;
+import nl.utwente.ing.model.analytics.CounterpartySketches;
+import nl.utwente.ing.model.analytics.IntervalCalendar;
+import nl.utwente.ing.model.analytics.SpaceSavingSketch;
 import nl.utwente.ing.model.bean.*;
+import nl.utwente.ing.model.event.AccountEvent;
+import nl.utwente.ing.model.event.AccountEventBus;
+import nl.utwente.ing.model.event.EventSubscription;
+import nl.utwente.ing.model.storage.*;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The PersistentModel class, an implementation of the Model interface.
  * Implements the methods specified in the Model interface using persistent storage methods, meaning that the data
- * stored using the persistent model will exist over multiple executions of the application.
+ * stored using the persistent model will exist over multiple executions of the application (if the StorageEngine it
+ * uses is persistent).
  *
  * @author Daan Kooij
  */
 public class PersistentModel implements Model {
 
-    private Connection connection;
-    private CustomORM customORM;
+    private TransactionStore transactionStore;
+    private CategoryStore categoryStore;
+    private CategoryRuleStore categoryRuleStore;
+    private BalanceHistoryStore balanceHistoryStore;
+    private UserStore userStore;
+    private SavingGoalStore savingGoalStore;
+    private PaymentRequestStore paymentRequestStore;
+    private StorageEngine storageEngine;
+    private Map<String, Integer> sessionUserIDs = new ConcurrentHashMap<>();
 
     /**
      * The constructor of PersistentModel.
-     * Retrieves the database connection from the DatabaseConnection class and initializes a CustomORM object.
+     * Stores the data in the StorageEngine selected using the ing.storage system property.
      */
     public PersistentModel() {
-        this.connection = DatabaseConnection.getDatabaseConnection();
-        this.customORM = new CustomORM(connection);
+        this(StorageEngines.getStorageEngine());
     }
 
     /**
-     * Method used to retrieve the transactions belonging to a certain user.
+     * The constructor of PersistentModel.
+     * Retrieves the stores in which the data is kept from a certain StorageEngine.
      *
-     * @param sessionID    The sessionID of the user.
-     * @param categoryName The category to be filtered on (empty String if no filter).
-     * @param limit        The maximum amount of transactions to be fetched.
-     * @param offset       The starting index to fetch transactions.
+     * @param storageEngine The StorageEngine in which the data is stored.
+     */
+    public PersistentModel(StorageEngine storageEngine) {
+        this.storageEngine = storageEngine;
+        this.transactionStore = storageEngine.getTransactionStore();
+        this.categoryStore = storageEngine.getCategoryStore();
+        this.categoryRuleStore = storageEngine.getCategoryRuleStore();
+        this.balanceHistoryStore = storageEngine.getBalanceHistoryStore();
+        this.userStore = storageEngine.getUserStore();
+        this.savingGoalStore = storageEngine.getSavingGoalStore();
+        this.paymentRequestStore = storageEngine.getPaymentRequestStore();
+    }
+
+    /**
+     * Method used to retrieve the transactions belonging to a certain user, together with their Category.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param filter    The criteria the transactions should match.
+     * @param limit     The maximum amount of transactions to be fetched.
+     * @param offset    The starting index to fetch transactions.
      * @return An ArrayList of Transaction belonging to the user with sessionID.
      */
-    public ArrayList<Transaction> getTransactions(String sessionID, String categoryName, int limit, int offset)
+    public ArrayList<Transaction> getTransactions(String sessionID, TransactionFilter filter, int limit, int offset)
+            throws InvalidSessionIDException {
+        int userID = this.getUserID(sessionID);
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            return transactionStore.getTransactions(userID, filter, limit, offset);
+        }
+    }
+
+    /**
+     * Method used to search the transactions belonging to a certain user by their description.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param query     The words to search for.
+     * @param limit     The maximum amount of transactions to be fetched.
+     * @param offset    The starting index to fetch transactions.
+     * @return An ArrayList of Transaction belonging to the user with sessionID, the most relevant first.
+     */
+    public ArrayList<Transaction> searchTransactions(String sessionID, String query, int limit, int offset)
+            throws InvalidSessionIDException {
+        int userID = this.getUserID(sessionID);
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            return transactionStore.searchTransactions(userID, query, limit, offset);
+        }
+    }
+
+    /**
+     * Method used to retrieve the external IBANs with the highest total transaction amount, either of a certain user or
+     * of all users together. The IBANs of the counterparties of all users together are masked, so that the
+     * counterparties of other users are not disclosed.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param global    Whether the counterparties of all users together should be retrieved.
+     * @param exact     Whether the volumes should be computed exactly over all transactions, instead of being
+     *                  estimated using a sketch.
+     * @param limit     The maximum amount of counterparties to be retrieved.
+     * @return An ArrayList of Counterparty, the highest volume first.
+     */
+    public ArrayList<Counterparty> getTopCounterparties(String sessionID, boolean global, boolean exact, int limit)
             throws InvalidSessionIDException {
         int userID = this.getUserID(sessionID);
-        ArrayList<Transaction> transactions;
-        if (categoryName.equals("")) {
-            transactions = customORM.getTransactions(userID, limit, offset);
+        List<Counterparty> counterparties;
+        if (exact) {
+            try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+                counterparties = global ? transactionStore.getGlobalTopCounterparties(limit)
+                        : transactionStore.getTopCounterparties(userID, limit);
+            }
         } else {
-            transactions = customORM.getTransactionsByCategory(userID, categoryName, limit, offset);
+            SpaceSavingSketch sketch = global ? CounterpartySketches.getGlobalSketch()
+                    : CounterpartySketches.getUserSketch(userID);
+            if (sketch == null) {
+                sketch = seedCounterpartySketch(userID, global);
+            }
+            counterparties = CounterpartySketches.getTop(sketch, limit);
         }
-        for (Transaction transaction : transactions) {
-            this.populateCategory(userID, transaction);
+        ArrayList<Counterparty> result = new ArrayList<>();
+        for (Counterparty counterparty : counterparties) {
+            result.add(global ? new Counterparty(maskIBAN(counterparty.getExternalIBAN()), counterparty.getVolume(),
+                    counterparty.getError()) : counterparty);
         }
-        return transactions;
+        return result;
+    }
+
+    /**
+     * Method used to seed the sketch of the counterparties of a certain user, or of all users together.
+     * The counterparties are retrieved in a transaction that writes data, even though nothing is written, so that no
+     * transaction is committed between retrieving them and seeding the sketch: the amounts of such a transaction would
+     * be missing from the sketch, since they are only added to sketches that have been seeded already.
+     *
+     * @param userID The ID of the user.
+     * @param global Whether the sketch of all users together should be seeded.
+     * @return The seeded sketch.
+     */
+    private SpaceSavingSketch seedCounterpartySketch(int userID, boolean global) {
+        try (StorageTransaction storageTransaction = storageEngine.beginTransaction()) {
+            // The sketch may have been seeded by another thread while waiting for the transaction
+            SpaceSavingSketch sketch = global ? CounterpartySketches.getGlobalSketch()
+                    : CounterpartySketches.getUserSketch(userID);
+            if (sketch == null) {
+                sketch = global ? CounterpartySketches.seedGlobalSketch(
+                        transactionStore.getGlobalTopCounterparties(CounterpartySketches.GLOBAL_SKETCH_CAPACITY))
+                        : CounterpartySketches.seedUserSketch(userID,
+                        transactionStore.getTopCounterparties(userID, CounterpartySketches.USER_SKETCH_CAPACITY));
+            }
+            storageTransaction.commit();
+            return sketch;
+        }
+    }
+
+    /**
+     * Method used to mask an IBAN, keeping only its country code, its check digits and its last four characters.
+     * Values too short to be an IBAN are masked completely.
+     *
+     * @param iban The IBAN.
+     * @return The masked IBAN.
+     */
+    private static String maskIBAN(String iban) {
+        if (iban == null) {
+            return null;
+        }
+        int kept = iban.length() > 8 ? 4 : 0;
+        StringBuilder masked = new StringBuilder(iban.substring(0, kept));
+        for (int i = kept; i < iban.length() - kept; i++) {
+            masked.append('*');
+        }
+        return masked.append(iban.substring(iban.length() - kept)).toString();
     }
 
     /**
      * Method used to create a new Transaction for a certain user.
+     * The time spent in every step (like the saving goal catch-up and the category rule matching) is recorded by a
+     * SpanTimer.
      *
      * @param sessionID    The sessionID of the user.
      * @param date         The date of the to be created Transaction.
-     * @param amount       The amount of the to be created Transaction.
+     * @param dateMillis   The date in milliseconds of the to be created Transaction.
+     * @param amount       The amount in cents of the to be created Transaction.
      * @param description  The description of the to be created Transaction.
      * @param externalIBAN The external IBAN of the to be created Transaction.
      * @param type         The type of the to be created Transaction.
@@ -70,160 +199,163 @@ public class PersistentModel implements Model {
      *                     (0 if no Category).
      * @return The Transaction created by this method.
      */
-    public Transaction postTransaction(String sessionID, String date, float amount, String description, String externalIBAN, String type,
-                                       long categoryID)
+    public Transaction postTransaction(String sessionID, String date, long dateMillis, long amount, String description,
+                                       String externalIBAN, String type, long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException {
 
+        SpanTimer timer = SpanTimer.start("postTransaction");
         int userID = this.getUserID(sessionID);
-        Transaction transaction = null;
-
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-        dateFormat.setLenient(false);
-        long transactionTimestampMillis = -1;
-        try {
-            transactionTimestampMillis = dateFormat.parse(date.trim()).getTime();
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        long previousTimeMillis = customORM.getCurrentTimeMillis(userID);
-        if (previousTimeMillis < transactionTimestampMillis) {
-            updateSavingGoals(userID, transactionTimestampMillis, previousTimeMillis, externalIBAN);
-        }
-
-        try {
-            connection.setAutoCommit(false);
-            customORM.increaseHighestTransactionID(userID);
-            long transactionID = customORM.getHighestTransactionID(userID);
-            connection.commit();
-            connection.setAutoCommit(true);
-            customORM.createTransaction(userID, transactionID, date, amount, description, externalIBAN, type);
-            transaction = customORM.getTransaction(userID, transactionID);
+        timer.lap("session");
+        ModelEventHandle event = ModelEvents.beginOperation("postTransaction", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            timer.lap("lock_wait");
+            Transaction transaction = null;
+            if (categoryID > 0 && categoryStore.getCategory(userID, categoryID) == null) {
+                throw new ResourceNotFoundException();
+            }
+
+            long transactionTimestampMillis = dateMillis;
+            long previousTimeMillis = userStore.getCurrentTimeMillis(userID);
+            if (previousTimeMillis < transactionTimestampMillis) {
+                updateSavingGoals(storageTransaction, userID, transactionTimestampMillis, previousTimeMillis,
+                        externalIBAN);
+            }
+            timer.lap("saving_goals");
+
+            long transactionID = transactionStore.allocateTransactionID(userID);
+            transactionStore.createTransaction(userID, transactionID, date, transactionTimestampMillis, amount, description,
+                    externalIBAN, type);
+            storageTransaction.afterCommit(() -> CounterpartySketches.record(userID, externalIBAN, amount));
+            storageTransaction.afterCommit(() ->
+                    AccountEventBus.publish(userID, AccountEvent.TRANSACTION_CREATED, transactionID));
+            transaction = transactionStore.getTransaction(userID, transactionID);
+            timer.lap("insert");
             if (categoryID > 0) {
                 this.assignCategoryToTransaction(sessionID, transactionID, categoryID);
             } else {
-                ArrayList<CategoryRule> categoryRules = customORM.getCategoryRules(userID);
+                RuleMatchEventHandle ruleMatchEvent = ModelEvents.beginRuleMatch("postTransaction", userID);
+                ArrayList<CategoryRule> categoryRules = categoryRuleStore.getCategoryRules(userID);
+                int rulesMatched = 0;
+                int matches = 0;
                 if (categoryRules.size() > 0) {
                     categoryRules.sort(Comparator.comparing(CategoryRule::getCategory_id));
                     for (int i = 0; i < categoryRules.size(); i++) {
+                        rulesMatched++;
                         if (transactionMatchesCategoryRule(transaction, categoryRules.get(i))) {
                             assignCategoryToTransaction(sessionID, transactionID, categoryRules.get(i).getCategory_id());
+                            matches++;
                             break;
                         }
                     }
                 }
+                ruleMatchEvent.finish(rulesMatched, 1, matches);
             }
+            timer.lap("category_rules");
 
             if (previousTimeMillis < transactionTimestampMillis && type.equals("deposit")) {
-                updatePaymentRequests(userID, amount, transactionID);
+                updatePaymentRequests(storageTransaction, userID, amount, transactionID, transactionTimestampMillis);
 
             }
+            timer.lap("payment_requests");
 
-            setBalanceHistoryPoint(transactionTimestampMillis, amount, type, userID);
+            setBalanceHistoryPoint(storageTransaction, transactionTimestampMillis, amount, type, userID);
+            timer.lap("balance_history");
             this.populateCategory(userID, transaction);
+            timer.lap("populate_category");
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+            storageTransaction.commit();
+            return transaction;
+        } finally {
+            event.finish();
         }
-        return transaction;
     }
 
     /**
      * Method used to update the payment requests when a transaction comes in.
      *
-     * @param user_id       The ID of the user.
-     * @param amount        The amount of the transaction.
-     * @param transactionID The ID of the transaction.
-     */
-    private void updatePaymentRequests(int user_id, float amount, long transactionID) {
-        ArrayList<PaymentRequest> paymentRequests = customORM.getOpenPaymentRequests(user_id);
-        for (PaymentRequest p : paymentRequests) {
-            if (p.getAmount() == amount) {
-                customORM.linkTransactionToPaymentRequest(user_id, transactionID, p.getId());
-                if (customORM.paymentRequestIsFilled(user_id, p.getId())) {
-                    customORM.updatePaymentRequestFilled(user_id, p.getId(), true);
-                }
-                break;
+     * Only payment requests that have not expired at the time of the transaction are considered.
+     *
+     * @param storageTransaction         The StorageTransaction in which the transaction is created.
+     * @param user_id                    The ID of the user.
+     * @param amount                     The amount in cents of the transaction.
+     * @param transactionID              The ID of the transaction.
+     * @param transactionTimestampMillis The timestamp in milliseconds of the transaction.
+     */
+    private void updatePaymentRequests(StorageTransaction storageTransaction, int user_id, long amount,
+                                       long transactionID, long transactionTimestampMillis) {
+        PaymentRequest p = paymentRequestStore.getOpenPaymentRequest(user_id, amount, transactionTimestampMillis);
+        if (p != null) {
+            paymentRequestStore.linkTransactionToPaymentRequest(user_id, transactionID, p.getId());
+            if (paymentRequestStore.paymentRequestIsFilled(user_id, p.getId())) {
+                paymentRequestStore.updatePaymentRequestFilled(user_id, p.getId(), true);
+                storageTransaction.afterCommit(() ->
+                        AccountEventBus.publish(user_id, AccountEvent.PAYMENT_REQUEST_FILLED, p.getId()));
             }
         }
     }
 
     /**
-     * Method for determining if the first of the month has passed between the current to be created transaction and
+     * Method for determining if the first of the month (at midnight in UTC) has passed between the current to be created
+     * transaction and
      * the current stored system time in the database. If the first has passed, all the savinggoals will be checked if
      * they should create a transaction to save money on their balance.
      *
+     * @param storageTransaction The StorageTransaction in which the transaction is created.
      * @param userID
      * @param currentTimestampMillis
      * @param previousTimeMillis
      * @param externalIBAN
      */
-    private void updateSavingGoals(int userID, long currentTimestampMillis, long previousTimeMillis, String externalIBAN) {
-        customORM.setCurrentTimeMillis(userID, currentTimestampMillis);
-
-        Calendar currentCal = new GregorianCalendar();
-        currentCal.setTimeInMillis(currentTimestampMillis);
+    private void updateSavingGoals(StorageTransaction storageTransaction, int userID, long currentTimestampMillis,
+                                   long previousTimeMillis, String externalIBAN) {
+        userStore.setCurrentTimeMillis(userID, currentTimestampMillis);
 
-        Calendar previousCal = new GregorianCalendar();
-        previousCal.setTimeInMillis(previousTimeMillis);
-
-        int monthsDiff = currentCal.get(Calendar.MONTH) - previousCal.get(Calendar.MONTH);
-        int yearsInBetween = currentCal.get(Calendar.YEAR) - previousCal.get(Calendar.YEAR);
-        monthsDiff += yearsInBetween * 12;
+        long monthsDiff = DateCodec.monthsBetween(previousTimeMillis, currentTimestampMillis);
 
         // Assuming the SQL statement sorted it by saving_goal_id ASC (so in order of creation)
-        ArrayList<SavingGoal> savingGoals = customORM.getSavingGoals(userID);
-
-        if (monthsDiff > 0 && savingGoals.size() > 0 && customORM.getTransactions(userID, 1, 0).size() > 0) {
-            previousCal.set(Calendar.MILLISECOND, 0);
-            previousCal.set(Calendar.SECOND, 0);
-            previousCal.set(Calendar.MINUTE, 0);
-            previousCal.set(Calendar.HOUR, 0);
-            previousCal.set(Calendar.DAY_OF_MONTH, 0);
-            previousCal.add(Calendar.MONTH, 1);
+        ArrayList<SavingGoal> savingGoals = savingGoalStore.getSavingGoals(userID);
 
-            for (int i = 0; i < monthsDiff; i++) {
+        if (monthsDiff > 0 && savingGoals.size() > 0 && transactionStore.getTransactions(userID, 1, 0).size() > 0) {
+            for (long i = 1; i <= monthsDiff; i++) {
+                // Saving transactions are made at midnight in UTC on the first of every month that has passed
+                long savingGoalTransactionTimeMillis = DateCodec.toStartOfMonthMillis(previousTimeMillis, i);
                 for (SavingGoal s : savingGoals) {
-                    float previousClose = customORM.getPreviousBalanceHistoryPointClose(userID, currentTimestampMillis);
+                    long previousClose = balanceHistoryStore.getPreviousBalanceHistoryPointClose(userID, currentTimestampMillis);
                     if (s.getBalance() < s.getGoal() && previousClose > s.getMinBalanceRequired()) {
-                        try {
-                            connection.setAutoCommit(false);
-                            customORM.increaseHighestTransactionID(userID);
-                            long transactionID = customORM.getHighestTransactionID(userID);
-                            connection.commit();
-                            connection.setAutoCommit(true);
-
-                            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-                            String date = null;
-                            boolean noDateFound = true;
-                            long savingGoalTransactionTimeStamp = -1;
-
-                            while (noDateFound) {
-                                long savingGoalTransactionTimeMillis = previousCal.getTimeInMillis();
-                                if (!customORM.balanceHistoryPointExists(userID, savingGoalTransactionTimeMillis)) {
-                                    date = dateFormat.format(previousCal.getTime());
-                                    savingGoalTransactionTimeStamp = savingGoalTransactionTimeMillis;
-                                    noDateFound = false;
-                                }
-                                previousCal.add(Calendar.MILLISECOND, 1);
-                            }
-
-                            float amount = s.getSavePerMonth();
-                            String description = "Saving money for goal: " + s.getName();
-                            String type = "withdrawal";
+                        long transactionID = transactionStore.allocateTransactionID(userID);
 
-                            customORM.createTransaction(userID, transactionID, date, amount, description, externalIBAN, type);
-                            setBalanceHistoryPoint(savingGoalTransactionTimeStamp, amount, type, userID);
+                        String date = null;
+                        boolean noDateFound = true;
+                        long savingGoalTransactionTimeStamp = -1;
 
-                            float newBalance = s.getBalance() + amount;
-                            s.setBalance(newBalance);
-                            customORM.updateSavingGoalBalance(userID, s.getId(), newBalance);
-                        } catch (SQLException e) {
-                            e.printStackTrace();
+                        while (noDateFound) {
+                            if (!balanceHistoryStore.balanceHistoryPointExists(userID, savingGoalTransactionTimeMillis)) {
+                                date = DateCodec.toDate(savingGoalTransactionTimeMillis);
+                                savingGoalTransactionTimeStamp = savingGoalTransactionTimeMillis;
+                                noDateFound = false;
+                            }
+                            savingGoalTransactionTimeMillis++;
                         }
+
+                        long amount = s.getSavePerMonth();
+                        String description = "Saving money for goal: " + s.getName();
+                        String type = "withdrawal";
+
+                        transactionStore.createTransaction(userID, transactionID, date, savingGoalTransactionTimeStamp,
+                                amount, description, externalIBAN, type);
+                        storageTransaction.afterCommit(() -> CounterpartySketches.record(userID, externalIBAN, amount));
+                        storageTransaction.afterCommit(() ->
+                                AccountEventBus.publish(userID, AccountEvent.TRANSACTION_CREATED, transactionID));
+                        setBalanceHistoryPoint(storageTransaction, savingGoalTransactionTimeStamp, amount, type,
+                                userID);
+
+                        long newBalance = s.getBalance() + amount;
+                        s.setBalance(newBalance);
+                        savingGoalStore.updateSavingGoalBalance(userID, s.getId(), newBalance);
+                        storageTransaction.afterCommit(() ->
+                                AccountEventBus.publish(userID, AccountEvent.SAVING_GOAL_ADVANCED, s.getId()));
                     }
                 }
-                previousCal.set(Calendar.MILLISECOND, 0);
-                previousCal.add(Calendar.MONTH, 1);
             }
         }
     }
@@ -232,40 +364,42 @@ public class PersistentModel implements Model {
     /**
      * Method used to create a balance history point in the database.
      *
-     * @param timestampMillis The timestamp in milliseconds of the transaction.
-     * @param amount          The amount of the transaction.
-     * @param type            The type of the transaction (deposit or withdrawal).
-     * @param userID          The ID of the specified user.
+     * @param storageTransaction The StorageTransaction in which the transaction is created.
+     * @param timestampMillis    The timestamp in milliseconds of the transaction.
+     * @param amount             The amount in cents of the transaction.
+     * @param type               The type of the transaction (deposit or withdrawal).
+     * @param userID             The ID of the specified user.
      */
-    private void setBalanceHistoryPoint(long timestampMillis, float amount, String type, int userID) {
-        float volume = amount;
+    private void setBalanceHistoryPoint(StorageTransaction storageTransaction, long timestampMillis, long amount,
+                                        String type, int userID) {
+        long volume = amount;
         if (type.equals("withdrawal")) {
             amount = -amount;
         }
-        float open = customORM.getPreviousBalanceHistoryPointClose(userID, timestampMillis);
-        float close = open + amount;
+        long open = balanceHistoryStore.getPreviousBalanceHistoryPointClose(userID, timestampMillis);
+        long close = open + amount;
         BalanceHistoryPoint b = new BalanceHistoryPoint(open, close, volume, timestampMillis);
-        customORM.createBalanceHistoryPoint(userID, b);
-        fixFutureBalanceHistoryPoints(userID, timestampMillis, amount);
+        balanceHistoryStore.createBalanceHistoryPoint(userID, b);
+        fixFutureBalanceHistoryPoints(storageTransaction, userID, timestampMillis, amount);
     }
 
     /**
      * Method used to update all balance history points that are already in the database, but record history after the
      * currently added balance history point.
+     * Since amounts are stored in cents, all these points are shifted exactly using a single update, which is recorded
+     * as a BalanceRewriteEvent.
      *
-     * @param userID          The ID of the specified user.
-     * @param timestampMillis The time stamp in milliseconds of the current transaction.
-     * @param amount          The amount of the current transaction.
-     */
-    private void fixFutureBalanceHistoryPoints(int userID, long timestampMillis, float amount) {
-        ArrayList<BalanceHistoryPoint> futureBalanceHistoryPoints = customORM.getFutureBalanceHistoryPoints(userID, timestampMillis);
-        if (futureBalanceHistoryPoints.size() > 0) {
-            for (BalanceHistoryPoint b : futureBalanceHistoryPoints) {
-                b.setOpen(b.getOpen() + amount);
-                b.setClose(b.getClose() + amount);
-                customORM.updateBalanceHistoryPoint(userID, b);
-            }
-        }
+     * @param storageTransaction The StorageTransaction in which the current transaction is created.
+     * @param userID             The ID of the specified user.
+     * @param timestampMillis    The time stamp in milliseconds of the current transaction.
+     * @param amount             The amount in cents of the current transaction.
+     */
+    private void fixFutureBalanceHistoryPoints(StorageTransaction storageTransaction, int userID, long timestampMillis,
+                                               long amount) {
+        ModelEventHandle event = ModelEvents.beginBalanceRewrite(userID, timestampMillis, amount);
+        balanceHistoryStore.shiftFutureBalanceHistoryPoints(userID, timestampMillis, amount);
+        event.finish();
+        storageTransaction.afterCommit(() -> AccountEventBus.publish(userID, AccountEvent.BALANCE_CHANGED, 0));
     }
 
     /**
@@ -278,12 +412,14 @@ public class PersistentModel implements Model {
     public Transaction getTransaction(String sessionID, long transactionID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Transaction transaction = customORM.getTransaction(userID, transactionID);
-        this.populateCategory(userID, transaction);
-        if (transaction != null) {
-            return transaction;
-        } else {
-            throw new ResourceNotFoundException();
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            Transaction transaction = transactionStore.getTransaction(userID, transactionID);
+            this.populateCategory(userID, transaction);
+            if (transaction != null) {
+                return transaction;
+            } else {
+                throw new ResourceNotFoundException();
+            }
         }
     }
 
@@ -293,42 +429,57 @@ public class PersistentModel implements Model {
      * @param sessionID     The sessionID of the user.
      * @param transactionID The transactionID of the Transaction that will be updated.
      * @param date          The new date of the to be updated Transaction.
-     * @param amount        The new amount of the to be updated Transaction.
+     * @param dateMillis    The new date in milliseconds of the to be updated Transaction (ignored if date is empty).
+     * @param amount        The new amount in cents of the to be updated Transaction.
      * @param externalIBAN  The new external IBAN of the to be updated Transaction.
      * @param type          The new type of the to be updated Transaction.
      * @param categoryID    The new categoryID of the Category that will be assigned to the to be updated Transaction
      *                      (0 if no Category).
      * @return The Transaction updated by this method.
      */
-    public Transaction putTransaction(String sessionID, long transactionID, String date, float amount,
+    public Transaction putTransaction(String sessionID, long transactionID, String date, long dateMillis, long amount,
                                       String description, String externalIBAN, String type, long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Transaction transaction = customORM.getTransaction(userID, transactionID);
-        if (transaction != null) {
-            if (date != null && !date.equals("")) {
-                customORM.updateTransactionDate(date, userID, transactionID);
-            }
-            if (amount != 0) {
-                customORM.updateTransactionAmount(amount, userID, transactionID);
-            }
-            if (description != null) {
-                customORM.updateTransactionDescription(description, userID, transactionID);
-            }
-            if (externalIBAN != null && !externalIBAN.equals("")) {
-                customORM.updateTransactionExternalIBAN(externalIBAN, userID, transactionID);
-            }
-            if (type != null && !type.equals("")) {
-                customORM.updateTransactionType(type, userID, transactionID);
-            }
-            if (categoryID != 0) {
-                this.assignCategoryToTransaction(sessionID, transactionID, categoryID);
+        ModelEventHandle event = ModelEvents.beginOperation("putTransaction", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            Transaction transaction = transactionStore.getTransaction(userID, transactionID);
+            if (transaction != null) {
+                if (categoryID != 0 && categoryStore.getCategory(userID, categoryID) == null) {
+                    throw new ResourceNotFoundException();
+                }
+                if (date != null && !date.equals("")) {
+                    transactionStore.updateTransactionDate(date, dateMillis, userID, transactionID);
+                }
+                if (amount != 0) {
+                    transactionStore.updateTransactionAmount(amount, userID, transactionID);
+                }
+                if (description != null) {
+                    transactionStore.updateTransactionDescription(description, userID, transactionID);
+                }
+                if (externalIBAN != null && !externalIBAN.equals("")) {
+                    transactionStore.updateTransactionExternalIBAN(externalIBAN, userID, transactionID);
+                }
+                if (type != null && !type.equals("")) {
+                    transactionStore.updateTransactionType(type, userID, transactionID);
+                }
+                if (categoryID != 0) {
+                    this.assignCategoryToTransaction(sessionID, transactionID, categoryID);
+                }
+                if (amount != 0 || (externalIBAN != null && !externalIBAN.equals(""))) {
+                    storageTransaction.afterCommit(() -> CounterpartySketches.invalidate(userID));
+                }
+                storageTransaction.afterCommit(() ->
+                        AccountEventBus.publish(userID, AccountEvent.TRANSACTION_UPDATED, transactionID));
+                transaction = transactionStore.getTransaction(userID, transactionID);
+                this.populateCategory(userID, transaction);
+                storageTransaction.commit();
+                return transaction;
+            } else {
+                throw new ResourceNotFoundException();
             }
-            transaction = customORM.getTransaction(userID, transactionID);
-            this.populateCategory(userID, transaction);
-            return transaction;
-        } else {
-            throw new ResourceNotFoundException();
+        } finally {
+            event.finish();
         }
     }
 
@@ -341,12 +492,21 @@ public class PersistentModel implements Model {
     public void deleteTransaction(String sessionID, long transactionID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Transaction transaction = customORM.getTransaction(userID, transactionID);
-        if (transaction != null) {
-            customORM.unlinkTransactionFromAllCategories(userID, transactionID);
-            customORM.deleteTransaction(userID, transactionID);
-        } else {
-            throw new ResourceNotFoundException();
+        ModelEventHandle event = ModelEvents.beginOperation("deleteTransaction", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            Transaction transaction = transactionStore.getTransaction(userID, transactionID);
+            if (transaction != null) {
+                categoryStore.unlinkTransactionFromAllCategories(userID, transactionID);
+                transactionStore.deleteTransaction(userID, transactionID);
+                storageTransaction.afterCommit(() -> CounterpartySketches.invalidate(userID));
+                storageTransaction.afterCommit(() ->
+                        AccountEventBus.publish(userID, AccountEvent.TRANSACTION_DELETED, transactionID));
+                storageTransaction.commit();
+            } else {
+                throw new ResourceNotFoundException();
+            }
+        } finally {
+            event.finish();
         }
     }
 
@@ -362,19 +522,27 @@ public class PersistentModel implements Model {
     public Transaction assignCategoryToTransaction(String sessionID, long transactionID, long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Transaction transaction = customORM.getTransaction(userID, transactionID);
-        if (transaction != null) {
-            Category category = customORM.getCategory(userID, categoryID);
-            if (category != null) {
-                customORM.unlinkTransactionFromAllCategories(userID, transactionID);
-                customORM.linkTransactionToCategory(userID, transactionID, categoryID);
-                transaction.setCategory(category);
-                return transaction;
+        ModelEventHandle event = ModelEvents.beginOperation("assignCategoryToTransaction", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            Transaction transaction = transactionStore.getTransaction(userID, transactionID);
+            if (transaction != null) {
+                Category category = categoryStore.getCategory(userID, categoryID);
+                if (category != null) {
+                    categoryStore.unlinkTransactionFromAllCategories(userID, transactionID);
+                    categoryStore.linkTransactionToCategory(userID, transactionID, categoryID);
+                    transaction.setCategory(category);
+                    storageTransaction.afterCommit(() ->
+                            AccountEventBus.publish(userID, AccountEvent.CATEGORY_ASSIGNED, transactionID));
+                    storageTransaction.commit();
+                    return transaction;
+                } else {
+                    throw new ResourceNotFoundException();
+                }
             } else {
                 throw new ResourceNotFoundException();
             }
-        } else {
-            throw new ResourceNotFoundException();
+        } finally {
+            event.finish();
         }
     }
 
@@ -389,7 +557,27 @@ public class PersistentModel implements Model {
     public ArrayList<Category> getCategories(String sessionID, int limit, int offset)
             throws InvalidSessionIDException {
         int userID = this.getUserID(sessionID);
-        return customORM.getCategories(userID, limit, offset);
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            return categoryStore.getCategories(userID, limit, offset);
+        }
+    }
+
+    /**
+     * Method used to retrieve the total, count and average amount of the transactions of a certain user per Category,
+     * period and type.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param yearly    Whether the statistics should be computed per year (true) or per month (false).
+     * @param from      The first period (inclusive) of which statistics are retrieved.
+     * @param to        The last period (inclusive) of which statistics are retrieved.
+     * @return An ArrayList of CategoryStatistic belonging to the user with sessionID, the most recent period first.
+     */
+    public ArrayList<CategoryStatistic> getCategoryStatistics(String sessionID, boolean yearly, String from, String to)
+            throws InvalidSessionIDException {
+        int userID = this.getUserID(sessionID);
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            return categoryStore.getCategoryStatistics(userID, yearly, from, to);
+        }
     }
 
     /**
@@ -401,19 +589,17 @@ public class PersistentModel implements Model {
      */
     public Category postCategory(String sessionID, String name) throws InvalidSessionIDException {
         int userID = this.getUserID(sessionID);
-        Category category = null;
-        try {
-            connection.setAutoCommit(false);
-            customORM.increaseHighestCategoryID(userID);
-            long categoryID = customORM.getHighestCategoryID(userID);
-            connection.commit();
-            connection.setAutoCommit(true);
-            customORM.createCategory(userID, categoryID, name);
-            category = customORM.getCategory(userID, categoryID);
-        } catch (SQLException e) {
-            e.printStackTrace();
+        ModelEventHandle event = ModelEvents.beginOperation("postCategory", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            Category category = null;
+            long categoryID = categoryStore.allocateCategoryID(userID);
+            categoryStore.createCategory(userID, categoryID, name);
+            category = categoryStore.getCategory(userID, categoryID);
+            storageTransaction.commit();
+            return category;
+        } finally {
+            event.finish();
         }
-        return category;
     }
 
     /**
@@ -426,11 +612,13 @@ public class PersistentModel implements Model {
     public Category getCategory(String sessionID, long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Category category = customORM.getCategory(userID, categoryID);
-        if (category != null) {
-            return category;
-        } else {
-            throw new ResourceNotFoundException();
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            Category category = categoryStore.getCategory(userID, categoryID);
+            if (category != null) {
+                return category;
+            } else {
+                throw new ResourceNotFoundException();
+            }
         }
     }
 
@@ -445,16 +633,22 @@ public class PersistentModel implements Model {
     public Category putCategory(String sessionID, long categoryID, String name)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Category category = customORM.getCategory(userID, categoryID);
-        if (category != null) {
-            if (name != null && !name.equals("")) {
-                customORM.updateCategoryName(name, userID, categoryID);
+        ModelEventHandle event = ModelEvents.beginOperation("putCategory", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            Category category = categoryStore.getCategory(userID, categoryID);
+            if (category != null) {
+                if (name != null && !name.equals("")) {
+                    categoryStore.updateCategoryName(name, userID, categoryID);
+                    storageTransaction.commit();
+                }
+                category = categoryStore.getCategory(userID, categoryID);
+            } else {
+                throw new ResourceNotFoundException();
             }
-            category = customORM.getCategory(userID, categoryID);
-        } else {
-            throw new ResourceNotFoundException();
+            return category;
+        } finally {
+            event.finish();
         }
-        return category;
     }
 
     /**
@@ -466,12 +660,18 @@ public class PersistentModel implements Model {
     public void deleteCategory(String sessionID, long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        Category category = customORM.getCategory(userID, categoryID);
-        if (category != null) {
-            customORM.unlinkCategoryFromAllTransactions(userID, categoryID);
-            customORM.deleteCategory(userID, categoryID);
-        } else {
-            throw new ResourceNotFoundException();
+        ModelEventHandle event = ModelEvents.beginOperation("deleteCategory", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            Category category = categoryStore.getCategory(userID, categoryID);
+            if (category != null) {
+                categoryStore.unlinkCategoryFromAllTransactions(userID, categoryID);
+                categoryStore.deleteCategory(userID, categoryID);
+                storageTransaction.commit();
+            } else {
+                throw new ResourceNotFoundException();
+            }
+        } finally {
+            event.finish();
         }
     }
 
@@ -479,13 +679,14 @@ public class PersistentModel implements Model {
      * Method used to retrieve all the CategoryRules of a certain user.
      *
      * @param sessionID The sessionID of the user.
-     * @return A list of all CategoryRules of the user.
+     * @return An ArrayList of all CategoryRules of the user.
      * @throws InvalidSessionIDException
      */
     public ArrayList<CategoryRule> getCategoryRules(String sessionID) throws InvalidSessionIDException {
         int userID = this.getUserID(sessionID);
-        ArrayList<CategoryRule> categoryRules = customORM.getCategoryRules(userID);
-        return categoryRules;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            return categoryRuleStore.getCategoryRules(userID);
+        }
     }
 
     /**
@@ -505,31 +706,34 @@ public class PersistentModel implements Model {
     public CategoryRule postCategoryRule(String sessionID, String description, String iBan, String type, long categoryID,
                                          boolean applyOnHistory) throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        CategoryRule categoryRule = null;
-        try {
+        ModelEventHandle event = ModelEvents.beginOperation("postCategoryRule", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
             // if category with categoryID doesnt exist, throw resourcenotfoundexception.
-            if (categoryID <= 0 && categoryID > customORM.getHighestCategoryID(userID)) {
+            if (categoryID <= 0 && categoryID > categoryStore.getHighestCategoryID(userID)) {
                 throw new ResourceNotFoundException();
             }
-            connection.setAutoCommit(false);
-            customORM.increaseHighestCategoryRuleID(userID);
-            long categoryRuleID = customORM.getHighestCategoryRuleID(userID);
-            connection.commit();
-            connection.setAutoCommit(true);
-            customORM.createCategoryRule(userID, categoryRuleID, description, iBan, type, categoryID, applyOnHistory);
-            categoryRule = customORM.getCategoryRule(userID, categoryRuleID);
+            long categoryRuleID = categoryRuleStore.allocateCategoryRuleID(userID);
+            categoryRuleStore.createCategoryRule(userID, categoryRuleID, description, iBan, type, categoryID, applyOnHistory);
+            CategoryRule categoryRule = categoryRuleStore.getCategoryRule(userID, categoryRuleID);
             if (applyOnHistory) {
-                ArrayList<Transaction> transactions = customORM.getAllTransactions(userID);
-                for (Transaction t : transactions) {
-                    if (transactionMatchesCategoryRule(t, categoryRule)) {
-                        assignCategoryToTransaction(sessionID, t.getID(), categoryRuleID);
-                    }
+                if (categoryStore.getCategory(userID, categoryID) == null) {
+                    throw new ResourceNotFoundException();
+                }
+                RuleMatchEventHandle ruleMatchEvent = ModelEvents.beginRuleMatch("postCategoryRule", userID);
+                ArrayList<Long> transactionIDs = categoryStore.linkMatchingTransactionsToCategory(userID,
+                        categoryRule.getDescription(), categoryRule.getiBAN(), categoryRule.getType(), categoryID);
+                // The transactions are matched by the database, so only the matching ones are counted
+                ruleMatchEvent.finish(1, transactionIDs.size(), transactionIDs.size());
+                for (long transactionID : transactionIDs) {
+                    storageTransaction.afterCommit(() ->
+                            AccountEventBus.publish(userID, AccountEvent.CATEGORY_ASSIGNED, transactionID));
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            storageTransaction.commit();
+            return categoryRule;
+        } finally {
+            event.finish();
         }
-        return categoryRule;
     }
 
     /**
@@ -560,11 +764,13 @@ public class PersistentModel implements Model {
      */
     public CategoryRule getCategoryRule(String sessionID, Long categoryRuleID) throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        CategoryRule categoryRule = customORM.getCategoryRule(userID, categoryRuleID);
-        if (categoryRule != null) {
-            return categoryRule;
-        } else {
-            throw new ResourceNotFoundException();
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            CategoryRule categoryRule = categoryRuleStore.getCategoryRule(userID, categoryRuleID);
+            if (categoryRule != null) {
+                return categoryRule;
+            } else {
+                throw new ResourceNotFoundException();
+            }
         }
     }
 
@@ -585,25 +791,31 @@ public class PersistentModel implements Model {
                                         Long categoryID)
             throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        CategoryRule categoryRule = customORM.getCategoryRule(userID, categoryRuleID);
-        if (categoryRule != null) {
-            if (description != null) {
-                customORM.updateCategoryRuleDescription(description, userID, categoryRuleID);
-            }
-            if (iBan != null) {
-                customORM.updateCategoryRuleIBAN(iBan, userID, categoryRuleID);
-            }
-            if (type != null) {
-                customORM.updateCategoryRuleType(type, userID, categoryRuleID);
-            }
-            if (categoryID != null && categoryID > 0) {
-                customORM.updateCategoryRuleCategory(categoryID, userID, categoryRuleID);
+        ModelEventHandle event = ModelEvents.beginOperation("putCategoryRule", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            CategoryRule categoryRule = categoryRuleStore.getCategoryRule(userID, categoryRuleID);
+            if (categoryRule != null) {
+                if (description != null) {
+                    categoryRuleStore.updateCategoryRuleDescription(description, userID, categoryRuleID);
+                }
+                if (iBan != null) {
+                    categoryRuleStore.updateCategoryRuleIBAN(iBan, userID, categoryRuleID);
+                }
+                if (type != null) {
+                    categoryRuleStore.updateCategoryRuleType(type, userID, categoryRuleID);
+                }
+                if (categoryID != null && categoryID > 0) {
+                    categoryRuleStore.updateCategoryRuleCategory(categoryID, userID, categoryRuleID);
+                }
+                categoryRule = categoryRuleStore.getCategoryRule(userID, categoryRuleID);
+                storageTransaction.commit();
+            } else {
+                throw new ResourceNotFoundException();
             }
-            categoryRule = customORM.getCategoryRule(userID, categoryRuleID);
-        } else {
-            throw new ResourceNotFoundException();
+            return categoryRule;
+        } finally {
+            event.finish();
         }
-        return categoryRule;
     }
 
     /**
@@ -616,11 +828,17 @@ public class PersistentModel implements Model {
      */
     public void deleteCategoryRule(String sessionID, long categoryRuleID) throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = this.getUserID(sessionID);
-        CategoryRule categoryRule = customORM.getCategoryRule(userID, categoryRuleID);
-        if (categoryRule != null) {
-            customORM.deleteCategoryRule(userID, categoryRuleID);
-        } else {
-            throw new ResourceNotFoundException();
+        ModelEventHandle event = ModelEvents.beginOperation("deleteCategoryRule", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            CategoryRule categoryRule = categoryRuleStore.getCategoryRule(userID, categoryRuleID);
+            if (categoryRule != null) {
+                categoryRuleStore.deleteCategoryRule(userID, categoryRuleID);
+                storageTransaction.commit();
+            } else {
+                throw new ResourceNotFoundException();
+            }
+        } finally {
+            event.finish();
         }
     }
 
@@ -635,17 +853,66 @@ public class PersistentModel implements Model {
         This only happens when two sessionIDs are generated at exactly the same time and they are the same.
          */
         String sessionID = "";
-        boolean unique = false;
-        while (!unique) {
-            sessionID = UUID.randomUUID().toString();
-            if (customORM.getUserID(sessionID) == -1) {
-                unique = true;
+        try (StorageTransaction storageTransaction = storageEngine.beginTransaction()) {
+            boolean unique = false;
+            while (!unique) {
+                sessionID = UUID.randomUUID().toString();
+                if (userStore.getUserID(sessionID) == -1) {
+                    unique = true;
+                }
             }
+            userStore.createNewUser(sessionID);
+            storageTransaction.commit();
         }
-        customORM.createNewUser(sessionID);
         return new Session(sessionID);
     }
 
+    /**
+     * Method used to retrieve the version of the data of a certain user.
+     * The version changes whenever the data of the user changes.
+     *
+     * @param sessionID The sessionID of the user.
+     * @return The version of the data of the user with sessionID.
+     */
+    public String getVersion(String sessionID) throws InvalidSessionIDException {
+        return UserVersions.getVersion(this.getUserID(sessionID));
+    }
+
+    /**
+     * Method used to subscribe to the changes to the data of a certain user.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param listener  Called whenever an event is added to the subscription; should not block.
+     * @return The subscription, from which the events can be collected.
+     */
+    public EventSubscription subscribe(String sessionID, Runnable listener) throws InvalidSessionIDException {
+        return AccountEventBus.subscribe(this.getUserID(sessionID), listener);
+    }
+
+    /**
+     * Method used to stop a subscription from receiving events.
+     *
+     * @param subscription The subscription.
+     */
+    public void unsubscribe(EventSubscription subscription) {
+        AccountEventBus.unsubscribe(subscription);
+    }
+
+    /**
+     * Method used to begin a StorageTransaction in which the data of a certain user is changed.
+     * Once the transaction has been committed, the version of the data of the user is increased before the other
+     * actions registered on the transaction (like publishing events) are executed, so that a client reacting to an
+     * event never receives the previous version of the data.
+     *
+     * @param userID The ID of the user.
+     * @return The StorageTransaction.
+     */
+    private StorageTransaction beginTransaction(int userID) {
+        StorageTransaction storageTransaction = storageEngine.beginTransaction();
+        storageTransaction.afterCommit(() -> UserVersions.increment(userID));
+        return storageTransaction;
+    }
+
     /**
      * Method used to populate a Transaction object with a Category object.
      *
@@ -653,140 +920,85 @@ public class PersistentModel implements Model {
      */
     private void populateCategory(int userID, Transaction transaction) {
         if (transaction != null) {
-            long categoryID = customORM.getCategoryIDByTransactionID(userID, transaction.getID());
-            Category category = customORM.getCategory(userID, categoryID);
+            long categoryID = categoryStore.getCategoryIDByTransactionID(userID, transaction.getID());
+            Category category = categoryStore.getCategory(userID, categoryID);
             transaction.setCategory(category);
         }
     }
 
     /**
      * Method used to retrieve the userID belonging to a certain sessionID.
+     * Since sessions are never removed, userIDs are cached once they have been retrieved.
      *
      * @param sessionID The sessionID from which the belonging userID will be retrieved.
      * @return The userID belonging to sessionID.
      * @throws InvalidSessionIDException
      */
     private int getUserID(String sessionID) throws InvalidSessionIDException {
-        int userID = customORM.getUserID(sessionID);
+        Integer cachedUserID = sessionUserIDs.get(sessionID);
+        if (cachedUserID != null) {
+            return cachedUserID;
+        }
+        int userID;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            userID = userStore.getUserID(sessionID);
+        }
         if (userID == -1) {
             throw new InvalidSessionIDException();
         }
+        sessionUserIDs.put(sessionID, userID);
         return userID;
     }
 
     /**
      * Method used to retrieve balance history over the specified intervals.
+     * The balance history points of all intervals are retrieved at once and assigned to their intervals in a single
+     * sweep, since both are ordered by time.
      *
      * @param sessionID       The sessionID of the to be retrieved intervals.
      * @param intervalsNumber The number of intervals to be retrieved.
      * @param intervalTime    The type of the to be retrieved intervals.
-     * @return The specified intervals.
+     * @param zone            The time zone in which the intervals are aligned.
+     * @return The specified intervals, the most recent interval first.
      * @throws InvalidSessionIDException
      */
-    public ArrayList<Interval> getIntervals(String sessionID, int intervalsNumber, String intervalTime) throws InvalidSessionIDException {
+    public ArrayList<Interval> getIntervals(String sessionID, int intervalsNumber, String intervalTime, ZoneId zone)
+            throws InvalidSessionIDException {
         int userID = getUserID(sessionID);
-        ArrayList<Interval> intervals = new ArrayList<>();
-        Calendar c = new GregorianCalendar();
-        c.setTimeInMillis(Instant.now().getEpochSecond() * 1000);
-        c.set(Calendar.MILLISECOND, 0);
-        c.set(Calendar.MINUTE, 0);
-        c.set(Calendar.SECOND, 0);
-
-        // interval from 11 to 12 o'clock, then start is 11, end is 12. Same with other intervalTimes.
-        if (intervalTime.equals("hour")) {
-            c.add(Calendar.HOUR_OF_DAY, 1);
-            for (int i = 0; i < intervalsNumber; i++) {
-                long endIntervalTimeMillis = c.getTimeInMillis();
-                c.add(Calendar.HOUR_OF_DAY, -1);
-                long startIntervalTimeMillis = c.getTimeInMillis();
-                intervals.add(calculateInterval(userID, startIntervalTimeMillis, endIntervalTimeMillis));
-            }
-
-        } else if (intervalTime.equals("day")) {
-            c.set(Calendar.HOUR_OF_DAY, 0);
-            c.add(Calendar.DAY_OF_YEAR, 1);
-            for (int i = 0; i < intervalsNumber; i++) {
-                long endIntervalTimeMillis = c.getTimeInMillis();
-                c.add(Calendar.DAY_OF_YEAR, -1);
-                long startIntervalTimeMillis = c.getTimeInMillis();
-                intervals.add(calculateInterval(userID, startIntervalTimeMillis, endIntervalTimeMillis));
-            }
-
-        } else if (intervalTime.equals("week")) {
-            c.set(Calendar.HOUR_OF_DAY, 0);
-            c.set(Calendar.DAY_OF_WEEK, 1);
-            c.add(Calendar.WEEK_OF_YEAR, 1);
-            for (int i = 0; i < intervalsNumber; i++) {
-                long endIntervalTimeMillis = c.getTimeInMillis();
-                c.add(Calendar.WEEK_OF_YEAR, -1);
-                long startIntervalTimeMillis = c.getTimeInMillis();
-                intervals.add(calculateInterval(userID, startIntervalTimeMillis, endIntervalTimeMillis));
-            }
-
-        } else if (intervalTime.equals("month")) {
-            c.set(Calendar.HOUR_OF_DAY, 0);
-            c.set(Calendar.DAY_OF_MONTH, 1);
-            c.add(Calendar.MONTH, 1);
-            for (int i = 0; i < intervalsNumber; i++) {
-                long endIntervalTimeMillis = c.getTimeInMillis();
-                c.add(Calendar.MONTH, -1);
-                long startIntervalTimeMillis = c.getTimeInMillis();
-                intervals.add(calculateInterval(userID, startIntervalTimeMillis, endIntervalTimeMillis));
-            }
-
-        } else if (intervalTime.equals("year")) {
-            c.set(Calendar.HOUR_OF_DAY, 0);
-            c.set(Calendar.DAY_OF_YEAR, 1);
-            c.add(Calendar.YEAR, 1);
-            for (int i = 0; i < intervalsNumber; i++) {
-                long endIntervalTimeMillis = c.getTimeInMillis();
-                c.add(Calendar.YEAR, -1);
-                long startIntervalTimeMillis = c.getTimeInMillis();
-                intervals.add(calculateInterval(userID, startIntervalTimeMillis, endIntervalTimeMillis));
-            }
+        long[] boundaries = IntervalCalendar.getBoundaries(intervalTime, intervalsNumber, zone, Instant.now());
+        ArrayList<BalanceHistoryPoint> balanceHistoryPoints;
+        long close;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            balanceHistoryPoints = balanceHistoryStore.getBalanceHistoryPointsInRange(userID, boundaries[0],
+                    boundaries[intervalsNumber]);
+            close = balanceHistoryStore.getPreviousBalanceHistoryPointClose(userID, boundaries[0]);
         }
-        return intervals;
-    }
-
-    /**
-     * Method used to calculate values for an interval between start en end time.
-     *
-     * @param userID                  The ID of the specified user.
-     * @param startIntervalTimeMillis The start time of the interval.
-     * @param endIntervalTimeMillis   The end time of the interval.
-     * @return The balancehistory between start and end time, in an interval object.
-     */
-    public Interval calculateInterval(int userID, long startIntervalTimeMillis, long endIntervalTimeMillis) {
-        ArrayList<BalanceHistoryPoint> balanceHistoryPoints = customORM.getBalanceHistoryPointsInRange(userID, startIntervalTimeMillis, endIntervalTimeMillis);
-        float open;
-        float close;
-        float high;
-        float low;
-        float volume = 0;
-        long timeStampSeconds = startIntervalTimeMillis / 1000;
-        if (balanceHistoryPoints.size() > 0) {
-            open = balanceHistoryPoints.get(0).getOpen();
-            close = balanceHistoryPoints.get(balanceHistoryPoints.size() - 1).getClose();
-            high = open;
-            low = open;
-            for (BalanceHistoryPoint b : balanceHistoryPoints) {
-                // Assuming that the arraylist is sorted by time_stamp_millis ASCENDING by SQL statement retrieving the data.
-                if (b.getClose() > high) {
-                    high = b.getClose();
-                }
-                if (b.getClose() < low) {
-                    low = b.getClose();
+
+        // Assuming that the arraylist is sorted by time_stamp_millis ASCENDING by SQL statement retrieving the data.
+        Interval[] intervals = new Interval[intervalsNumber];
+        int pointIndex = 0;
+        for (int i = 0; i < intervalsNumber; i++) {
+            long open = close;
+            long high = close;
+            long low = close;
+            long volume = 0;
+            if (pointIndex < balanceHistoryPoints.size()
+                    && balanceHistoryPoints.get(pointIndex).getTimeStamp() < boundaries[i + 1]) {
+                open = balanceHistoryPoints.get(pointIndex).getOpen();
+                high = open;
+                low = open;
+                while (pointIndex < balanceHistoryPoints.size()
+                        && balanceHistoryPoints.get(pointIndex).getTimeStamp() < boundaries[i + 1]) {
+                    BalanceHistoryPoint b = balanceHistoryPoints.get(pointIndex++);
+                    close = b.getClose();
+                    high = Math.max(high, close);
+                    low = Math.min(low, close);
+                    volume += b.getVolume();
                 }
-                volume += b.getVolume();
             }
-        } else {
-            close = customORM.getPreviousBalanceHistoryPointClose(userID, startIntervalTimeMillis);
-            open = close;
-            high = close;
-            low = close;
+            intervals[intervalsNumber - 1 - i] = new Interval(open, close, high, low, volume, boundaries[i] / 1000);
         }
-        Interval interval = new Interval(open, close, high, low, volume, timeStampSeconds);
-        return interval;
+        return new ArrayList<>(Arrays.asList(intervals));
     }
 
     /**
@@ -798,8 +1010,10 @@ public class PersistentModel implements Model {
      */
     public ArrayList<SavingGoal> getSavingGoals(String sessionID) throws InvalidSessionIDException {
         int userID = getUserID(sessionID);
-        ArrayList<SavingGoal> savingGoals = customORM.getSavingGoals(userID);
-        return savingGoals;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            ArrayList<SavingGoal> savingGoals = savingGoalStore.getSavingGoals(userID);
+            return savingGoals;
+        }
     }
 
 
@@ -808,28 +1022,26 @@ public class PersistentModel implements Model {
      *
      * @param sessionID          The sessionID of the specified user.
      * @param name               The name of the to be created savinggoal.
-     * @param goal               The goal of the to be created savinggoal.
-     * @param savePerMonth       The amount to be saved per month of the to be created savinggoal.
-     * @param minBalanceRequired The minimal balance the user should have for the to be created savingoal to set money aside.
+     * @param goal               The goal in cents of the to be created savinggoal.
+     * @param savePerMonth       The amount in cents to be saved per month of the to be created savinggoal.
+     * @param minBalanceRequired The minimal balance in cents the user should have for the to be created savingoal to set money aside.
      * @return The created savinggoal.
      * @throws InvalidSessionIDException
      */
-    public SavingGoal postSavingGoal(String sessionID, String name, float goal, float savePerMonth, float minBalanceRequired)
+    public SavingGoal postSavingGoal(String sessionID, String name, long goal, long savePerMonth, long minBalanceRequired)
             throws InvalidSessionIDException {
         int userID = getUserID(sessionID);
-        SavingGoal savingGoal = null;
-        try {
-            connection.setAutoCommit(false);
-            customORM.increaseHighestSavingGoalID(userID);
-            long savingGoalID = customORM.getHighestSavingGoalID(userID);
-            connection.commit();
-            connection.setAutoCommit(true);
-            customORM.createSavingGoal(userID, savingGoalID, name, goal, savePerMonth, minBalanceRequired);
-            savingGoal = customORM.getSavingGoal(userID, savingGoalID);
-        } catch (SQLException e) {
-            e.printStackTrace();
+        ModelEventHandle event = ModelEvents.beginOperation("postSavingGoal", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            SavingGoal savingGoal = null;
+            long savingGoalID = savingGoalStore.allocateSavingGoalID(userID);
+            savingGoalStore.createSavingGoal(userID, savingGoalID, name, goal, savePerMonth, minBalanceRequired);
+            savingGoal = savingGoalStore.getSavingGoal(userID, savingGoalID);
+            storageTransaction.commit();
+            return savingGoal;
+        } finally {
+            event.finish();
         }
-        return savingGoal;
     }
 
     /**
@@ -842,48 +1054,55 @@ public class PersistentModel implements Model {
      */
     public void deleteSavingGoal(String sessionID, long savingGoalID) throws InvalidSessionIDException, ResourceNotFoundException {
         int userID = getUserID(sessionID);
-        SavingGoal savingGoal = customORM.getSavingGoal(userID, savingGoalID);
-        if (savingGoal != null) {
-            long currentTimeStamp = System.currentTimeMillis();
-            try {
-                connection.setAutoCommit(false);
-                customORM.increaseHighestTransactionID(userID);
-                long transactionID = customORM.getHighestTransactionID(userID);
-                connection.commit();
-                connection.setAutoCommit(true);
-
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
-                String date = dateFormat.format(new Date(currentTimeStamp));
-                float amount = savingGoal.getBalance();
+        ModelEventHandle event = ModelEvents.beginOperation("deleteSavingGoal", userID);
+        try (StorageTransaction storageTransaction = beginTransaction(userID)) {
+            SavingGoal savingGoal = savingGoalStore.getSavingGoal(userID, savingGoalID);
+            if (savingGoal != null) {
+                long currentTimeStamp = System.currentTimeMillis();
+                long transactionID = transactionStore.allocateTransactionID(userID);
+
+                String date = DateCodec.toDate(currentTimeStamp);
+                long amount = savingGoal.getBalance();
                 String description = "Saving goal: " + savingGoal.getName() + " has been met and deleted";
                 String externalIBAN = "internal transaction";
                 String type = "deposit";
 
-                customORM.createTransaction(userID, transactionID, date, amount, description, externalIBAN, type);
-                setBalanceHistoryPoint(currentTimeStamp, amount, type, userID);
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-
-            customORM.deleteSavingGoal(userID, savingGoalID);
+                transactionStore.createTransaction(userID, transactionID, date, currentTimeStamp, amount, description,
+                        externalIBAN, type);
+                storageTransaction.afterCommit(() -> CounterpartySketches.record(userID, externalIBAN, amount));
+                storageTransaction.afterCommit(() ->
+                        AccountEventBus.publish(userID, AccountEvent.TRANSACTION_CREATED, transactionID));
+                setBalanceHistoryPoint(storageTransaction, currentTimeStamp, amount, type, userID);
 
-        } else {
-            throw new ResourceNotFoundException();
+                savingGoalStore.deleteSavingGoal(userID, savingGoalID);
+                storageTransaction.commit();
+            } else {
+                throw new ResourceNotFoundException();
+            }
+        } finally {
+            event.finish();
         }
     }
 
     /**
-     * Method used to retrieve all the payment requests of a user.
+     * Method used to retrieve the payment requests of a user.
      *
      * @param sessionID     The sessionID of the user.
-     * @return  A list of all the payment requests belonging to the specified user.
+     * @param filled        The filled status to be filtered on (null if no filter).
+     * @param limit         The maximum amount of payment requests to be fetched.
+     * @param offset        The starting index to fetch payment requests.
+     * @return  A list of the payment requests belonging to the specified user.
      * @throws InvalidSessionIDException
      */
     @Override
-    public ArrayList<PaymentRequest> getPaymentRequests(String sessionID) throws InvalidSessionIDException {
+    public ArrayList<PaymentRequest> getPaymentRequests(String sessionID, Boolean filled, int limit, int offset)
+            throws InvalidSessionIDException {
         int user_id = getUserID(sessionID);
-        ArrayList<PaymentRequest> paymentRequests = customORM.getPaymentRequests(user_id);
-        return paymentRequests;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            ArrayList<PaymentRequest> paymentRequests = paymentRequestStore.getPaymentRequests(user_id, filled, limit,
+                    offset);
+            return paymentRequests;
+        }
     }
 
     /**
@@ -892,27 +1111,29 @@ public class PersistentModel implements Model {
      * @param sessionID             The sessionID of the user.
      * @param description           The description of the to be created payment request.
      * @param due_date              The due date of the to be created payment request.
-     * @param amount                The amount of the to be created payment request.
+     * @param dueDateMillis         The due date in milliseconds of the to be created payment request.
+     * @param amount                The amount in cents of the to be created payment request.
      * @param number_of_requests    The number of requests of the to be created payment request.
      * @return  The newly created payment request.
      * @throws InvalidSessionIDException
      */
     @Override
-    public PaymentRequest postPaymentRequest(String sessionID, String description, String due_date, float amount, long number_of_requests) throws InvalidSessionIDException {
+    public PaymentRequest postPaymentRequest(String sessionID, String description, String due_date, long dueDateMillis,
+                                             long amount, long number_of_requests) throws InvalidSessionIDException {
         int user_id = getUserID(sessionID);
-        PaymentRequest paymentRequest = null;
-        try {
-            connection.setAutoCommit(false);
-            customORM.increaseHighestPaymentRequestID(user_id);
-            long paymentRequestID = customORM.getHighestPaymentRequestID(user_id);
-            connection.commit();
-            connection.setAutoCommit(true);
-            customORM.createPaymentRequest(user_id, paymentRequestID, description, due_date, amount, number_of_requests);
+        ModelEventHandle event = ModelEvents.beginOperation("postPaymentRequest", user_id);
+        try (StorageTransaction storageTransaction = beginTransaction(user_id)) {
+            PaymentRequest paymentRequest = null;
+
+            long paymentRequestID = paymentRequestStore.allocatePaymentRequestID(user_id);
+            paymentRequestStore.createPaymentRequest(user_id, paymentRequestID, description, due_date, dueDateMillis, amount,
+                    number_of_requests);
 
             paymentRequest = new PaymentRequest(paymentRequestID, description, due_date, amount, number_of_requests, false, new ArrayList<>());
-        } catch (SQLException e) {
-            e.printStackTrace();
+            storageTransaction.commit();
+            return paymentRequest;
+        } finally {
+            event.finish();
         }
-        return paymentRequest;
     }
 }
@@ -0,0 +1,138 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.storage.*;
+
+/**
+ * The SQLiteStorageEngine class, an implementation of the StorageEngine interface.
+ * Stores all data in the SQLite database set up by DatabaseConnection, using a single CustomORM for all stores.
+ *
+ * @author Daan Kooij
+ */
+public class SQLiteStorageEngine implements StorageEngine {
+
+    private CustomORM customORM;
+
+    /**
+     * The constructor of SQLiteStorageEngine.
+     * Waits until the database connection has been set up by the DatabaseConnection class and initializes a CustomORM
+     * object, which executes its statements on the connection of the SQLiteTransaction of the calling thread.
+     */
+    public SQLiteStorageEngine() {
+        // Waits until the connection has been set up, recording the time spent waiting
+        DatabaseConnection.getDatabaseConnection();
+        this.customORM = new CustomORM(SQLiteTransaction.getConnection());
+    }
+
+    /**
+     * Method used to begin a transaction in which the calling thread changes data, waiting until the transaction of
+     * any other thread has ended.
+     *
+     * @return A SQLiteTransaction on the database connection.
+     */
+    public StorageTransaction beginTransaction() {
+        return SQLiteTransaction.begin();
+    }
+
+    /**
+     * Method used to begin a transaction in which the calling thread only reads data, on a read-only connection of
+     * its own.
+     *
+     * @return A SQLiteTransaction on a read-only connection to the database.
+     */
+    public StorageTransaction beginRead() {
+        return SQLiteTransaction.beginRead();
+    }
+
+    /**
+     * Method used to retrieve the store of the transactions.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public TransactionStore getTransactionStore() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the store of the categories.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public CategoryStore getCategoryStore() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the store of the category rules.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public CategoryRuleStore getCategoryRuleStore() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the store of the balance history.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public BalanceHistoryStore getBalanceHistoryStore() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the store of the users.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public UserStore getUserStore() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the store of the saving goals.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public SavingGoalStore getSavingGoalStore() {
+        return customORM;
+    }
+
+    /**
+     * Method used to retrieve the store of the payment requests.
+     *
+     * @return The CustomORM of this engine.
+     */
+    public PaymentRequestStore getPaymentRequestStore() {
+        return customORM;
+    }
+
+    /**
+     * The SQLiteStorageEngine.Provider class, an implementation of the StorageEngineProvider interface.
+     * Registers the SQLiteStorageEngine under the name sqlite.
+     *
+     * @author Daan Kooij
+     */
+    public static class Provider implements StorageEngineProvider {
+
+        /**
+         * Method used to retrieve the name by which the SQLiteStorageEngine is selected.
+         *
+         * @return sqlite.
+         */
+        public String getName() {
+            return "sqlite";
+        }
+
+        /**
+         * Method used to create a SQLiteStorageEngine, waiting for the database connection to be set up if it is
+         * still being set up.
+         *
+         * @return A new SQLiteStorageEngine.
+         */
+        public StorageEngine createStorageEngine() {
+            return new SQLiteStorageEngine();
+        }
+
+    }
+
+}
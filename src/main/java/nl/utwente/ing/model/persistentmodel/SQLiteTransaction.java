@@ -0,0 +1,269 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.storage.StorageException;
+import nl.utwente.ing.model.storage.StorageTransaction;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The SQLiteTransaction class, an implementation of the StorageTransaction interface.
+ * A transaction on the database set up by DatabaseConnection. Transactions that write data are executed on the
+ * connection set up by DatabaseConnection. All threads share this connection, and the connection has a single
+ * transaction state, so these transactions are executed one at a time under a lock that is held from the moment the
+ * transaction begins until it has been committed or rolled back.
+ * Transactions that only read data are executed on a read-only connection taken from DatabaseConnection for the
+ * duration of the transaction. Since the database uses write-ahead logging, such a transaction sees the data as it
+ * was committed when it first read, and neither waits for a transaction that writes data nor makes it wait. If the
+ * database does not support write-ahead logging (like an in-memory database), reading transactions are executed like
+ * writing ones instead.
+ * The statements of CustomORM are executed on the connection of the transaction of the calling thread, using the
+ * connection returned by getConnection. Statements prepared in a transaction are closed when the transaction ends,
+ * since a statement that is left open keeps reading from the data as it was when the statement was executed.
+ * A thread that begins a transaction while it already has one joins that transaction: it receives a SQLiteTransaction
+ * of its own, but only the commit of the SQLiteTransaction that began the transaction actually commits it. If a
+ * joined SQLiteTransaction that writes data is closed without having been committed, the whole transaction is rolled
+ * back.
+ *
+ * @author Daan Kooij
+ */
+public class SQLiteTransaction implements StorageTransaction {
+
+    private static final ReentrantLock writeLock = new ReentrantLock();
+    private static final ThreadLocal<State> currentState = new ThreadLocal<>();
+
+    private final State state;
+    private final boolean outermost;
+    private final boolean write;
+    private boolean committed;
+    private boolean closed;
+
+    /**
+     * The constructor of SQLiteTransaction.
+     *
+     * @param state     The state of the transaction.
+     * @param outermost Whether this SQLiteTransaction began the transaction, instead of joining it.
+     * @param write     Whether this SQLiteTransaction was begun to write data.
+     */
+    private SQLiteTransaction(State state, boolean outermost, boolean write) {
+        this.state = state;
+        this.outermost = outermost;
+        this.write = write;
+    }
+
+    /**
+     * Method used to retrieve a connection that executes every call on the connection of the transaction of the
+     * calling thread. The statements it creates are closed when that transaction ends.
+     *
+     * @return The connection.
+     * @throws IllegalStateException When a method of the connection is called by a thread without a transaction.
+     */
+    static Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    State state = currentState.get();
+                    if (state == null) {
+                        throw new IllegalStateException("The database is used outside of a transaction");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(state.connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement) {
+                        state.statements.add((Statement) result);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Method used to begin a transaction that writes data, waiting until the transaction of any other thread has
+     * ended, or to join the transaction of the calling thread if it already has one.
+     *
+     * @return The SQLiteTransaction.
+     * @throws StorageException If the transaction could not be begun.
+     */
+    static SQLiteTransaction begin() {
+        return begin(true);
+    }
+
+    /**
+     * Method used to begin a transaction that only reads data on a read-only connection, or to join the transaction
+     * of the calling thread if it already has one.
+     *
+     * @return The SQLiteTransaction.
+     * @throws StorageException If the transaction could not be begun.
+     */
+    static SQLiteTransaction beginRead() {
+        State state = currentState.get();
+        if (state != null) {
+            return new SQLiteTransaction(state, false, false);
+        }
+        if (!DatabaseConnection.hasReadConnections()) {
+            return begin(false);
+        }
+        Connection connection = null;
+        try {
+            connection = DatabaseConnection.takeReadConnection();
+            connection.setAutoCommit(false);
+            state = new State(connection, false);
+        } catch (SQLException | RuntimeException e) {
+            if (connection != null) {
+                DatabaseConnection.returnReadConnection(connection);
+            }
+            throw new StorageException("Error beginning transaction", e);
+        }
+        currentState.set(state);
+        return new SQLiteTransaction(state, true, false);
+    }
+
+    /**
+     * Method used to begin a transaction on the connection set up by DatabaseConnection, waiting until the transaction
+     * of any other thread has ended, or to join the transaction of the calling thread if it already has one.
+     *
+     * @param write Whether the transaction is begun to write data.
+     * @return The SQLiteTransaction.
+     * @throws StorageException If the transaction could not be begun.
+     */
+    private static SQLiteTransaction begin(boolean write) {
+        State state = currentState.get();
+        if (state != null) {
+            if (write && !state.write) {
+                throw new StorageException("Error beginning transaction",
+                        new IllegalStateException("A transaction that only reads data cannot be joined to write data"));
+            }
+            return new SQLiteTransaction(state, false, write);
+        }
+        writeLock.lock();
+        try {
+            Connection connection = DatabaseConnection.getDatabaseConnection();
+            connection.setAutoCommit(false);
+            state = new State(connection, true);
+        } catch (SQLException | RuntimeException e) {
+            writeLock.unlock();
+            throw new StorageException("Error beginning transaction", e);
+        }
+        currentState.set(state);
+        return new SQLiteTransaction(state, true, write);
+    }
+
+    /**
+     * Method used to register an action that is executed once the transaction has been committed.
+     *
+     * @param action The action.
+     */
+    @Override
+    public void afterCommit(Runnable action) {
+        state.afterCommit.add(action);
+    }
+
+    /**
+     * Method used to commit the transaction. If this SQLiteTransaction joined the transaction of its thread, the
+     * transaction is committed once the SQLiteTransaction that began it is committed.
+     * The actions registered using afterCommit are executed after committing, while no other transaction can begin.
+     *
+     * @throws StorageException If the transaction could not be committed, in which case it is rolled back.
+     */
+    @Override
+    public void commit() {
+        committed = true;
+        if (!outermost) {
+            return;
+        }
+        if (state.rollbackOnly) {
+            throw new StorageException("Error committing transaction",
+                    new IllegalStateException("A joined transaction was closed without having been committed"));
+        }
+        try {
+            state.connection.commit();
+        } catch (SQLException e) {
+            throw new StorageException("Error committing transaction", e);
+        }
+        state.committed = true;
+        for (Runnable action : state.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The changes are committed already, so the remaining actions are executed anyway
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Method used to end the transaction. If this SQLiteTransaction began the transaction, the transaction is rolled
+     * back unless it has been committed, and its connection can be used by other threads again. If this
+     * SQLiteTransaction joined the transaction to write data and has not been committed, the transaction will be
+     * rolled back.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (write && !committed) {
+            state.rollbackOnly = true;
+        }
+        if (!outermost) {
+            return;
+        }
+        for (Statement statement : state.statements) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        try {
+            if (!state.committed) {
+                state.connection.rollback();
+            }
+            state.connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            currentState.remove();
+            if (state.write) {
+                writeLock.unlock();
+            } else {
+                DatabaseConnection.returnReadConnection(state.connection);
+            }
+        }
+    }
+
+    /**
+     * The SQLiteTransaction.State class.
+     * Used to store the state of a transaction, which is shared by all SQLiteTransaction objects taking part in it.
+     */
+    private static final class State {
+
+        private final Connection connection;
+        private final boolean write;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean rollbackOnly;
+        private boolean committed;
+
+        /**
+         * The constructor of State.
+         *
+         * @param connection The connection on which the transaction is executed.
+         * @param write      Whether the transaction is executed on the connection that writes data.
+         */
+        private State(Connection connection, boolean write) {
+            this.connection = connection;
+            this.write = write;
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The UserVersions class.
+ * Keeps a version number per user that is increased by every operation of PersistentModel that changes the data of
+ * the user, so that clients can cheaply check whether data they retrieved earlier is still up to date.
+ * The version numbers are kept in memory only. To make sure a version number handed out before a restart of the
+ * application is never mistaken for one handed out after it, every version is prefixed with the time at which the
+ * application was started.
+ *
+ * @author Daan Kooij
+ */
+public class UserVersions {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Method used to increase the version of a certain user.
+     * Should be called after the changes to the data of the user have been committed, and not by an operation that
+     * was rolled back, so that a failed request does not invalidate the data clients retrieved earlier.
+     *
+     * @param userID The id of the user.
+     */
+    public static void increment(int userID) {
+        versions.merge(userID, 1L, Long::sum);
+    }
+
+    /**
+     * Method used to retrieve the version of a certain user.
+     * Should be called before the data of the user is retrieved, so that the version never claims data to be more
+     * recent than it is.
+     *
+     * @param userID The id of the user.
+     * @return The version of the user.
+     */
+    public static String getVersion(int userID) {
+        return EPOCH + "-" + versions.getOrDefault(userID, 0L);
+    }
+
+    /**
+     * Method used to retrieve the number of users of which a version is kept.
+     *
+     * @return The number of users of which a version is kept.
+     */
+    public static int getUserCount() {
+        return versions.size();
+    }
+
+}
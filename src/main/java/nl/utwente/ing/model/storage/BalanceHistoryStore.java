@@ -0,0 +1,65 @@
+package nl.utwente.ing.model.storage;
+
+import nl.utwente.ing.model.bean.BalanceHistoryPoint;
+
+import java.util.ArrayList;
+
+/**
+ * The BalanceHistoryStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the history of the balance of users as a series of points, one for
+ * every transaction. A transaction that is dated before the most recent point shifts all points after it, so
+ * shifting the future points should be a single operation.
+ *
+ * @author Daan Kooij
+ */
+public interface BalanceHistoryStore {
+
+    /**
+     * Method used to get all the balance history points between the specified start and end time.
+     *
+     * @param userID               The specified ID of the user.
+     * @param startTimestampMillis The start time of the desired range of points.
+     * @param endTimestampMillis   The end time of the desired range of points.
+     * @return All the balance history points in the desired range.
+     */
+    ArrayList<BalanceHistoryPoint> getBalanceHistoryPointsInRange(int userID, long startTimestampMillis, long endTimestampMillis);
+
+    /**
+     * Method used to retrieve the balance close value of the balance history point that was the last before the to be added
+     * point that starts with the specified timestamp.
+     *
+     * @param userID          The specified ID of the user.
+     * @param timestampMillis The timestamp of the to be added balance history point.
+     * @return The close value of the balance history point that was the last before the specified time, or 0 if
+     * there is none.
+     */
+    long getPreviousBalanceHistoryPointClose(int userID, long timestampMillis);
+
+    /**
+     * Method used to store a new balance history point.
+     *
+     * @param userID              The ID of the specified user.
+     * @param balanceHistoryPoint The balance history point to be stored.
+     */
+    void createBalanceHistoryPoint(int userID, BalanceHistoryPoint balanceHistoryPoint);
+
+    /**
+     * Method used to add an amount to the open and close values of all balance history points of a user that are
+     * further in time than the given timestamp.
+     *
+     * @param userID          The ID of the specified user.
+     * @param timestampMillis The timestamp of the balance history point before the points to shift.
+     * @param amount          The amount in cents to be added to the open and close values.
+     */
+    void shiftFutureBalanceHistoryPoints(int userID, long timestampMillis, long amount);
+
+    /**
+     * Method used to check whether a balanceHistoryPoint with the specified timestamp exists.
+     *
+     * @param userID                            The ID of the specified user.
+     * @param savingGoalTransactionTimeMillis   The timestamp of a new transaction to be posted.
+     * @return  true if the user has a balance history point at exactly the specified time, false otherwise.
+     */
+    boolean balanceHistoryPointExists(int userID, long savingGoalTransactionTimeMillis);
+
+}
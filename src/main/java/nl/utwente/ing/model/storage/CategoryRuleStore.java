@@ -0,0 +1,102 @@
+package nl.utwente.ing.model.storage;
+
+import nl.utwente.ing.model.bean.CategoryRule;
+
+import java.util.ArrayList;
+
+/**
+ * The CategoryRuleStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the category rules of users. The rules of a user are read every time
+ * a transaction is created, so reading them should be cheap.
+ *
+ * @author Daan Kooij
+ */
+public interface CategoryRuleStore {
+
+    /**
+     * Method used to retrieve all CategoryRule objects belonging to a certain user.
+     *
+     * @param userID The id of the user to who the to be retrieved CategoryRule objects belong.
+     * @return An ArrayList of CategoryRule objects.
+     */
+    ArrayList<CategoryRule> getCategoryRules(int userID);
+
+    /**
+     * Method used to retrieve a CategoryRule.
+     *
+     * @param userID         The id of the user from which a CategoryRule should be retrieved.
+     * @param categoryRuleID The id of the to be retrieved CategoryRule.
+     * @return The CategoryRule with categoryRuleID, or null if the user has no such CategoryRule.
+     */
+    CategoryRule getCategoryRule(int userID, long categoryRuleID);
+
+    /**
+     * Method used to allocate a new categoryRuleID for a certain user.
+     * Every call returns an ID that is higher than every categoryRuleID allocated before for the same user, also when
+     * it is called for the same user from multiple threads at the same time. An allocation made in a StorageTransaction
+     * that is rolled back is undone as well, so its ID may be allocated again.
+     *
+     * @param userID The id of the user for whom a categoryRuleID should be allocated.
+     * @return The allocated categoryRuleID, or -1 if it could not be allocated.
+     */
+    long allocateCategoryRuleID(int userID);
+
+    /**
+     * Method used to store a new CategoryRule.
+     *
+     * @param userID         The id of the user to which this new CategoryRule will belong.
+     * @param categoryRuleID The ID of the to be stored CategoryRule, allocated by allocateCategoryRuleID.
+     * @param description    The description of the to be stored CategoryRule.
+     * @param iBan           The iban of the to be stored CategoryRule.
+     * @param type           The type of the to be stored CategoryRule.
+     * @param categoryID     The categoryID of the to be stored CategoryRule.
+     * @param applyOnHistory Whether the categoryRule applies to old transactions or not.
+     */
+    void createCategoryRule(int userID, long categoryRuleID, String description, String iBan, String type,
+                            long categoryID, boolean applyOnHistory);
+
+    /**
+     * Method used to update the description of a CategoryRule.
+     *
+     * @param description    The new description.
+     * @param userID         The ID of the user.
+     * @param categoryRuleID The ID of the categoryRule.
+     */
+    void updateCategoryRuleDescription(String description, int userID, Long categoryRuleID);
+
+    /**
+     * Method used to update the iban of a CategoryRule.
+     *
+     * @param iBan           The new iban.
+     * @param userID         The ID of the user.
+     * @param categoryRuleID The ID of the categoryRule.
+     */
+    void updateCategoryRuleIBAN(String iBan, int userID, Long categoryRuleID);
+
+    /**
+     * Method used to update the type of a CategoryRule.
+     *
+     * @param type           The new type.
+     * @param userID         The ID of the user.
+     * @param categoryRuleID The ID of the categoryRule.
+     */
+    void updateCategoryRuleType(String type, int userID, Long categoryRuleID);
+
+    /**
+     * Method used to update the categoryID of a CategoryRule.
+     *
+     * @param categoryID     The new categoryID.
+     * @param userID         The ID of the user.
+     * @param categoryRuleID The ID of the categoryRule.
+     */
+    void updateCategoryRuleCategory(Long categoryID, int userID, Long categoryRuleID);
+
+    /**
+     * Method used to remove a CategoryRule. Removing a CategoryRule that does not exist has no effect.
+     *
+     * @param userID         The ID of the user which the CategoryRule belongs to.
+     * @param categoryRuleID The ID of the to be removed CategoryRule.
+     */
+    void deleteCategoryRule(int userID, long categoryRuleID);
+
+}
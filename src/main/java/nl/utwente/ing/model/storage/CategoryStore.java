@@ -0,0 +1,145 @@
+package nl.utwente.ing.model.storage;
+
+import nl.utwente.ing.model.bean.Category;
+import nl.utwente.ing.model.bean.CategoryStatistic;
+
+import java.util.ArrayList;
+
+/**
+ * The CategoryStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the categories of users, the links between transactions and categories,
+ * and the statistics of the amounts spent and received per category and period.
+ *
+ * @author Daan Kooij
+ */
+public interface CategoryStore {
+
+    /**
+     * Method used to allocate a new categoryID for a certain user.
+     * Every call returns an ID that is higher than every categoryID allocated before for the same user, also when it is
+     * called for the same user from multiple threads at the same time. An allocation made in a StorageTransaction that
+     * is rolled back is undone as well, so its ID may be allocated again.
+     *
+     * @param userID The id of the user for whom a categoryID should be allocated.
+     * @return The allocated categoryID, or -1 if it could not be allocated.
+     */
+    long allocateCategoryID(int userID);
+
+    /**
+     * Method used to retrieve the highest categoryID that has been allocated for a certain user.
+     *
+     * @param userID The id of the user whose highest categoryID should be retrieved.
+     * @return The highest categoryID allocated for the user, or 0 if none has been allocated yet.
+     */
+    long getHighestCategoryID(int userID);
+
+    /**
+     * Method used to store a new Category.
+     *
+     * @param userID     The id of the user to which this new Category will belong.
+     * @param categoryID The categoryID of the to be stored Category, allocated by allocateCategoryID.
+     * @param name       The name of the to be stored Category.
+     */
+    void createCategory(int userID, long categoryID, String name);
+
+    /**
+     * Method used to retrieve a Category.
+     *
+     * @param userID     The id of the user from which a Category should be retrieved.
+     * @param categoryID The id of the to be retrieved Category.
+     * @return The Category with categoryID, or null if the user has no such Category.
+     */
+    Category getCategory(int userID, long categoryID);
+
+    /**
+     * Method used to update the name of a Category.
+     *
+     * @param name       The new name of the to be updated Category.
+     * @param userID     The id of the user whose Category with categoryID will be updated.
+     * @param categoryID The id of the to be updated Category.
+     */
+    void updateCategoryName(String name, int userID, long categoryID);
+
+    /**
+     * Method used to delete a Category. Deleting a Category that does not exist has no effect.
+     *
+     * @param userID     The id of the user whose Category with categoryID will be deleted.
+     * @param categoryID The id of the to be deleted Category.
+     */
+    void deleteCategory(int userID, long categoryID);
+
+    /**
+     * Method used to retrieve a batch of Category objects belonging to a certain user.
+     *
+     * @param userID The id of the user to who the to be retrieved Category objects belong.
+     * @param limit  The (maximum) amount of Category objects to be retrieved.
+     * @param offset The starting index to retrieve Category objects.
+     * @return An ArrayList of Category objects.
+     */
+    ArrayList<Category> getCategories(int userID, int limit, int offset);
+
+    /**
+     * Method used to link a Transaction to a Category. A Transaction is linked to at most one Category, so the
+     * Transaction should be unlinked from its current Category first.
+     *
+     * @param userID        The id of the user to who the to be linked Transaction and Category objects belong.
+     * @param transactionID The id of the Transaction that will be linked to a Category.
+     * @param categoryID    The id of the Category that will be linked to a Transaction.
+     */
+    void linkTransactionToCategory(int userID, long transactionID, long categoryID);
+
+    /**
+     * Method used to unlink a Transaction from all Category objects.
+     *
+     * @param userID        The id of the user to who the to be unlinked Transaction object belongs.
+     * @param transactionID The id of the Transaction that will be unlinked from all Category objects.
+     */
+    void unlinkTransactionFromAllCategories(int userID, long transactionID);
+
+    /**
+     * Method used to unlink a Category from all Transaction objects.
+     *
+     * @param userID     The id of the user to who the to be unlinked Category object belongs.
+     * @param categoryID The id of the Category that will be unlinked from all Transaction objects.
+     */
+    void unlinkCategoryFromAllTransactions(int userID, long categoryID);
+
+    /**
+     * Method used to link all Transaction objects of a certain user that match a CategoryRule to a Category, unlinking
+     * them from the Category objects they were linked to before. A Transaction matches the CategoryRule if its type,
+     * description and external IBAN contain the type, description and IBAN of the CategoryRule respectively.
+     *
+     * @param userID      The id of the user to who the Transaction and Category objects belong.
+     * @param description The description of the CategoryRule.
+     * @param iBAN        The IBAN of the CategoryRule.
+     * @param type        The type of the CategoryRule.
+     * @param categoryID  The id of the Category to which the matching Transaction objects will be linked.
+     * @return An ArrayList containing the ids of the linked Transaction objects, in ascending order.
+     */
+    ArrayList<Long> linkMatchingTransactionsToCategory(int userID, String description, String iBAN, String type,
+                                                       long categoryID);
+
+    /**
+     * Method used to retrieve the total, count and average amount of the transactions of a certain user per Category,
+     * period and type.
+     * These should be read from statistics that are kept up to date whenever transactions are changed, so that the
+     * transactions themselves do not have to be visited.
+     *
+     * @param userID The id of the user to who the statistics belong.
+     * @param yearly Whether the statistics should be computed per year (true) or per month (false).
+     * @param from   The first period (inclusive) of which statistics are retrieved.
+     * @param to     The last period (inclusive) of which statistics are retrieved.
+     * @return An ArrayList of CategoryStatistic objects, the most recent period first.
+     */
+    ArrayList<CategoryStatistic> getCategoryStatistics(int userID, boolean yearly, String from, String to);
+
+    /**
+     * Method used to retrieve the id of the Category that is linked to a certain Transaction.
+     *
+     * @param userID        The id of the user who is the owner of the Transaction object with transactionID.
+     * @param transactionID The id of the Transaction from which the linked Category id will be retrieved.
+     * @return The id of the Category that is linked to the Transaction, or -1 if it is not linked to a Category.
+     */
+    long getCategoryIDByTransactionID(int userID, long transactionID);
+
+}
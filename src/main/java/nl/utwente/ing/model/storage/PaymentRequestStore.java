@@ -0,0 +1,103 @@
+package nl.utwente.ing.model.storage;
+
+import nl.utwente.ing.model.bean.PaymentRequest;
+
+import java.util.ArrayList;
+
+/**
+ * The PaymentRequestStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the payment requests of users and the transactions that fill them.
+ * Every deposit is matched against the open payment requests of its user, so finding the open payment request for
+ * an amount should be cheap.
+ *
+ * @author Daan Kooij
+ */
+public interface PaymentRequestStore {
+
+    /**
+     * Method used to retrieve a batch of payment requests from a specific user, together with their linked transactions.
+     * The transactions of the whole batch should be read at once rather than per payment request, so that the cost of
+     * a batch does not grow with the amount of payment requests in it.
+     *
+     * @param userID    The ID of the user.
+     * @param filled    The filled status to be filtered on (null if no filter).
+     * @param limit     The (maximum) amount of payment requests to be retrieved.
+     * @param offset    The starting index to retrieve payment requests.
+     * @return  A batch of payment requests of the specified user.
+     */
+    ArrayList<PaymentRequest> getPaymentRequests(int userID, Boolean filled, int limit, int offset);
+
+    /**
+     * Method used to allocate a new paymentRequestID for a certain user.
+     * Every call returns an ID that is higher than every paymentRequestID allocated before for the same user, also when
+     * it is called for the same user from multiple threads at the same time. An allocation made in a StorageTransaction
+     * that is rolled back is undone as well, so its ID may be allocated again.
+     *
+     * @param userID The id of the user for whom a paymentRequestID should be allocated.
+     * @return The allocated paymentRequestID, or -1 if it could not be allocated.
+     */
+    long allocatePaymentRequestID(int userID);
+
+    /**
+     * Method used to create a payment request for a specific user, which is not filled.
+     *
+     * @param userID                The ID of the user.
+     * @param paymentRequestID      The ID of the payment request, allocated by allocatePaymentRequestID.
+     * @param description           The description of the payment request.
+     * @param due_date              The due date of the payment request.
+     * @param dueDateMillis         The due date of the payment request in milliseconds since the epoch.
+     * @param amount                The amount in cents to be payed.
+     * @param number_of_requests    The number of payments needed.
+     */
+    void createPaymentRequest(int userID, long paymentRequestID, String description, String due_date,
+                              long dueDateMillis, long amount, long number_of_requests);
+
+    /**
+     * Method used to retrieve the oldest payment request of a certain amount that is not filled and not expired at a
+     * certain time.
+     *
+     * @param userID            The ID of the user.
+     * @param amount            The amount in cents of the payment request.
+     * @param timestampMillis   The time at which the payment request should not be expired.
+     * @return  The oldest open payment request with the specified amount, or null if there is none.
+     */
+    PaymentRequest getOpenPaymentRequest(int userID, long amount, long timestampMillis);
+
+    /**
+     * Method used to mark a batch of payment requests as expired.
+     * A payment request expires when it is not filled and its due date lies before the current system time of the user
+     * it belongs to, after which it is no longer considered when matching deposits.
+     *
+     * @param batchSize The maximum amount of payment requests to be marked as expired.
+     * @return An ArrayList containing the ID of the user of every payment request that was marked as expired.
+     */
+    ArrayList<Integer> expirePaymentRequests(int batchSize);
+
+    /**
+     * Method used to link a transaction to a payment request.
+     *
+     * @param userID            The ID of the user.
+     * @param transactionID     The ID of the transaction.
+     * @param paymentRequestID  The ID of the payment request.
+     */
+    void linkTransactionToPaymentRequest(int userID, long transactionID, long paymentRequestID);
+
+    /**
+     * Method used to check whether a payment request is filled.
+     *
+     * @param userID            The ID of the user.
+     * @param paymentRequestID  The ID of the payment request.
+     * @return  true if the request is filled, false otherwise.
+     */
+    boolean paymentRequestIsFilled(int userID, long paymentRequestID);
+
+    /**
+     * Method used to update the filled status of a payment request.
+     *
+     * @param userID            The ID of the user.
+     * @param paymentRequestID  The ID of the payment request.
+     * @param filled            The new filled value of the payment request.
+     */
+    void updatePaymentRequestFilled(int userID, long paymentRequestID, boolean filled);
+
+}
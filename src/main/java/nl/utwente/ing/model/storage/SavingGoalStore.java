@@ -0,0 +1,73 @@
+package nl.utwente.ing.model.storage;
+
+import nl.utwente.ing.model.bean.SavingGoal;
+
+import java.util.ArrayList;
+
+/**
+ * The SavingGoalStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the saving goals of users and the balances saved towards them.
+ *
+ * @author Daan Kooij
+ */
+public interface SavingGoalStore {
+
+    /**
+     * Method used to retrieve the savinggoals of a user.
+     *
+     * @param userID    The ID of the specified user.
+     * @return  All savinggoals of the specified user.
+     */
+    ArrayList<SavingGoal> getSavingGoals(int userID);
+
+    /**
+     * Method used to allocate a new savingGoalID for a certain user.
+     * Every call returns an ID that is higher than every savingGoalID allocated before for the same user, also when it
+     * is called for the same user from multiple threads at the same time. An allocation made in a StorageTransaction
+     * that is rolled back is undone as well, so its ID may be allocated again.
+     *
+     * @param userID The id of the user for whom a savingGoalID should be allocated.
+     * @return The allocated savingGoalID, or -1 if it could not be allocated.
+     */
+    long allocateSavingGoalID(int userID);
+
+    /**
+     * Method used to create a savinggoal for the specified user, with a balance of 0.
+     *
+     * @param userID                The ID of the specified user.
+     * @param savingGoalID          The ID of the to be created savinggoal, allocated by allocateSavingGoalID.
+     * @param name                  The name of the to be created savinggoal.
+     * @param goal                  The goal in cents of the to be created savinggoal.
+     * @param savePerMonth          The amount in cents to be saved per month of the to be created savinggoal.
+     * @param minBalanceRequired    The minimal balance in cents that the user needs to have for the savinggoal
+     *                              to save money.
+     */
+    void createSavingGoal(int userID, long savingGoalID, String name, long goal, long savePerMonth, long minBalanceRequired);
+
+    /**
+     * Method used to get the savinggoal with specified ID.
+     *
+     * @param userID        The ID of the specified user.
+     * @param savingGoalID  The ID of the to be retrieved savinggoal.
+     * @return  The savinggoal with savingGoalID, or null if the user has no such savinggoal.
+     */
+    SavingGoal getSavingGoal(int userID, long savingGoalID);
+
+    /**
+     * Method used to delete the specified savinggoal.
+     *
+     * @param userID        The ID of the specified user.
+     * @param savingGoalID  The ID of the to be deleted savinggoal.
+     */
+    void deleteSavingGoal(int userID, long savingGoalID);
+
+    /**
+     * Method used to update the balance of a savinggoal.
+     *
+     * @param userID        The ID of the specified user.
+     * @param savingGoalID  The ID of the to be updated savinggoal.
+     * @param newBalance    The new balance in cents of the savinggoal.
+     */
+    void updateSavingGoalBalance(int userID, long savingGoalID, long newBalance);
+
+}
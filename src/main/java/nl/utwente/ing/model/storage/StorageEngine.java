@@ -0,0 +1,87 @@
+package nl.utwente.ing.model.storage;
+
+/**
+ * The StorageEngine interface.
+ * Consists of method specifications to retrieve the stores in which the PersistentModel keeps its data. A single store
+ * may implement several of these interfaces, and stores that depend on each other (like the TransactionStore and the
+ * CategoryStore, which maintains statistics of the transactions) are expected to be provided by the same engine.
+ * The stores are used by multiple threads at the same time, and only within a StorageTransaction of the calling
+ * thread: every change is made within a transaction begun using beginTransaction, so that an operation that fails
+ * halfway leaves no partial changes behind, and all other data is read within a transaction begun using beginRead.
+ *
+ * @author Daan Kooij
+ */
+public interface StorageEngine {
+
+    /**
+     * Method used to begin a transaction in which the calling thread changes data in the stores of this engine.
+     * Transactions that change data are executed one at a time: this method waits until the transaction of any other
+     * thread has ended. A thread that begins a transaction while it already has one joins that transaction, which is
+     * then only committed once the transaction it began first is committed.
+     *
+     * @return The StorageTransaction.
+     * @throws StorageException If the transaction could not be begun.
+     */
+    StorageTransaction beginTransaction();
+
+    /**
+     * Method used to begin a transaction in which the calling thread only reads data from the stores of this engine.
+     * All reads in the transaction see the same committed data, and a transaction that only reads data should not have
+     * to wait for transactions that change data. A thread that begins a transaction while it already has one joins
+     * that transaction, so it reads the changes made in it. Closing the transaction is enough to end it.
+     *
+     * @return The StorageTransaction.
+     * @throws StorageException If the transaction could not be begun.
+     */
+    StorageTransaction beginRead();
+
+    /**
+     * Method used to retrieve the store of the transactions.
+     *
+     * @return The TransactionStore of this engine.
+     */
+    TransactionStore getTransactionStore();
+
+    /**
+     * Method used to retrieve the store of the categories.
+     *
+     * @return The CategoryStore of this engine.
+     */
+    CategoryStore getCategoryStore();
+
+    /**
+     * Method used to retrieve the store of the category rules.
+     *
+     * @return The CategoryRuleStore of this engine.
+     */
+    CategoryRuleStore getCategoryRuleStore();
+
+    /**
+     * Method used to retrieve the store of the balance history.
+     *
+     * @return The BalanceHistoryStore of this engine.
+     */
+    BalanceHistoryStore getBalanceHistoryStore();
+
+    /**
+     * Method used to retrieve the store of the users.
+     *
+     * @return The UserStore of this engine.
+     */
+    UserStore getUserStore();
+
+    /**
+     * Method used to retrieve the store of the saving goals.
+     *
+     * @return The SavingGoalStore of this engine.
+     */
+    SavingGoalStore getSavingGoalStore();
+
+    /**
+     * Method used to retrieve the store of the payment requests.
+     *
+     * @return The PaymentRequestStore of this engine.
+     */
+    PaymentRequestStore getPaymentRequestStore();
+
+}
@@ -0,0 +1,28 @@
+package nl.utwente.ing.model.storage;
+
+/**
+ * The StorageEngineProvider interface.
+ * Consists of method specifications to create a StorageEngine. Providers are discovered using a ServiceLoader, so a
+ * provider is registered by listing its class in
+ * META-INF/services/nl.utwente.ing.model.storage.StorageEngineProvider, and must have a public constructor without
+ * parameters.
+ *
+ * @author Daan Kooij
+ */
+public interface StorageEngineProvider {
+
+    /**
+     * Method used to retrieve the name by which the StorageEngine of this provider is selected.
+     *
+     * @return The name of the StorageEngine, like sqlite.
+     */
+    String getName();
+
+    /**
+     * Method used to create the StorageEngine of this provider.
+     *
+     * @return A new StorageEngine.
+     */
+    StorageEngine createStorageEngine();
+
+}
@@ -0,0 +1,61 @@
+package nl.utwente.ing.model.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The StorageEngines class.
+ * Consists of methods that look up the StorageEngineProvider registered under a certain name and create its
+ * StorageEngine. The engine used by the application is selected using the ing.storage system property, and is
+ * DEFAULT_ENGINE if the property is not set. The engine is created once and shared, so that all parts of the
+ * application operate on the same data.
+ *
+ * @author Daan Kooij
+ */
+public class StorageEngines {
+
+    public static final String DEFAULT_ENGINE = "sqlite";
+
+    private static final String ENGINE = System.getProperty("ing.storage", DEFAULT_ENGINE);
+
+    private static StorageEngine storageEngine;
+
+    private StorageEngines() {
+
+    }
+
+    /**
+     * Method used to retrieve the StorageEngine used by the application, creating it the first time this method is
+     * called.
+     *
+     * @return The StorageEngine selected using the ing.storage system property.
+     * @throws IllegalStateException If no StorageEngineProvider is registered under the selected name.
+     */
+    public static synchronized StorageEngine getStorageEngine() {
+        if (storageEngine == null) {
+            storageEngine = createStorageEngine(ENGINE);
+        }
+        return storageEngine;
+    }
+
+    /**
+     * Method used to create a new StorageEngine, for example to compare engines against each other.
+     *
+     * @param name The name of the StorageEngine, like sqlite.
+     * @return A new StorageEngine created by the StorageEngineProvider registered under name.
+     * @throws IllegalStateException If no StorageEngineProvider is registered under name.
+     */
+    public static StorageEngine createStorageEngine(String name) {
+        List<String> names = new ArrayList<>();
+        for (StorageEngineProvider provider : ServiceLoader.load(StorageEngineProvider.class,
+                StorageEngines.class.getClassLoader())) {
+            if (provider.getName().equals(name)) {
+                return provider.createStorageEngine();
+            }
+            names.add(provider.getName());
+        }
+        throw new IllegalStateException("Unknown storage engine " + name + ", available engines: " + names);
+    }
+
+}
@@ -0,0 +1,22 @@
+package nl.utwente.ing.model.storage;
+
+/**
+ * The StorageException class.
+ * Thrown when a StorageEngine cannot begin or commit a transaction, so that an operation whose changes could not be
+ * kept fails instead of reporting them as made.
+ *
+ * @author Daan Kooij
+ */
+public class StorageException extends RuntimeException {
+
+    /**
+     * The constructor of StorageException.
+     *
+     * @param message The description of the failure.
+     * @param cause   The exception thrown by the underlying storage.
+     */
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
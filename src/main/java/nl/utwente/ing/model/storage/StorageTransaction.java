@@ -0,0 +1,37 @@
+package nl.utwente.ing.model.storage;
+
+/**
+ * The StorageTransaction interface.
+ * Consists of method specifications to complete a transaction begun on a StorageEngine. The changes made to the stores
+ * of the engine by the thread that began the transaction are either all kept, when the transaction is committed, or
+ * all undone, when the transaction is closed without having been committed.
+ * A transaction is meant to be used in a try-with-resources statement, so that it is rolled back when an exception is
+ * thrown before it has been committed.
+ *
+ * @author Daan Kooij
+ */
+public interface StorageTransaction extends AutoCloseable {
+
+    /**
+     * Method used to register an action that is executed once the transaction has been committed, like publishing
+     * the changes made in the transaction. The action is discarded if the transaction is rolled back. Actions are
+     * executed in the order in which they were registered, before the next transaction that writes data can begin.
+     *
+     * @param action The action.
+     */
+    void afterCommit(Runnable action);
+
+    /**
+     * Method used to commit the transaction, keeping the changes made in it.
+     *
+     * @throws StorageException If the transaction could not be committed, in which case its changes are undone.
+     */
+    void commit();
+
+    /**
+     * Method used to end the transaction, undoing the changes made in it if it has not been committed.
+     */
+    @Override
+    void close();
+
+}
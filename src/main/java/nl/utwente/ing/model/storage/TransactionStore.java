@@ -0,0 +1,175 @@
+package nl.utwente.ing.model.storage;
+
+import nl.utwente.ing.model.bean.*;
+
+import java.util.ArrayList;
+
+/**
+ * The TransactionStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the transactions of users and to read them back, either one at a time,
+ * a page at a time or searched by their description.
+ * Besides the transactions themselves, an implementation maintains what is derived from them when they are stored,
+ * changed or deleted, like the index used to search their descriptions and the category statistics returned by
+ * the CategoryStore, so the two are usually implemented by the same StorageEngine.
+ * Transactions are identified by their transactionID, which is unique per user.
+ *
+ * @author Daan Kooij
+ */
+public interface TransactionStore {
+
+    /**
+     * Method used to allocate a new transactionID for a certain user.
+     * Every call returns an ID that is higher than every transactionID allocated before for the same user, also when it
+     * is called for the same user from multiple threads at the same time. An allocation made in a StorageTransaction
+     * that is rolled back is undone as well, so its ID may be allocated again.
+     *
+     * @param userID The id of the user for whom a transactionID should be allocated.
+     * @return The allocated transactionID, or -1 if it could not be allocated.
+     */
+    long allocateTransactionID(int userID);
+
+    /**
+     * Method used to store a new Transaction.
+     *
+     * @param userID        The id of the user to which this new Transaction will belong.
+     * @param transactionID The transactionID of the to be stored Transaction, allocated by allocateTransactionID.
+     * @param date          The date of the to be stored Transaction.
+     * @param dateMillis    The date of the to be stored Transaction in milliseconds since the epoch.
+     * @param amount        The amount in cents of the to be stored Transaction.
+     * @param description   The description of the to be stored Transaction.
+     * @param externalIBAN  The externalIBAN of the to be stored Transaction.
+     * @param type          The type of the to be stored Transaction.
+     */
+    void createTransaction(int userID, long transactionID, String date, long dateMillis, long amount,
+                           String description, String externalIBAN, String type);
+
+    /**
+     * Method used to retrieve a Transaction, without its Category.
+     *
+     * @param userID        The id of the user from which a Transaction should be retrieved.
+     * @param transactionID The id of the to be retrieved Transaction.
+     * @return The Transaction with transactionID, or null if the user has no such Transaction.
+     */
+    Transaction getTransaction(int userID, long transactionID);
+
+    /**
+     * Method used to change the date of a Transaction.
+     *
+     * @param date          The new date of the Transaction.
+     * @param dateMillis    The new date of the Transaction in milliseconds since the epoch.
+     * @param userID        The id of the user whose Transaction with transactionID will be updated.
+     * @param transactionID The id of the to be updated Transaction.
+     */
+    void updateTransactionDate(String date, long dateMillis, int userID, long transactionID);
+
+    /**
+     * Method used to change the amount of a Transaction.
+     *
+     * @param amount        The new amount in cents of the Transaction.
+     * @param userID        The id of the user whose Transaction with transactionID will be updated.
+     * @param transactionID The id of the to be updated Transaction.
+     */
+    void updateTransactionAmount(long amount, int userID, long transactionID);
+
+    /**
+     * Method used to change the description of a Transaction.
+     *
+     * @param description   The new description of the Transaction.
+     * @param userID        The id of the user whose Transaction with transactionID will be updated.
+     * @param transactionID The id of the to be updated Transaction.
+     */
+    void updateTransactionDescription(String description, int userID, long transactionID);
+
+    /**
+     * Method used to change the externalIBAN of a Transaction.
+     *
+     * @param externalIBAN  The new externalIBAN of the Transaction.
+     * @param userID        The id of the user whose Transaction with transactionID will be updated.
+     * @param transactionID The id of the to be updated Transaction.
+     */
+    void updateTransactionExternalIBAN(String externalIBAN, int userID, long transactionID);
+
+    /**
+     * Method used to change the type of a Transaction.
+     *
+     * @param type          The new type of the Transaction.
+     * @param userID        The id of the user whose Transaction with transactionID will be updated.
+     * @param transactionID The id of the to be updated Transaction.
+     */
+    void updateTransactionType(String type, int userID, long transactionID);
+
+    /**
+     * Method used to delete a Transaction. Deleting a Transaction that does not exist has no effect.
+     *
+     * @param userID        The id of the user whose Transaction with transactionID will be deleted.
+     * @param transactionID The id of the to be deleted Transaction.
+     */
+    void deleteTransaction(int userID, long transactionID);
+
+    /**
+     * Method used to search the Transaction objects belonging to a certain user by their description.
+     * Every word of the query should occur in the description, possibly as the prefix of a longer word. The most
+     * relevant Transaction objects are returned first, together with their Category.
+     *
+     * @param userID The id of the user to who the to be retrieved Transaction objects belong.
+     * @param query  The words to search for.
+     * @param limit  The (maximum) amount of Transaction objects to be retrieved.
+     * @param offset The starting index to retrieve Transaction objects.
+     * @return An ArrayList of Transaction objects.
+     */
+    ArrayList<Transaction> searchTransactions(int userID, String query, int limit, int offset);
+
+    /**
+     * Method used to retrieve a batch of Transaction objects belonging to a certain user.
+     *
+     * @param userID The id of the user to who the to be retrieved Transaction objects belong.
+     * @param limit  The (maximum) amount of Transaction objects to be retrieved.
+     * @param offset The starting index to retrieve Transaction objects.
+     * @return An ArrayList of Transaction objects.
+     */
+    ArrayList<Transaction> getTransactions(int userID, int limit, int offset);
+
+    /**
+     * Method used to retrieve all Transaction objects belonging to a certain user.
+     *
+     * @param userID The id of the user to who the to be retrieved Transaction objects belong.
+     * @return An ArrayList of Transaction objects.
+     */
+    ArrayList<Transaction> getAllTransactions(int userID);
+
+    /**
+     * Method used to retrieve a batch of Transaction objects belonging to a certain user that match a certain filter,
+     * together with their Category.
+     * Only the criteria of the filter that are set are applied, and they are applied by the store itself, so that
+     * the batch contains limit matching Transaction objects unless fewer match.
+     * The Transaction objects are ordered by date, the oldest first, and Transaction objects with the same date by
+     * their transactionID.
+     *
+     * @param userID The id of the user to who the to be retrieved Transaction objects belong.
+     * @param filter The criteria the to be retrieved Transaction objects should match.
+     * @param limit  The (maximum) amount of Transaction objects to be retrieved.
+     * @param offset The starting index to retrieve Transaction objects.
+     * @return An ArrayList of Transaction objects.
+     */
+    ArrayList<Transaction> getTransactions(int userID, TransactionFilter filter, int limit, int offset);
+
+    /**
+     * Method used to retrieve the external IBANs with the highest total transaction amount of a certain user,
+     * computed exactly over all transactions of the user.
+     *
+     * @param userID The id of the user to who the transactions belong.
+     * @param limit  The (maximum) amount of counterparties to be retrieved.
+     * @return An ArrayList of Counterparty objects, the highest volume first.
+     */
+    ArrayList<Counterparty> getTopCounterparties(int userID, int limit);
+
+    /**
+     * Method used to retrieve the external IBANs with the highest total transaction amount over all users, computed
+     * exactly over all transactions.
+     *
+     * @param limit The (maximum) amount of counterparties to be retrieved.
+     * @return An ArrayList of Counterparty objects, the highest volume first.
+     */
+    ArrayList<Counterparty> getGlobalTopCounterparties(int limit);
+
+}
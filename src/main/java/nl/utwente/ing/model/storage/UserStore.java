@@ -0,0 +1,44 @@
+package nl.utwente.ing.model.storage;
+
+/**
+ * The UserStore interface, part of the StorageEngine.
+ * Consists of method specifications to store the users of the application, identified by their session IDs, and
+ * the simulated current time of every user.
+ *
+ * @author Daan Kooij
+ */
+public interface UserStore {
+
+    /**
+     * Method used to store a new User with sessionID, of which every highest ID starts at 0.
+     *
+     * @param sessionID The sessionID of the to be created User.
+     */
+    void createNewUser(String sessionID);
+
+    /**
+     * Method used to retrieve the userID of the user with sessionID.
+     *
+     * @param sessionID The sessionID of the User whose userID will be retrieved.
+     * @return The userID of the user with sessionID, or -1 if there is no such user.
+     */
+    int getUserID(String sessionID);
+
+    /**
+     * Method used to retrieve the current system time of the specified user, as last stored by setCurrentTimeMillis.
+     *
+     * @param userID    The ID of the specified user.
+     * @return  The current system time of the specified user in milliseconds since the epoch, or -1 if there is no
+     * such user.
+     */
+    long getCurrentTimeMillis(int userID);
+
+    /**
+     * Method used to store the current time of the specified user.
+     *
+     * @param userID                    The ID of the specified user.
+     * @param currentTimestampMillis    The current system time of the specified user.
+     */
+    void setCurrentTimeMillis(int userID, long currentTimestampMillis);
+
+}
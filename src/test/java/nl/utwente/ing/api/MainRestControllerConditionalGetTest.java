@@ -0,0 +1,141 @@
+package nl.utwente.ing.api;
+
+import com.jayway.jsonpath.JsonPath;
+import nl.utwente.ing.model.persistentmodel.DatabaseConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+/**
+ * The MainRestControllerConditionalGetTest class.
+ * Tests that the list endpoints of the MainRestController send a weak entity tag that changes whenever the data of
+ * the user changes, and answer a request whose If-None-Match HTTP header contains the current entity tag with HTTP
+ * status code 304 and no body.
+ *
+ * @author Daan Kooij
+ */
+public class MainRestControllerConditionalGetTest {
+
+    private static final String URI_PREFIX = RestControllerConstants.URI_PREFIX;
+    private static final String TRANSACTION = "{\"date\":\"2018-03-15T10:00:00.000+0000\",\"amount\":100," +
+            "\"externalIBAN\":\"NL39RABO0300065264\",\"type\":\"deposit\",\"description\":\"Salary\"}";
+
+    private File database;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        mockMvc = MockMvcBuilders.standaloneSetup(new MainRestController()).build();
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void answersWithNotModifiedForTheCurrentEntityTag() throws Exception {
+        String sessionID = createSession();
+        perform(HttpMethod.POST, "/transactions", sessionID, TRANSACTION, null, 201);
+
+        for (String path : new String[]{"/transactions", "/categories", "/savingGoals",
+                "/balance/history?interval=month&intervals=2"}) {
+            MockHttpServletResponse response = perform(HttpMethod.GET, path, sessionID, null, null, 200);
+            String eTag = response.getHeader("ETag");
+            assertTrue(path + ": " + eTag, eTag.startsWith("W/\"") && eTag.endsWith("\""));
+
+            MockHttpServletResponse notModified = perform(HttpMethod.GET, path, sessionID, null, eTag, 304);
+            assertEquals(eTag, notModified.getHeader("ETag"));
+            assertEquals("Accept-Encoding", notModified.getHeader("Vary"));
+            assertEquals("", notModified.getContentAsString());
+
+            // Entity tags are compared weakly, and any of the entity tags in the header may match
+            perform(HttpMethod.GET, path, sessionID, null, eTag.substring(2), 304);
+            perform(HttpMethod.GET, path, sessionID, null, "W/\"other\", " + eTag, 304);
+            perform(HttpMethod.GET, path, sessionID, null, "W/\"other\"", 200);
+        }
+    }
+
+    @Test
+    public void changesTheEntityTagWhenTheDataOfTheUserChanges() throws Exception {
+        String sessionID = createSession();
+        String otherSessionID = createSession();
+        String eTag = perform(HttpMethod.GET, "/transactions", sessionID, null, null, 200).getHeader("ETag");
+
+        // Changes to the data of another user leave the entity tag as it is
+        perform(HttpMethod.POST, "/transactions", otherSessionID, TRANSACTION, null, 201);
+        perform(HttpMethod.GET, "/transactions", sessionID, null, eTag, 304);
+
+        perform(HttpMethod.POST, "/transactions", sessionID, TRANSACTION, null, 201);
+        MockHttpServletResponse response = perform(HttpMethod.GET, "/transactions", sessionID, null, eTag, 200);
+        assertNotEquals(eTag, response.getHeader("ETag"));
+        assertEquals(1, (int) JsonPath.read(response.getContentAsString(), "$.length()"));
+        eTag = response.getHeader("ETag");
+
+        perform(HttpMethod.POST, "/categories", sessionID, "{\"name\":\"Groceries\"}", null, 201);
+        assertNotEquals(eTag, perform(HttpMethod.GET, "/transactions", sessionID, null, eTag, 200).getHeader("ETag"));
+    }
+
+    @Test
+    public void checksTheSessionBeforeTheEntityTag() throws Exception {
+        perform(HttpMethod.GET, "/transactions", "invalid", null, "*", 401);
+    }
+
+    /**
+     * Method used to create a new session.
+     *
+     * @return The sessionID of the new session.
+     */
+    private String createSession() throws Exception {
+        return JsonPath.read(perform(HttpMethod.POST, "/sessions", null, null, null, 201).getContentAsString(),
+                "$.id");
+    }
+
+    /**
+     * Method used to perform a request, waiting for its asynchronous result.
+     *
+     * @param method         The HTTP method of the request.
+     * @param path           The path of the request, relative to the URI prefix.
+     * @param sessionID      The sessionID of the user issuing the request (null if none).
+     * @param body           The JSON body of the request (null if none).
+     * @param ifNoneMatch    The If-None-Match HTTP header of the request (null if none).
+     * @param expectedStatus The HTTP status code the request should be answered with.
+     * @return The response to the request.
+     */
+    private MockHttpServletResponse perform(HttpMethod method, String path, String sessionID, String body,
+                                            String ifNoneMatch, int expectedStatus) throws Exception {
+        MockHttpServletRequestBuilder request = request(method, URI_PREFIX + path);
+        if (sessionID != null) {
+            request.header("X-session-ID", sessionID);
+        }
+        if (body != null) {
+            request.contentType("application/json").content(body);
+        }
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+        assertEquals(method + " " + path + ": " + response.getContentAsString(), expectedStatus,
+                response.getStatus());
+        return response;
+    }
+
+}
@@ -0,0 +1,201 @@
+package nl.utwente.ing.api;
+
+import com.jayway.jsonpath.JsonPath;
+import nl.utwente.ing.model.persistentmodel.DatabaseConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+/**
+ * The MainRestControllerStatementBudgetTest class.
+ * Tests that every endpoint of the MainRestController stays within its StatementBudget for a user with a history of
+ * transactions spanning a year, categories, category rules, saving goals and payment requests. The tests run
+ * with the ing.failOnStatementBudget system property set to true, as configured for surefire in the pom, so a request
+ * exceeding its budget is answered with HTTP status code 500.
+ *
+ * @author Daan Kooij
+ */
+public class MainRestControllerStatementBudgetTest {
+
+    private static final String URI_PREFIX = RestControllerConstants.URI_PREFIX;
+    private static final String[] IBANS = {"NL39RABO0300065264", "NL44RABO0123456789", "DE89370400440532013000"};
+    private static final int MONTHS = 12;
+
+    private File database;
+    private MockMvc mockMvc;
+    private String sessionID;
+
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        mockMvc = MockMvcBuilders.standaloneSetup(new MainRestController())
+                .addInterceptors(new RequestMetricsInterceptor())
+                .build();
+        sessionID = JsonPath.read(perform(HttpMethod.POST, "/sessions", null, 201).getContentAsString(), "$.id");
+
+        for (String name : new String[]{"Salary", "Rent", "Groceries"}) {
+            perform(HttpMethod.POST, "/categories", "{\"name\":\"" + name + "\"}", 201);
+        }
+        perform(HttpMethod.POST, "/categoryRules", categoryRule("Shop", 3, false), 201);
+        perform(HttpMethod.POST, "/categoryRules", categoryRule("Rent", 2, false), 201);
+        perform(HttpMethod.POST, "/savingGoals",
+                "{\"name\":\"Car\",\"goal\":1000,\"savePerMonth\":10,\"minBalanceRequired\":0}", 201);
+        perform(HttpMethod.POST, "/paymentRequests", "{\"description\":\"Dinner\",\"due_date\":" +
+                "\"2019-01-01T00:00:00.000+0000\",\"amount\":5,\"number_of_requests\":2,\"transactions\":[]}", 201);
+        for (int month = 0; month < MONTHS; month++) {
+            perform(HttpMethod.POST, "/transactions", transaction(date(month, 1), "2000", "Salary", "deposit", 0, 1),
+                    201);
+            perform(HttpMethod.POST, "/transactions", transaction(date(month, 2), "750", "Rent", "withdrawal", 1, 0),
+                    201);
+            perform(HttpMethod.POST, "/transactions",
+                    transaction(date(month, 3), "12.5", "Shop " + month, "withdrawal", 2, 0), 201);
+            perform(HttpMethod.POST, "/transactions",
+                    transaction(date(month, 4), "5", "Dinner", "deposit", month % 3, 0), 201);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void transactionEndpointsStayWithinBudget() throws Exception {
+        perform(HttpMethod.GET, "/transactions?limit=100", null, 200);
+        perform(HttpMethod.GET, "/transactions?category=Rent&limit=100", null, 200);
+        perform(HttpMethod.GET, "/transactions/search?q=Shop", null, 200);
+        perform(HttpMethod.GET, "/transactions/1", null, 200);
+        perform(HttpMethod.GET, "/transactions/100000", null, 404);
+        // A transaction in the next month, and one in the past that shifts the balance history after it
+        perform(HttpMethod.POST, "/transactions", transaction(date(MONTHS, 1), "100", "Shop", "deposit", 0, 0), 201);
+        perform(HttpMethod.POST, "/transactions", transaction(date(0, 5), "100", "Late", "deposit", 0, 2), 201);
+        perform(HttpMethod.PUT, "/transactions/1", transaction(date(0, 6), "2500", "Bonus", "deposit", 2, 1), 200);
+        perform(HttpMethod.PATCH, "/transactions/1/category", "{\"category_id\":2}", 200);
+        perform(HttpMethod.DELETE, "/transactions/2", null, 204);
+    }
+
+    @Test
+    public void categoryEndpointsStayWithinBudget() throws Exception {
+        perform(HttpMethod.GET, "/categories", null, 200);
+        perform(HttpMethod.GET, "/categories/1", null, 200);
+        perform(HttpMethod.PUT, "/categories/1", "{\"name\":\"Income\"}", 200);
+        perform(HttpMethod.GET, "/categories/statistics", null, 200);
+        perform(HttpMethod.GET, "/categoryRules", null, 200);
+        perform(HttpMethod.GET, "/categoryRules/1", null, 200);
+        perform(HttpMethod.PUT, "/categoryRules/1", categoryRule("Shop", 2, false), 200);
+        // Applying a category rule to the history does not take statements per matching transaction
+        perform(HttpMethod.POST, "/categoryRules", categoryRule("", 3, true), 201);
+        // The rule matches every transaction, including those created for the saving goal
+        int transactions = JsonPath.read(perform(HttpMethod.GET, "/transactions?limit=100", null, 200)
+                .getContentAsString(), "$.length()");
+        assertTrue(transactions > MONTHS * 4);
+        assertEquals(transactions, (int) JsonPath.read(perform(HttpMethod.GET,
+                "/transactions?category=Groceries&limit=100", null, 200).getContentAsString(), "$.length()"));
+        String statistics = perform(HttpMethod.GET, "/categories/statistics?from=2016-01&to=2016-12", null, 200)
+                .getContentAsString();
+        int count = 0;
+        for (Integer periodCount : JsonPath.<List<Integer>>read(statistics, "$[*].count")) {
+            count += periodCount;
+        }
+        assertEquals(transactions, count);
+        perform(HttpMethod.DELETE, "/categoryRules/2", null, 204);
+        perform(HttpMethod.DELETE, "/categories/3", null, 204);
+    }
+
+    @Test
+    public void otherEndpointsStayWithinBudget() throws Exception {
+        perform(HttpMethod.GET, "/balance/history?interval=month&intervals=" + MONTHS, null, 200);
+        perform(HttpMethod.GET, "/balance/history?interval=week&intervals=100", null, 200);
+        perform(HttpMethod.GET, "/counterparties", null, 200);
+        perform(HttpMethod.GET, "/counterparties?scope=global", null, 200);
+        perform(HttpMethod.GET, "/counterparties?exact=true", null, 200);
+        perform(HttpMethod.GET, "/savingGoals", null, 200);
+        perform(HttpMethod.DELETE, "/savingGoals/1", null, 204);
+        perform(HttpMethod.GET, "/paymentRequests", null, 200);
+    }
+
+    /**
+     * Method used to perform a request on behalf of the user, waiting for its asynchronous result.
+     *
+     * @param method         The HTTP method of the request.
+     * @param path           The path of the request, relative to the URI prefix.
+     * @param body           The JSON body of the request (null if none).
+     * @param expectedStatus The HTTP status code the request should be answered with.
+     * @return The response to the request.
+     */
+    private MockHttpServletResponse perform(HttpMethod method, String path, String body, int expectedStatus)
+            throws Exception {
+        MockHttpServletRequestBuilder request = request(method, URI_PREFIX + path);
+        if (sessionID != null) {
+            request.header("X-session-ID", sessionID);
+        }
+        if (body != null) {
+            request.contentType("application/json").content(body);
+        }
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertTrue(method + " " + path + " is not handled asynchronously", result.getRequest().isAsyncStarted());
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+        assertEquals(method + " " + path + ": " + response.getContentAsString(), expectedStatus,
+                response.getStatus());
+        return response;
+    }
+
+    /**
+     * Method used to format the date of a transaction.
+     *
+     * @param month The number of months after January 2016.
+     * @param day   The day of the month.
+     * @return The date in the format used by the API.
+     */
+    private static String date(int month, int day) {
+        return String.format("%04d-%02d-%02dT10:00:00.000+0000", 2016 + month / 12, month % 12 + 1, day);
+    }
+
+    /**
+     * Method used to create the JSON body of a transaction.
+     *
+     * @param date        The date of the transaction.
+     * @param amount      The amount of the transaction.
+     * @param description The description of the transaction.
+     * @param type        The type of the transaction.
+     * @param iban        The index of the external IBAN of the transaction in IBANS.
+     * @param categoryID  The id of the category of the transaction (0 if none).
+     * @return The JSON body.
+     */
+    private static String transaction(String date, String amount, String description, String type, int iban,
+                                      long categoryID) {
+        return "{\"date\":\"" + date + "\",\"amount\":" + amount + ",\"externalIBAN\":\"" + IBANS[iban] +
+                "\",\"type\":\"" + type + "\",\"description\":\"" + description + "\"" +
+                (categoryID > 0 ? ",\"category\":{\"id\":" + categoryID + "}" : "") + "}";
+    }
+
+    /**
+     * Method used to create the JSON body of a category rule.
+     *
+     * @param description    The description of the category rule.
+     * @param categoryID     The id of the category of the category rule.
+     * @param applyOnHistory Whether the category rule should be applied to the existing transactions.
+     * @return The JSON body.
+     */
+    private static String categoryRule(String description, long categoryID, boolean applyOnHistory) {
+        return "{\"description\":\"" + description + "\",\"iBAN\":\"\",\"type\":\"\",\"category_id\":" + categoryID +
+                ",\"applyOnHistory\":" + applyOnHistory + "}";
+    }
+
+}
@@ -0,0 +1,159 @@
+package nl.utwente.ing.api;
+
+import nl.utwente.ing.metrics.InstrumentedConnection;
+import nl.utwente.ing.metrics.StatementCounter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The ModelExecutorTest class.
+ * Tests that operations exceeding the StatementBudget of their request are answered with HTTP status code 500, counting
+ * the statements executed through plain Statements and every statement of a batch as well. The tests run with the
+ * ing.failOnStatementBudget system property set to true, as configured for surefire in the pom.
+ *
+ * @author Daan Kooij
+ */
+public class ModelExecutorTest {
+
+    private static final String SELECT_ONE = "SELECT 1;";
+    private static final String CREATE_NUMBERS = "CREATE TABLE Numbers (n INTEGER);";
+    private static final String INSERT_NUMBER = "INSERT INTO Numbers (n) VALUES (?);";
+
+    private Connection connection;
+    private ModelExecutor modelExecutor;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = InstrumentedConnection.wrap(DriverManager.getConnection("jdbc:sqlite::memory:"),
+                ModelExecutorTest.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(CREATE_NUMBERS);
+        }
+        modelExecutor = new ModelExecutor();
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        StatementCounter.bind(null);
+        connection.close();
+    }
+
+    @Test
+    public void failsOnStatementBudget() {
+        assertTrue(Boolean.getBoolean("ing.failOnStatementBudget"));
+    }
+
+    @Test
+    public void operationWithinBudgetSucceeds() throws Exception {
+        ResponseEntity response = execute(new StatementCounter(2), 2);
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("done", response.getBody());
+    }
+
+    @Test
+    public void operationOverBudgetFails() throws Exception {
+        ResponseEntity response = execute(new StatementCounter(2), 3);
+        assertEquals(500, response.getStatusCodeValue());
+        assertEquals("Statement budget exceeded: 3 SQL statements executed, budget is 2", response.getBody());
+    }
+
+    @Test
+    public void plainStatementsAreCounted() throws Exception {
+        ResponseEntity response = execute(new StatementCounter(2), () -> {
+            try (Statement statement = connection.createStatement()) {
+                for (int i = 0; i < 3; i++) {
+                    statement.executeQuery(SELECT_ONE);
+                }
+            }
+        });
+        assertEquals(500, response.getStatusCodeValue());
+    }
+
+    @Test
+    public void everyStatementOfABatchIsCounted() throws Exception {
+        assertEquals(200, execute(new StatementCounter(2), () -> insertNumbers(2)).getStatusCodeValue());
+        assertEquals(500, execute(new StatementCounter(2), () -> insertNumbers(3)).getStatusCodeValue());
+    }
+
+    @Test
+    public void operationWithoutBudgetSucceeds() throws Exception {
+        ResponseEntity response = execute(new StatementCounter(StatementCounter.NO_BUDGET), 20);
+        assertEquals(200, response.getStatusCodeValue());
+    }
+
+    /**
+     * Method used to execute an operation for a request on the ModelExecutor, like the MainRestController does.
+     *
+     * @param statements The StatementCounter of the request.
+     * @param count      The number of SQL statements the operation executes.
+     * @return The response to the request.
+     */
+    private ResponseEntity execute(StatementCounter statements, int count) throws Exception {
+        return execute(statements, () -> {
+            for (int i = 0; i < count; i++) {
+                try (PreparedStatement statement = connection.prepareStatement(SELECT_ONE)) {
+                    statement.executeQuery();
+                }
+            }
+        });
+    }
+
+    /**
+     * Method used to execute an operation for a request on the ModelExecutor, like the MainRestController does.
+     *
+     * @param statements The StatementCounter of the request.
+     * @param work       The SQL statements the operation executes.
+     * @return The response to the request.
+     */
+    private ResponseEntity execute(StatementCounter statements, Work work) throws Exception {
+        StatementCounter.bind(statements);
+        try {
+            return modelExecutor.read(() -> {
+                work.execute();
+                return ResponseEntity.status(200).body("done");
+            }).get();
+        } finally {
+            StatementCounter.bind(null);
+        }
+    }
+
+    /**
+     * Method used to insert numbers into the Numbers table using a single batch.
+     *
+     * @param count The number of numbers to be inserted.
+     */
+    private void insertNumbers(int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_NUMBER)) {
+            for (int i = 0; i < count; i++) {
+                statement.setInt(1, i);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * The ModelExecutorTest.Work interface.
+     * The SQL statements executed by an operation.
+     */
+    private interface Work {
+
+        /**
+         * Method used to execute the SQL statements.
+         */
+        void execute() throws SQLException;
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package nl.utwente.ing.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The LatencyHistogramTest class.
+ * Tests that LatencyHistogram estimates quantiles within the bucket containing the exact quantile, interpolates
+ * within that bucket and reports the same counts in the Prometheus text format.
+ *
+ * @author Daan Kooij
+ */
+public class LatencyHistogramTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void estimatesZeroWithoutDurations() {
+        assertEquals(0, new LatencyHistogram().getQuantileSeconds(0.5), DELTA);
+    }
+
+    @Test
+    public void interpolatesWithinTheBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(micros(200));
+        }
+        // All durations fall in the bucket from 100 to 250 microseconds
+        assertEquals(100e-6, histogram.getQuantileSeconds(0), DELTA);
+        assertEquals(175e-6, histogram.getQuantileSeconds(0.5), DELTA);
+        assertEquals(250e-6, histogram.getQuantileSeconds(1), DELTA);
+    }
+
+    @Test
+    public void skipsEmptyBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 50; i++) {
+            histogram.record(micros(10));
+            histogram.record(micros(2000));
+        }
+        assertEquals(50e-6, histogram.getQuantileSeconds(0.5), DELTA);
+        assertEquals(1750e-6, histogram.getQuantileSeconds(0.75), DELTA);
+    }
+
+    @Test
+    public void estimatesQuantilesWithinTheBucketOfTheExactQuantile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros(micros));
+        }
+        // The exact quantiles are 500 (in the bucket up to 500) and 950 and 990 microseconds (in the bucket up to 1000)
+        assertInRange(250e-6, 500e-6, histogram.getQuantileSeconds(0.5));
+        assertInRange(500e-6, 1000e-6, histogram.getQuantileSeconds(0.95));
+        assertInRange(500e-6, 1000e-6, histogram.getQuantileSeconds(0.99));
+    }
+
+    @Test
+    public void countsDurationsOnABoundInTheLowerBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(micros(50));
+        histogram.record(micros(50) + 999);
+        assertEquals(50e-6, histogram.getQuantileSeconds(1), DELTA);
+        histogram.record(micros(51));
+        assertEquals(100e-6, histogram.getQuantileSeconds(1), DELTA);
+    }
+
+    @Test
+    public void estimatesOverflowingQuantilesAsTheLastBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(micros(20000000));
+        assertEquals(10, histogram.getQuantileSeconds(0.5), DELTA);
+        assertEquals(1, histogram.getCount());
+    }
+
+    @Test
+    public void writesCumulativeBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(micros(10));
+        histogram.record(micros(75));
+        histogram.record(micros(20000000));
+        StringBuilder output = new StringBuilder();
+        histogram.writePrometheus(output, "latency", "endpoint=\"x\"");
+        String text = output.toString();
+        assertTrue(text.contains("latency_bucket{endpoint=\"x\",le=\"5.0E-5\"} 1\n"));
+        assertTrue(text.contains("latency_bucket{endpoint=\"x\",le=\"1.0E-4\"} 2\n"));
+        assertTrue(text.contains("latency_bucket{endpoint=\"x\",le=\"10.0\"} 2\n"));
+        assertTrue(text.contains("latency_bucket{endpoint=\"x\",le=\"+Inf\"} 3\n"));
+        assertTrue(text.contains("latency_sum{endpoint=\"x\"} 20.000085\n"));
+        assertTrue(text.contains("latency_count{endpoint=\"x\"} 3\n"));
+    }
+
+    @Test
+    public void countsConcurrentlyRecordedDurations() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    histogram.record(micros(j % 2000));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.getCount());
+    }
+
+    /**
+     * Method used to convert a duration in microseconds to nanoseconds.
+     *
+     * @param micros The duration in microseconds.
+     * @return The duration in nanoseconds.
+     */
+    private static long micros(long micros) {
+        return micros * 1000;
+    }
+
+    /**
+     * Method used to assert that an estimate lies within a range.
+     *
+     * @param lower    The lower bound (inclusive) of the range.
+     * @param upper    The upper bound (inclusive) of the range.
+     * @param estimate The estimate.
+     */
+    private static void assertInRange(double lower, double upper, double estimate) {
+        assertTrue(estimate + " is not in [" + lower + ", " + upper + "]",
+                estimate >= lower - DELTA && estimate <= upper + DELTA);
+    }
+
+}
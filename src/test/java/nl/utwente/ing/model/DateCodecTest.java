@@ -0,0 +1,156 @@
+package nl.utwente.ing.model;
+
+import org.junit.Test;
+
+import java.time.format.DateTimeParseException;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The DateCodecTest class.
+ * Tests that DateCodec accepts the dates that the API accepted before it used DateCodec, rejects other dates, and that
+ * its conversions do not depend on the time zone of the system.
+ *
+ * @author Daan Kooij
+ */
+public class DateCodecTest {
+
+    private static final long MILLIS = 1515146400000L;
+
+    @Test
+    public void parsesUsingTheOffsetOfTheDate() {
+        assertEquals(MILLIS, DateCodec.toMillis("2018-01-05T10:00:00.000+0000"));
+        assertEquals(MILLIS, DateCodec.toMillis("2018-01-05T11:00:00.000+0100"));
+        assertEquals(MILLIS + 123, DateCodec.toMillis("2018-01-05T10:00:00.123+0000"));
+    }
+
+    @Test
+    public void acceptsFieldsWithoutPadding() {
+        assertEquals(MILLIS, DateCodec.toMillis("2018-1-5T10:0:0.000+0000"));
+        assertEquals(MILLIS - 9 * 3600000L, DateCodec.toMillis("2018-01-05T1:00:00.000+0000"));
+    }
+
+    @Test
+    public void readsFewerMillisecondDigitsAsANumberOfMilliseconds() {
+        assertEquals(MILLIS + 5, DateCodec.toMillis("2018-01-05T10:00:00.5+0000"));
+        assertEquals(MILLIS + 50, DateCodec.toMillis("2018-01-05T10:00:00.50+0000"));
+    }
+
+    @Test
+    public void acceptsGmtOffsets() {
+        assertEquals(MILLIS, DateCodec.toMillis("2018-01-05T11:00:00.000GMT+01:00"));
+        assertEquals(MILLIS, DateCodec.toMillis("2018-01-05T05:00:00.000GMT-05:00"));
+        assertEquals(MILLIS, DateCodec.toMillis("2018-01-05T10:00:00.000GMT"));
+    }
+
+    @Test
+    public void formatsWithPadding() {
+        assertEquals("2018-01-05T01:00:00.005+0000", DateCodec.toDate(DateCodec.toMillis("2018-1-5T1:0:0.5+0000")));
+    }
+
+    @Test
+    public void computesMonthsInUtcWhateverTheSystemTimeZone() {
+        TimeZone original = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Amsterdam"));
+            long lastOfJanuary = DateCodec.toMillis("2018-01-31T23:30:00.000+0000");
+            long firstOfMarch = DateCodec.toMillis("2018-03-01T00:00:00.000+0000");
+            assertEquals(2, DateCodec.monthsBetween(lastOfJanuary, firstOfMarch));
+            assertEquals(1, DateCodec.monthsBetween(lastOfJanuary, firstOfMarch - 1));
+            assertEquals(0, DateCodec.monthsBetween(firstOfMarch, firstOfMarch + 1));
+            assertEquals(DateCodec.toMillis("2018-02-01T00:00:00.000+0000"),
+                    DateCodec.toStartOfMonthMillis(lastOfJanuary, 1));
+            assertEquals(firstOfMarch, DateCodec.toStartOfMonthMillis(lastOfJanuary, 2));
+            assertEquals(DateCodec.toMillis("2018-01-01T00:00:00.000+0000"),
+                    DateCodec.toStartOfMonthMillis(lastOfJanuary, 0));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    public void ignoresSurroundingWhitespace() {
+        assertEquals(MILLIS, DateCodec.toMillis(" 2018-01-05T10:00:00.000+0000\n"));
+    }
+
+    @Test
+    public void formatsInUtcWhateverTheSystemTimeZone() {
+        TimeZone original = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Amsterdam"));
+            assertEquals("2018-01-05T10:00:00.000+0000", DateCodec.toDate(MILLIS));
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            assertEquals("2018-01-05T10:00:00.000+0000", DateCodec.toDate(MILLIS));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    public void roundTrips() {
+        String date = DateCodec.toDate(MILLIS + 987);
+        assertEquals(MILLIS + 987, DateCodec.toMillis(date));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsNonExistentDay() {
+        DateCodec.toMillis("2018-02-30T10:00:00.000+0000");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsNonExistentLeapDay() {
+        DateCodec.toMillis("2019-02-29T10:00:00.000+0000");
+    }
+
+    @Test
+    public void acceptsLeapDay() {
+        DateCodec.toMillis("2020-02-29T10:00:00.000+0000");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsHourOutOfRange() {
+        DateCodec.toMillis("2018-01-05T24:00:00.000+0000");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsMissingMilliseconds() {
+        DateCodec.toMillis("2018-01-05T10:00:00+0000");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsMissingOffset() {
+        DateCodec.toMillis("2018-01-05T10:00:00.000");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsOffsetWithColon() {
+        DateCodec.toMillis("2018-01-05T10:00:00.000+01:00");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsTooManyMillisecondDigits() {
+        DateCodec.toMillis("2018-01-05T10:00:00.0000+0000");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsTimeZoneNames() {
+        DateCodec.toMillis("2018-01-05T10:00:00.000CET");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsTrailingText() {
+        DateCodec.toMillis("2018-01-05T10:00:00.000+0000 extra");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsZuluDesignator() {
+        DateCodec.toMillis("2018-01-05T10:00:00.000Z");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void rejectsDateOnly() {
+        DateCodec.toMillis("2018-01-05");
+    }
+
+}
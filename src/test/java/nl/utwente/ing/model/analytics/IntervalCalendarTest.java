@@ -0,0 +1,133 @@
+package nl.utwente.ing.model.analytics;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The IntervalCalendarTest class.
+ * Tests that IntervalCalendar aligns intervals on the calendar of the time zone, that the last interval contains the
+ * current time also when it lies on a boundary, and that days stay aligned on midnight around daylight saving time
+ * transitions.
+ *
+ * @author Daan Kooij
+ */
+public class IntervalCalendarTest {
+
+    private static final ZoneId AMSTERDAM = ZoneId.of("Europe/Amsterdam");
+    private static final long HOUR = 3600000L;
+
+    @Test
+    public void alignsHoursOnTheHour() {
+        assertArrayEquals(millis("2018-03-15T08:00:00Z", "2018-03-15T09:00:00Z", "2018-03-15T10:00:00Z"),
+                IntervalCalendar.getBoundaries("hour", 2, ZoneOffset.UTC, Instant.parse("2018-03-15T09:30:00Z")));
+    }
+
+    @Test
+    public void alignsDaysOnMidnight() {
+        assertArrayEquals(millis("2018-03-13T00:00:00Z", "2018-03-14T00:00:00Z", "2018-03-15T00:00:00Z",
+                "2018-03-16T00:00:00Z"),
+                IntervalCalendar.getBoundaries("day", 3, ZoneOffset.UTC, Instant.parse("2018-03-15T10:00:00Z")));
+    }
+
+    @Test
+    public void containsNowInTheLastIntervalOnItsBoundaries() {
+        assertArrayEquals(millis("2018-03-15T00:00:00Z", "2018-03-16T00:00:00Z"),
+                IntervalCalendar.getBoundaries("day", 1, ZoneOffset.UTC, Instant.parse("2018-03-15T00:00:00Z")));
+        assertArrayEquals(millis("2018-03-15T00:00:00Z", "2018-03-16T00:00:00Z"),
+                IntervalCalendar.getBoundaries("day", 1, ZoneOffset.UTC, Instant.parse("2018-03-15T23:59:59.999Z")));
+    }
+
+    @Test
+    public void startsWeeksOnSunday() {
+        // 15 March 2018 is a Thursday, 18 March 2018 a Sunday
+        assertArrayEquals(millis("2018-03-04T00:00:00Z", "2018-03-11T00:00:00Z", "2018-03-18T00:00:00Z"),
+                IntervalCalendar.getBoundaries("week", 2, ZoneOffset.UTC, Instant.parse("2018-03-15T10:00:00Z")));
+        assertArrayEquals(millis("2018-03-18T00:00:00Z", "2018-03-25T00:00:00Z"),
+                IntervalCalendar.getBoundaries("week", 1, ZoneOffset.UTC, Instant.parse("2018-03-18T00:00:00Z")));
+    }
+
+    @Test
+    public void startsMonthsOnTheFirstWhateverTheirLength() {
+        assertArrayEquals(millis("2018-01-01T00:00:00Z", "2018-02-01T00:00:00Z", "2018-03-01T00:00:00Z",
+                "2018-04-01T00:00:00Z"),
+                IntervalCalendar.getBoundaries("month", 3, ZoneOffset.UTC, Instant.parse("2018-03-31T23:00:00Z")));
+    }
+
+    @Test
+    public void startsYearsOnTheFirstOfJanuary() {
+        assertArrayEquals(millis("2016-01-01T00:00:00Z", "2017-01-01T00:00:00Z", "2018-01-01T00:00:00Z"),
+                IntervalCalendar.getBoundaries("year", 2, ZoneOffset.UTC, Instant.parse("2017-12-31T23:59:59Z")));
+    }
+
+    @Test
+    public void alignsDaysOnLocalMidnight() {
+        // Midnight in Amsterdam is 23:00 UTC in winter
+        assertArrayEquals(millis("2018-01-14T23:00:00Z", "2018-01-15T23:00:00Z"),
+                IntervalCalendar.getBoundaries("day", 1, AMSTERDAM, Instant.parse("2018-01-15T22:30:00Z")));
+        // Half past midnight in Amsterdam already belongs to the next day
+        assertArrayEquals(millis("2018-01-15T23:00:00Z", "2018-01-16T23:00:00Z"),
+                IntervalCalendar.getBoundaries("day", 1, AMSTERDAM, Instant.parse("2018-01-15T23:30:00Z")));
+    }
+
+    @Test
+    public void keepsDaysOnMidnightWhenDaylightSavingTimeStarts() {
+        // On 25 March 2018 the clocks in Amsterdam moved from 02:00 to 03:00, so that day lasted 23 hours
+        long[] boundaries = IntervalCalendar.getBoundaries("day", 3, AMSTERDAM,
+                Instant.parse("2018-03-26T12:00:00Z"));
+        assertArrayEquals(millis("2018-03-23T23:00:00Z", "2018-03-24T23:00:00Z", "2018-03-25T22:00:00Z",
+                "2018-03-26T22:00:00Z"), boundaries);
+        assertEquals(23 * HOUR, boundaries[2] - boundaries[1]);
+    }
+
+    @Test
+    public void keepsDaysOnMidnightWhenDaylightSavingTimeEnds() {
+        // On 28 October 2018 the clocks in Amsterdam moved from 03:00 back to 02:00, so that day lasted 25 hours
+        long[] boundaries = IntervalCalendar.getBoundaries("day", 1, AMSTERDAM,
+                Instant.parse("2018-10-28T12:00:00Z"));
+        assertArrayEquals(millis("2018-10-27T22:00:00Z", "2018-10-28T23:00:00Z"), boundaries);
+        assertEquals(25 * HOUR, boundaries[1] - boundaries[0]);
+    }
+
+    @Test
+    public void keepsWeeksAndMonthsOnMidnightAcrossDaylightSavingTime() {
+        // 26 March 2018 is a Monday; midnight in Amsterdam is 23:00 UTC before and 22:00 UTC after the transition
+        assertArrayEquals(millis("2018-03-17T23:00:00Z", "2018-03-24T23:00:00Z", "2018-03-31T22:00:00Z"),
+                IntervalCalendar.getBoundaries("week", 2, AMSTERDAM, Instant.parse("2018-03-26T12:00:00Z")));
+        assertArrayEquals(millis("2018-02-28T23:00:00Z", "2018-03-31T22:00:00Z"),
+                IntervalCalendar.getBoundaries("month", 1, AMSTERDAM, Instant.parse("2018-03-26T12:00:00Z")));
+    }
+
+    @Test
+    public void keepsHoursAnHourLongWhenDaylightSavingTimeStarts() {
+        long[] boundaries = IntervalCalendar.getBoundaries("hour", 3, AMSTERDAM,
+                Instant.parse("2018-03-25T02:30:00Z"));
+        assertArrayEquals(millis("2018-03-25T00:00:00Z", "2018-03-25T01:00:00Z", "2018-03-25T02:00:00Z",
+                "2018-03-25T03:00:00Z"), boundaries);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnsupportedIntervals() {
+        IntervalCalendar.getBoundaries("fortnight", 1, ZoneOffset.UTC, Instant.parse("2018-03-15T10:00:00Z"));
+    }
+
+    /**
+     * Method used to convert dates to milliseconds since the epoch.
+     *
+     * @param dates The dates in ISO-8601 format.
+     * @return The dates in milliseconds since the epoch.
+     */
+    private static long[] millis(String... dates) {
+        long[] millis = new long[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            millis[i] = Instant.parse(dates[i]).toEpochMilli();
+        }
+        return millis;
+    }
+
+}
@@ -0,0 +1,108 @@
+package nl.utwente.ing.model.analytics;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The SpaceSavingSketchTest class.
+ * Tests that SpaceSavingSketch is exact while it has unused counters, and that beyond that its estimates stay within
+ * their error bounds and every key heavier than the total weight divided by the capacity is tracked.
+ *
+ * @author Daan Kooij
+ */
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void isExactWithinCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.add("a", 5);
+        sketch.add("b", 7);
+        sketch.add("a", 4);
+        List<SpaceSavingSketch.Counter> top = sketch.getTop(3);
+        assertEquals(2, top.size());
+        assertCounter("a", 9, 0, top.get(0));
+        assertCounter("b", 7, 0, top.get(1));
+    }
+
+    @Test
+    public void replacesTheLightestCounter() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.add("a", 5);
+        sketch.add("b", 3);
+        sketch.add("c", 1);
+        List<SpaceSavingSketch.Counter> top = sketch.getTop(2);
+        assertCounter("a", 5, 0, top.get(0));
+        assertCounter("c", 4, 3, top.get(1));
+    }
+
+    @Test
+    public void limitsAndCopiesTheTop() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.add("a", 1);
+        sketch.add("b", 2);
+        sketch.add("c", 3);
+        List<SpaceSavingSketch.Counter> top = sketch.getTop(2);
+        sketch.add("c", 10);
+        assertEquals(2, top.size());
+        assertCounter("c", 3, 0, top.get(0));
+        assertCounter("b", 2, 0, top.get(1));
+    }
+
+    @Test
+    public void staysWithinErrorBoundsOnASkewedStream() {
+        int capacity = 10;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        Map<String, Long> weights = new HashMap<>();
+        long total = 0;
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            // Key k is drawn with a probability proportional to 1 / (k + 1)
+            int k = (int) Math.floor(Math.exp(random.nextDouble() * Math.log(200))) - 1;
+            String key = "NL" + k;
+            long weight = 1 + random.nextInt(1000);
+            sketch.add(key, weight);
+            weights.merge(key, weight, Long::sum);
+            total += weight;
+        }
+
+        List<SpaceSavingSketch.Counter> top = sketch.getTop(capacity);
+        Set<String> tracked = new HashSet<>();
+        for (SpaceSavingSketch.Counter counter : top) {
+            long weight = weights.get(counter.getKey());
+            assertTrue(counter.getWeight() >= weight);
+            assertTrue(counter.getWeight() - counter.getError() <= weight);
+            assertTrue(counter.getError() <= total / capacity);
+            tracked.add(counter.getKey());
+        }
+        for (Map.Entry<String, Long> entry : weights.entrySet()) {
+            if (entry.getValue() > total / capacity) {
+                assertTrue(entry.getKey() + " is not tracked", tracked.contains(entry.getKey()));
+            }
+        }
+        assertEquals("NL0", top.get(0).getKey());
+    }
+
+    /**
+     * Method used to assert that a Counter tracks a key with a certain estimated weight and error.
+     *
+     * @param key     The expected key.
+     * @param weight  The expected estimated weight.
+     * @param error   The expected error.
+     * @param counter The Counter.
+     */
+    private static void assertCounter(String key, long weight, long error, SpaceSavingSketch.Counter counter) {
+        assertEquals(key, counter.getKey());
+        assertEquals(weight, counter.getWeight());
+        assertEquals(error, counter.getError());
+    }
+
+}
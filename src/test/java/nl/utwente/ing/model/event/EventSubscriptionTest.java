@@ -0,0 +1,95 @@
+package nl.utwente.ing.model.event;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The EventSubscriptionTest class.
+ * Tests the coalescing of events and the handling of a full buffer by EventSubscription.
+ *
+ * @author Daan Kooij
+ */
+public class EventSubscriptionTest {
+
+    @Test
+    public void coalescedEventKeepsItsPlace() {
+        EventSubscription subscription = new EventSubscription(1, 10, () -> { });
+        subscription.offer(new AccountEvent(AccountEvent.BALANCE_CHANGED, 0));
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_CREATED, 7));
+        subscription.offer(new AccountEvent(AccountEvent.BALANCE_CHANGED, 0));
+
+        List<AccountEvent> events = subscription.poll();
+        assertEquals(2, events.size());
+        assertEquals(AccountEvent.BALANCE_CHANGED, events.get(0).getType());
+        assertEquals(AccountEvent.TRANSACTION_CREATED, events.get(1).getType());
+    }
+
+    @Test
+    public void coalescedEventIsTheLatest() {
+        EventSubscription subscription = new EventSubscription(1, 10, () -> { });
+        AccountEvent latest = new AccountEvent(AccountEvent.TRANSACTION_UPDATED, 3);
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_UPDATED, 3));
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_UPDATED, 4));
+        subscription.offer(latest);
+
+        List<AccountEvent> events = subscription.poll();
+        assertEquals(2, events.size());
+        assertEquals(latest, events.get(0));
+        assertEquals(4, events.get(1).getId());
+    }
+
+    @Test
+    public void eventsThatCannotBeCoalescedAreAllKept() {
+        EventSubscription subscription = new EventSubscription(1, 10, () -> { });
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_CREATED, 1));
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_CREATED, 1));
+
+        assertEquals(2, subscription.poll().size());
+    }
+
+    @Test
+    public void coalescingIntoFullBufferDropsNothing() {
+        EventSubscription subscription = new EventSubscription(1, 2, () -> { });
+        subscription.offer(new AccountEvent(AccountEvent.BALANCE_CHANGED, 0));
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_CREATED, 1));
+        subscription.offer(new AccountEvent(AccountEvent.BALANCE_CHANGED, 0));
+
+        List<AccountEvent> events = subscription.poll();
+        assertEquals(2, events.size());
+        assertEquals(AccountEvent.BALANCE_CHANGED, events.get(0).getType());
+    }
+
+    @Test
+    public void overflowDropsOldestAndIsReportedOnce() {
+        EventSubscription subscription = new EventSubscription(1, 2, () -> { });
+        for (int id = 1; id <= 4; id++) {
+            subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_CREATED, id));
+        }
+
+        List<AccountEvent> events = subscription.poll();
+        assertEquals(3, events.size());
+        assertEquals(AccountEvent.OVERFLOW, events.get(0).getType());
+        assertEquals(3, events.get(1).getId());
+        assertEquals(4, events.get(2).getId());
+
+        subscription.offer(new AccountEvent(AccountEvent.TRANSACTION_CREATED, 5));
+        events = subscription.poll();
+        assertEquals(1, events.size());
+        assertEquals(5, events.get(0).getId());
+    }
+
+    @Test
+    public void listenerIsCalledForEveryEvent() {
+        AtomicInteger calls = new AtomicInteger();
+        EventSubscription subscription = new EventSubscription(1, 1, calls::incrementAndGet);
+        subscription.offer(new AccountEvent(AccountEvent.BALANCE_CHANGED, 0));
+        subscription.offer(new AccountEvent(AccountEvent.BALANCE_CHANGED, 0));
+
+        assertEquals(2, calls.get());
+    }
+
+}
@@ -0,0 +1,196 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.bean.CategoryStatistic;
+import nl.utwente.ing.model.bean.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The DatabaseConnectionMigrationTest class.
+ * Tests that DatabaseConnection brings a database created by the first version of the application, which has no
+ * schema version, up to date with the current schema version while keeping its data.
+ *
+ * @author Daan Kooij
+ */
+public class DatabaseConnectionMigrationTest {
+
+    private static final String SESSION_ID = "legacy-session";
+
+    // The tables as created by the first version of the application, storing amounts as floating point numbers
+    private static final String[] LEGACY_SCHEMA = {
+            "CREATE TABLE User_Table(user_id INTEGER PRIMARY KEY AUTOINCREMENT, session_id TEXT, " +
+                    "highest_transaction_id BIGINT, highest_category_id BIGINT, highest_saving_goal_id BIGINT, " +
+                    "highest_category_rule_id BIGINT, highest_payment_request_id BIGINT, system_time_millis BIGINT);",
+            "CREATE TABLE Transaction_Table(user_id INTEGER, transaction_id BIGINT, date DATETIME, amount FLOAT, " +
+                    "description TEXT, external_iban TEXT, type TEXT, PRIMARY KEY(user_id, transaction_id));",
+            "CREATE TABLE Category_Table(user_id INTEGER, category_id BIGINT, name TEXT, " +
+                    "PRIMARY KEY(user_id, category_id));",
+            "CREATE TABLE Transaction_Category(user_id INTEGER, transaction_id BIGINT, category_id BIGINT, " +
+                    "PRIMARY KEY(user_id, transaction_id, category_id));",
+            "CREATE TABLE CategoryRule_Table(user_id INTEGER, category_rule_id BIGINT, description TEXT, iban TEXT, " +
+                    "type TEXT, category_id BIGINT, apply_on_history BOOLEAN, PRIMARY KEY(user_id, category_rule_id));",
+            "CREATE TABLE BalanceHistory_Table(user_id INTEGER, time_stamp_millis BIGINT, open float, close float, " +
+                    "volume float, PRIMARY KEY(user_id, time_stamp_millis));",
+            "CREATE TABLE SavingGoal_Table(user_id INTEGER, saving_goal_id BIGINT, name TEXT, goal float, " +
+                    "save_per_month float, min_balance_required float, balance float, " +
+                    "PRIMARY KEY(user_id, saving_goal_id));",
+            "CREATE TABLE PaymentRequest_Table(user_id INTEGER, payment_request_id BIGINT, description TEXT, " +
+                    "due_date TEXT, amount float, number_of_requests BIGINT, filled BOOLEAN, " +
+                    "PRIMARY KEY(user_id, payment_request_id));",
+            "CREATE TABLE PaymentRequest_Transaction(user_id INTEGER, transaction_id BIGINT, " +
+                    "payment_request_id BIGINT, PRIMARY KEY(user_id, payment_request_id, transaction_id));"
+    };
+    private static final String[] LEGACY_DATA = {
+            "INSERT INTO User_Table VALUES (1, '" + SESSION_ID + "', 3, 1, 1, 0, 2, 1518253200000);",
+            "INSERT INTO Transaction_Table VALUES (1, 1, '2018-01-05T10:00:00.000+0100', 12.34, " +
+                    "'Albert Heijn Enschede', 'NL39RABO0300065264', 'withdrawal');",
+            "INSERT INTO Transaction_Table VALUES (1, 2, '2018-02-10T09:00:00.000+0000', 2500.1, 'Salary', " +
+                    "'NL69INGB0123456789', 'deposit');",
+            "INSERT INTO Transaction_Table VALUES (1, 3, 'yesterday', 1.5, 'Unknown date', " +
+                    "'NL69INGB0123456789', 'deposit');",
+            "INSERT INTO Category_Table VALUES (1, 1, 'Groceries');",
+            "INSERT INTO Transaction_Category VALUES (1, 1, 1);",
+            "INSERT INTO BalanceHistory_Table VALUES (1, 1515142800000, 0, -12.34, 12.34);",
+            "INSERT INTO SavingGoal_Table VALUES (1, 1, 'Holiday', 1000, 50.5, 0.1, 101);",
+            "INSERT INTO PaymentRequest_Table VALUES (1, 1, 'Dinner', '2018-03-01T12:00:00.000+0000', 25.5, 2, 0);",
+            "INSERT INTO PaymentRequest_Table VALUES (1, 2, 'Someday', 'someday', 1, 1, 0);"
+    };
+
+    private File database;
+
+    @Before
+    public void setUp() throws IOException, SQLException {
+        database = File.createTempFile("ing-test", ".db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.getPath());
+             Statement statement = connection.createStatement()) {
+            for (String sql : LEGACY_SCHEMA) {
+                statement.executeUpdate(sql);
+            }
+            for (String sql : LEGACY_DATA) {
+                statement.executeUpdate(sql);
+            }
+        }
+        DatabaseConnection.setUp(database.getPath());
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void migratesToTheCurrentSchemaVersion() throws SQLException {
+        assertEquals(DatabaseConnection.SCHEMA_VERSION, DatabaseConnection.getSchemaVersion());
+    }
+
+    @Test
+    public void parsesDueDatesOfPaymentRequests() throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT due_date_millis, expired\n" +
+                     "FROM PaymentRequest_Table\n" +
+                     "ORDER BY payment_request_id;")) {
+            assertTrue(resultSet.next());
+            assertEquals(1519905600000L, resultSet.getLong(1));
+            assertEquals(0, resultSet.getInt(2));
+            // A due date that cannot be parsed never expires
+            assertTrue(resultSet.next());
+            assertEquals(Long.MAX_VALUE, resultSet.getLong(1));
+            assertEquals(0, resultSet.getInt(2));
+        }
+    }
+
+    @Test
+    public void convertsAmountsToCents() throws SQLException {
+        assertEquals(1234, queryLong("SELECT amount FROM Transaction_Table WHERE transaction_id = 1;"));
+        assertEquals(250010, queryLong("SELECT amount FROM Transaction_Table WHERE transaction_id = 2;"));
+        assertEquals(-1234, queryLong("SELECT close FROM BalanceHistory_Table;"));
+        assertEquals(1234, queryLong("SELECT volume FROM BalanceHistory_Table;"));
+        assertEquals(5050, queryLong("SELECT save_per_month FROM SavingGoal_Table;"));
+        assertEquals(10, queryLong("SELECT min_balance_required FROM SavingGoal_Table;"));
+        assertEquals(2550, queryLong("SELECT amount FROM PaymentRequest_Table WHERE payment_request_id = 1;"));
+        assertEquals("integer", queryString("SELECT typeof(amount) FROM Transaction_Table WHERE transaction_id = 2;"));
+    }
+
+    @Test
+    public void parsesDatesOfTransactions() throws SQLException {
+        // The offset of the stored date is taken into account
+        assertEquals(1515142800000L, queryLong("SELECT date_millis FROM Transaction_Table WHERE transaction_id = 1;"));
+        assertEquals(1518253200000L, queryLong("SELECT date_millis FROM Transaction_Table WHERE transaction_id = 2;"));
+        // A date that cannot be parsed is left NULL
+        assertNull(queryString("SELECT date_millis FROM Transaction_Table WHERE transaction_id = 3;"));
+    }
+
+    @Test
+    public void indexesDescriptionsOfTransactions() throws Exception {
+        List<Transaction> transactions = new PersistentModel(new SQLiteStorageEngine())
+                .searchTransactions(SESSION_ID, "albert", 10, 0);
+        assertEquals(1, transactions.size());
+        assertEquals(1, transactions.get(0).getID());
+        assertEquals("Groceries", transactions.get(0).getCategory().getName());
+    }
+
+    @Test
+    public void computesCategoryStatistics() throws Exception {
+        List<CategoryStatistic> statistics = new PersistentModel(new SQLiteStorageEngine())
+                .getCategoryStatistics(SESSION_ID, false, "2018-01", "2018-12");
+        assertEquals(1, statistics.size());
+        assertEquals("Groceries 2018-01 withdrawal 1234 1",
+                PersistentModelCategoryStatisticsTest.describe(statistics.get(0)));
+    }
+
+    /**
+     * Method used to execute a query on the migrated database that results in a single number.
+     *
+     * @param query The query.
+     * @return The number in the first column of the first row of the result.
+     */
+    private long queryLong(String query) throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            assertTrue(resultSet.next());
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Method used to execute a query on the migrated database that results in a single String.
+     *
+     * @param query The query.
+     * @return The String in the first column of the first row of the result.
+     */
+    private String queryString(String query) throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        }
+    }
+
+    /**
+     * Method used to open a connection of its own to the migrated database.
+     *
+     * @return The connection.
+     */
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + database.getPath());
+    }
+
+}
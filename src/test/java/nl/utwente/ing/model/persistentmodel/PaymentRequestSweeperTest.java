@@ -0,0 +1,97 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.storage.StorageEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * The PaymentRequestSweeperTest class.
+ * Tests that PaymentRequestSweeper increases the version of the users of which payment requests expired, and only of
+ * those users.
+ *
+ * @author Daan Kooij
+ */
+public class PaymentRequestSweeperTest {
+
+    private static final String IBAN = "NL39RABO0300065264";
+    private static final long START_MILLIS = 1521072000000L;
+    private static final long DAY_MILLIS = 86400000L;
+
+    private File database;
+    private StorageEngine storageEngine;
+    private PersistentModel model;
+
+    @Before
+    public void setUp() throws IOException {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        storageEngine = new SQLiteStorageEngine();
+        model = new PersistentModel(storageEngine);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void increasesTheVersionOfUsersWithExpiredPaymentRequests() throws Exception {
+        String sessionID = model.getSession().getID();
+        String otherSessionID = model.getSession().getID();
+        for (String session : new String[]{sessionID, otherSessionID}) {
+            model.postPaymentRequest(session, "Dinner", DateCodec.toDate(START_MILLIS + DAY_MILLIS),
+                    START_MILLIS + DAY_MILLIS, 1000, 1);
+        }
+        // Only the first user moves past the due date of its payment request
+        postDeposit(sessionID, START_MILLIS + 2 * DAY_MILLIS);
+        postDeposit(otherSessionID, START_MILLIS);
+        String version = model.getVersion(sessionID);
+        String otherVersion = model.getVersion(otherSessionID);
+
+        new PaymentRequestSweeper(storageEngine).run();
+        String sweptVersion = model.getVersion(sessionID);
+        assertNotEquals(version, sweptVersion);
+        assertEquals(otherVersion, model.getVersion(otherSessionID));
+
+        // Nothing expires the second time, so no version is increased
+        new PaymentRequestSweeper(storageEngine).run();
+        assertEquals(sweptVersion, model.getVersion(sessionID));
+
+        // The expired payment request is no longer filled by a matching deposit
+        postDeposit(sessionID, START_MILLIS + 3 * DAY_MILLIS, 1000);
+        assertFalse(model.getPaymentRequests(sessionID, null, 10, 0).get(0).isFilled());
+    }
+
+    /**
+     * Method used to create a deposit of 1 cent for a certain user.
+     *
+     * @param sessionID  The sessionID of the user.
+     * @param dateMillis The date in milliseconds of the deposit.
+     */
+    private void postDeposit(String sessionID, long dateMillis) throws Exception {
+        postDeposit(sessionID, dateMillis, 1);
+    }
+
+    /**
+     * Method used to create a deposit for a certain user.
+     *
+     * @param sessionID  The sessionID of the user.
+     * @param dateMillis The date in milliseconds of the deposit.
+     * @param amount     The amount in cents of the deposit.
+     */
+    private void postDeposit(String sessionID, long dateMillis, long amount) throws Exception {
+        model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, amount, "Deposit", IBAN, "deposit",
+                0);
+    }
+
+}
@@ -0,0 +1,158 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.bean.CategoryStatistic;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The PersistentModelCategoryStatisticsTest class.
+ * Tests that the statistics per Category, period and type that PersistentModel keeps up to date incrementally always
+ * reflect the current transactions and their categories.
+ *
+ * @author Daan Kooij
+ */
+public class PersistentModelCategoryStatisticsTest {
+
+    private static final String IBAN = "NL39RABO0300065264";
+
+    private File database;
+    private PersistentModel model;
+    private String sessionID;
+    private long groceries;
+    private long rent;
+
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        model = new PersistentModel(new SQLiteStorageEngine());
+        sessionID = model.getSession().getID();
+        groceries = model.postCategory(sessionID, "Groceries").getID();
+        rent = model.postCategory(sessionID, "Rent").getID();
+
+        postWithdrawal("2018-01-10T12:00:00.000+0000", 1000, groceries);
+        postWithdrawal("2018-01-20T12:00:00.000+0000", 500, groceries);
+        postWithdrawal("2018-02-05T12:00:00.000+0000", 80000, 0);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void countsCreatedAndAssignedTransactions() throws Exception {
+        assertEquals(Arrays.asList("Groceries 2018-01 withdrawal 1500 2"), monthly());
+
+        model.assignCategoryToTransaction(sessionID, 3, rent);
+        assertEquals(Arrays.asList("Rent 2018-02 withdrawal 80000 1", "Groceries 2018-01 withdrawal 1500 2"),
+                monthly());
+
+        // Assigning another Category moves the transaction from the statistics of the previous one
+        model.assignCategoryToTransaction(sessionID, 2, rent);
+        assertEquals(Arrays.asList("Rent 2018-02 withdrawal 80000 1", "Groceries 2018-01 withdrawal 1000 1",
+                "Rent 2018-01 withdrawal 500 1"), monthly());
+        assertEquals(Arrays.asList("Groceries 2018 withdrawal 1000 1", "Rent 2018 withdrawal 80500 2"),
+                statistics(true, "2018", "2018"));
+    }
+
+    @Test
+    public void countsUpdatedTransactions() throws Exception {
+        String date = "2018-02-01T12:00:00.000+0000";
+        model.putTransaction(sessionID, 2, date, DateCodec.toMillis(date), 700, null, null, null, 0);
+        assertEquals(Arrays.asList("Groceries 2018-02 withdrawal 700 1", "Groceries 2018-01 withdrawal 1000 1"),
+                monthly());
+
+        model.putTransaction(sessionID, 1, null, 0, 0, null, null, "deposit", 0);
+        assertEquals(Arrays.asList("Groceries 2018-02 withdrawal 700 1", "Groceries 2018-01 deposit 1000 1"),
+                monthly());
+
+        // Updating the Category of a transaction along with other fields counts it once, in the new Category
+        model.putTransaction(sessionID, 3, null, 0, 90000, null, null, null, rent);
+        assertEquals(Arrays.asList("Groceries 2018-02 withdrawal 700 1", "Rent 2018-02 withdrawal 90000 1",
+                "Groceries 2018-01 deposit 1000 1"), monthly());
+    }
+
+    @Test
+    public void doesNotCountDeletedTransactionsAndCategories() throws Exception {
+        model.assignCategoryToTransaction(sessionID, 3, rent);
+        model.deleteTransaction(sessionID, 1);
+        assertEquals(Arrays.asList("Rent 2018-02 withdrawal 80000 1", "Groceries 2018-01 withdrawal 500 1"),
+                monthly());
+
+        model.deleteCategory(sessionID, rent);
+        assertEquals(Arrays.asList("Groceries 2018-01 withdrawal 500 1"), monthly());
+
+        // The transaction of the deleted Category is counted again once it is assigned to another Category
+        model.assignCategoryToTransaction(sessionID, 3, groceries);
+        assertEquals(Arrays.asList("Groceries 2018-02 withdrawal 80000 1", "Groceries 2018-01 withdrawal 500 1"),
+                monthly());
+    }
+
+    @Test
+    public void retrievesTheRequestedPeriodsOnly() throws Exception {
+        postWithdrawal("2019-03-01T12:00:00.000+0000", 200, groceries);
+        assertEquals(Arrays.asList("Groceries 2019-03 withdrawal 200 1"), statistics(false, "2019-01", "2019-12"));
+        assertEquals(Arrays.asList("Groceries 2019 withdrawal 200 1", "Groceries 2018 withdrawal 1500 2"),
+                statistics(true, "2018", "2019"));
+    }
+
+    /**
+     * Method used to create a withdrawal for the user of the test.
+     *
+     * @param date       The date of the withdrawal.
+     * @param amount     The amount in cents of the withdrawal.
+     * @param categoryID The categoryID of the Category of the withdrawal (0 if no Category).
+     */
+    private void postWithdrawal(String date, long amount, long categoryID) throws Exception {
+        model.postTransaction(sessionID, date, DateCodec.toMillis(date), amount, "Payment", IBAN, "withdrawal",
+                categoryID);
+    }
+
+    /**
+     * Method used to retrieve the monthly statistics of the user of the test in 2018.
+     *
+     * @return The statistics, formatted by describe.
+     */
+    private List<String> monthly() throws Exception {
+        return statistics(false, "2018-01", "2018-12");
+    }
+
+    /**
+     * Method used to retrieve the statistics of the user of the test.
+     *
+     * @param yearly Whether the statistics should be computed per year (true) or per month (false).
+     * @param from   The first period (inclusive) of which statistics are retrieved.
+     * @param to     The last period (inclusive) of which statistics are retrieved.
+     * @return The statistics, formatted by describe, in the order in which they are retrieved.
+     */
+    private List<String> statistics(boolean yearly, String from, String to) throws Exception {
+        List<String> statistics = new ArrayList<>();
+        for (CategoryStatistic statistic : model.getCategoryStatistics(sessionID, yearly, from, to)) {
+            statistics.add(describe(statistic));
+        }
+        return statistics;
+    }
+
+    /**
+     * Method used to format a CategoryStatistic, so that it can be compared in a single assertion.
+     *
+     * @param statistic The CategoryStatistic.
+     * @return The name of the Category, the period, the type, the total and the count of statistic.
+     */
+    static String describe(CategoryStatistic statistic) {
+        return statistic.getCategory().getName() + " " + statistic.getPeriod() + " " + statistic.getType() + " " +
+                statistic.getTotal() + " " + statistic.getCount();
+    }
+
+}
@@ -0,0 +1,117 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.analytics.CounterpartySketches;
+import nl.utwente.ing.model.bean.Counterparty;
+import nl.utwente.ing.model.storage.StorageEngine;
+import nl.utwente.ing.model.storage.StorageTransaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The PersistentModelCounterpartyTest class.
+ * Tests that the top counterparties of all users together do not disclose the IBANs of other users, and that a sketch
+ * seeded while transactions are being created includes every one of them.
+ *
+ * @author Daan Kooij
+ */
+public class PersistentModelCounterpartyTest {
+
+    private static final String IBAN = "NL39RABO0300065264";
+    private static final String OTHER_IBAN = "DE89370400440532013000";
+    private static final long START_MILLIS = 1521072000000L;
+    private static final int DEPOSITS = 200;
+
+    private File database;
+    private StorageEngine storageEngine;
+    private PersistentModel model;
+
+    @Before
+    public void setUp() throws IOException {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        storageEngine = new SQLiteStorageEngine();
+        model = new PersistentModel(storageEngine);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void masksTheIBANsOfAllUsersTogether() throws Exception {
+        String sessionID = model.getSession().getID();
+        String otherSessionID = model.getSession().getID();
+        postDeposit(sessionID, 0, IBAN, 300);
+        postDeposit(otherSessionID, 0, OTHER_IBAN, 500);
+
+        ArrayList<Counterparty> counterparties = model.getTopCounterparties(sessionID, true, true, 10);
+        assertEquals(2, counterparties.size());
+        assertEquals("DE89**************3000", counterparties.get(0).getExternalIBAN());
+        assertEquals(500, counterparties.get(0).getVolume());
+        assertEquals("NL39**********5264", counterparties.get(1).getExternalIBAN());
+
+        // The counterparties of the user itself are not masked
+        assertEquals(IBAN, model.getTopCounterparties(sessionID, false, true, 10).get(0).getExternalIBAN());
+    }
+
+    @Test(timeout = 30000)
+    public void seedsSketchesWithoutMissingConcurrentTransactions() throws Exception {
+        String sessionID = model.getSession().getID();
+        int userID;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            userID = storageEngine.getUserStore().getUserID(sessionID);
+        }
+        CounterpartySketches.invalidate(userID);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> deposits = executor.submit(() -> {
+            for (int i = 0; i < DEPOSITS; i++) {
+                postDeposit(sessionID, i, i % 2 == 0 ? IBAN : OTHER_IBAN, 100);
+            }
+            return null;
+        });
+        // Seed the sketch over and over again while the deposits are being created
+        while (!deposits.isDone()) {
+            CounterpartySketches.invalidate(userID);
+            model.getTopCounterparties(sessionID, false, false, 10);
+        }
+        deposits.get();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        ArrayList<Counterparty> estimated = model.getTopCounterparties(sessionID, false, false, 10);
+        assertEquals(2, estimated.size());
+        for (Counterparty counterparty : estimated) {
+            assertEquals(DEPOSITS / 2 * 100, counterparty.getVolume());
+        }
+    }
+
+    /**
+     * Method used to create a deposit for a certain user.
+     *
+     * @param sessionID    The sessionID of the user.
+     * @param minute       The number of minutes after START_MILLIS at which the deposit is made.
+     * @param externalIBAN The external IBAN of the deposit.
+     * @param amount       The amount in cents of the deposit.
+     */
+    private void postDeposit(String sessionID, int minute, String externalIBAN, long amount) throws Exception {
+        long dateMillis = START_MILLIS + minute * 60000L;
+        model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, amount, "Deposit", externalIBAN,
+                "deposit", 0);
+    }
+
+}
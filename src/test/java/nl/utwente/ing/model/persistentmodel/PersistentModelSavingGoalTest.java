@@ -0,0 +1,81 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.bean.Transaction;
+import nl.utwente.ing.model.bean.TransactionFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The PersistentModelSavingGoalTest class.
+ * Tests that PersistentModel saves money for saving goals at midnight in UTC on the first of every month that has
+ * passed, whatever the time zone of the system.
+ *
+ * @author Daan Kooij
+ */
+public class PersistentModelSavingGoalTest {
+
+    private static final String IBAN = "NL39RABO0300065264";
+
+    private File database;
+    private PersistentModel model;
+    private TimeZone originalTimeZone;
+
+    @Before
+    public void setUp() throws IOException {
+        originalTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        model = new PersistentModel(new SQLiteStorageEngine());
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+        TimeZone.setDefault(originalTimeZone);
+    }
+
+    @Test
+    public void savesOnTheFirstOfEveryPassedMonthInUtc() throws Exception {
+        String sessionID = model.getSession().getID();
+        postDeposit(sessionID, "2018-01-31T23:30:00.000+0000");
+        model.postSavingGoal(sessionID, "Holiday", 100000, 500, 0);
+
+        // Two months start between the deposits: February and March
+        postDeposit(sessionID, "2018-03-01T00:30:00.000+0000");
+
+        List<String> savingDates = new ArrayList<>();
+        for (Transaction transaction : model.getTransactions(sessionID, new TransactionFilter(), 10, 0)) {
+            if (transaction.getDescription().startsWith("Saving money for goal")) {
+                savingDates.add(transaction.getDate());
+            }
+        }
+        savingDates.sort(String::compareTo);
+        assertEquals(2, savingDates.size());
+        assertEquals("2018-02-01T00:00:00.000+0000", savingDates.get(0));
+        assertEquals("2018-03-01T00:00:00.000+0000", savingDates.get(1));
+        assertEquals(1000, model.getSavingGoals(sessionID).get(0).getBalance());
+    }
+
+    /**
+     * Method used to create a deposit of 10000 cents for a certain user.
+     *
+     * @param sessionID The sessionID of the user.
+     * @param date      The date of the deposit.
+     */
+    private void postDeposit(String sessionID, String date) throws Exception {
+        model.postTransaction(sessionID, date, DateCodec.toMillis(date), 10000, "Salary", IBAN, "deposit", 0);
+    }
+
+}
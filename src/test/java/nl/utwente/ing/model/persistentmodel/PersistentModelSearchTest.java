@@ -0,0 +1,123 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.bean.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The PersistentModelSearchTest class.
+ * Tests that the full-text index used by PersistentModel to search transactions by their description is kept in sync
+ * with the transactions when they are created, updated and deleted, and that a search only finds the transactions of
+ * the user searching.
+ *
+ * @author Daan Kooij
+ */
+public class PersistentModelSearchTest {
+
+    private static final String IBAN = "NL39RABO0300065264";
+    private static final long START_MILLIS = 1521072000000L;
+
+    private File database;
+    private PersistentModel model;
+    private String sessionID;
+    private int posted;
+
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        model = new PersistentModel(new SQLiteStorageEngine());
+        sessionID = model.getSession().getID();
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void findsCreatedTransactions() throws Exception {
+        postWithdrawal(sessionID, "Albert Heijn Enschede");
+        postWithdrawal(sessionID, "Jumbo Hengelo");
+
+        assertEquals(Arrays.asList(1L), search("albert"));
+        // Every word should occur, possibly as the prefix of a longer word, and diacritics are ignored
+        assertEquals(Arrays.asList(1L), search("Alb ENSCH"));
+        assertEquals(new ArrayList<Long>(), search("Albert Hengelo"));
+        assertEquals(Arrays.asList(2L), search("Jümbo"));
+        // Characters with a special meaning in FTS5 are matched literally
+        assertEquals(new ArrayList<Long>(), search("\"Albert OR Jumbo"));
+        assertEquals(new ArrayList<Long>(), search("   "));
+    }
+
+    @Test
+    public void findsUpdatedDescriptionsOnly() throws Exception {
+        postWithdrawal(sessionID, "Albert Heijn Enschede");
+        model.putTransaction(sessionID, 1, null, 0, 0, "Jumbo Hengelo", null, null, 0);
+
+        assertEquals(new ArrayList<Long>(), search("Albert"));
+        assertEquals(Arrays.asList(1L), search("Jumbo"));
+
+        // Updating other fields than the description keeps the transaction indexed
+        model.putTransaction(sessionID, 1, null, 0, 500, null, null, null, 0);
+        assertEquals(Arrays.asList(1L), search("Jumbo"));
+    }
+
+    @Test
+    public void doesNotFindDeletedTransactions() throws Exception {
+        postWithdrawal(sessionID, "Albert Heijn Enschede");
+        postWithdrawal(sessionID, "Albert Heijn Hengelo");
+        model.deleteTransaction(sessionID, 1);
+
+        assertEquals(Arrays.asList(2L), search("Albert"));
+    }
+
+    @Test
+    public void findsTheTransactionsOfTheSearchingUserOnly() throws Exception {
+        String otherSessionID = model.getSession().getID();
+        postWithdrawal(otherSessionID, "Albert Heijn Enschede");
+        postWithdrawal(sessionID, "Jumbo Hengelo");
+        postWithdrawal(sessionID, "Albert Heijn Hengelo");
+
+        // The transactions of both users have the same transactionIDs
+        assertEquals(Arrays.asList(2L), search("Albert"));
+        assertEquals(1, model.searchTransactions(otherSessionID, "Albert", 10, 0).size());
+    }
+
+    /**
+     * Method used to create a withdrawal of 100 cents for a certain user, a minute after the previously created one.
+     *
+     * @param sessionID   The sessionID of the user.
+     * @param description The description of the withdrawal.
+     */
+    private void postWithdrawal(String sessionID, String description) throws Exception {
+        long dateMillis = START_MILLIS + posted++ * 60000L;
+        model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, 100, description, IBAN,
+                "withdrawal", 0);
+    }
+
+    /**
+     * Method used to search the transactions of the user of the test.
+     *
+     * @param query The words to search for.
+     * @return The transactionIDs of the transactions found, the most relevant first.
+     */
+    private List<Long> search(String query) throws Exception {
+        List<Long> transactionIDs = new ArrayList<>();
+        for (Transaction transaction : model.searchTransactions(sessionID, query, 10, 0)) {
+            transactionIDs.add(transaction.getID());
+        }
+        return transactionIDs;
+    }
+
+}
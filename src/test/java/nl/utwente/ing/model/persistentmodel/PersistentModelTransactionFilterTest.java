@@ -0,0 +1,175 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.bean.Transaction;
+import nl.utwente.ing.model.bean.TransactionFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The PersistentModelTransactionFilterTest class.
+ * Tests that PersistentModel only retrieves the transactions of a user that match every criterion of a
+ * TransactionFilter that is set, ordered by date.
+ *
+ * @author Daan Kooij
+ */
+public class PersistentModelTransactionFilterTest {
+
+    private static final String IBAN = "NL39RABO0300065264";
+    private static final String OTHER_IBAN = "NL69INGB0123456789";
+    private static final long START_MILLIS = 1521072000000L;
+    private static final long DAY_MILLIS = 86400000L;
+
+    private File database;
+    private PersistentModel model;
+    private String sessionID;
+
+    @Before
+    public void setUp() throws Exception {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        model = new PersistentModel(new SQLiteStorageEngine());
+        sessionID = model.getSession().getID();
+
+        long groceries = model.postCategory(sessionID, "Groceries").getID();
+        long rent = model.postCategory(sessionID, "Rent").getID();
+        // Posted out of order, so that ordering by date differs from ordering by transactionID
+        postTransaction(3, 5000, "Supermarket", IBAN, "withdrawal", groceries);
+        postTransaction(0, 250000, "Salary", OTHER_IBAN, "deposit", 0);
+        postTransaction(1, 80000, "Landlord", IBAN, "withdrawal", rent);
+        postTransaction(2, 1500, "Bakery", OTHER_IBAN, "withdrawal", groceries);
+
+        // The transactions of another user are never retrieved
+        String otherSessionID = model.getSession().getID();
+        model.postCategory(otherSessionID, "Groceries");
+        model.postTransaction(otherSessionID, DateCodec.toDate(START_MILLIS), START_MILLIS, 5000, "Supermarket", IBAN,
+                "withdrawal", 1);
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test
+    public void retrievesAllTransactionsOrderedByDateWithoutCriteria() throws Exception {
+        assertEquals(Arrays.asList("Salary", "Landlord", "Bakery", "Supermarket"), filter(new TransactionFilter()));
+    }
+
+    @Test
+    public void filtersOnCategory() throws Exception {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setCategory("Groceries");
+        assertEquals(Arrays.asList("Bakery", "Supermarket"), filter(filter));
+        filter.setCategory("Holiday");
+        assertEquals(new ArrayList<String>(), filter(filter));
+    }
+
+    @Test
+    public void filtersOnDates() throws Exception {
+        TransactionFilter filter = new TransactionFilter();
+        // The start is inclusive and the end exclusive
+        filter.setFromMillis(START_MILLIS + DAY_MILLIS);
+        filter.setToMillis(START_MILLIS + 3 * DAY_MILLIS);
+        assertEquals(Arrays.asList("Landlord", "Bakery"), filter(filter));
+        filter.setToMillis(null);
+        assertEquals(Arrays.asList("Landlord", "Bakery", "Supermarket"), filter(filter));
+    }
+
+    @Test
+    public void filtersOnAmounts() throws Exception {
+        TransactionFilter filter = new TransactionFilter();
+        // Both bounds are inclusive
+        filter.setMinAmount(5000L);
+        filter.setMaxAmount(80000L);
+        assertEquals(Arrays.asList("Landlord", "Supermarket"), filter(filter));
+        filter.setMinAmount(null);
+        assertEquals(Arrays.asList("Landlord", "Bakery", "Supermarket"), filter(filter));
+    }
+
+    @Test
+    public void filtersOnTypeAndExternalIBAN() throws Exception {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setType("deposit");
+        assertEquals(Arrays.asList("Salary"), filter(filter));
+        filter.setType(null);
+        filter.setExternalIBAN(IBAN);
+        assertEquals(Arrays.asList("Landlord", "Supermarket"), filter(filter));
+    }
+
+    @Test
+    public void combinesCriteria() throws Exception {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setCategory("Groceries");
+        filter.setType("withdrawal");
+        filter.setExternalIBAN(OTHER_IBAN);
+        filter.setMaxAmount(2000L);
+        filter.setFromMillis(START_MILLIS);
+        List<Transaction> transactions = model.getTransactions(sessionID, filter, 10, 0);
+        assertEquals(1, transactions.size());
+        assertEquals("Bakery", transactions.get(0).getDescription());
+        // The Category of a matching transaction is retrieved as well
+        assertEquals("Groceries", transactions.get(0).getCategory().getName());
+
+        filter.setMinAmount(2000L);
+        assertEquals(new ArrayList<String>(), filter(filter));
+    }
+
+    @Test
+    public void appliesLimitAndOffsetAfterFiltering() throws Exception {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setType("withdrawal");
+        assertEquals(Arrays.asList("Bakery"), descriptionsOf(model.getTransactions(sessionID, filter, 1, 1)));
+    }
+
+    /**
+     * Method used to create a transaction for the user of the test.
+     *
+     * @param day          The number of days after START_MILLIS at which the transaction is made.
+     * @param amount       The amount in cents of the transaction.
+     * @param description  The description of the transaction.
+     * @param externalIBAN The external IBAN of the transaction.
+     * @param type         The type of the transaction.
+     * @param categoryID   The categoryID of the Category of the transaction (0 if no Category).
+     */
+    private void postTransaction(int day, long amount, String description, String externalIBAN, String type,
+                                 long categoryID) throws Exception {
+        long dateMillis = START_MILLIS + day * DAY_MILLIS;
+        model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, amount, description, externalIBAN,
+                type, categoryID);
+    }
+
+    /**
+     * Method used to retrieve the descriptions of the transactions of the user of the test that match a filter.
+     *
+     * @param filter The criteria the transactions should match.
+     * @return The descriptions of the matching transactions, in the order in which they are retrieved.
+     */
+    private List<String> filter(TransactionFilter filter) throws Exception {
+        return descriptionsOf(model.getTransactions(sessionID, filter, 10, 0));
+    }
+
+    /**
+     * Method used to retrieve the descriptions of a list of transactions.
+     *
+     * @param transactions The transactions.
+     * @return The descriptions of the transactions, in the same order.
+     */
+    private static List<String> descriptionsOf(List<Transaction> transactions) {
+        List<String> descriptions = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            descriptions.add(transaction.getDescription());
+        }
+        return descriptions;
+    }
+
+}
@@ -0,0 +1,260 @@
+package nl.utwente.ing.model.persistentmodel;
+
+import nl.utwente.ing.exception.ResourceNotFoundException;
+import nl.utwente.ing.model.DateCodec;
+import nl.utwente.ing.model.bean.Transaction;
+import nl.utwente.ing.model.bean.TransactionFilter;
+import nl.utwente.ing.model.event.EventSubscription;
+import nl.utwente.ing.model.storage.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The PersistentModelTransactionTest class.
+ * Tests that every operation of PersistentModel is executed in a transaction on the SQLite database: an operation
+ * that fails halfway leaves no changes behind and publishes nothing, also while operations on other users are being
+ * executed at the same time, and reading operations neither wait for a write in progress nor see its changes before
+ * they are committed.
+ *
+ * @author Daan Kooij
+ */
+public class PersistentModelTransactionTest {
+
+    private static final String FAILING_DESCRIPTION = "fail";
+    private static final String IBAN = "NL39RABO0300065264";
+    private static final long START_MILLIS = 1521072000000L;
+    private static final int OPERATIONS = 50;
+
+    private File database;
+    private StorageEngine storageEngine;
+    private PersistentModel model;
+
+    @Before
+    public void setUp() throws IOException {
+        database = File.createTempFile("ing-test", ".db");
+        DatabaseConnection.setUp(database.getPath());
+        storageEngine = new SQLiteStorageEngine();
+        model = new PersistentModel(failingAfterCreatingTransactions(storageEngine));
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseConnection.close();
+        database.delete();
+    }
+
+    @Test(timeout = 30000)
+    public void readsCommittedDataWhileAWriteIsInProgress() throws Exception {
+        String sessionID = model.getSession().getID();
+        postDeposit(sessionID, 0, "Salary");
+
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch committing = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> write = executor.submit(() -> {
+            try (StorageTransaction storageTransaction = storageEngine.beginTransaction()) {
+                int userID = storageEngine.getUserStore().getUserID(sessionID);
+                CategoryStore categoryStore = storageEngine.getCategoryStore();
+                categoryStore.createCategory(userID, categoryStore.allocateCategoryID(userID), "Groceries");
+                written.countDown();
+                committing.await();
+                storageTransaction.commit();
+            }
+            return null;
+        });
+        written.await();
+
+        // Reading while the write is in progress neither waits for it (which would time out) nor sees its changes
+        for (int i = 0; i < DatabaseConnection.READ_CONNECTIONS * 2; i++) {
+            assertTrue(model.getCategories(sessionID, 10, 0).isEmpty());
+            assertEquals("Salary", model.getTransaction(sessionID, 1).getDescription());
+        }
+
+        committing.countDown();
+        write.get();
+        executor.shutdown();
+        assertEquals(1, model.getCategories(sessionID, 10, 0).size());
+    }
+
+    @Test
+    public void rollsBackAFailingOperationWhileAnotherUserWrites() throws Exception {
+        String failingSessionID = model.getSession().getID();
+        String sessionID = model.getSession().getID();
+        int failingUserID;
+        int userID;
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            failingUserID = storageEngine.getUserStore().getUserID(failingSessionID);
+            userID = storageEngine.getUserStore().getUserID(sessionID);
+        }
+        String failingVersion = model.getVersion(failingSessionID);
+        EventSubscription subscription = model.subscribe(failingSessionID, () -> { });
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Integer> failures = executor.submit(() -> {
+            start.await();
+            int failed = 0;
+            for (int i = 0; i < OPERATIONS; i++) {
+                try {
+                    postDeposit(failingSessionID, i, FAILING_DESCRIPTION);
+                } catch (IllegalStateException e) {
+                    failed++;
+                }
+            }
+            return failed;
+        });
+        Future<?> successes = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < OPERATIONS; i++) {
+                postDeposit(sessionID, i, "Salary");
+            }
+            return null;
+        });
+        start.countDown();
+        assertEquals(OPERATIONS, (int) failures.get(30, TimeUnit.SECONDS));
+        successes.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        try (StorageTransaction storageTransaction = storageEngine.beginRead()) {
+            // Nothing of the failed operations was kept or published
+            assertTrue(storageEngine.getTransactionStore().getTransactions(failingUserID, OPERATIONS, 0).isEmpty());
+            assertEquals(0, storageEngine.getBalanceHistoryStore().getPreviousBalanceHistoryPointClose(failingUserID,
+                    Long.MAX_VALUE));
+            assertEquals(0, storageEngine.getUserStore().getCurrentTimeMillis(failingUserID));
+            assertEquals(failingVersion, model.getVersion(failingSessionID));
+            assertTrue(subscription.poll().isEmpty());
+
+            // All operations of the other user were kept
+            ArrayList<Transaction> transactions = storageEngine.getTransactionStore().getTransactions(userID,
+                    OPERATIONS + 1, 0);
+            assertEquals(OPERATIONS, transactions.size());
+            for (int i = 0; i < OPERATIONS; i++) {
+                assertEquals(i + 1, transactions.get(i).getID());
+            }
+            assertEquals(OPERATIONS * 100, storageEngine.getBalanceHistoryStore()
+                    .getPreviousBalanceHistoryPointClose(userID, Long.MAX_VALUE));
+        }
+
+        // The IDs allocated by the failed operations were rolled back as well
+        assertEquals(1, postDeposit(failingSessionID, 0, "Salary").getID());
+    }
+
+    @Test
+    public void rejectsANonExistentCategoryBeforeWriting() throws Exception {
+        String sessionID = model.getSession().getID();
+        Transaction transaction = postDeposit(sessionID, 0, "Salary");
+        String version = model.getVersion(sessionID);
+
+        long dateMillis = START_MILLIS + 60000L;
+        try {
+            model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, 100, "Rent", IBAN, "withdrawal",
+                    7);
+            fail();
+        } catch (ResourceNotFoundException e) {
+            // The transaction is not created
+        }
+        try {
+            model.putTransaction(sessionID, transaction.getID(), null, 0, 200, "Bonus", null, null, 7);
+            fail();
+        } catch (ResourceNotFoundException e) {
+            // The transaction is not updated
+        }
+
+        assertEquals(1, model.getTransactions(sessionID, new TransactionFilter(), 10, 0).size());
+        assertEquals("Salary", model.getTransaction(sessionID, transaction.getID()).getDescription());
+        assertEquals(version, model.getVersion(sessionID));
+    }
+
+    /**
+     * Method used to create a deposit of 100 cents for a certain user.
+     *
+     * @param sessionID   The sessionID of the user.
+     * @param minute      The number of minutes after START_MILLIS at which the deposit is made.
+     * @param description The description of the deposit.
+     * @return The created Transaction.
+     */
+    private Transaction postDeposit(String sessionID, int minute, String description) throws Exception {
+        long dateMillis = START_MILLIS + minute * 60000L;
+        return model.postTransaction(sessionID, DateCodec.toDate(dateMillis), dateMillis, 100, description, IBAN,
+                "deposit", 0);
+    }
+
+    /**
+     * Method used to wrap a StorageEngine, so that its TransactionStore throws an IllegalStateException right after
+     * creating a transaction with FAILING_DESCRIPTION as its description.
+     *
+     * @param storageEngine The StorageEngine.
+     * @return A StorageEngine using the stores of storageEngine.
+     */
+    private static StorageEngine failingAfterCreatingTransactions(StorageEngine storageEngine) {
+        TransactionStore transactionStore = storageEngine.getTransactionStore();
+        TransactionStore failingTransactionStore = (TransactionStore) Proxy.newProxyInstance(
+                TransactionStore.class.getClassLoader(), new Class<?>[]{TransactionStore.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(transactionStore, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("createTransaction") && FAILING_DESCRIPTION.equals(args[5])) {
+                        throw new IllegalStateException("Failing after creating the transaction");
+                    }
+                    return result;
+                });
+        return new StorageEngine() {
+            public StorageTransaction beginTransaction() {
+                return storageEngine.beginTransaction();
+            }
+
+            public StorageTransaction beginRead() {
+                return storageEngine.beginRead();
+            }
+
+            public TransactionStore getTransactionStore() {
+                return failingTransactionStore;
+            }
+
+            public CategoryStore getCategoryStore() {
+                return storageEngine.getCategoryStore();
+            }
+
+            public CategoryRuleStore getCategoryRuleStore() {
+                return storageEngine.getCategoryRuleStore();
+            }
+
+            public BalanceHistoryStore getBalanceHistoryStore() {
+                return storageEngine.getBalanceHistoryStore();
+            }
+
+            public UserStore getUserStore() {
+                return storageEngine.getUserStore();
+            }
+
+            public SavingGoalStore getSavingGoalStore() {
+                return storageEngine.getSavingGoalStore();
+            }
+
+            public PaymentRequestStore getPaymentRequestStore() {
+                return storageEngine.getPaymentRequestStore();
+            }
+        };
+    }
+
+}